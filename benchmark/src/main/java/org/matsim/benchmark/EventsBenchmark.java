@@ -0,0 +1,163 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.handler.ActivityEndEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonArrivalEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonDepartureEventHandler;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.algorithms.EventWriterXML;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.trafficmonitoring.TravelTimeCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Passes the events of one day on a grid network to typical consumers of events.  Each invocation handles all events.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventsBenchmark {
+
+	@Param({"2000"})
+	public int numberOfPersons;
+
+	private Scenario scenario;
+	private Event[] events;
+
+	@Setup
+	public void setup() {
+		this.scenario = SyntheticScenario.createScenario(50, this.numberOfPersons, 4711);
+		List<Event> eventsList = SyntheticScenario.createEvents(this.scenario);
+		this.events = eventsList.toArray(new Event[eventsList.size()]);
+	}
+
+	/**
+	 * EventsManagerImpl with handlers for different event types, as in a typical run.
+	 */
+	@Benchmark
+	public void eventsManagerDispatch(final Blackhole blackhole) {
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler(new CountingHandler(blackhole));
+		eventsManager.addHandler(new CountingHandler(blackhole));
+		eventsManager.addHandler((BasicEventHandler) blackhole::consume);
+		eventsManager.initProcessing();
+		for (Event event : this.events) {
+			eventsManager.processEvent(event);
+		}
+		eventsManager.finishProcessing();
+	}
+
+	@Benchmark
+	public void eventWriterXML() {
+		EventWriterXML writer = new EventWriterXML(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		}));
+		for (Event event : this.events) {
+			writer.handleEvent(event);
+		}
+		writer.closeFile();
+	}
+
+	@Benchmark
+	public TravelTimeCalculator travelTimeCalculator() {
+		TravelTimeCalculator calculator = TravelTimeCalculator.create(this.scenario.getNetwork(), new TravelTimeCalculatorConfigGroup());
+		EventsManager eventsManager = EventsUtils.createEventsManager();
+		eventsManager.addHandler(calculator);
+		for (Event event : this.events) {
+			eventsManager.processEvent(event);
+		}
+		return calculator;
+	}
+
+	private static class CountingHandler implements LinkEnterEventHandler, LinkLeaveEventHandler, PersonDepartureEventHandler,
+			PersonArrivalEventHandler, ActivityEndEventHandler {
+
+		private final Blackhole blackhole;
+
+		CountingHandler(final Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void handleEvent(final LinkEnterEvent event) {
+			this.blackhole.consume(event.getLinkId());
+		}
+
+		@Override
+		public void handleEvent(final LinkLeaveEvent event) {
+			this.blackhole.consume(event.getLinkId());
+		}
+
+		@Override
+		public void handleEvent(final PersonDepartureEvent event) {
+			this.blackhole.consume(event.getPersonId());
+		}
+
+		@Override
+		public void handleEvent(final PersonArrivalEvent event) {
+			this.blackhole.consume(event.getPersonId());
+		}
+
+		@Override
+		public void handleEvent(final ActivityEndEvent event) {
+			this.blackhole.consume(event.getPersonId());
+		}
+
+	}
+
+}
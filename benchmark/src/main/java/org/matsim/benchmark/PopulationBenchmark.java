@@ -0,0 +1,104 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.core.population.io.PopulationReader;
+import org.matsim.core.population.io.PopulationWriter;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.core.scoring.ScoringFunction;
+import org.matsim.core.scoring.ScoringFunctionFactory;
+import org.matsim.core.scoring.functions.CharyparNagelScoringFunctionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reading and scoring a population with routed car plans.  Each invocation handles the whole population.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopulationBenchmark {
+
+	@Param({"2000"})
+	public int numberOfPersons;
+
+	private Scenario scenario;
+	private byte[] populationXml;
+	private ScoringFunctionFactory scoringFunctionFactory;
+
+	@Setup
+	public void setup() {
+		this.scenario = SyntheticScenario.createScenario(50, this.numberOfPersons, 4711);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new PopulationWriter(this.scenario.getPopulation(), this.scenario.getNetwork()).write(out);
+		this.populationXml = out.toByteArray();
+		this.scoringFunctionFactory = new CharyparNagelScoringFunctionFactory(this.scenario);
+	}
+
+	/**
+	 * Parses the population in the current file format, i.e. with PopulationReaderMatsimV6.
+	 */
+	@Benchmark
+	public Scenario readPopulation() {
+		Scenario scenario = ScenarioUtils.createScenario(this.scenario.getConfig());
+		new PopulationReader(scenario).parse(new ByteArrayInputStream(this.populationXml));
+		return scenario;
+	}
+
+	@Benchmark
+	public void scoreCharyparNagel(final Blackhole blackhole) {
+		for (Person person : this.scenario.getPopulation().getPersons().values()) {
+			ScoringFunction scoringFunction = this.scoringFunctionFactory.createNewScoringFunction(person);
+			for (PlanElement pe : person.getSelectedPlan().getPlanElements()) {
+				if (pe instanceof Activity) {
+					scoringFunction.handleActivity((Activity) pe);
+				} else {
+					scoringFunction.handleLeg((Leg) pe);
+				}
+			}
+			scoringFunction.finish();
+			blackhole.consume(scoringFunction.getScore());
+		}
+	}
+
+}
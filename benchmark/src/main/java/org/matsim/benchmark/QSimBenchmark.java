@@ -0,0 +1,82 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.QSimUtils2;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One day of car traffic on a grid network in the QSim, without event handlers.  Most of the time is spent in
+ * moving the vehicles over the nodes and along the links, i.e. in QNodeImpl.moveNode and QueueWithBuffer.moveLane,
+ * which cannot be called outside of a running QSim.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class QSimBenchmark {
+
+	@Param({"10000"})
+	public int numberOfPersons;
+
+	@Param({"4", "1"})
+	public int numberOfThreads;
+
+	private Scenario scenario;
+	private QSim qsim;
+
+	@Setup(Level.Trial)
+	public void createScenario() {
+		this.scenario = SyntheticScenario.createScenario(100, this.numberOfPersons, 4711);
+		this.scenario.getConfig().qsim().setNumberOfThreads(this.numberOfThreads);
+	}
+
+	@Setup(Level.Iteration)
+	public void createQSim() {
+		EventsManager events = EventsUtils.createEventsManager();
+		this.qsim = QSimUtils2.createDefaultQSim(this.scenario, events);
+	}
+
+	@Benchmark
+	public void run() {
+		this.qsim.run();
+	}
+
+}
@@ -0,0 +1,98 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+
+package org.matsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.router.DijkstraFactory;
+import org.matsim.core.router.FastAStarLandmarksFactory;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Least cost path queries between random node pairs of a grid network.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+
+	public enum Algorithm { dijkstra, fastAStarLandmarks }
+
+	@Param({"50", "200"})
+	public int gridSize;
+
+	@Param
+	public Algorithm algorithm;
+
+	private static final int NUMBER_OF_QUERIES = 1024;
+
+	private LeastCostPathCalculator router;
+	private Node[] fromNodes;
+	private Node[] toNodes;
+	private int query = 0;
+
+	@Setup
+	public void setup() {
+		Network network = SyntheticScenario.createGridNetwork(this.gridSize);
+		FreespeedTravelTimeAndDisutility travelTime = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		LeastCostPathCalculatorFactory factory = this.algorithm == Algorithm.dijkstra ? new DijkstraFactory() : new FastAStarLandmarksFactory();
+		this.router = factory.createPathCalculator(network, travelTime, travelTime);
+
+		List<Node> nodes = new ArrayList<>(network.getNodes().values());
+		Random random = new Random(4711);
+		this.fromNodes = new Node[NUMBER_OF_QUERIES];
+		this.toNodes = new Node[NUMBER_OF_QUERIES];
+		for (int i = 0; i < NUMBER_OF_QUERIES; i++) {
+			this.fromNodes[i] = nodes.get(random.nextInt(nodes.size()));
+			this.toNodes[i] = nodes.get(random.nextInt(nodes.size()));
+		}
+	}
+
+	@Benchmark
+	public Path calcLeastCostPath() {
+		int i = this.query++ & (NUMBER_OF_QUERIES - 1);
+		return this.router.calcLeastCostPath(this.fromNodes[i], this.toNodes[i], 8 * 3600, null, null);
+	}
+
+}
@@ -0,0 +1,230 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.benchmark;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PlanElement;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup.ActivityParams;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.routes.NetworkRoute;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.router.DijkstraFactory;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Creates scenarios of any size for the benchmarks, so they do not depend on input files: a square grid network
+ * with links in both directions, and persons with a home-work-home plan by car whose routes are already computed.
+ * The same arguments always result in the same scenario.
+ */
+public final class SyntheticScenario {
+
+	private static final double LINK_LENGTH = 500.0;
+
+	private SyntheticScenario() {
+	}
+
+	public static Config createConfig() {
+		Config config = ConfigUtils.createConfig();
+		ActivityParams home = new ActivityParams("home");
+		home.setTypicalDuration(12 * 3600);
+		config.planCalcScore().addActivityParams(home);
+		ActivityParams work = new ActivityParams("work");
+		work.setTypicalDuration(8 * 3600);
+		work.setOpeningTime(7 * 3600);
+		work.setClosingTime(18 * 3600);
+		config.planCalcScore().addActivityParams(work);
+		config.qsim().setEndTime(30 * 3600);
+		return config;
+	}
+
+	/**
+	 * @param gridSize the number of nodes per side of the grid.
+	 */
+	public static Network createGridNetwork(final int gridSize) {
+		Network network = NetworkUtils.createNetwork();
+		createGridNetwork(network, gridSize);
+		return network;
+	}
+
+	private static void createGridNetwork(final Network network, final int gridSize) {
+		Node[][] nodes = new Node[gridSize][gridSize];
+		for (int x = 0; x < gridSize; x++) {
+			for (int y = 0; y < gridSize; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * LINK_LENGTH, y * LINK_LENGTH));
+			}
+		}
+		for (int x = 0; x < gridSize; x++) {
+			for (int y = 0; y < gridSize; y++) {
+				if (x + 1 < gridSize) {
+					addLinks(network, nodes[x][y], nodes[x + 1][y]);
+				}
+				if (y + 1 < gridSize) {
+					addLinks(network, nodes[x][y], nodes[x][y + 1]);
+				}
+			}
+		}
+	}
+
+	private static void addLinks(final Network network, final Node a, final Node b) {
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(a.getId() + "-" + b.getId()), a, b, LINK_LENGTH, 13.9, 1800, 1);
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(b.getId() + "-" + a.getId()), b, a, LINK_LENGTH, 13.9, 1800, 1);
+	}
+
+	/**
+	 * @param gridSize the number of nodes per side of the grid.
+	 * @param numberOfPersons the number of persons, each with one routed home-work-home plan.
+	 */
+	public static Scenario createScenario(final int gridSize, final int numberOfPersons, final long seed) {
+		Scenario scenario = ScenarioUtils.createScenario(createConfig());
+		Network network = scenario.getNetwork();
+		createGridNetwork(network, gridSize);
+
+		Random random = new Random(seed);
+		List<Link> links = new ArrayList<>(network.getLinks().values());
+		FreespeedTravelTimeAndDisutility travelTime = new FreespeedTravelTimeAndDisutility(scenario.getConfig().planCalcScore());
+		LeastCostPathCalculator router = new DijkstraFactory().createPathCalculator(network, travelTime, travelTime);
+
+		Population population = scenario.getPopulation();
+		PopulationFactory factory = population.getFactory();
+		for (int i = 0; i < numberOfPersons; i++) {
+			Link homeLink = links.get(random.nextInt(links.size()));
+			Link workLink = links.get(random.nextInt(links.size()));
+			double departure = 6 * 3600 + random.nextInt(3 * 3600);
+
+			Person person = factory.createPerson(Id.createPersonId(i));
+			Plan plan = factory.createPlan();
+			Activity home = factory.createActivityFromLinkId("home", homeLink.getId());
+			home.setCoord(homeLink.getCoord());
+			home.setEndTime(departure);
+			plan.addActivity(home);
+			Leg toWork = createLeg(factory, router, homeLink, workLink, departure);
+			plan.addLeg(toWork);
+			Activity work = factory.createActivityFromLinkId("work", workLink.getId());
+			work.setCoord(workLink.getCoord());
+			work.setStartTime(departure + toWork.getTravelTime());
+			work.setEndTime(departure + 9 * 3600);
+			plan.addActivity(work);
+			Leg toHome = createLeg(factory, router, workLink, homeLink, work.getEndTime());
+			plan.addLeg(toHome);
+			Activity home2 = factory.createActivityFromLinkId("home", homeLink.getId());
+			home2.setCoord(homeLink.getCoord());
+			home2.setStartTime(work.getEndTime() + toHome.getTravelTime());
+			plan.addActivity(home2);
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+		return scenario;
+	}
+
+	private static Leg createLeg(final PopulationFactory factory, final LeastCostPathCalculator router, final Link fromLink, final Link toLink, final double departure) {
+		Leg leg = factory.createLeg(TransportMode.car);
+		leg.setDepartureTime(departure);
+		Path path = router.calcLeastCostPath(fromLink.getToNode(), toLink.getFromNode(), departure, null, null);
+		List<Id<Link>> linkIds = new ArrayList<>();
+		for (Link link : path.links) {
+			linkIds.add(link.getId());
+		}
+		NetworkRoute route = RouteUtils.createLinkNetworkRouteImpl(fromLink.getId(), linkIds, toLink.getId());
+		route.setTravelTime(path.travelTime);
+		route.setDistance(RouteUtils.calcDistance(path));
+		leg.setRoute(route);
+		leg.setTravelTime(path.travelTime);
+		return leg;
+	}
+
+	/**
+	 * @return the events of all persons driving their plans at free speed, sorted by time, like a mobsim would create
+	 * them on an empty network.
+	 */
+	public static List<Event> createEvents(final Scenario scenario) {
+		List<Event> events = new ArrayList<>();
+		Network network = scenario.getNetwork();
+		for (Person person : scenario.getPopulation().getPersons().values()) {
+			Id<Person> personId = person.getId();
+			Id<Vehicle> vehicleId = Id.createVehicleId(personId);
+			double time = 0;
+			for (PlanElement pe : person.getSelectedPlan().getPlanElements()) {
+				if (pe instanceof Activity) {
+					Activity act = (Activity) pe;
+					if (time > 0) {
+						events.add(new ActivityStartEvent(time, personId, act.getLinkId(), null, act.getType()));
+					}
+					if (act.getEndTime() >= 0 && act.getEndTime() < Double.POSITIVE_INFINITY) {
+						time = act.getEndTime();
+						events.add(new ActivityEndEvent(time, personId, act.getLinkId(), null, act.getType()));
+					}
+				} else {
+					Leg leg = (Leg) pe;
+					NetworkRoute route = (NetworkRoute) leg.getRoute();
+					events.add(new PersonDepartureEvent(time, personId, route.getStartLinkId(), leg.getMode()));
+					events.add(new VehicleEntersTrafficEvent(time, personId, route.getStartLinkId(), vehicleId, leg.getMode(), 1.0));
+					Id<Link> previousLinkId = route.getStartLinkId();
+					List<Id<Link>> linkIds = new ArrayList<>(route.getLinkIds());
+					linkIds.add(route.getEndLinkId());
+					for (Id<Link> linkId : linkIds) {
+						events.add(new LinkLeaveEvent(time, vehicleId, previousLinkId));
+						events.add(new LinkEnterEvent(time, vehicleId, linkId));
+						Link link = network.getLinks().get(linkId);
+						time += Math.ceil(link.getLength() / link.getFreespeed());
+						previousLinkId = linkId;
+					}
+					events.add(new VehicleLeavesTrafficEvent(time, personId, route.getEndLinkId(), vehicleId, leg.getMode(), 1.0));
+					events.add(new PersonArrivalEvent(time, personId, route.getEndLinkId(), leg.getMode()));
+				}
+			}
+		}
+		// stable, so the events of each person stay in order
+		events.sort(Comparator.comparingDouble(Event::getTime));
+		return events;
+	}
+
+}
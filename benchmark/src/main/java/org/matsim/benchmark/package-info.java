@@ -0,0 +1,12 @@
+/**
+ * Benchmarks for MATSim.
+ * <br>
+ * {@link org.matsim.benchmark.Benchmark} runs the whole Controler on the benchmark scenario and is the main class of
+ * the jar.  The other classes are JMH micro-benchmarks of single hot paths on synthetic scenarios created by
+ * {@link org.matsim.benchmark.SyntheticScenario}, so their results can be compared between versions.  Run them with
+ * <pre>
+ * java -cp matsim-benchmark-&lt;version&gt;.jar:libs/* org.openjdk.jmh.Main [regexp of benchmarks] [JMH options]
+ * </pre>
+ * e.g. <code>org.openjdk.jmh.Main RoutingBenchmark -p gridSize=100</code>.
+ */
+package org.matsim.benchmark;
@@ -20,6 +20,8 @@
 
 package org.matsim.api.core.v01;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -36,11 +38,16 @@ import org.matsim.vehicles.Vehicle;
  * Note that Ids should not contain any whitespace characters (spaces, tabs, newlines, ...), 
  * as this may lead to problems when Ids are written to file and read back in.
  * 
+ * Every Id additionally carries an {@link #index()}, which is unique per type and dense, i.e. the Ids of one type
+ * are numbered 0, 1, 2, ... in the order of their creation.  This allows to store data per Id in arrays instead
+ * of hash maps, see {@link IdMap} and {@link IdSet}.
+ * 
  *  @author mrieser / Senozon AG
  */
 public abstract class Id<T> implements Comparable<Id<T>> {
 
 	private final static Map<Class<?>, Map<String, Id<?>>> cache = new ConcurrentHashMap<Class<?>, Map<String, Id<?>>>();
+	private final static Map<Class<?>, List<Id<?>>> cacheByIndex = new ConcurrentHashMap<Class<?>, List<Id<?>>>();
 	
 	
 	public static <T> Id<T> create(final long key, final Class<T> type) {
@@ -58,20 +65,77 @@ public abstract class Id<T> implements Comparable<Id<T>> {
 	 * This method supports a cache where ids are stored and re-used per type.   
 	 */
 	public static <T> Id<T> create(final String key, final Class<T> type) {
-		Map<String, Id<?>> map = cache.get(type);
-		if (map == null) {
-			map = new ConcurrentHashMap<String, Id<?>>();
-			cache.put(type, map);
-		}
+		Map<String, Id<?>> map = cache.computeIfAbsent(type, k -> new ConcurrentHashMap<String, Id<?>>());
 		Gbl.assertNotNull(key);
 		Id<?> id = map.get(key);
 		if (id == null) {
-			id = new IdImpl<T>(key);
-			map.put(key, id);
+			// the index must be unique per type, so new ids of the same type are created one after the other
+			synchronized (map) {
+				id = map.get(key);
+				if (id == null) {
+					List<Id<?>> ids = cacheByIndex.computeIfAbsent(type, k -> new ArrayList<Id<?>>());
+					id = new IdImpl<T>(key, ids.size());
+					ids.add(id);
+					map.put(key, id);
+				}
+			}
 		}
 		
-		return (Id<T>) id;
+		// the cache of each type only holds ids created with that type
+		@SuppressWarnings("unchecked")
+		Id<T> typedId = (Id<T>) id;
+		return typedId;
+	}
+
+	/**
+	 * @return the Id of the given type with the given {@link #index()}.
+	 * @throws IndexOutOfBoundsException if there is no such Id (yet)
+	 */
+	public static <T> Id<T> get(final int index, final Class<T> type) {
+		Map<String, Id<?>> map = cache.computeIfAbsent(type, k -> new ConcurrentHashMap<String, Id<?>>());
+		synchronized (map) {
+			List<Id<?>> ids = cacheByIndex.get(type);
+			if (ids == null) {
+				throw new IndexOutOfBoundsException("There are no ids of type " + type.getName());
+			}
+			@SuppressWarnings("unchecked")
+			Id<T> id = (Id<T>) ids.get(index);
+			return id;
+		}
+	}
+
+	/**
+	 * @return whether the id was created with the given type.  Only needed where ids of several types can be mixed up
+	 * at run time, e.g. in {@link IdMap} and {@link IdSet}, since the generic type is erased.
+	 */
+	/*package*/ static boolean isOfType(final Id<?> id, final Class<?> type) {
+		Map<String, Id<?>> map = cache.get(type);
+		if (map == null) {
+			return false;
+		}
+		synchronized (map) {
+			List<Id<?>> ids = cacheByIndex.get(type);
+			// ids are unique per type and index, so comparing the instances is enough
+			return ids != null && id.index() < ids.size() && ids.get(id.index()) == id;
+		}
+	}
+
+	/**
+	 * @return the number of Ids of the given type created so far.  All these Ids have an {@link #index()} smaller
+	 * than this number.
+	 */
+	public static int getNumberOfIds(final Class<?> type) {
+		Map<String, Id<?>> map = cache.computeIfAbsent(type, k -> new ConcurrentHashMap<String, Id<?>>());
+		synchronized (map) {
+			List<Id<?>> ids = cacheByIndex.get(type);
+			return ids == null ? 0 : ids.size();
+		}
 	}
+
+	/**
+	 * @return a number that is unique among all Ids of the same type, starting at 0 and without gaps.
+	 */
+	public abstract int index();
 	
 	/**
 	 * @return <code>0</code> when the two objects being compared are the same objects, other values according to their ids being compared to each other.
@@ -113,9 +177,16 @@ public abstract class Id<T> implements Comparable<Id<T>> {
 	private static class IdImpl<T> extends Id<T> {
 
 		private final String id; 
+		private final int index;
 		
-		/*package*/ IdImpl(final String id) {
+		/*package*/ IdImpl(final String id, final int index) {
 			this.id = id;
+			this.index = index;
+		}
+
+		@Override
+		public int index() {
+			return this.index;
 		}
 
 		@Override
@@ -0,0 +1,271 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * IdMap.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.api.core.v01;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map with {@link Id}s as keys, storing the values in an array indexed by {@link Id#index()}.  Lookups are plain
+ * array accesses instead of hashing the id's string.  Iteration is in the order of the ids' indices, i.e. in the
+ * order the ids were created.
+ * <p></p>
+ * The keys must be ids of type <code>T</code>; ids of another type are not found (and cannot be added), even if
+ * they have the same string representation.  The map allows <code>null</code> values, but no <code>null</code>
+ * keys.  As {@link java.util.HashMap}, it is not thread-safe.
+ *
+ * @param <T> the type of the ids
+ * @param <V> the type of the values
+ */
+public final class IdMap<T, V> extends AbstractMap<Id<T>, V> {
+
+	private final Class<T> idClass;
+	private Id<?>[] keys;
+	private Object[] values;
+	private int size = 0;
+	private int modCount = 0;
+
+	public IdMap(Class<T> idClass) {
+		this(idClass, Math.max(Id.getNumberOfIds(idClass), 16));
+	}
+
+	public IdMap(Class<T> idClass, int initialCapacity) {
+		this.idClass = idClass;
+		this.keys = new Id<?>[initialCapacity];
+		this.values = new Object[initialCapacity];
+	}
+
+	public Class<T> getIdClass() {
+		return this.idClass;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		int index = indexOf(key);
+		return index < 0 ? null : (V) this.values[index];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V put(Id<T> key, V value) {
+		int index = key.index();
+		ensureCapacity(index + 1);
+		Id<?> existing = this.keys[index];
+		// the ids are cached per type, so a key of this type is the very instance stored at its index
+		if (existing != key && (existing != null || !Id.isOfType(key, this.idClass))) {
+			throw new IllegalArgumentException("Id " + key + " is not of type " + this.idClass.getName());
+		}
+		V oldValue = (V) this.values[index];
+		if (existing == null) {
+			this.keys[index] = key;
+			this.size++;
+			this.modCount++;
+		}
+		this.values[index] = value;
+		return oldValue;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+		int index = indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		V oldValue = (V) this.values[index];
+		this.keys[index] = null;
+		this.values[index] = null;
+		this.size--;
+		this.modCount++;
+		return oldValue;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.keys, null);
+		Arrays.fill(this.values, null);
+		this.size = 0;
+		this.modCount++;
+	}
+
+	@Override
+	public Set<Map.Entry<Id<T>, V>> entrySet() {
+		return new EntrySet();
+	}
+
+	private int indexOf(Object key) {
+		if (!(key instanceof Id)) {
+			return -1;
+		}
+		int index = ((Id<?>) key).index();
+		if (index >= this.keys.length) {
+			return -1;
+		}
+		if (this.keys[index] != key) {
+			return -1;
+		}
+		return index;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > this.keys.length) {
+			int newCapacity = Math.max(capacity, this.keys.length + (this.keys.length >> 1) + 1);
+			this.keys = Arrays.copyOf(this.keys, newCapacity);
+			this.values = Arrays.copyOf(this.values, newCapacity);
+		}
+	}
+
+	private final class EntrySet extends AbstractSet<Map.Entry<Id<T>, V>> {
+
+		@Override
+		public Iterator<Map.Entry<Id<T>, V>> iterator() {
+			return new EntryIterator();
+		}
+
+		@Override
+		public int size() {
+			return IdMap.this.size;
+		}
+
+		@Override
+		public void clear() {
+			IdMap.this.clear();
+		}
+	}
+
+	private final class EntryIterator implements Iterator<Map.Entry<Id<T>, V>> {
+
+		private int expectedModCount = IdMap.this.modCount;
+		private int nextIndex = findNext(0);
+		private int lastIndex = -1;
+
+		private int findNext(int start) {
+			int index = start;
+			while (index < IdMap.this.keys.length && IdMap.this.keys[index] == null) {
+				index++;
+			}
+			return index;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.nextIndex < IdMap.this.keys.length;
+		}
+
+		@Override
+		public Map.Entry<Id<T>, V> next() {
+			if (IdMap.this.modCount != this.expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.lastIndex = this.nextIndex;
+			this.nextIndex = findNext(this.nextIndex + 1);
+			return new Entry(this.lastIndex);
+		}
+
+		@Override
+		public void remove() {
+			if (this.lastIndex < 0) {
+				throw new IllegalStateException();
+			}
+			if (IdMap.this.modCount != this.expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			IdMap.this.remove(IdMap.this.keys[this.lastIndex]);
+			this.expectedModCount = IdMap.this.modCount;
+			this.lastIndex = -1;
+		}
+	}
+
+	private final class Entry implements Map.Entry<Id<T>, V> {
+
+		private final int index;
+
+		Entry(int index) {
+			this.index = index;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Id<T> getKey() {
+			return (Id<T>) IdMap.this.keys[this.index];
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public V getValue() {
+			return (V) IdMap.this.values[this.index];
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public V setValue(V value) {
+			V oldValue = (V) IdMap.this.values[this.index];
+			IdMap.this.values[this.index] = value;
+			return oldValue;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Map.Entry)) {
+				return false;
+			}
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			Object value = getValue();
+			return getKey().equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+		}
+
+		@Override
+		public int hashCode() {
+			Object value = getValue();
+			return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+}
@@ -0,0 +1,175 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * IdSet.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.api.core.v01;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of {@link Id}s, storing the ids in an array indexed by {@link Id#index()}.  See {@link IdMap} for the
+ * restrictions that apply.
+ *
+ * @param <T> the type of the ids
+ */
+public final class IdSet<T> extends AbstractSet<Id<T>> {
+
+	private final Class<T> idClass;
+	private Id<?>[] elements;
+	private int size = 0;
+	private int modCount = 0;
+
+	public IdSet(Class<T> idClass) {
+		this(idClass, Math.max(Id.getNumberOfIds(idClass), 16));
+	}
+
+	public IdSet(Class<T> idClass, int initialCapacity) {
+		this.idClass = idClass;
+		this.elements = new Id<?>[initialCapacity];
+	}
+
+	public Class<T> getIdClass() {
+		return this.idClass;
+	}
+
+	@Override
+	public int size() {
+		return this.size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	@Override
+	public boolean add(Id<T> id) {
+		int index = id.index();
+		if (index >= this.elements.length) {
+			int newCapacity = Math.max(index + 1, this.elements.length + (this.elements.length >> 1) + 1);
+			this.elements = Arrays.copyOf(this.elements, newCapacity);
+		}
+		Id<?> existing = this.elements[index];
+		if (existing == id) {
+			return false;
+		}
+		// the ids are cached per type, so an id of this type is the very instance stored at its index
+		if (existing != null || !Id.isOfType(id, this.idClass)) {
+			throw new IllegalArgumentException("Id " + id + " is not of type " + this.idClass.getName());
+		}
+		this.elements[index] = id;
+		this.size++;
+		this.modCount++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int index = indexOf(o);
+		if (index < 0) {
+			return false;
+		}
+		this.elements[index] = null;
+		this.size--;
+		this.modCount++;
+		return true;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(this.elements, null);
+		this.size = 0;
+		this.modCount++;
+	}
+
+	@Override
+	public Iterator<Id<T>> iterator() {
+		return new IdIterator();
+	}
+
+	private int indexOf(Object o) {
+		if (!(o instanceof Id)) {
+			return -1;
+		}
+		int index = ((Id<?>) o).index();
+		if (index >= this.elements.length) {
+			return -1;
+		}
+		if (this.elements[index] != o) {
+			return -1;
+		}
+		return index;
+	}
+
+	private final class IdIterator implements Iterator<Id<T>> {
+
+		private int expectedModCount = IdSet.this.modCount;
+		private int nextIndex = findNext(0);
+		private int lastIndex = -1;
+
+		private int findNext(int start) {
+			int index = start;
+			while (index < IdSet.this.elements.length && IdSet.this.elements[index] == null) {
+				index++;
+			}
+			return index;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.nextIndex < IdSet.this.elements.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Id<T> next() {
+			if (IdSet.this.modCount != this.expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.lastIndex = this.nextIndex;
+			this.nextIndex = findNext(this.nextIndex + 1);
+			return (Id<T>) IdSet.this.elements[this.lastIndex];
+		}
+
+		@Override
+		public void remove() {
+			if (this.lastIndex < 0) {
+				throw new IllegalStateException();
+			}
+			if (IdSet.this.modCount != this.expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			IdSet.this.remove(IdSet.this.elements[this.lastIndex]);
+			this.expectedModCount = IdSet.this.modCount;
+			this.lastIndex = -1;
+		}
+	}
+}
@@ -53,6 +53,8 @@ public final class ConfigConsistencyCheckerImpl implements ConfigConsistencyChec
 		ConfigConsistencyCheckerImpl.checkLaneDefinitionRoutingConfiguration(config);
 		ConfigConsistencyCheckerImpl.checkPlanCalcScore(config);
 		ConfigConsistencyCheckerImpl.checkTransit(config);
+		ConfigConsistencyCheckerImpl.checkRouteCache(config);
+		ConfigConsistencyCheckerImpl.checkRoutingRandomness(config);
 	}
 
 	/*package*/ static void checkPlanCalcScore(final Config c) {
@@ -156,6 +158,25 @@ public final class ConfigConsistencyCheckerImpl implements ConfigConsistencyChec
 		}
 	}
 
+	/*package*/ static void checkRouteCache(final Config config) {
+		if (config.controler().getRouteCacheSize() > 0 && config.plansCalcRoute().getRoutingRandomness() != 0.0) {
+			log.warn("The route cache is enabled, but routingRandomness is not 0. The cached route is the one found for the first person, " +
+					"so if the travel disutility is randomized per person, all agents with the same origin, destination and time bin get the " +
+					"route of the first one. Set routingRandomness to 0 or disable the route cache if the travel disutility depends on the person.");
+		}
+	}
+
+	/*package*/ static void checkRoutingRandomness(final Config config) {
+		RoutingAlgorithmType routingAlgorithmType = config.controler().getRoutingAlgorithmType();
+		boolean personIndependent = routingAlgorithmType == RoutingAlgorithmType.ContractionHierarchies
+				|| routingAlgorithmType == RoutingAlgorithmType.CustomizableRoutePlanning;
+		if (personIndependent && config.plansCalcRoute().getRoutingRandomness() != 0.0) {
+			throw new IllegalStateException("The routingAlgorithmType " + routingAlgorithmType + " preprocesses the network with the travel " +
+					"disutilities of the links without a person, but routingRandomness is not 0, so the travel disutility is drawn per person. " +
+					"Set routingRandomness to 0 or use another routingAlgorithmType.");
+		}
+	}
+
 	private static void checkTransit(final Config config) {
 		if ( config.transit().isUseTransit() && config.transit().getVehiclesFile()==null ) {
 			log.warn("Your are using Transit but have not provided a transit vehicles file. This most likely won't work.");
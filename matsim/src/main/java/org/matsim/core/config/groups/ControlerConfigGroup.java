@@ -37,9 +37,9 @@ import org.matsim.core.utils.misc.StringUtils;
 public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private static final Logger log = Logger.getLogger( ControlerConfigGroup.class );
 
-	public enum RoutingAlgorithmType {Dijkstra, AStarLandmarks, FastDijkstra, FastAStarLandmarks}
+	public enum RoutingAlgorithmType {Dijkstra, AStarLandmarks, FastDijkstra, FastAStarLandmarks, ContractionHierarchies, CustomizableRoutePlanning, CsrDijkstra, CsrAStarLandmarks, BidirectionalAStarLandmarks}
 
-	public enum EventsFileFormat {xml}
+	public enum EventsFileFormat {xml, binary}
 
 	public static final String GROUP_NAME = "controler";
 
@@ -47,6 +47,8 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private static final String FIRST_ITERATION = "firstIteration";
 	private static final String LAST_ITERATION = "lastIteration";
 	private static final String ROUTINGALGORITHM_TYPE = "routingAlgorithmType";
+	private static final String ROUTING_CACHE_DIRECTORY = "routingCacheDirectory";
+	private static final String ROUTE_CACHE_SIZE = "routeCacheSize";
 	private static final String RUNID = "runId";
 	private static final String LINKTOLINK_ROUTING_ENABLED = "enableLinkToLinkRouting";
 	/*package*/ static final String EVENTS_FILE_FORMAT = "eventsFileFormat";
@@ -67,6 +69,8 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	private int firstIteration = 0;
 	private int lastIteration = 1000;
 	private RoutingAlgorithmType routingAlgorithmType = RoutingAlgorithmType.Dijkstra;
+	private String routingCacheDirectory = null;
+	private int routeCacheSize = 0;
 
 	private boolean linkToLinkRoutingEnabled = false;
 
@@ -91,9 +95,23 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 	public final Map<String, String> getComments() {
 		Map<String,String> map = super.getComments();
 		map.put(ROUTINGALGORITHM_TYPE, "The type of routing (least cost path) algorithm used, may have the values: " + RoutingAlgorithmType.Dijkstra + ", " + 
-				RoutingAlgorithmType.FastDijkstra + ", " + RoutingAlgorithmType.AStarLandmarks + " or "  + RoutingAlgorithmType.FastAStarLandmarks);
+				RoutingAlgorithmType.FastDijkstra + ", " + RoutingAlgorithmType.AStarLandmarks + ", "  + RoutingAlgorithmType.FastAStarLandmarks + ", " +
+				RoutingAlgorithmType.ContractionHierarchies + ", " + RoutingAlgorithmType.CustomizableRoutePlanning + ", " +
+				RoutingAlgorithmType.CsrDijkstra + ", " + RoutingAlgorithmType.CsrAStarLandmarks + " or " + RoutingAlgorithmType.BidirectionalAStarLandmarks + ". " +
+				RoutingAlgorithmType.ContractionHierarchies + " and " + RoutingAlgorithmType.CustomizableRoutePlanning +
+				" preprocess the network with the same travel disutilities for all persons, " +
+				"so they cannot be used with travel disutilities which depend on the person, e.g. with routing randomness.");
+		map.put(ROUTING_CACHE_DIRECTORY, "Directory in which the preprocessing of the " + RoutingAlgorithmType.AStarLandmarks + ", " +
+				RoutingAlgorithmType.FastAStarLandmarks + ", " + RoutingAlgorithmType.CsrAStarLandmarks + " and " +
+				RoutingAlgorithmType.BidirectionalAStarLandmarks + " routers is stored, so later runs on the same network can load it instead of computing it again. " +
+				"Not used if not set. Delete the files in the directory to force the preprocessing to be repeated.");
+		map.put(ROUTE_CACHE_SIZE, "Default=0. Maximum number of network routes that are kept per iteration, so agents departing between the same " +
+				"nodes in the same travel time bin get the same route without a new least cost path search. The travel time and cost of a cached " +
+				"route are computed for each departure, but the route itself is the one found for the first person departing in the time bin, " +
+				"so it should only be used if the travel disutility does not depend on it (e.g. routingRandomness = 0). `0' disables the cache.");
 		map.put(RUNID, "An identifier for the current run which is used as prefix for output files and mentioned in output xml files etc.");
-		map.put(EVENTS_FILE_FORMAT, "Default="+EventsFileFormat.xml+"; Specifies the file format for writing events. Currently supported: xml."+IOUtils.NATIVE_NEWLINE+ "\t\t" +
+		map.put(EVENTS_FILE_FORMAT, "Default="+EventsFileFormat.xml+"; Specifies the file format for writing events. Currently supported: xml, binary (compact and much faster "
+				+ "to write and read, see BinaryEventsFormat; can be converted with EventsFileConverter)."+IOUtils.NATIVE_NEWLINE+ "\t\t" +
 				"Multiple values can be specified separated by commas (',').");
 		map.put(WRITE_EVENTS_INTERVAL, "iterationNumber % writeEventsInterval == 0 defines in which iterations events are written " +
 				"to a file. `0' disables events writing completely.");
@@ -164,6 +182,26 @@ public final class ControlerConfigGroup extends ReflectiveConfigGroup {
 		this.routingAlgorithmType = type;
 	}
 
+	@StringGetter( ROUTING_CACHE_DIRECTORY )
+	public String getRoutingCacheDirectory() {
+		return this.routingCacheDirectory;
+	}
+
+	@StringSetter( ROUTING_CACHE_DIRECTORY )
+	public void setRoutingCacheDirectory(final String routingCacheDirectory) {
+		this.routingCacheDirectory = routingCacheDirectory == null || routingCacheDirectory.isEmpty() ? null : routingCacheDirectory;
+	}
+
+	@StringGetter( ROUTE_CACHE_SIZE )
+	public int getRouteCacheSize() {
+		return this.routeCacheSize;
+	}
+
+	@StringSetter( ROUTE_CACHE_SIZE )
+	public void setRouteCacheSize(final int routeCacheSize) {
+		this.routeCacheSize = routeCacheSize;
+	}
+
 	@StringGetter( RUNID )
 	public String getRunId() {
 		return this.runId;
@@ -38,10 +38,16 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 	private static final String RANDOM_SEED = "randomSeed";
 	private static final String NUMBER_OF_THREADS = "numberOfThreads";
 	private static final String COORDINATE_SYSTEM = "coordinateSystem";
+	private static final String REPLANNING_SCHEDULING = "replanningScheduling";
+	private static final String USING_PERSISTENT_REPLANNING_THREADS = "usingPersistentReplanningThreads";
+
+	public enum ReplanningScheduling { staticAssignment, workStealing }
 
 	private long randomSeed = 4711L;
 	private int numberOfThreads = 2;
 	private String coordinateSystem = "Atlantis";
+	private ReplanningScheduling replanningScheduling = ReplanningScheduling.staticAssignment;
+	private boolean usingPersistentReplanningThreads = false;
 	
 	@Override
 	public Map<String, String> getComments() {
@@ -49,6 +55,15 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 		map.put(NUMBER_OF_THREADS, "\"global\" number of threads.  "
 				+ "This number is used, e.g., for replanning, but NOT in the mobsim.  "
 				+ "This can typically be set to as many cores as you have available, or possibly even slightly more.") ;
+		map.put(REPLANNING_SCHEDULING, "How plans are distributed to the threads of multi-threaded replanning modules.  "
+				+ ReplanningScheduling.staticAssignment + ": plans are assigned to the threads in turn before the threads start; reproducible, but "
+				+ "threads with many expensive plans may take much longer than others.  "
+				+ ReplanningScheduling.workStealing + ": the threads repeatedly take the next batch of plans until all are handled; "
+				+ "better load balance, but results are not reproducible if the plan algorithms use random numbers.") ;
+		map.put(USING_PERSISTENT_REPLANNING_THREADS, "If true, multi-threaded replanning modules run on a pool of " + NUMBER_OF_THREADS
+				+ " threads that is kept for the whole run, instead of starting new threads for every module in every iteration.  "
+				+ "Modules that support it (e.g. ReRoute) then also keep their plan algorithms, including the routers and their "
+				+ "preprocessed data, from one iteration to the next.") ;
 		return map ;
 	}
 
@@ -82,6 +97,24 @@ public final class GlobalConfigGroup extends ReflectiveConfigGroup {
 		this.coordinateSystem = coordinateSystem;
 	}
 	
+	@StringGetter( REPLANNING_SCHEDULING )
+	public ReplanningScheduling getReplanningScheduling() {
+		return this.replanningScheduling;
+	}
+	@StringSetter( REPLANNING_SCHEDULING )
+	public void setReplanningScheduling(final ReplanningScheduling replanningScheduling) {
+		this.replanningScheduling = replanningScheduling;
+	}
+
+	@StringGetter( USING_PERSISTENT_REPLANNING_THREADS )
+	public boolean isUsingPersistentReplanningThreads() {
+		return this.usingPersistentReplanningThreads;
+	}
+	@StringSetter( USING_PERSISTENT_REPLANNING_THREADS )
+	public void setUsingPersistentReplanningThreads(final boolean usingPersistentReplanningThreads) {
+		this.usingPersistentReplanningThreads = usingPersistentReplanningThreads;
+	}
+
 	private static final String INSITING_ON_DEPRECATED_CONFIG_VERSION = "insistingOnDeprecatedConfigVersion" ;
 	@StringGetter( INSITING_ON_DEPRECATED_CONFIG_VERSION )
 	public final boolean isInsistingOnDeprecatedConfigVersion() { return this.insistingOnDeprecatedConfigVersion ; }
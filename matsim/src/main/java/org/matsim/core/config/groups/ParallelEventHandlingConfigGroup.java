@@ -44,6 +44,24 @@ public final class ParallelEventHandlingConfigGroup extends ReflectiveConfigGrou
 	
 	private final static String ONE_THREAD_PER_HANDLER = "oneThreadPerHandler"; 
 	private Boolean oneThreadPerHandler = false;
+
+	private final static String EVENTS_QUEUE = "eventsQueue";
+	public enum EventsQueue { linkedBlockingQueue, ringBuffer }
+	private EventsQueue eventsQueue = EventsQueue.linkedBlockingQueue;
+
+	private final static String RING_BUFFER_SIZE = "ringBufferSize";
+	private int ringBufferSize = 65536;
+
+	private final static String WAIT_STRATEGY = "waitStrategy";
+	public enum WaitStrategy { busySpin, park }
+	private WaitStrategy waitStrategy = WaitStrategy.park;
+
+	private final static String HANDLER_ASSIGNMENT = "handlerAssignment";
+	public enum HandlerAssignment { roundRobin, measuredCost }
+	private HandlerAssignment handlerAssignment = HandlerAssignment.roundRobin;
+
+	private final static String HANDLERS_ON_OWN_THREAD = "handlersOnOwnThread";
+	private String handlersOnOwnThread = null;
 	
 	private boolean locked = false;
 
@@ -60,6 +78,19 @@ public final class ParallelEventHandlingConfigGroup extends ReflectiveConfigGrou
 				+ "before the next time step is simulated. E.g. neccessary when within-day replanning is used.");
 		comments.put(ONE_THREAD_PER_HANDLER, "If enabled, each event handler is assigned to its own thread. Note that enabling this feature disabled the " + NUMBER_OF_THREADS + " option! "
 				+ "This feature is still experimental!");
+		comments.put(EVENTS_QUEUE, "How events are passed to the events handling threads if " + SYNCHRONIZE_ON_SIMSTEPS + " is enabled. "
+				+ EventsQueue.linkedBlockingQueue + ": one queue per thread, the events are passed on from thread to thread. "
+				+ EventsQueue.ringBuffer + ": one pre-allocated ring buffer read by all threads, avoids allocations and locks per event.");
+		comments.put(RING_BUFFER_SIZE, "Number of events the ring buffer can hold, rounded up to a power of two. Only used with " + EVENTS_QUEUE + "="
+				+ EventsQueue.ringBuffer + ". If the buffer is full, the mobsim waits for the events handling threads.");
+		comments.put(WAIT_STRATEGY, "How threads wait for the ring buffer. " + WaitStrategy.busySpin + ": lowest latency, but keeps all events "
+				+ "handling threads busy even if there are no events. " + WaitStrategy.park + ": spins shortly, then parks the thread.");
+		comments.put(HANDLER_ASSIGNMENT, "How the event handlers are assigned to the threads. " + HandlerAssignment.roundRobin + ": in turn, in the order "
+				+ "they are added. " + HandlerAssignment.measuredCost + ": the time spent in each handler is measured, and before every iteration "
+				+ "the handlers are re-assigned such that all threads get about the same load, based on the times of the previous iteration.");
+		comments.put(HANDLERS_ON_OWN_THREAD, "Comma-separated list of class names (fully qualified or simple) of event handlers that "
+				+ "get a thread of their own, e.g. known expensive handlers like the TravelTimeCalculator. At least one thread is kept for "
+				+ "the other handlers.");
 		return comments;
 	}
 
@@ -127,6 +158,76 @@ public final class ParallelEventHandlingConfigGroup extends ReflectiveConfigGrou
 		}
 	}
 	
+	@StringGetter( EVENTS_QUEUE )
+	public EventsQueue getEventsQueue() {
+		return this.eventsQueue;
+	}
+
+	@StringSetter( EVENTS_QUEUE )
+	public void setEventsQueue(EventsQueue eventsQueue) {
+		if ( !this.locked ) {
+			this.eventsQueue = eventsQueue;
+		} else {
+			throw new RuntimeException("it is too late in the control flow to modify this parameter");
+		}
+	}
+
+	@StringGetter( RING_BUFFER_SIZE )
+	public int getRingBufferSize() {
+		return this.ringBufferSize;
+	}
+
+	@StringSetter( RING_BUFFER_SIZE )
+	public void setRingBufferSize(int ringBufferSize) {
+		if ( !this.locked ) {
+			this.ringBufferSize = ringBufferSize;
+		} else {
+			throw new RuntimeException("it is too late in the control flow to modify this parameter");
+		}
+	}
+
+	@StringGetter( WAIT_STRATEGY )
+	public WaitStrategy getWaitStrategy() {
+		return this.waitStrategy;
+	}
+
+	@StringSetter( WAIT_STRATEGY )
+	public void setWaitStrategy(WaitStrategy waitStrategy) {
+		if ( !this.locked ) {
+			this.waitStrategy = waitStrategy;
+		} else {
+			throw new RuntimeException("it is too late in the control flow to modify this parameter");
+		}
+	}
+
+	@StringGetter( HANDLER_ASSIGNMENT )
+	public HandlerAssignment getHandlerAssignment() {
+		return this.handlerAssignment;
+	}
+
+	@StringSetter( HANDLER_ASSIGNMENT )
+	public void setHandlerAssignment(HandlerAssignment handlerAssignment) {
+		if ( !this.locked ) {
+			this.handlerAssignment = handlerAssignment;
+		} else {
+			throw new RuntimeException("it is too late in the control flow to modify this parameter");
+		}
+	}
+
+	@StringGetter( HANDLERS_ON_OWN_THREAD )
+	public String getHandlersOnOwnThread() {
+		return this.handlersOnOwnThread;
+	}
+
+	@StringSetter( HANDLERS_ON_OWN_THREAD )
+	public void setHandlersOnOwnThread(String handlersOnOwnThread) {
+		if ( !this.locked ) {
+			this.handlersOnOwnThread = handlersOnOwnThread;
+		} else {
+			throw new RuntimeException("it is too late in the control flow to modify this parameter");
+		}
+	}
+
 	public void makeLocked() {
 		this.locked = true;
 	}
@@ -70,8 +70,8 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 	private static final String NODE_OFFSET = "nodeOffset";
 
 
-	private double startTime = Time.UNDEFINED_TIME;
-	private double endTime = Time.UNDEFINED_TIME;
+	private double startTime = Time.getUndefinedTime();
+	private double endTime = Time.getUndefinedTime();
 	private double timeStepSize = 1.0;
 	private double snapshotPeriod = 0; // off, no snapshots
 	private double flowCapFactor = 1.0;
@@ -267,6 +267,39 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		map.put(USE_PERSON_ID_FOR_MISSING_VEHICLE_ID, "If a route does not reference a vehicle, agents will use the vehicle with the same id as their own.");
 		map.put(USING_THREADPOOL, "if the qsim should use as many runners as there are threads (Christoph's dissertation version)"
 				+ " or more of them, together with a thread pool (seems to be faster in some situations, but is not tested).") ;
+		{
+			StringBuilder stb = new StringBuilder() ;
+			for ( NetworkPartitioning np : NetworkPartitioning.values() ) {
+				stb.append(" ").append( np.toString() ) ;
+			}
+			map.put(NETWORK_PARTITIONING, "Defines how the nodes (and their out-links) are distributed among the QNetsimEngine runners when "
+					+ "running with more than one thread.  `roundRobin' assigns them one after the other; `spatial' cuts the network "
+					+ "into contiguous regions of about equal capacity, so that neighboring nodes are handled by the same runner.  "
+					+ "`loadBalanced' does the same, but weights the nodes by how long they and their out-links were active in "
+					+ "the previous mobsim run (and falls back to capacity in the first run).  Default is roundRobin.  Options:" + stb ) ;
+		}
+		{
+			StringBuilder stb = new StringBuilder() ;
+			for ( ActivityEngineType type : ActivityEngineType.values() ) {
+				stb.append(" ").append( type.toString() ) ;
+			}
+			map.put(ACTIVITY_ENGINE, "Defines how the ActivityEngine keeps the activity ends of the agents.  `priorityQueue' "
+					+ "uses a priority queue, which has to be searched whenever the activity end of an agent is rescheduled "
+					+ "(e.g. by within-day replanning); `calendarQueue' uses buckets of one second, where rescheduling takes "
+					+ "constant time.  Default is priorityQueue.  Options:" + stb ) ;
+		}
+		map.put(SKIPPING_IDLE_TIME_STEPS, "If true, the qsim jumps over time steps in which no engine has anything to do, e.g. at night "
+				+ "when all agents perform activities.  "
+				+ "Time steps are only skipped if all mobsim engines and sim step listeners report their next event time, "
+				+ "which is not the case e.g. for transit, within-day replanning or the play/pause control of the visualizer.  "
+				+ "Default is false.") ;
+		map.put(NUMBER_OF_AGENT_THREADS, "Number of threads on which the ActivityEngine and the teleportation engine end the activities "
+				+ "and legs of the agents of a time step.  The agents are then handed over to their next engines in one thread.  "
+				+ "The events of a time step come in a deterministic order, but with more than one thread all activity or leg end "
+				+ "events come before the departure events.  Default is 1.") ;
+		map.put(USING_ARRAY_QUEUES, "If true, the vehicle queues, buffers and holes of the links are kept in ring buffers instead of "
+				+ "linked lists.  This creates less garbage in the mobsim, but does not change the results.  Passing queues are not "
+				+ "affected.  Default is false.") ;
 		map.put(FAST_CAPACITY_UPDATE, "If false, the qsim accumulates fractional flows up to one flow unit in every time step.  If true, "
 				+ "flows are updated only if an agent wants to enter the link or an agent is added to buffer. "
 				+ "Default is true.") ;
@@ -519,6 +552,67 @@ public final class QSimConfigGroup extends ReflectiveConfigGroup {
 		this.usingThreadpool = val ;
 	}
 
+	// ---
+	private static final String NETWORK_PARTITIONING = "networkPartitioning" ;
+	public enum NetworkPartitioning { roundRobin, spatial, loadBalanced } ;
+	private NetworkPartitioning networkPartitioning = NetworkPartitioning.roundRobin ;
+	@StringGetter(NETWORK_PARTITIONING)
+	public NetworkPartitioning getNetworkPartitioning() {
+		return this.networkPartitioning ;
+	}
+	@StringSetter(NETWORK_PARTITIONING)
+	public void setNetworkPartitioning( NetworkPartitioning networkPartitioning ) {
+		this.networkPartitioning = networkPartitioning ;
+	}
+	// ---
+	private static final String ACTIVITY_ENGINE = "activityEngine" ;
+	public enum ActivityEngineType { priorityQueue, calendarQueue } ;
+	private ActivityEngineType activityEngine = ActivityEngineType.priorityQueue ;
+	@StringGetter(ACTIVITY_ENGINE)
+	public ActivityEngineType getActivityEngine() {
+		return this.activityEngine ;
+	}
+	@StringSetter(ACTIVITY_ENGINE)
+	public void setActivityEngine( ActivityEngineType activityEngine ) {
+		this.activityEngine = activityEngine ;
+	}
+	// ---
+	private static final String SKIPPING_IDLE_TIME_STEPS = "skippingIdleTimeSteps" ;
+	private boolean skippingIdleTimeSteps = false ;
+	@StringGetter(SKIPPING_IDLE_TIME_STEPS)
+	public boolean isSkippingIdleTimeSteps() {
+		return this.skippingIdleTimeSteps ;
+	}
+	@StringSetter(SKIPPING_IDLE_TIME_STEPS)
+	public void setSkippingIdleTimeSteps( boolean skippingIdleTimeSteps ) {
+		this.skippingIdleTimeSteps = skippingIdleTimeSteps ;
+	}
+	// ---
+	private static final String NUMBER_OF_AGENT_THREADS = "numberOfAgentThreads" ;
+	private int numberOfAgentThreads = 1 ;
+	@StringGetter(NUMBER_OF_AGENT_THREADS)
+	public int getNumberOfAgentThreads() {
+		return this.numberOfAgentThreads ;
+	}
+	@StringSetter(NUMBER_OF_AGENT_THREADS)
+	public void setNumberOfAgentThreads( int numberOfAgentThreads ) {
+		if ( numberOfAgentThreads < 1 ) {
+			throw new IllegalArgumentException( "Number of agent threads must be strictly positive, got "+numberOfAgentThreads );
+		}
+		this.numberOfAgentThreads = numberOfAgentThreads ;
+	}
+	// ---
+	private static final String USING_ARRAY_QUEUES = "usingArrayQueues" ;
+	private boolean usingArrayQueues = false ;
+	@StringGetter(USING_ARRAY_QUEUES)
+	public boolean isUsingArrayQueues() {
+		return this.usingArrayQueues ;
+	}
+	@StringSetter(USING_ARRAY_QUEUES)
+	public void setUsingArrayQueues( boolean usingArrayQueues ) {
+		this.usingArrayQueues = usingArrayQueues ;
+	}
+	// ---
 	private static final String USE_LANES="useLanes" ;
 	private boolean useLanes = false ;
 
@@ -46,6 +46,7 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private static final String ANALYZEDMODES = "analyzedModes";
 	private static final String FILTERMODES = "filterModes";
 	private static final String SEPARATEMODES = "separateModes";
+	private static final String USE_TRAVEL_TIME_MATRIX = "useTravelTimeMatrix";
 
 	private TravelTimeCalculatorType travelTimeCalculator = TravelTimeCalculatorType.TravelTimeCalculatorArray;
 	private String travelTimeAggregator = "optimistic";
@@ -59,6 +60,7 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 	private String analyzedModes = TransportMode.car;
 	private boolean filterModes = false;
 	private boolean separateModes = false;
+	private boolean useTravelTimeMatrix = false;
 
 	public TravelTimeCalculatorConfigGroup() {
 		super(GROUPNAME);
@@ -79,6 +81,9 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 				"includes also busses from the pt simulation module. Use this parameter in combination with 'filterModes' = true!");
 		map.put(FILTERMODES, "If true, link travel times from legs performed on modes not included in the 'analyzedModes' parameter are ignored.");
 		map.put(SEPARATEMODES, "If true, link travel times are measured and calculated separately for each mode in analyzedModes. Other modes are ignored. If true, filterModes has no effect.");
+		map.put(USE_TRAVEL_TIME_MATRIX, "If true, the link travel times are copied into one links x time bins matrix at the end of each iteration, " +
+				"and the routers read the travel times of the last iteration from that matrix. Needs 8 bytes per link and time bin. " +
+				"Link to link travel times are not affected.");
 		// === 
 		StringBuilder str = new StringBuilder();
 		for ( TravelTimeCalculatorType type : TravelTimeCalculatorType.values() ) {
@@ -204,4 +209,14 @@ public final class TravelTimeCalculatorConfigGroup extends ReflectiveConfigGroup
 		this.separateModes = separateModes;
 	}
 
+	@StringGetter(USE_TRAVEL_TIME_MATRIX)
+	public boolean isUseTravelTimeMatrix() {
+		return this.useTravelTimeMatrix;
+	}
+
+	@StringSetter(USE_TRAVEL_TIME_MATRIX)
+	public void setUseTravelTimeMatrix(boolean useTravelTimeMatrix) {
+		this.useTravelTimeMatrix = useTravelTimeMatrix;
+	}
+
 }
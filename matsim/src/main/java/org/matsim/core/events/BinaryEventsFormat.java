@@ -0,0 +1,81 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BinaryEventsFormat.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.Locale;
+
+/**
+ * Constants describing the binary events file format, as written by
+ * {@link org.matsim.core.events.algorithms.EventWriterBinary} and read by {@link EventsReaderBinary}.
+ * <p></p>
+ * A file starts with the {@link #MAGIC} bytes followed by the {@link #VERSION} byte.  After that, it contains
+ * one record per event, each starting with a record type byte, followed by the time and the event specific fields,
+ * and finally the {@link #RECORD_END_OF_FILE} byte.
+ * <ul>
+ * <li>Times are stored as variable-length integer containing the (zigzag-encoded) difference to the time of the
+ * previous event, shifted left by one.  If the difference is not a whole number, the lowest bit is set and the
+ * time follows as raw 8-byte double.</li>
+ * <li>Strings (ids, modes, activity types, attribute names) are stored in a dictionary which is built up while
+ * writing: a variable-length integer of {@link #STRING_NULL} stands for <code>null</code>, {@link #STRING_NEW}
+ * means that a new dictionary entry follows as inline string, and any other value <code>v</code> refers
+ * to the dictionary entry with index <code>v - 2</code>.</li>
+ * <li>Events without a specialized record type are stored as {@link #RECORD_GENERIC} record: event type plus
+ * the attribute names and values from {@link org.matsim.api.core.v01.events.Event#getAttributes()}.  Values are
+ * stored inline and not in the dictionary, since they are often unique.</li>
+ * <li>Inline strings are stored as variable-length integer containing the number of UTF-8 bytes plus one
+ * (zero for <code>null</code>), followed by the bytes.</li>
+ * </ul>
+ */
+public final class BinaryEventsFormat {
+
+	public static final byte[] MAGIC = { 'M', 'A', 'T', 'S', 'i', 'm', 'E', 'V' };
+	public static final byte VERSION = 1;
+
+	public static final byte RECORD_END_OF_FILE = 0;
+	public static final byte RECORD_GENERIC = 1;
+	public static final byte RECORD_LINK_ENTER = 2;
+	public static final byte RECORD_LINK_LEAVE = 3;
+	public static final byte RECORD_VEHICLE_ENTERS_TRAFFIC = 4;
+	public static final byte RECORD_VEHICLE_LEAVES_TRAFFIC = 5;
+	public static final byte RECORD_PERSON_DEPARTURE = 6;
+	public static final byte RECORD_PERSON_ARRIVAL = 7;
+	public static final byte RECORD_ACTIVITY_START = 8;
+	public static final byte RECORD_ACTIVITY_END = 9;
+	public static final byte RECORD_PERSON_ENTERS_VEHICLE = 10;
+	public static final byte RECORD_PERSON_LEAVES_VEHICLE = 11;
+
+	public static final int STRING_NULL = 0;
+	public static final int STRING_NEW = 1;
+	public static final int STRING_FIRST_INDEX = 2;
+
+	private BinaryEventsFormat() {
+	}
+
+	/**
+	 * @return <code>true</code> if the given filename has one of the extensions used for binary events files,
+	 * i.e. <tt>.bin</tt>, optionally followed by <tt>.gz</tt> or <tt>.lz4</tt>.
+	 */
+	public static boolean isBinaryEventsFile(final String filename) {
+		String lcFilename = filename.toLowerCase(Locale.ROOT);
+		return lcFilename.endsWith(".bin") || lcFilename.endsWith(".bin.gz") || lcFilename.endsWith(".bin.lz4");
+	}
+
+}
@@ -0,0 +1,221 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventHandlerAssigner.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.matsim.core.config.groups.ParallelEventHandlingConfigGroup;
+import org.matsim.core.config.groups.ParallelEventHandlingConfigGroup.HandlerAssignment;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.utils.collections.CollectionUtils;
+
+/**
+ * Assigns the event handlers of a parallel events manager to its threads, i.e. to one {@link EventsManagerImpl} per
+ * thread.
+ * <p></p>
+ * With {@link HandlerAssignment#roundRobin}, the handlers are assigned in turn.  With
+ * {@link HandlerAssignment#measuredCost}, the time spent in each handler is measured during the iteration, and
+ * before the next iteration the handlers are re-assigned such that the most expensive handlers come first and each
+ * handler goes to the thread with the lowest load so far.  Handlers whose class is listed as handler on its own
+ * thread get a thread of their own with either strategy, as long as there are enough threads.
+ */
+final class EventHandlerAssigner {
+
+	private final static Logger log = Logger.getLogger(EventHandlerAssigner.class);
+
+	private final EventsManagerImpl[] eventsManagers;
+	private final Set<String> handlersOnOwnThread;
+
+	private final List<EventHandler> handlers = new ArrayList<>();
+	private final List<Integer> assignment = new ArrayList<>();
+	private final EventHandlerTimes times;
+	private boolean haveTimes = false;
+
+	EventHandlerAssigner(final EventsManagerImpl[] eventsManagers) {
+		this(eventsManagers, HandlerAssignment.roundRobin, Collections.<String>emptySet());
+	}
+
+	EventHandlerAssigner(final EventsManagerImpl[] eventsManagers, final ParallelEventHandlingConfigGroup config) {
+		this(eventsManagers, config.getHandlerAssignment(), CollectionUtils.stringToSet(config.getHandlersOnOwnThread()));
+	}
+
+	EventHandlerAssigner(final EventsManagerImpl[] eventsManagers, final HandlerAssignment strategy, final Set<String> handlersOnOwnThread) {
+		this.eventsManagers = eventsManagers;
+		this.handlersOnOwnThread = handlersOnOwnThread;
+		this.times = strategy == HandlerAssignment.measuredCost ? new EventHandlerTimes() : null;
+	}
+
+	void addHandler(final EventHandler handler) {
+		this.handlers.add(handler);
+		this.assignment.add(-1);
+		reassign(this.haveTimes ? getCosts() : null);
+	}
+
+	void removeHandler(final EventHandler handler) {
+		int index = this.handlers.indexOf(handler);
+		if (index >= 0) {
+			this.handlers.remove(index);
+			this.assignment.remove(index);
+		}
+		for (EventsManagerImpl eventsManager : this.eventsManagers) {
+			eventsManager.removeHandler(handler);
+		}
+		if (this.times != null) {
+			this.times.remove(handler);
+		}
+	}
+
+	/*package*/ EventHandlerTimes getTimes() {
+		return this.times;
+	}
+
+	/**
+	 * Re-assigns the handlers based on the times measured in the previous iteration, if any, and starts measuring
+	 * the times of this iteration.  Must be called before the events handling threads are started.
+	 */
+	void beforeProcessing() {
+		if (this.times == null) {
+			return;
+		}
+		if (this.haveTimes) {
+			reassign(getCosts());
+		}
+		this.times.reset();
+		for (EventsManagerImpl eventsManager : this.eventsManagers) {
+			eventsManager.setHandlerTimes(this.times);
+		}
+	}
+
+	/**
+	 * Logs the measured times.  Must be called after the events handling threads are finished.
+	 */
+	void afterProcessing() {
+		if (this.times == null) {
+			return;
+		}
+		long[] threadNanos = new long[this.eventsManagers.length];
+		for (int i = 0; i < this.handlers.size(); i++) {
+			EventHandler handler = this.handlers.get(i);
+			long nanos = this.times.getNanos(handler);
+			threadNanos[this.assignment.get(i)] += nanos;
+			log.info("event handler " + handler.getClass().getName() + " on thread " + this.assignment.get(i) + ": " + (nanos / 1000000) + " ms");
+			for (Map.Entry<Class<?>, long[]> e : this.times.getCounters(handler).entrySet()) {
+				long[] counter = e.getValue();
+				log.info("  " + e.getKey().getSimpleName() + ": " + counter[EventHandlerTimes.COUNT] + " events, "
+						+ (counter[EventHandlerTimes.NANOS] / 1000000) + " ms");
+			}
+		}
+		for (int t = 0; t < threadNanos.length; t++) {
+			log.info("events handling thread " + t + ": " + (threadNanos[t] / 1000000) + " ms in event handlers");
+		}
+		this.haveTimes = true;
+	}
+
+	private long[] getCosts() {
+		long[] costs = new long[this.handlers.size()];
+		for (int i = 0; i < costs.length; i++) {
+			costs[i] = this.times.getNanos(this.handlers.get(i));
+		}
+		return costs;
+	}
+
+	/**
+	 * @param costs the cost per handler, or <code>null</code> to assign the handlers in turn.
+	 */
+	private void reassign(final long[] costs) {
+		int[] newAssignment = assign(this.handlers, costs, this.handlersOnOwnThread, this.eventsManagers.length);
+		int moved = 0;
+		for (int i = 0; i < newAssignment.length; i++) {
+			int oldThread = this.assignment.get(i);
+			if (oldThread != newAssignment[i]) {
+				EventHandler handler = this.handlers.get(i);
+				if (oldThread >= 0) {
+					this.eventsManagers[oldThread].removeHandler(handler);
+					moved++;
+				}
+				this.eventsManagers[newAssignment[i]].addHandler(handler);
+				this.assignment.set(i, newAssignment[i]);
+			}
+		}
+		if (moved > 0) {
+			log.info("moved " + moved + " event handlers to other threads.");
+		}
+	}
+
+	/**
+	 * @return the thread for each handler.
+	 */
+	static int[] assign(final List<EventHandler> handlers, final long[] costs, final Set<String> handlersOnOwnThread, final int numberOfThreads) {
+		int[] assignment = new int[handlers.size()];
+		List<Integer> others = new ArrayList<>();
+		int pinned = 0;
+		for (int i = 0; i < handlers.size(); i++) {
+			if (isOnOwnThread(handlers.get(i), handlersOnOwnThread)) {
+				pinned++;
+			}
+		}
+		// keep at least one thread for the other handlers
+		int reserved = Math.min(pinned, pinned < handlers.size() ? numberOfThreads - 1 : numberOfThreads);
+		int nextReserved = 0;
+		for (int i = 0; i < handlers.size(); i++) {
+			if (nextReserved < reserved && isOnOwnThread(handlers.get(i), handlersOnOwnThread)) {
+				assignment[i] = nextReserved++;
+			} else {
+				others.add(i);
+			}
+		}
+
+		int firstFreeThread = reserved;
+		int numberOfFreeThreads = numberOfThreads - reserved;
+		if (costs == null) {
+			for (int j = 0; j < others.size(); j++) {
+				assignment[others.get(j)] = firstFreeThread + (j % numberOfFreeThreads);
+			}
+		} else {
+			// longest processing time first, ties broken by the order the handlers were added
+			others.sort(Comparator.comparingLong((Integer i) -> -costs[i]).thenComparingInt(i -> i));
+			long[] load = new long[numberOfFreeThreads];
+			for (int i : others) {
+				int best = 0;
+				for (int t = 1; t < numberOfFreeThreads; t++) {
+					if (load[t] < load[best]) {
+						best = t;
+					}
+				}
+				load[best] += costs[i];
+				assignment[i] = firstFreeThread + best;
+			}
+		}
+		return assignment;
+	}
+
+	private static boolean isOnOwnThread(final EventHandler handler, final Set<String> handlersOnOwnThread) {
+		Class<?> klass = handler.getClass();
+		return handlersOnOwnThread.contains(klass.getName()) || handlersOnOwnThread.contains(klass.getSimpleName());
+	}
+
+}
@@ -0,0 +1,95 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventHandlerTimes.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.matsim.core.events.handler.EventHandler;
+
+/**
+ * The time spent in each event handler, per event type.  The counters are updated by {@link EventsManagerImpl}
+ * on the thread that handles the events of the handler, and read only after that thread is finished, so they need no
+ * further synchronization.
+ */
+final class EventHandlerTimes {
+
+	static final int NANOS = 0;
+	static final int COUNT = 1;
+
+	private final Map<EventHandler, Map<Class<?>, long[]>> times = new IdentityHashMap<>();
+
+	/**
+	 * @return the counter for the given handler and event type, with the time in nanoseconds at index {@link #NANOS}
+	 * and the number of handled events at index {@link #COUNT}.
+	 */
+	synchronized long[] getCounter(final EventHandler handler, final Class<?> eventClass) {
+		return this.times.computeIfAbsent(handler, h -> new LinkedHashMap<>()).computeIfAbsent(eventClass, c -> new long[2]);
+	}
+
+	synchronized long getNanos(final EventHandler handler) {
+		long nanos = 0;
+		Map<Class<?>, long[]> counters = this.times.get(handler);
+		if (counters != null) {
+			for (long[] counter : counters.values()) {
+				nanos += counter[NANOS];
+			}
+		}
+		return nanos;
+	}
+
+	synchronized Map<Class<?>, long[]> getCounters(final EventHandler handler) {
+		Map<Class<?>, long[]> counters = new LinkedHashMap<>();
+		Map<Class<?>, long[]> handlerCounters = this.times.get(handler);
+		if (handlerCounters != null) {
+			for (Map.Entry<Class<?>, long[]> e : handlerCounters.entrySet()) {
+				counters.put(e.getKey(), e.getValue().clone());
+			}
+		}
+		return counters;
+	}
+
+	/**
+	 * Drops the counters of a handler which was removed, so handlers which are added and removed every iteration, like
+	 * the events writers, are not kept alive by their counters.
+	 */
+	synchronized void remove(final EventHandler handler) {
+		this.times.remove(handler);
+	}
+
+	synchronized int getNumberOfHandlers() {
+		return this.times.size();
+	}
+
+	/**
+	 * Resets all counters to zero.  The counters are kept, as the {@link EventsManagerImpl} holds references to them.
+	 */
+	synchronized void reset() {
+		for (Map<Class<?>, long[]> counters : this.times.values()) {
+			for (long[] counter : counters.values()) {
+				counter[NANOS] = 0;
+				counter[COUNT] = 0;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventsFileConverter.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.algorithms.EventWriter;
+import org.matsim.core.events.algorithms.EventWriterBinary;
+import org.matsim.core.events.algorithms.EventWriterXML;
+
+/**
+ * Converts events files between the xml and the binary format.  The formats are derived from the file names,
+ * see {@link BinaryEventsFormat#isBinaryEventsFile(String)}.
+ */
+public final class EventsFileConverter {
+
+	private EventsFileConverter() {
+	}
+
+	public static void convert(final String inputFilename, final String outputFilename) {
+		EventWriter writer;
+		if (BinaryEventsFormat.isBinaryEventsFile(outputFilename)) {
+			writer = new EventWriterBinary(outputFilename);
+		} else {
+			writer = new EventWriterXML(outputFilename);
+		}
+		EventsManager events = EventsUtils.createEventsManager();
+		events.addHandler(writer);
+		new MatsimEventsReader(events).readFile(inputFilename);
+		writer.closeFile();
+	}
+
+	public static void main(String[] args) {
+		if (args.length != 2) {
+			System.err.println("Usage: EventsFileConverter inputEventsFile outputEventsFile");
+			System.err.println("Files ending in .bin, .bin.gz or .bin.lz4 are read/written in the binary format, all others as xml.");
+			System.exit(1);
+		}
+		convert(args[0], args[1]);
+	}
+
+}
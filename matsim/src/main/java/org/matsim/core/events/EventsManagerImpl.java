@@ -20,8 +20,14 @@
 
 package org.matsim.core.events;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -30,39 +36,8 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
-import org.matsim.api.core.v01.events.ActivityEndEvent;
-import org.matsim.api.core.v01.events.ActivityStartEvent;
 import org.matsim.api.core.v01.events.Event;
-import org.matsim.api.core.v01.events.LinkEnterEvent;
-import org.matsim.api.core.v01.events.LinkLeaveEvent;
-import org.matsim.api.core.v01.events.PersonArrivalEvent;
-import org.matsim.api.core.v01.events.PersonDepartureEvent;
-import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
-import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
-import org.matsim.api.core.v01.events.PersonMoneyEvent;
-import org.matsim.api.core.v01.events.PersonStuckEvent;
-import org.matsim.api.core.v01.events.TransitDriverStartsEvent;
-import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
-import org.matsim.api.core.v01.events.handler.ActivityEndEventHandler;
-import org.matsim.api.core.v01.events.handler.ActivityStartEventHandler;
-import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
-import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
-import org.matsim.api.core.v01.events.handler.PersonArrivalEventHandler;
-import org.matsim.api.core.v01.events.handler.PersonDepartureEventHandler;
-import org.matsim.api.core.v01.events.handler.PersonEntersVehicleEventHandler;
-import org.matsim.api.core.v01.events.handler.PersonLeavesVehicleEventHandler;
-import org.matsim.api.core.v01.events.handler.PersonMoneyEventHandler;
-import org.matsim.api.core.v01.events.handler.PersonStuckEventHandler;
-import org.matsim.api.core.v01.events.handler.TransitDriverStartsEventHandler;
-import org.matsim.api.core.v01.events.handler.VehicleEntersTrafficEventHandler;
-import org.matsim.core.api.experimental.events.AgentWaitingForPtEvent;
 import org.matsim.core.api.experimental.events.EventsManager;
-import org.matsim.core.api.experimental.events.VehicleArrivesAtFacilityEvent;
-import org.matsim.core.api.experimental.events.VehicleDepartsAtFacilityEvent;
-import org.matsim.core.api.experimental.events.handler.AgentWaitingForPtEventHandler;
-import org.matsim.core.api.experimental.events.handler.VehicleArrivesAtFacilityEventHandler;
-import org.matsim.core.api.experimental.events.handler.VehicleDepartsAtFacilityEventHandler;
-import org.matsim.core.events.handler.BasicEventHandler;
 import org.matsim.core.events.handler.EventHandler;
 
 /**
@@ -73,9 +48,13 @@ import org.matsim.core.events.handler.EventHandler;
  * <li>add method public void handleEvent(MyEvent event) to it</li>
  * <li>ready to go, just implement the interface somewhere and add a
  * HandlerObject with a call to <code>Events.addHandler(HandlerObject)</code></li>
- * <li>(optional) add an appropriate line in callHandlerFast() for speeding
- * up execution!</li>
  * </ol>
+ * When a handler is added, a direct call of its handleEvent method is generated for every event class it handles,
+ * so events are not passed to the handlers by reflection.  Only if the method cannot be accessed, e.g. because the
+ * handler interface is not public, reflection is used as fallback.
+ * <p></p>
+ * This class is not thread-safe; use {@link EventsUtils#getParallelFeedableInstance(EventsManager)} to create events
+ * from several threads.
  *
  * @author dstrippgen
  * @author mrieser
@@ -84,14 +63,23 @@ public final class EventsManagerImpl implements EventsManager {
 
 	private static final Logger log = Logger.getLogger(EventsManagerImpl.class);
 
+	/**
+	 * Passes an event to the handleEvent method of a handler, for one specific event class.
+	 */
+	interface EventDispatcher {
+		void dispatch(EventHandler handler, Event event);
+	}
+
 	static private class HandlerData {
 
 		protected Class<?> eventklass;
 		protected ArrayList<EventHandler> handlerList = new ArrayList<EventHandler>(5);
 		protected Method method;
+		protected EventDispatcher dispatcher;
 		protected HandlerData(final Class<?> eventklass, final Method method) {
 			this.eventklass = eventklass;
 			this.method = method;
+			this.dispatcher = createDispatcher(eventklass, method);
 		}
 		protected void removeHandler(final EventHandler handler) {
 			this.handlerList.remove(handler);
@@ -101,12 +89,14 @@ public final class EventsManagerImpl implements EventsManager {
 	static private class HandlerInfo {
 		protected final Class<?> eventClass;
 		protected final EventHandler eventHandler;
-		protected final Method method;
+		protected final EventDispatcher dispatcher;
+		protected final long[] time;
 
-		protected HandlerInfo(final Class<?> eventClass, final EventHandler eventHandler, final Method method) {
+		protected HandlerInfo(final Class<?> eventClass, final EventHandler eventHandler, final EventDispatcher dispatcher, final long[] time) {
 			this.eventClass = eventClass;
 			this.eventHandler = eventHandler;
-			this.method = method;
+			this.dispatcher = dispatcher;
+			this.time = time;
 		}
 	}
 
@@ -117,9 +107,15 @@ public final class EventsManagerImpl implements EventsManager {
 	private long counter = 0;
 	private long nextCounterMsg = 1;
 
-	private HandlerData findHandler(final Class<?> evklass) {
+	private EventHandlerTimes handlerTimes = null;
+
+	/**
+	 * Each handler interface gets its own dispatcher, so there may be several entries for the same event class if
+	 * different interfaces declare a handleEvent method for it.
+	 */
+	private HandlerData findHandler(final Class<?> evklass, final Method method) {
 		for (HandlerData handler : this.handlerData) {
-			if (handler.eventklass == evklass) {
+			if (handler.eventklass == evklass && handler.method.equals(method)) {
 				return handler;
 			}
 		}
@@ -197,6 +193,15 @@ public final class EventsManagerImpl implements EventsManager {
 		// nothing to do in this implementation
 	}
 
+	/**
+	 * Measures the time spent in each handler per event type, or stops measuring if <code>handlerTimes</code> is
+	 * <code>null</code>.
+	 */
+	/*package*/ void setHandlerTimes(final EventHandlerTimes handlerTimes) {
+		this.handlerTimes = handlerTimes;
+		this.cacheHandlers.clear();
+	}
+
 	private void addHandlerInterfaces(final EventHandler handler, final Class<?> handlerClass) {
 		Method[] classmethods = handlerClass.getMethods();
 		for (Method method : classmethods) {
@@ -205,7 +210,7 @@ public final class EventsManagerImpl implements EventsManager {
 				if (params.length == 1) {
 					Class<?> eventClass = params[0];
 					log.info("    > " + eventClass.getName());
-					HandlerData dat = findHandler(eventClass);
+					HandlerData dat = findHandler(eventClass, method);
 					if (dat == null) {
 						dat = new HandlerData(eventClass, method);
 						this.handlerData.add(dat);
@@ -218,21 +223,45 @@ public final class EventsManagerImpl implements EventsManager {
 
 	private void computeEvent(final Event event) {
 		for (HandlerInfo info : getHandlersForClass(event.getClass())) {
-			synchronized(info.eventHandler) {
-				if (callHandlerFast(info.eventClass, event, info.eventHandler)) {
-					continue;
-				}
-				try {
-					info.method.invoke(info.eventHandler, event);
-				} catch (IllegalArgumentException | IllegalAccessException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e);
-				} catch (InvocationTargetException e) {
-					throw new RuntimeException("problem invoking EventHandler " + info.eventHandler.getClass().getCanonicalName() + " for event-class " + info.eventClass.getCanonicalName(), e.getCause());
-				}
+			if (info.time == null) {
+				info.dispatcher.dispatch(info.eventHandler, event);
+			} else {
+				long start = System.nanoTime();
+				info.dispatcher.dispatch(info.eventHandler, event);
+				info.time[EventHandlerTimes.NANOS] += System.nanoTime() - start;
+				info.time[EventHandlerTimes.COUNT]++;
 			}
 		}
 	}
 
+	/**
+	 * Generates a class that calls <code>method</code> directly, like the compiler does for a method reference.
+	 */
+	private static EventDispatcher createDispatcher(final Class<?> eventClass, final Method method) {
+		if (Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				MethodHandle handleEvent = lookup.unreflect(method);
+				CallSite callSite = LambdaMetafactory.metafactory(lookup, "dispatch", MethodType.methodType(EventDispatcher.class),
+						MethodType.methodType(void.class, EventHandler.class, Event.class), handleEvent,
+						MethodType.methodType(void.class, method.getDeclaringClass(), eventClass));
+				return (EventDispatcher) callSite.getTarget().invokeExact();
+			} catch (Throwable e) {
+				log.warn("could not generate event dispatcher for " + method + ", falling back to reflection.", e);
+			}
+		}
+		method.setAccessible(true);
+		return (handler, event) -> {
+			try {
+				method.invoke(handler, event);
+			} catch (IllegalArgumentException | IllegalAccessException e) {
+				throw new RuntimeException("problem invoking EventHandler " + handler.getClass().getCanonicalName() + " for event-class " + eventClass.getCanonicalName(), e);
+			} catch (InvocationTargetException e) {
+				throw new RuntimeException("problem invoking EventHandler " + handler.getClass().getCanonicalName() + " for event-class " + eventClass.getCanonicalName(), e.getCause());
+			}
+		};
+	}
+
 	private HandlerInfo[] getHandlersForClass(final Class<?> eventClass) {
 		Class<?> klass = eventClass;
 		HandlerInfo[] cache = this.cacheHandlers.get(eventClass);
@@ -240,25 +269,16 @@ public final class EventsManagerImpl implements EventsManager {
 			return cache;
 		}
 
+		EventHandlerTimes times = this.handlerTimes;
 		ArrayList<HandlerInfo> info = new ArrayList<HandlerInfo>();
 		// first search in class-hierarchy
 		while (klass != Object.class) {
-			HandlerData dat = findHandler(klass);
-			if (dat != null) {
-				for(EventHandler handler: dat.handlerList) {
-					info.add(new HandlerInfo(klass, handler, dat.method));
-				}
-			}
+			addHandlerInfos(info, klass, times);
 			klass = klass.getSuperclass();
 		}
 		// now search in implemented interfaces
 		for (Class<?> intfc : getAllInterfaces(eventClass)) {
-			HandlerData dat = findHandler(intfc);
-			if (dat != null) {
-				for(EventHandler handler: dat.handlerList) {
-					info.add(new HandlerInfo(intfc, handler, dat.method));
-				}
-			}
+			addHandlerInfos(info, intfc, times);
 		}
 
 		cache = info.toArray(new HandlerInfo[info.size()]);
@@ -266,6 +286,16 @@ public final class EventsManagerImpl implements EventsManager {
 		return cache;
 	}
 
+	private void addHandlerInfos(final List<HandlerInfo> info, final Class<?> klass, final EventHandlerTimes times) {
+		for (HandlerData dat : this.handlerData) {
+			if (dat.eventklass == klass) {
+				for(EventHandler handler: dat.handlerList) {
+					info.add(new HandlerInfo(klass, handler, dat.dispatcher, times == null ? null : times.getCounter(handler, klass)));
+				}
+			}
+		}
+	}
+
 	private Set<Class<?>> getAllInterfaces(final Class<?> klass) {
 		Set<Class<?>> intfs = new HashSet<Class<?>>();
 		for (Class<?> intf : klass.getInterfaces()) {
@@ -282,60 +312,6 @@ public final class EventsManagerImpl implements EventsManager {
 		return intfs;
 	}
 
-	// this method is purely for performance reasons and need not be implemented
-	private boolean callHandlerFast(final Class<?> klass, final Event ev, final EventHandler handler) {
-		if (klass == LinkLeaveEvent.class) {
-			((LinkLeaveEventHandler)handler).handleEvent((LinkLeaveEvent)ev);
-			return true;
-		} else if (klass == LinkEnterEvent.class) {
-			((LinkEnterEventHandler)handler).handleEvent((LinkEnterEvent)ev);
-			return true;
-		} else if (klass == VehicleEntersTrafficEvent.class) {
-			((VehicleEntersTrafficEventHandler)handler).handleEvent((VehicleEntersTrafficEvent)ev);
-			return true;
-		} else if (klass == PersonArrivalEvent.class) {
-			((PersonArrivalEventHandler)handler).handleEvent((PersonArrivalEvent)ev);
-			return true;
-		} else if (klass == PersonDepartureEvent.class) {
-			((PersonDepartureEventHandler)handler).handleEvent((PersonDepartureEvent)ev);
-			return true;
-		} else if (klass == ActivityEndEvent.class) {
-			((ActivityEndEventHandler)handler).handleEvent((ActivityEndEvent)ev);
-			return true;
-		} else if (klass == ActivityStartEvent.class) {
-			((ActivityStartEventHandler)handler).handleEvent((ActivityStartEvent)ev);
-			return true;
-		} else if (klass == TransitDriverStartsEvent.class) {
-			((TransitDriverStartsEventHandler) handler).handleEvent((TransitDriverStartsEvent) ev);
-			return true;
-		} else if (klass == PersonStuckEvent.class) {
-			((PersonStuckEventHandler)handler).handleEvent((PersonStuckEvent)ev);
-			return true;
-		} else if (klass == PersonMoneyEvent.class) {
-			((PersonMoneyEventHandler)handler).handleEvent((PersonMoneyEvent)ev);
-			return true;
-		} else if (klass == AgentWaitingForPtEvent.class) {
-			((AgentWaitingForPtEventHandler)handler).handleEvent((AgentWaitingForPtEvent)ev);
-			return true;
-		} else if (klass == PersonEntersVehicleEvent.class) {
-			((PersonEntersVehicleEventHandler)handler).handleEvent((PersonEntersVehicleEvent)ev);
-			return true;
-		} else if (klass == PersonLeavesVehicleEvent.class) {
-			((PersonLeavesVehicleEventHandler)handler).handleEvent((PersonLeavesVehicleEvent)ev);
-			return true;
-		} else if (klass == VehicleDepartsAtFacilityEvent.class) {
-			((VehicleDepartsAtFacilityEventHandler) handler).handleEvent((VehicleDepartsAtFacilityEvent) ev);
-			return true;
-		} else if (klass == VehicleArrivesAtFacilityEvent.class) {
-			((VehicleArrivesAtFacilityEventHandler) handler).handleEvent((VehicleArrivesAtFacilityEvent) ev);
-			return true;
-		} else if (klass == Event.class) {
-			((BasicEventHandler)handler).handleEvent(ev);
-			return true;
-		}
-		return false;
-	}
-
 	public void printEventHandlers() {
 		log.info("currently registered event-handlers:");
 		for (HandlerData handlerType : this.handlerData) {
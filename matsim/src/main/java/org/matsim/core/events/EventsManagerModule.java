@@ -1,6 +1,7 @@
 package org.matsim.core.events;
 
 import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ParallelEventHandlingConfigGroup.EventsQueue;
 import org.matsim.core.controler.AbstractModule;
 import org.matsim.core.events.handler.EventHandler;
 
@@ -15,16 +16,24 @@ public final class EventsManagerModule extends AbstractModule {
 			bindEventsManager().to(ParallelEventsManager.class).asEagerSingleton();
 		} else if (getConfig().parallelEventHandling().getNumberOfThreads() != null) {
 			if (getConfig().parallelEventHandling().getSynchronizeOnSimSteps() != null && getConfig().parallelEventHandling().getSynchronizeOnSimSteps()) {
-				bindEventsManager().to(SimStepParallelEventsManagerImpl.class).asEagerSingleton();
+				bindSimStepParallelEventsManager();
 			} else {
 				bindEventsManager().to(ParallelEventsManagerImpl.class).asEagerSingleton();
 			}
 		} else {
-			bindEventsManager().to(SimStepParallelEventsManagerImpl.class).asEagerSingleton();
+			bindSimStepParallelEventsManager();
 		}
 		bind(EventHandlerRegistrator.class).asEagerSingleton();
 	}
 
+	private void bindSimStepParallelEventsManager() {
+		if (getConfig().parallelEventHandling().getEventsQueue() == EventsQueue.ringBuffer) {
+			bindEventsManager().to(RingBufferEventsManagerImpl.class).asEagerSingleton();
+		} else {
+			bindEventsManager().to(SimStepParallelEventsManagerImpl.class).asEagerSingleton();
+		}
+	}
+
 	private static class EventHandlerRegistrator {
 		@Inject
 		EventHandlerRegistrator(EventsManager eventsManager, Set<EventHandler> eventHandlersDeclaredByModules) {
@@ -0,0 +1,278 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventsReaderBinary.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.api.internal.MatsimReader;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.io.UncheckedIOException;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.vehicles.Vehicle;
+import org.xml.sax.helpers.AttributesImpl;
+
+/**
+ * Reads events files in the binary format described in {@link BinaryEventsFormat}.
+ * <p></p>
+ * Records of event types without specialized record type are handed to an {@link EventsReaderXMLv1}, so that they
+ * are converted into the same event classes (including custom event mappers) as when reading an xml file.
+ */
+public final class EventsReaderBinary implements MatsimReader {
+
+	private final EventsManager events;
+	private final EventsReaderXMLv1 genericEventsReader;
+
+	private final List<String> dictionary = new ArrayList<>();
+	private double lastTime = 0.0;
+
+	private InputStream in;
+	private final byte[] buffer = new byte[64 * 1024];
+	private int position = 0;
+	private int limit = 0;
+
+	public EventsReaderBinary(final EventsManager events) {
+		this.events = events;
+		this.genericEventsReader = new EventsReaderXMLv1(events);
+	}
+
+	public void addCustomEventMapper(String eventType, EventsReaderXMLv1.CustomEventMapper<?> cem) {
+		this.genericEventsReader.addCustomEventMapper(eventType, cem);
+	}
+
+	@Override
+	public void readFile(final String filename) {
+		readStream(IOUtils.getInputStream(filename));
+	}
+
+	public void readStream(final InputStream stream) {
+		this.in = stream;
+		this.position = 0;
+		this.limit = 0;
+		this.dictionary.clear();
+		this.lastTime = 0.0;
+		try {
+			for (byte b : BinaryEventsFormat.MAGIC) {
+				if (readByte() != b) {
+					throw new IllegalArgumentException("Not a binary MATSim events file.");
+				}
+			}
+			byte version = readByte();
+			if (version != BinaryEventsFormat.VERSION) {
+				throw new IllegalArgumentException("Unsupported version " + version + " of binary events file.");
+			}
+			while (readRecord()) {
+				// continue until the end of the file is reached
+			}
+			this.in.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private boolean readRecord() throws IOException {
+		byte recordType = readByte();
+		if (recordType == BinaryEventsFormat.RECORD_END_OF_FILE) {
+			return false;
+		}
+		double time = readTime();
+		Event event;
+		switch (recordType) {
+		case BinaryEventsFormat.RECORD_LINK_ENTER: {
+			Id<Vehicle> vehicleId = readId(Vehicle.class);
+			event = new LinkEnterEvent(time, vehicleId, readId(Link.class));
+			break;
+		}
+		case BinaryEventsFormat.RECORD_LINK_LEAVE: {
+			Id<Vehicle> vehicleId = readId(Vehicle.class);
+			event = new LinkLeaveEvent(time, vehicleId, readId(Link.class));
+			break;
+		}
+		case BinaryEventsFormat.RECORD_VEHICLE_ENTERS_TRAFFIC: {
+			Id<Person> driverId = readId(Person.class);
+			Id<Link> linkId = readId(Link.class);
+			Id<Vehicle> vehicleId = readId(Vehicle.class);
+			String networkMode = readString();
+			event = new VehicleEntersTrafficEvent(time, driverId, linkId, vehicleId, networkMode, readDouble());
+			break;
+		}
+		case BinaryEventsFormat.RECORD_VEHICLE_LEAVES_TRAFFIC: {
+			Id<Person> driverId = readId(Person.class);
+			Id<Link> linkId = readId(Link.class);
+			Id<Vehicle> vehicleId = readId(Vehicle.class);
+			String networkMode = readString();
+			event = new VehicleLeavesTrafficEvent(time, driverId, linkId, vehicleId, networkMode, readDouble());
+			break;
+		}
+		case BinaryEventsFormat.RECORD_PERSON_DEPARTURE: {
+			Id<Person> personId = readId(Person.class);
+			Id<Link> linkId = readId(Link.class);
+			event = new PersonDepartureEvent(time, personId, linkId, readString());
+			break;
+		}
+		case BinaryEventsFormat.RECORD_PERSON_ARRIVAL: {
+			Id<Person> personId = readId(Person.class);
+			Id<Link> linkId = readId(Link.class);
+			event = new PersonArrivalEvent(time, personId, linkId, readString());
+			break;
+		}
+		case BinaryEventsFormat.RECORD_ACTIVITY_START: {
+			Id<Person> personId = readId(Person.class);
+			Id<Link> linkId = readId(Link.class);
+			Id<ActivityFacility> facilityId = readId(ActivityFacility.class);
+			event = new ActivityStartEvent(time, personId, linkId, facilityId, readString());
+			break;
+		}
+		case BinaryEventsFormat.RECORD_ACTIVITY_END: {
+			Id<Person> personId = readId(Person.class);
+			Id<Link> linkId = readId(Link.class);
+			Id<ActivityFacility> facilityId = readId(ActivityFacility.class);
+			event = new ActivityEndEvent(time, personId, linkId, facilityId, readString());
+			break;
+		}
+		case BinaryEventsFormat.RECORD_PERSON_ENTERS_VEHICLE: {
+			Id<Person> personId = readId(Person.class);
+			event = new PersonEntersVehicleEvent(time, personId, readId(Vehicle.class));
+			break;
+		}
+		case BinaryEventsFormat.RECORD_PERSON_LEAVES_VEHICLE: {
+			Id<Person> personId = readId(Person.class);
+			event = new PersonLeavesVehicleEvent(time, personId, readId(Vehicle.class));
+			break;
+		}
+		case BinaryEventsFormat.RECORD_GENERIC:
+			readGenericRecord(time);
+			return true;
+		default:
+			throw new IllegalArgumentException("Unknown record type " + recordType + " in binary events file.");
+		}
+		this.events.processEvent(event);
+		return true;
+	}
+
+	private void readGenericRecord(final double time) throws IOException {
+		AttributesImpl atts = new AttributesImpl();
+		atts.addAttribute("", Event.ATTRIBUTE_TIME, Event.ATTRIBUTE_TIME, "CDATA", Double.toString(time));
+		atts.addAttribute("", Event.ATTRIBUTE_TYPE, Event.ATTRIBUTE_TYPE, "CDATA", readString());
+		long count = readVarLong();
+		for (long i = 0; i < count; i++) {
+			String key = readString();
+			String value = readInlineString();
+			atts.addAttribute("", key, key, "CDATA", value);
+		}
+		this.genericEventsReader.startTag(EventsReaderXMLv1.EVENT, atts, null);
+	}
+
+	private double readTime() throws IOException {
+		long header = readVarLong();
+		double time;
+		if ((header & 1) == 0) {
+			long zigzag = header >>> 1;
+			long delta = (zigzag >>> 1) ^ -(zigzag & 1);
+			time = this.lastTime + delta;
+		} else {
+			time = readDouble();
+		}
+		this.lastTime = time;
+		return time;
+	}
+
+	private <T> Id<T> readId(final Class<T> type) throws IOException {
+		String id = readString();
+		return id == null ? null : Id.create(id, type);
+	}
+
+	private String readString() throws IOException {
+		long code = readVarLong();
+		if (code == BinaryEventsFormat.STRING_NULL) {
+			return null;
+		}
+		if (code == BinaryEventsFormat.STRING_NEW) {
+			String string = readInlineString().intern();
+			this.dictionary.add(string);
+			return string;
+		}
+		return this.dictionary.get((int) (code - BinaryEventsFormat.STRING_FIRST_INDEX));
+	}
+
+	private String readInlineString() throws IOException {
+		long length = readVarLong();
+		if (length == 0) {
+			return null;
+		}
+		byte[] bytes = new byte[(int) (length - 1)];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = readByte();
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private double readDouble() throws IOException {
+		long bits = 0;
+		for (int i = 0; i < 8; i++) {
+			bits = (bits << 8) | (readByte() & 0xFF);
+		}
+		return Double.longBitsToDouble(bits);
+	}
+
+	private long readVarLong() throws IOException {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = readByte();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	private byte readByte() throws IOException {
+		if (this.position == this.limit) {
+			this.limit = this.in.read(this.buffer, 0, this.buffer.length);
+			this.position = 0;
+			if (this.limit <= 0) {
+				throw new EOFException("Unexpected end of binary events file.");
+			}
+		}
+		return this.buffer[this.position++];
+	}
+
+}
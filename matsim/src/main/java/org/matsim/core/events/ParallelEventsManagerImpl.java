@@ -66,7 +66,7 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 	private EventsManagerImpl[] events = null;
 	private ProcessEventThread[] eventsProcessThread = null;
 	private Thread[] threads = null;
-	private int numberOfAddedEventsHandler = 0;
+	private EventHandlerAssigner handlerAssigner;
 	private final AtomicBoolean hadException = new AtomicBoolean(false);
 	private final ExceptionHandler uncaughtExceptionHandler = new ExceptionHandler(hadException);
 
@@ -87,6 +87,7 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 			preInputBufferMaxLength = (int) (config.parallelEventHandling().getEstimatedNumberOfEvents() / 10);
 		}
 		init(config.parallelEventHandling().getNumberOfThreads());
+		this.handlerAssigner = new EventHandlerAssigner(this.events, config.parallelEventHandling());
 	}
 
 	/**
@@ -125,9 +126,8 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 	@Override
 	public void addHandler(final EventHandler handler) {
 		synchronized (this) {
-			log.info("adding Event-Handler " + handler.getClass().getName() + " to thread " + numberOfAddedEventsHandler);
-			events[numberOfAddedEventsHandler].addHandler(handler);
-			numberOfAddedEventsHandler = (numberOfAddedEventsHandler + 1) % numberOfThreads;
+			log.info("adding Event-Handler " + handler.getClass().getName());
+			handlerAssigner.addHandler(handler);
 		}
 	}
 
@@ -143,9 +143,7 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 	@Override
 	public void removeHandler(final EventHandler handler) {
 		synchronized (this) {
-			for (int i = 0; i < events.length; i++) {
-				events[i].removeHandler(handler);
-			}
+			handlerAssigner.removeHandler(handler);
 		}
 	}
 
@@ -167,6 +165,7 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 		for (int i = 0; i < numberOfThreads; i++) {
 			events[i] = (EventsManagerImpl) EventsUtils.createEventsManager();
 		}
+		this.handlerAssigner = new EventHandlerAssigner(this.events);
 	}
 
 	// When one simulation iteration is finish, it must call this method,
@@ -191,6 +190,7 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 		
 		// list which threads had which handlers to debug performance issues
 		printEventHandlers();
+		handlerAssigner.afterProcessing();
 
 		/*
 		 * introduction of the parallel mode variable was required, because of
@@ -210,6 +210,7 @@ public final class ParallelEventsManagerImpl implements EventsManager {
 	// prepare for next iteration
 	@Override
 	public void initProcessing() {
+		handlerAssigner.beforeProcessing();
 		// reset this class, so that it can be reused for the next iteration
 		for (int i = 0; i < numberOfThreads; i++) {
 			this.eventsProcessThread[i] = new ProcessEventThread(events[i], preInputBufferMaxLength);
@@ -0,0 +1,371 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RingBufferEventsManagerImpl.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.ParallelEventHandlingConfigGroup;
+import org.matsim.core.config.groups.ParallelEventHandlingConfigGroup.WaitStrategy;
+import org.matsim.core.events.handler.EventHandler;
+
+/**
+ * An EventsHandler that, like {@link SimStepParallelEventsManagerImpl}, handles all occurring Events in separate
+ * Threads and ensures that all Events created in a Time Step of the QSim are processed before the simulation goes on.
+ * <p></p>
+ * Instead of one LinkedBlockingQueue per thread, all threads read from one pre-allocated ring buffer.  Publishing an
+ * event claims the next sequence number and writes the event into the corresponding slot of the buffer.  Each thread
+ * reads all published events in batches and passes them to its share of the event handlers.  Thus, all threads see
+ * the events in the same order, and no locks and no allocations are needed per event.
+ * <p></p>
+ * Events can be published by several threads at the same time, e.g. by the parallel QNetsimEngine or by event handlers
+ * creating additional events.  If an events handling thread creates an event while the buffer is full, the event is
+ * put aside and published later by another thread, as waiting for free space would block the thread on itself.
+ */
+class RingBufferEventsManagerImpl implements EventsManager {
+
+	private final static Logger log = Logger.getLogger(RingBufferEventsManagerImpl.class);
+
+	private final static int SPIN_TRIES = 100;
+	private final static int YIELD_TRIES = 100;
+	private final static long PARK_NANOS = 1000;
+	private final static int BUSY_SPIN_YIELD_MASK = 1023;
+
+	private final int numOfThreads;
+	private final int bufferSize;
+	private final WaitStrategy waitStrategy;
+
+	private final EventsManagerImpl delegate = new EventsManagerImpl();
+	private final EventsManagerImpl[] eventsManagers;
+	private final EventHandlerAssigner handlerAssigner;
+
+	private Event[] buffer;
+	private AtomicLongArray published;
+	private int mask;
+	/** the highest sequence number claimed so far */
+	private final AtomicLong cursor = new AtomicLong(-1);
+	/** the lowest sequence number processed by all threads, as seen the last time it was determined */
+	private volatile long cachedGatingSequence = -1;
+	private ProcessEventsThread[] threads;
+	private final Queue<Event> deferredEvents = new ConcurrentLinkedQueue<>();
+
+	private volatile boolean parallelMode = false;
+	private final AtomicReference<Throwable> hadException = new AtomicReference<>();
+
+	@Inject
+	RingBufferEventsManagerImpl(ParallelEventHandlingConfigGroup config) {
+		this(config.getNumberOfThreads() != null ? config.getNumberOfThreads() : 1, config.getRingBufferSize(), config.getWaitStrategy(), config);
+	}
+
+	public RingBufferEventsManagerImpl(int numOfThreads, int bufferSize, WaitStrategy waitStrategy) {
+		this(numOfThreads, bufferSize, waitStrategy, null);
+	}
+
+	private RingBufferEventsManagerImpl(int numOfThreads, int bufferSize, WaitStrategy waitStrategy, ParallelEventHandlingConfigGroup config) {
+		this.numOfThreads = numOfThreads;
+		this.bufferSize = Integer.highestOneBit(Math.max(bufferSize, 2) - 1) << 1;
+		this.waitStrategy = waitStrategy;
+		log.info("number of threads=" + numOfThreads + ", ring buffer size=" + this.bufferSize + ", wait strategy=" + waitStrategy);
+
+		this.eventsManagers = new EventsManagerImpl[numOfThreads];
+		for (int i = 0; i < numOfThreads; i++) this.eventsManagers[i] = new EventsManagerImpl();
+		this.handlerAssigner = config != null ? new EventHandlerAssigner(this.eventsManagers, config) : new EventHandlerAssigner(this.eventsManagers);
+	}
+
+	@Override
+	public void processEvent(final Event event) {
+		if (!this.parallelMode) {
+			this.delegate.processEvent(event);
+			return;
+		}
+		Thread thread = Thread.currentThread();
+		if (thread instanceof ProcessEventsThread && ((ProcessEventsThread) thread).isOwnedBy(this)) {
+			if (!tryPublish(event)) {
+				this.deferredEvents.add(event);
+			}
+		} else {
+			publishDeferredEvents();
+			publish(event);
+		}
+	}
+
+	@Override
+	public void addHandler(final EventHandler handler) {
+		this.delegate.addHandler(handler);
+
+		this.handlerAssigner.addHandler(handler);
+	}
+
+	@Override
+	public void removeHandler(final EventHandler handler) {
+		this.delegate.removeHandler(handler);
+
+		this.handlerAssigner.removeHandler(handler);
+	}
+
+	@Override
+	public void resetHandlers(int iteration) {
+		this.delegate.resetHandlers(iteration);
+	}
+
+	@Override
+	public void initProcessing() {
+		this.handlerAssigner.beforeProcessing();
+		this.delegate.initProcessing();
+		for (EventsManager eventsManager : this.eventsManagers) eventsManager.initProcessing();
+
+		this.buffer = new Event[this.bufferSize];
+		this.published = new AtomicLongArray(this.bufferSize);
+		for (int i = 0; i < this.bufferSize; i++) {
+			this.published.set(i, -1);
+		}
+		this.mask = this.bufferSize - 1;
+		this.cursor.set(-1);
+		this.cachedGatingSequence = -1;
+		this.deferredEvents.clear();
+		this.hadException.set(null);
+
+		this.threads = new ProcessEventsThread[this.numOfThreads];
+		for (int i = 0; i < this.numOfThreads; i++) {
+			this.threads[i] = new ProcessEventsThread(this.eventsManagers[i], i);
+		}
+		/*
+		 * During the simulation Events are processed in
+		 * the EventsProcessingThreads.
+		 */
+		this.parallelMode = true;
+		for (ProcessEventsThread thread : this.threads) {
+			thread.start();
+		}
+	}
+
+	@Override
+	public void afterSimStep(double time) {
+		/*
+		 * If an exception occurred, at least one of the events processing threads
+		 * has crashed and will not process any events anymore.
+		 */
+		if (!this.parallelMode || this.hadException.get() != null) {
+			return;
+		}
+		awaitAllEventsProcessed();
+	}
+
+	/*
+	 * In some cases Events are created after this method has been called.
+	 * To ensure that they are processed in real time, we process them not
+	 * in the parallel threads, but with the delegate.
+	 */
+	@Override
+	public synchronized void finishProcessing() {
+		if (this.parallelMode) {
+			awaitAllEventsProcessed();
+			for (ProcessEventsThread thread : this.threads) {
+				thread.running = false;
+			}
+			try {
+				for (ProcessEventsThread thread : this.threads) {
+					thread.join();
+				}
+			} catch (InterruptedException e) {
+				this.hadException.compareAndSet(null, e);
+			}
+			this.parallelMode = false;
+			this.threads = null;
+			this.buffer = null;
+			this.published = null;
+		}
+
+		this.delegate.finishProcessing();
+		for (EventsManager eventsManager : this.eventsManagers) eventsManager.finishProcessing();
+		this.handlerAssigner.afterProcessing();
+
+		Throwable throwable = this.hadException.get();
+		if (throwable != null) {
+			throw new RuntimeException("Exception while processing events. Cannot guarantee that all events have been fully processed.", throwable);
+		}
+	}
+
+	/**
+	 * Waits until all threads have processed all published events, including the events that event handlers created
+	 * while processing them.
+	 *
+	 * @return <code>false</code> if an events processing thread crashed.
+	 */
+	private boolean awaitAllEventsProcessed() {
+		while (true) {
+			publishDeferredEvents();
+			long target = this.cursor.get();
+			int attempt = 0;
+			while (getMinimumProcessedSequence() < target) {
+				if (this.hadException.get() != null) {
+					return false;
+				}
+				waitFor(attempt++);
+			}
+			/*
+			 * All threads are idle now, so if no additional events were created while
+			 * processing the ones up to target, we are done.
+			 */
+			if (this.cursor.get() == target && this.deferredEvents.isEmpty()) {
+				return true;
+			}
+		}
+	}
+
+	private void publishDeferredEvents() {
+		Event event;
+		while ((event = this.deferredEvents.poll()) != null) {
+			publish(event);
+		}
+	}
+
+	private void publish(final Event event) {
+		long sequence;
+		int attempt = 0;
+		while ((sequence = claim()) < 0) {
+			if (this.hadException.get() != null) {
+				throw new RuntimeException("Exception while processing events, cannot publish further events.", this.hadException.get());
+			}
+			waitFor(attempt++);
+		}
+		write(sequence, event);
+	}
+
+	private boolean tryPublish(final Event event) {
+		long sequence = claim();
+		if (sequence < 0) {
+			return false;
+		}
+		write(sequence, event);
+		return true;
+	}
+
+	/**
+	 * @return the claimed sequence number, or <code>-1</code> if the buffer is full.
+	 */
+	private long claim() {
+		while (true) {
+			long current = this.cursor.get();
+			long next = current + 1;
+			long wrapPoint = next - this.bufferSize;
+			if (wrapPoint > this.cachedGatingSequence) {
+				long gatingSequence = getMinimumProcessedSequence();
+				this.cachedGatingSequence = gatingSequence;
+				if (wrapPoint > gatingSequence) {
+					return -1;
+				}
+			}
+			if (this.cursor.compareAndSet(current, next)) {
+				return next;
+			}
+		}
+	}
+
+	private void write(final long sequence, final Event event) {
+		int index = (int) (sequence & this.mask);
+		this.buffer[index] = event;
+		this.published.lazySet(index, sequence);
+	}
+
+	private long getMinimumProcessedSequence() {
+		long minimum = Long.MAX_VALUE;
+		for (ProcessEventsThread thread : this.threads) {
+			minimum = Math.min(minimum, thread.processedSequence);
+		}
+		return minimum;
+	}
+
+	private void waitFor(final int attempt) {
+		if (this.waitStrategy == WaitStrategy.park) {
+			if (attempt > SPIN_TRIES + YIELD_TRIES) {
+				LockSupport.parkNanos(PARK_NANOS);
+			} else if (attempt > SPIN_TRIES) {
+				Thread.yield();
+			}
+		} else if ((attempt & BUSY_SPIN_YIELD_MASK) == BUSY_SPIN_YIELD_MASK) {
+			// still make progress if there are more spinning threads than cores
+			Thread.yield();
+		}
+	}
+
+	private class ProcessEventsThread extends Thread {
+
+		private final EventsManager eventsManager;
+		/** the highest sequence number this thread has processed */
+		private volatile long processedSequence = -1;
+		private volatile boolean running = true;
+
+		ProcessEventsThread(final EventsManager eventsManager, final int index) {
+			super(ProcessEventsThread.class.getSimpleName() + index);
+			this.eventsManager = eventsManager;
+			setDaemon(true);
+		}
+
+		boolean isOwnedBy(final RingBufferEventsManagerImpl manager) {
+			return RingBufferEventsManagerImpl.this == manager;
+		}
+
+		@Override
+		public void run() {
+			Event[] buffer = RingBufferEventsManagerImpl.this.buffer;
+			AtomicLongArray published = RingBufferEventsManagerImpl.this.published;
+			int mask = RingBufferEventsManagerImpl.this.mask;
+			try {
+				long next = this.processedSequence + 1;
+				int attempt = 0;
+				while (true) {
+					// find the end of the batch of consecutive published events
+					long available = next - 1;
+					while (published.get((int) ((available + 1) & mask)) == available + 1) {
+						available++;
+					}
+					if (available < next) {
+						if (!this.running) {
+							break;
+						}
+						waitFor(attempt++);
+						continue;
+					}
+					attempt = 0;
+					for (long sequence = next; sequence <= available; sequence++) {
+						this.eventsManager.processEvent(buffer[(int) (sequence & mask)]);
+					}
+					this.processedSequence = available;
+					next = available + 1;
+				}
+			} catch (Throwable e) {
+				hadException.compareAndSet(null, e);
+				log.error("Thread " + getName() + " died with exception while handling events.", e);
+			}
+		}
+	}
+
+}
@@ -56,11 +56,11 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 	private CyclicBarrier iterationEndBarrier;
     private ProcessEventsRunnable[] runnables;
 	private EventsManagerImpl[] eventsManagers;
+	private EventHandlerAssigner handlerAssigner;
 	private EventsManagerImpl delegate;
 	private ProcessedEventsChecker processedEventsChecker;
 	
 	private boolean parallelMode = false;
-	private int handlerCount = 0;
 	
 	private AtomicLong counter;
 	private AtomicReference<Throwable> hadException = new AtomicReference<>();
@@ -68,6 +68,7 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 	@Inject
 	SimStepParallelEventsManagerImpl(ParallelEventHandlingConfigGroup config) {
 		this(config.getNumberOfThreads() != null ? config.getNumberOfThreads() : 1);
+		this.handlerAssigner = new EventHandlerAssigner(this.eventsManagers, config);
 	}
 
     public SimStepParallelEventsManagerImpl() {
@@ -90,6 +91,7 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 
 		this.eventsManagers = new EventsManagerImpl[this.numOfThreads];
 		for (int i = 0; i < numOfThreads; i++) this.eventsManagers[i] = new EventsManagerImpl();
+		this.handlerAssigner = new EventHandlerAssigner(this.eventsManagers);
 	}
 
 	@Override
@@ -105,15 +107,14 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 	public void addHandler(final EventHandler handler) {
 		delegate.addHandler(handler);
 		
-		eventsManagers[handlerCount % numOfThreads].addHandler(handler);
-		handlerCount++;
+		handlerAssigner.addHandler(handler);
 	}
 
 	@Override
 	public void removeHandler(final EventHandler handler) {
 		delegate.removeHandler(handler);
 		
-		for (EventsManager eventsManager : eventsManagers) eventsManager.removeHandler(handler);
+		handlerAssigner.removeHandler(handler);
 	}
 	
 	@Override
@@ -124,6 +125,7 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 
 	@Override
 	public void initProcessing() {
+		handlerAssigner.beforeProcessing();
 		delegate.initProcessing();
 		for (EventsManager eventsManager : this.eventsManagers) eventsManager.initProcessing();
 
@@ -201,6 +203,7 @@ class SimStepParallelEventsManagerImpl implements EventsManager {
 		
 		delegate.finishProcessing();
 		for (EventsManager eventsManager : this.eventsManagers) eventsManager.finishProcessing();
+		handlerAssigner.afterProcessing();
 		
 		/*
 		 * After the simulation Events are processed in
@@ -0,0 +1,261 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventWriterBinary.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events.algorithms;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.core.events.BinaryEventsFormat;
+import org.matsim.core.events.handler.BasicEventHandler;
+import org.matsim.core.utils.io.IOUtils;
+import org.matsim.core.utils.io.UncheckedIOException;
+
+/**
+ * Writes events in the compact binary format described in {@link BinaryEventsFormat}.
+ * <p></p>
+ * In contrast to {@link EventWriterXML}, the most frequent event types are written directly from their fields,
+ * without going through {@link Event#getAttributes()}, and ids are written as index into a dictionary.  Thus,
+ * except for new dictionary entries and for event types without specialized record, writing an event does not
+ * allocate any objects.
+ */
+public final class EventWriterBinary implements EventWriter, BasicEventHandler {
+
+	private final OutputStream out;
+	private final byte[] buffer = new byte[64 * 1024];
+	private int position = 0;
+
+	// larger differences would overflow when being zigzag-encoded and shifted
+	private static final long MAX_COMPACT_TIME_DELTA = 1L << 61;
+
+	private final Map<String, Integer> dictionary = new HashMap<>();
+	private double lastTime = 0.0;
+
+	public EventWriterBinary(final String outfilename) {
+		this(IOUtils.getOutputStream(outfilename));
+	}
+
+	public EventWriterBinary(final OutputStream stream) {
+		this.out = stream;
+		for (byte b : BinaryEventsFormat.MAGIC) {
+			writeByte(b);
+		}
+		writeByte(BinaryEventsFormat.VERSION);
+	}
+
+	@Override
+	public void closeFile() {
+		writeByte(BinaryEventsFormat.RECORD_END_OF_FILE);
+		try {
+			flushBuffer();
+			this.out.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void reset(final int iter) {
+	}
+
+	@Override
+	public void handleEvent(final Event event) {
+		// exact class comparison, since subclasses may carry additional attributes
+		if (event.getClass() == LinkEnterEvent.class) {
+			LinkEnterEvent e = (LinkEnterEvent) event;
+			writeHeader(BinaryEventsFormat.RECORD_LINK_ENTER, e.getTime());
+			writeId(e.getVehicleId());
+			writeId(e.getLinkId());
+		} else if (event.getClass() == LinkLeaveEvent.class) {
+			LinkLeaveEvent e = (LinkLeaveEvent) event;
+			writeHeader(BinaryEventsFormat.RECORD_LINK_LEAVE, e.getTime());
+			writeId(e.getVehicleId());
+			writeId(e.getLinkId());
+		} else if (event.getClass() == VehicleEntersTrafficEvent.class) {
+			VehicleEntersTrafficEvent e = (VehicleEntersTrafficEvent) event;
+			writeHeader(BinaryEventsFormat.RECORD_VEHICLE_ENTERS_TRAFFIC, e.getTime());
+			writeId(e.getPersonId());
+			writeId(e.getLinkId());
+			writeId(e.getVehicleId());
+			writeString(e.getNetworkMode());
+			writeDouble(e.getRelativePositionOnLink());
+		} else if (event.getClass() == VehicleLeavesTrafficEvent.class) {
+			VehicleLeavesTrafficEvent e = (VehicleLeavesTrafficEvent) event;
+			writeHeader(BinaryEventsFormat.RECORD_VEHICLE_LEAVES_TRAFFIC, e.getTime());
+			writeId(e.getPersonId());
+			writeId(e.getLinkId());
+			writeId(e.getVehicleId());
+			writeString(e.getNetworkMode());
+			writeDouble(e.getRelativePositionOnLink());
+		} else if (event.getClass() == PersonDepartureEvent.class) {
+			PersonDepartureEvent e = (PersonDepartureEvent) event;
+			writeHeader(BinaryEventsFormat.RECORD_PERSON_DEPARTURE, e.getTime());
+			writeId(e.getPersonId());
+			writeId(e.getLinkId());
+			writeString(e.getLegMode());
+		} else if (event.getClass() == PersonArrivalEvent.class) {
+			PersonArrivalEvent e = (PersonArrivalEvent) event;
+			writeHeader(BinaryEventsFormat.RECORD_PERSON_ARRIVAL, e.getTime());
+			writeId(e.getPersonId());
+			writeId(e.getLinkId());
+			writeString(e.getLegMode());
+		} else if (event.getClass() == ActivityStartEvent.class) {
+			ActivityStartEvent e = (ActivityStartEvent) event;
+			writeHeader(BinaryEventsFormat.RECORD_ACTIVITY_START, e.getTime());
+			writeId(e.getPersonId());
+			writeId(e.getLinkId());
+			writeId(e.getFacilityId());
+			writeString(e.getActType());
+		} else if (event.getClass() == ActivityEndEvent.class) {
+			ActivityEndEvent e = (ActivityEndEvent) event;
+			writeHeader(BinaryEventsFormat.RECORD_ACTIVITY_END, e.getTime());
+			writeId(e.getPersonId());
+			writeId(e.getLinkId());
+			writeId(e.getFacilityId());
+			writeString(e.getActType());
+		} else if (event.getClass() == PersonEntersVehicleEvent.class) {
+			PersonEntersVehicleEvent e = (PersonEntersVehicleEvent) event;
+			writeHeader(BinaryEventsFormat.RECORD_PERSON_ENTERS_VEHICLE, e.getTime());
+			writeId(e.getPersonId());
+			writeId(e.getVehicleId());
+		} else if (event.getClass() == PersonLeavesVehicleEvent.class) {
+			PersonLeavesVehicleEvent e = (PersonLeavesVehicleEvent) event;
+			writeHeader(BinaryEventsFormat.RECORD_PERSON_LEAVES_VEHICLE, e.getTime());
+			writeId(e.getPersonId());
+			writeId(e.getVehicleId());
+		} else {
+			writeGeneric(event);
+		}
+	}
+
+	private void writeGeneric(final Event event) {
+		Map<String, String> attr = event.getAttributes();
+		writeHeader(BinaryEventsFormat.RECORD_GENERIC, event.getTime());
+		writeString(event.getEventType());
+		int count = 0;
+		for (String key : attr.keySet()) {
+			if (!isTimeOrType(key)) {
+				count++;
+			}
+		}
+		writeVarLong(count);
+		for (Map.Entry<String, String> entry : attr.entrySet()) {
+			if (!isTimeOrType(entry.getKey())) {
+				writeString(entry.getKey());
+				writeInlineString(entry.getValue());
+			}
+		}
+	}
+
+	private static boolean isTimeOrType(final String key) {
+		return Event.ATTRIBUTE_TIME.equals(key) || Event.ATTRIBUTE_TYPE.equals(key);
+	}
+
+	private void writeHeader(final byte recordType, final double time) {
+		writeByte(recordType);
+		double delta = time - this.lastTime;
+		long wholeDelta = (long) delta;
+		if (wholeDelta == delta && Math.abs(wholeDelta) < MAX_COMPACT_TIME_DELTA && this.lastTime + wholeDelta == time) {
+			writeVarLong(((wholeDelta << 1) ^ (wholeDelta >> 63)) << 1);
+		} else {
+			writeVarLong(1);
+			writeDouble(time);
+		}
+		this.lastTime = time;
+	}
+
+	private void writeId(final Id<?> id) {
+		writeString(id == null ? null : id.toString());
+	}
+
+	private void writeString(final String string) {
+		if (string == null) {
+			writeVarLong(BinaryEventsFormat.STRING_NULL);
+			return;
+		}
+		Integer index = this.dictionary.get(string);
+		if (index == null) {
+			this.dictionary.put(string, this.dictionary.size());
+			writeVarLong(BinaryEventsFormat.STRING_NEW);
+			writeInlineString(string);
+		} else {
+			writeVarLong(index + BinaryEventsFormat.STRING_FIRST_INDEX);
+		}
+	}
+
+	private void writeInlineString(final String string) {
+		if (string == null) {
+			writeVarLong(0);
+			return;
+		}
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(bytes.length + 1);
+		for (byte b : bytes) {
+			writeByte(b);
+		}
+	}
+
+	private void writeDouble(final double value) {
+		long bits = Double.doubleToRawLongBits(value);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			writeByte((byte) (bits >>> shift));
+		}
+	}
+
+	private void writeVarLong(long value) {
+		while ((value & ~0x7FL) != 0) {
+			writeByte((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		writeByte((byte) value);
+	}
+
+	private void writeByte(final byte b) {
+		if (this.position == this.buffer.length) {
+			try {
+				flushBuffer();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+		this.buffer[this.position++] = b;
+	}
+
+	private void flushBuffer() throws IOException {
+		this.out.write(this.buffer, 0, this.position);
+		this.position = 0;
+	}
+
+}
@@ -19,8 +19,10 @@
 
 package org.matsim.core.mobsim.qsim;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.PriorityBlockingQueue;
 
@@ -35,11 +37,12 @@ import org.matsim.core.mobsim.framework.MobsimAgent.State;
 import org.matsim.core.mobsim.qsim.interfaces.ActivityHandler;
 import org.matsim.core.mobsim.qsim.interfaces.AgentCounter;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimEngine;
+import org.matsim.core.mobsim.qsim.interfaces.NextEventTimeAware;
 import org.matsim.core.utils.misc.Time;
 
 import javax.inject.Inject;
 
-public class ActivityEngine implements MobsimEngine, ActivityHandler {
+public class ActivityEngine implements MobsimEngine, ActivityHandler, NextEventTimeAware {
 	private static final Logger log = Logger.getLogger( ActivityEngine.class ) ;
 
 	private EventsManager eventsManager;
@@ -101,14 +104,27 @@ public class ActivityEngine implements MobsimEngine, ActivityHandler {
 	// See handleActivity for the reason for this.
 	private boolean beforeFirstSimStep = true;
 
+	/** null if the activities are ended one after the other */
+	private ParallelAgentStateUpdater agentStateUpdater;
+
 	@Override
 	public void onPrepareSim() {
-		// Nothing to do here
+		this.agentStateUpdater = ParallelAgentStateUpdater.create(this.internalInterface);
 	}
 
 	@Override
 	public void doSimStep(double time) {
 		beforeFirstSimStep = false;
+		if (agentStateUpdater != null) {
+			List<MobsimAgent> endingAgents = new ArrayList<>();
+			while (activityEndsList.peek() != null && activityEndsList.peek().activityEndTime <= time) {
+				MobsimAgent agent = activityEndsList.poll().agent;
+				unregisterAgentAtActivityLocation(agent);
+				endingAgents.add(agent);
+			}
+			agentStateUpdater.endActivitiesAndArrangeNextAgentStates(endingAgents, time);
+			return;
+		}
 		while (activityEndsList.peek() != null) {
 			if (activityEndsList.peek().activityEndTime <= time) {
 				MobsimAgent agent = activityEndsList.poll().agent;
@@ -121,6 +137,12 @@ public class ActivityEngine implements MobsimEngine, ActivityHandler {
 		}
 	}
 
+	@Override
+	public double getNextEventTime() {
+		AgentEntry entry = activityEndsList.peek();
+		return entry == null ? Double.POSITIVE_INFINITY : entry.activityEndTime;
+	}
+
 	@Override
 	public void afterSim() {
 		double now = this.internalInterface.getMobsim().getSimTimer().getTimeOfDay();
@@ -132,6 +154,10 @@ public class ActivityEngine implements MobsimEngine, ActivityHandler {
 			}
 		}
 		activityEndsList.clear();
+		if (agentStateUpdater != null) {
+			agentStateUpdater.shutdown();
+			agentStateUpdater = null;
+		}
 	}
 
 	@Override
@@ -3,6 +3,7 @@ package org.matsim.core.mobsim.qsim;
 import com.google.inject.AbstractModule;
 import com.google.inject.Module;
 import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.QSimConfigGroup.ActivityEngineType;
 import org.matsim.core.mobsim.qsim.interfaces.ActivityHandler;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimEngine;
 
@@ -22,18 +23,28 @@ public final class ActivityEnginePlugin extends AbstractQSimPlugin {
 		return Collections.singletonList(new AbstractModule() {
 			@Override
 			public void configure() {
-				bind(ActivityEngine.class).asEagerSingleton();
+				if (isUsingCalendarQueue()) {
+					bind(CalendarQueueActivityEngine.class).asEagerSingleton();
+				} else {
+					bind(ActivityEngine.class).asEagerSingleton();
+				}
 			}
 		});
 	}
 
 	@Override
 	public Map<String, Class<? extends ActivityHandler>> activityHandlers() {
-		return Collections.singletonMap(ACTIVITY_ENGINE_NAME, ActivityEngine.class);
+		Class<? extends ActivityHandler> activityEngineClass = isUsingCalendarQueue() ? CalendarQueueActivityEngine.class : ActivityEngine.class;
+		return Collections.<String, Class<? extends ActivityHandler>>singletonMap(ACTIVITY_ENGINE_NAME, activityEngineClass);
 	}
 
 	@Override
 	public Map<String, Class<? extends MobsimEngine>> engines() {
-		return Collections.singletonMap(ACTIVITY_ENGINE_NAME, ActivityEngine.class);
+		Class<? extends MobsimEngine> activityEngineClass = isUsingCalendarQueue() ? CalendarQueueActivityEngine.class : ActivityEngine.class;
+		return Collections.<String, Class<? extends MobsimEngine>>singletonMap(ACTIVITY_ENGINE_NAME, activityEngineClass);
+	}
+
+	private boolean isUsingCalendarQueue() {
+		return getConfig().qsim().getActivityEngine() == ActivityEngineType.calendarQueue;
 	}
 }
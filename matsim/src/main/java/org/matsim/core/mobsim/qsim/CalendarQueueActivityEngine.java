@@ -0,0 +1,363 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CalendarQueueActivityEngine.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.mobsim.framework.MobsimAgent;
+import org.matsim.core.mobsim.framework.MobsimAgent.State;
+import org.matsim.core.mobsim.qsim.interfaces.ActivityHandler;
+import org.matsim.core.mobsim.qsim.interfaces.MobsimEngine;
+import org.matsim.core.mobsim.qsim.interfaces.NextEventTimeAware;
+import org.matsim.core.utils.misc.Time;
+
+/**
+ * An {@link ActivityEngine} for simulations with a lot of within-day replanning.  The activity ends are kept in a
+ * calendar queue, i.e. in buckets of one second each, instead of in a priority queue, and each performing agent has a
+ * handle to its entry.  So {@link #rescheduleActivityEnd(MobsimAgent)} only marks the old entry as cancelled and adds
+ * a new one, instead of searching the whole queue for the agent.  Cancelled entries are dropped when their bucket
+ * comes due.
+ * <p></p>
+ * The buckets cover 36 hours; later activity ends share the buckets of the earlier times and are skipped until their
+ * time has come.  The agents leave in the same order as in {@link ActivityEngine}: by activity end time, and agents
+ * with the same end time in the order of the comparator there.
+ *
+ * @see QSimConfigGroup#getActivityEngine()
+ */
+public final class CalendarQueueActivityEngine implements MobsimEngine, ActivityHandler, NextEventTimeAware {
+
+	private static final int BUCKET_BITS = 17;
+	private static final int BUCKET_COUNT = 1 << BUCKET_BITS;
+	private static final int BUCKET_MASK = BUCKET_COUNT - 1;
+	private static final double BUCKET_SIZE = 1.0;
+
+	private static final Comparator<AgentEntry> ENTRY_COMPARATOR = new Comparator<AgentEntry>() {
+		@Override
+		public int compare(AgentEntry arg0, AgentEntry arg1) {
+			int cmp = Double.compare(arg0.activityEndTime, arg1.activityEndTime);
+			if (cmp == 0) {
+				// same as in ActivityEngine: the agent with the larger id first
+				return arg1.agent.getId().compareTo(arg0.agent.getId());
+			}
+			return cmp;
+		}
+	};
+
+	private static final class AgentEntry {
+		final MobsimAgent agent;
+		final double activityEndTime;
+		boolean cancelled = false;
+
+		AgentEntry(final MobsimAgent agent, final double activityEndTime) {
+			this.agent = agent;
+			this.activityEndTime = activityEndTime;
+		}
+	}
+
+	private final EventsManager eventsManager;
+	private InternalInterface internalInterface;
+
+	/** the buckets, created when first used; guarded by <code>this</code> like everything below */
+	private final List<List<AgentEntry>> buckets = new ArrayList<>(Collections.<List<AgentEntry>> nCopies(BUCKET_COUNT, null));
+	/** the entry of each agent in the queue */
+	private final Map<MobsimAgent, AgentEntry> entries = new IdentityHashMap<>();
+	/** the bucket of the last time step; earlier activity ends are added to it */
+	private long currentSlot = 0;
+	/** the earliest activity end in the queue, or NaN if it has to be searched */
+	private double nextActivityEndTime = Double.POSITIVE_INFINITY;
+
+	// See ActivityEngine.handleActivity for the reason for this.
+	private boolean beforeFirstSimStep = true;
+
+	/** null if the activities are ended one after the other */
+	private ParallelAgentStateUpdater agentStateUpdater;
+
+	@Inject
+	public CalendarQueueActivityEngine(EventsManager eventsManager) {
+		this.eventsManager = eventsManager;
+	}
+
+	@Override
+	public void onPrepareSim() {
+		this.agentStateUpdater = ParallelAgentStateUpdater.create(this.internalInterface);
+	}
+
+	@Override
+	public void doSimStep(double time) {
+		beforeFirstSimStep = false;
+		List<AgentEntry> endingAgents;
+		// (agents which are rescheduled to an earlier time while others end their activities are handled in a second pass)
+		while (!(endingAgents = pollEndingAgents(time)).isEmpty()) {
+			List<MobsimAgent> agents = new ArrayList<>(endingAgents.size());
+			for (AgentEntry entry : endingAgents) {
+				if (!remove(entry)) {
+					continue; // rescheduled in the mean time
+				}
+				MobsimAgent agent = entry.agent;
+				unregisterAgentAtActivityLocation(agent);
+				if (agentStateUpdater != null) {
+					agents.add(agent);
+				} else {
+					agent.endActivityAndComputeNextState(time);
+					internalInterface.arrangeNextAgentState(agent);
+				}
+			}
+			if (agentStateUpdater != null) {
+				agentStateUpdater.endActivitiesAndArrangeNextAgentStates(agents, time);
+			}
+		}
+	}
+
+	@Override
+	public synchronized double getNextEventTime() {
+		if (Double.isNaN(this.nextActivityEndTime)) {
+			this.nextActivityEndTime = findNextActivityEndTime();
+		}
+		return this.nextActivityEndTime;
+	}
+
+	@Override
+	public void afterSim() {
+		double now = this.internalInterface.getMobsim().getSimTimer().getTimeOfDay();
+		List<AgentEntry> remaining;
+		synchronized (this) {
+			remaining = new ArrayList<>(this.entries.values());
+			this.entries.clear();
+			this.nextActivityEndTime = Double.POSITIVE_INFINITY;
+			Collections.fill(this.buckets, null);
+		}
+		Collections.sort(remaining, ENTRY_COMPARATOR);
+		for (AgentEntry entry : remaining) {
+			if (entry.activityEndTime != Double.POSITIVE_INFINITY && !Time.isUndefinedTime(entry.activityEndTime)) {
+				eventsManager.processEvent(new PersonStuckEvent(now, entry.agent.getId(), null, null));
+			}
+		}
+		if (agentStateUpdater != null) {
+			agentStateUpdater.shutdown();
+			agentStateUpdater = null;
+		}
+	}
+
+	@Override
+	public void setInternalInterface(InternalInterface internalInterface) {
+		this.internalInterface = internalInterface;
+	}
+
+	/**
+	 * Same as {@link ActivityEngine#handleActivity(MobsimAgent)}.
+	 */
+	@Override
+	public boolean handleActivity(MobsimAgent agent) {
+		if (agent.getActivityEndTime() == Double.POSITIVE_INFINITY) {
+			// This is the last planned activity.
+			// So the agent goes to sleep.
+			internalInterface.getMobsim().getAgentCounter().decLiving();
+		} else if (agent.getActivityEndTime() <= internalInterface.getMobsim().getSimTimer().getTimeOfDay() && !beforeFirstSimStep) {
+			// This activity is already over (planned for 0 duration)
+			// So we proceed immediately.
+			agent.endActivityAndComputeNextState(internalInterface.getMobsim().getSimTimer().getTimeOfDay());
+			internalInterface.arrangeNextAgentState(agent) ;
+		} else {
+			// The agent commences an activity on this link.
+			add(new AgentEntry(agent, agent.getActivityEndTime()));
+			internalInterface.registerAdditionalAgentOnLink(agent);
+		}
+		return true;
+	}
+
+	/**
+	 * Same as {@link ActivityEngine#rescheduleActivityEnd(MobsimAgent)}, but without a search through the queue.
+	 */
+	@Override
+	public void rescheduleActivityEnd(final MobsimAgent agent) {
+		if ( agent.getState()!=State.ACTIVITY ) {
+			return ;
+		}
+
+		double newActivityEndTime = agent.getActivityEndTime();
+		boolean wasQueued = cancel(agent);
+
+		if (!wasQueued) {
+			if (newActivityEndTime == Double.POSITIVE_INFINITY) {
+				// agent was de-activated and still should be de-activated - nothing to do here
+			} else {
+				// re-activate the agent
+				add(new AgentEntry(agent, newActivityEndTime));
+				internalInterface.registerAdditionalAgentOnLink(agent);
+				((org.matsim.core.mobsim.qsim.AgentCounter) internalInterface.getMobsim().getAgentCounter()).incLiving();
+			}
+		} else if (newActivityEndTime == Double.POSITIVE_INFINITY) {
+			// the agent's current activity has become its last activity, so the agent is de-activated
+			unregisterAgentAtActivityLocation(agent);
+			internalInterface.getMobsim().getAgentCounter().decLiving();
+		} else {
+			// the activity is just rescheduled during the day, so we keep the agent active
+			add(new AgentEntry(agent, newActivityEndTime));
+		}
+	}
+
+	private synchronized void add(final AgentEntry entry) {
+		long slot = getSlot(entry.activityEndTime);
+		int bucket = (int) (Math.max(slot, this.currentSlot) & BUCKET_MASK);
+		List<AgentEntry> list = this.buckets.get(bucket);
+		if (list == null) {
+			list = new ArrayList<>();
+			this.buckets.set(bucket, list);
+		}
+		list.add(entry);
+		this.entries.put(entry.agent, entry);
+		if (!Double.isNaN(this.nextActivityEndTime)) {
+			this.nextActivityEndTime = Math.min(this.nextActivityEndTime, entry.activityEndTime);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> if the agent was in the queue.
+	 */
+	private synchronized boolean cancel(final MobsimAgent agent) {
+		AgentEntry entry = this.entries.remove(agent);
+		if (entry == null) {
+			return false;
+		}
+		entry.cancelled = true;
+		if (entry.activityEndTime <= this.nextActivityEndTime) {
+			this.nextActivityEndTime = Double.NaN;
+		}
+		return true;
+	}
+
+	/**
+	 * @return <code>true</code> if the entry was still valid, i.e. the agent was not rescheduled since it was polled.
+	 */
+	private synchronized boolean remove(final AgentEntry entry) {
+		if (entry.cancelled) {
+			return false;
+		}
+		this.entries.remove(entry.agent);
+		entry.cancelled = true;
+		return true;
+	}
+
+	/**
+	 * @return the entries ending at <code>time</code> or earlier, sorted; they stay in the queue until they are
+	 * {@link #remove(AgentEntry) removed}, so the agents can still be rescheduled.
+	 */
+	private synchronized List<AgentEntry> pollEndingAgents(final double time) {
+		List<AgentEntry> endingAgents = Collections.emptyList();
+		long targetSlot = Math.max(getSlot(time), this.currentSlot);
+		// (after a long jump, each bucket is visited once)
+		long firstSlot = Math.max(this.currentSlot, targetSlot - BUCKET_MASK);
+		for (long slot = firstSlot; slot <= targetSlot; slot++) {
+			List<AgentEntry> list = this.buckets.get((int) (slot & BUCKET_MASK));
+			if (list == null) {
+				continue;
+			}
+			int kept = 0;
+			for (int i = 0; i < list.size(); i++) {
+				AgentEntry entry = list.get(i);
+				if (entry.cancelled) {
+					continue;
+				}
+				if (entry.activityEndTime <= time) {
+					if (endingAgents.isEmpty()) {
+						endingAgents = new ArrayList<>();
+					}
+					endingAgents.add(entry);
+				} else {
+					list.set(kept++, entry);
+				}
+			}
+			if (kept == 0) {
+				this.buckets.set((int) (slot & BUCKET_MASK), null);
+			} else {
+				list.subList(kept, list.size()).clear();
+			}
+		}
+		this.currentSlot = targetSlot;
+		if (!(this.nextActivityEndTime > time)) {
+			this.nextActivityEndTime = Double.NaN;
+		}
+		if (endingAgents.size() > 1) {
+			Collections.sort(endingAgents, ENTRY_COMPARATOR);
+		}
+		return endingAgents;
+	}
+
+	/**
+	 * Searches the buckets from the current one on, so this takes as long as the time until the next activity end.
+	 */
+	private double findNextActivityEndTime() {
+		for (long slot = this.currentSlot; slot < this.currentSlot + BUCKET_COUNT; slot++) {
+			List<AgentEntry> list = this.buckets.get((int) (slot & BUCKET_MASK));
+			if (list == null) {
+				continue;
+			}
+			double min = Double.POSITIVE_INFINITY;
+			for (AgentEntry entry : list) {
+				// (skipping the entries of later rounds through the buckets)
+				if (!entry.cancelled && Math.max(getSlot(entry.activityEndTime), this.currentSlot) == slot) {
+					min = Math.min(min, entry.activityEndTime);
+				}
+			}
+			if (min < Double.POSITIVE_INFINITY) {
+				return min;
+			}
+		}
+		// only activity ends more than one round ahead, if any
+		double min = Double.POSITIVE_INFINITY;
+		for (AgentEntry entry : this.entries.values()) {
+			min = Math.min(min, entry.activityEndTime);
+		}
+		return min;
+	}
+
+	private static long getSlot(final double time) {
+		if (time <= 0 || Double.isNaN(time)) {
+			return 0;
+		}
+		if (time >= Long.MAX_VALUE / 2) {
+			return Long.MAX_VALUE / 2;
+		}
+		return (long) (time / BUCKET_SIZE);
+	}
+
+	private void unregisterAgentAtActivityLocation(final MobsimAgent agent) {
+		Id<Person> agentId = agent.getId();
+		Id<Link> linkId = agent.getCurrentLinkId();
+		if (linkId != null) { // may be bushwacking
+			internalInterface.unregisterAdditionalAgentOnLink(agentId, linkId);
+		}
+	}
+
+}
@@ -12,6 +12,7 @@ import org.matsim.core.api.experimental.events.TeleportationArrivalEvent;
 import org.matsim.core.mobsim.framework.MobsimAgent;
 import org.matsim.core.mobsim.qsim.interfaces.DepartureHandler;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimEngine;
+import org.matsim.core.mobsim.qsim.interfaces.NextEventTimeAware;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.utils.collections.Tuple;
 import org.matsim.core.utils.misc.Time;
@@ -27,7 +28,7 @@ import java.util.*;
  * Includes all agents that have transportation modes unknown to the
  * NetsimEngine (often all != "car") or have two activities on the same link
  */
-public final class DefaultTeleportationEngine implements TeleportationEngine {
+public final class DefaultTeleportationEngine implements TeleportationEngine, NextEventTimeAware {
 	private static final Logger log = Logger.getLogger( DefaultTeleportationEngine.class ) ;
 	
 	private final Queue<Tuple<Double, MobsimAgent>> teleportationList = new PriorityQueue<>(
@@ -49,6 +50,9 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 	
 	private final boolean withTravelTimeCheck ;
 
+	/** null if the legs are ended one after the other */
+	private ParallelAgentStateUpdater agentStateUpdater;
+
 	@Inject
 	public DefaultTeleportationEngine(Scenario scenario, EventsManager eventsManager) {
 		this.scenario = scenario;
@@ -105,6 +109,19 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 
 	private void handleTeleportationArrivals() {
 		double now = internalInterface.getMobsim().getSimTimer().getTimeOfDay();
+		if (agentStateUpdater != null) {
+			List<MobsimAgent> arrivingAgents = new ArrayList<>();
+			while (teleportationList.peek() != null && teleportationList.peek().getFirst() <= now) {
+				MobsimAgent personAgent = teleportationList.poll().getSecond();
+				personAgent.notifyArrivalOnLinkByNonNetworkMode(personAgent.getDestinationLinkId());
+				double distance = personAgent.getExpectedTravelDistance();
+				this.eventsManager.processEvent(new TeleportationArrivalEvent(now, personAgent.getId(), distance));
+				this.teleportationData.remove(personAgent.getId());
+				arrivingAgents.add(personAgent);
+			}
+			agentStateUpdater.endLegsAndArrangeNextAgentStates(arrivingAgents, now);
+			return;
+		}
 		while (teleportationList.peek() != null) {
 			Tuple<Double, MobsimAgent> entry = teleportationList.peek();
 			if (entry.getFirst() <= now) {
@@ -124,8 +141,14 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 	}
 
 	@Override
-	public void onPrepareSim() {
+	public double getNextEventTime() {
+		Tuple<Double, MobsimAgent> entry = teleportationList.peek();
+		return entry == null ? Double.POSITIVE_INFINITY : entry.getFirst();
+	}
 
+	@Override
+	public void onPrepareSim() {
+		this.agentStateUpdater = ParallelAgentStateUpdater.create(this.internalInterface);
 	}
 
 	@Override
@@ -136,6 +159,10 @@ public final class DefaultTeleportationEngine implements TeleportationEngine {
 			eventsManager.processEvent(new PersonStuckEvent(now, agent.getId(), agent.getDestinationLinkId(), agent.getMode()));
 		}
 		teleportationList.clear();
+		if (agentStateUpdater != null) {
+			agentStateUpdater.shutdown();
+			agentStateUpdater = null;
+		}
 	}
 
 	@Override
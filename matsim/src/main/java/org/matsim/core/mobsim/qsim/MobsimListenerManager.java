@@ -28,9 +28,12 @@ import org.matsim.core.mobsim.framework.events.MobsimBeforeCleanupEvent;
 import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
 import org.matsim.core.mobsim.framework.events.MobsimInitializedEvent;
 import org.matsim.core.mobsim.framework.listeners.*;
+import org.matsim.core.mobsim.qsim.interfaces.NextEventTimeAware;
 import org.matsim.core.utils.misc.ClassUtils;
 
 import javax.swing.event.EventListenerList;
+import java.util.ArrayList;
+import java.util.List;
 
 class MobsimListenerManager implements MatsimManager {
 
@@ -107,4 +110,45 @@ class MobsimListenerManager implements MatsimManager {
         }
 	}
 
+	/**
+	 * @return the earliest next event time of the sim step listeners, <code>Double.NEGATIVE_INFINITY</code> if one of
+	 * them is not {@link NextEventTimeAware} and thus has to be notified about every time step, or
+	 * <code>Double.POSITIVE_INFINITY</code> if there is none.
+	 */
+	double getNextEventTime() {
+		double nextEventTime = Double.POSITIVE_INFINITY;
+		for (MobsimListener aListener : getSimStepListeners()) {
+			if (!(aListener instanceof NextEventTimeAware)) {
+				return Double.NEGATIVE_INFINITY;
+			}
+			nextEventTime = Math.min(nextEventTime, ((NextEventTimeAware) aListener).getNextEventTime());
+		}
+		return nextEventTime;
+	}
+
+	/**
+	 * @return the sim step listeners which are not {@link NextEventTimeAware}, i.e. which prevent that idle time steps
+	 * are skipped.
+	 */
+	List<MobsimListener> getNextEventTimeUnawareListeners() {
+		List<MobsimListener> unaware = new ArrayList<>();
+		for (MobsimListener aListener : getSimStepListeners()) {
+			if (!(aListener instanceof NextEventTimeAware) && !unaware.contains(aListener)) {
+				unaware.add(aListener);
+			}
+		}
+		return unaware;
+	}
+
+	private List<MobsimListener> getSimStepListeners() {
+		List<MobsimListener> listeners = new ArrayList<>();
+		for (MobsimBeforeSimStepListener aListener : this.listenerList.getListeners(MobsimBeforeSimStepListener.class)) {
+			listeners.add(aListener);
+		}
+		for (MobsimAfterSimStepListener aListener : this.listenerList.getListeners(MobsimAfterSimStepListener.class)) {
+			listeners.add(aListener);
+		}
+		return listeners;
+	}
+
 }
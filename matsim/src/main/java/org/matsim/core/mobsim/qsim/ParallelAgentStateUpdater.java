@@ -0,0 +1,224 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ParallelAgentStateUpdater.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.groups.QSimConfigGroup;
+import org.matsim.core.events.handler.EventHandler;
+import org.matsim.core.mobsim.framework.MobsimAgent;
+
+/**
+ * Ends the activities or legs of all agents which are due in a time step on several threads, and hands the agents over
+ * to their next engines afterwards, in the calling thread.  Ending an activity or leg only touches the agent itself
+ * (plan traversal, next state), whereas the hand-over goes through the departure and activity handlers, which are not
+ * thread-safe.
+ * <p></p>
+ * The agents are split into consecutive chunks, one per thread, and the events of each chunk are buffered until all
+ * chunks are done.  So the events of a time step come in a deterministic order which does not depend on the number of
+ * threads: first the events of ending all activities (or legs) in the order of the agents, then the events of the
+ * hand-overs.  Note that this is not the same order as without this class, where the hand-over of an agent comes before
+ * the next agent ends its activity.
+ *
+ * @see QSimConfigGroup#getNumberOfAgentThreads()
+ */
+final class ParallelAgentStateUpdater {
+	private static final Logger log = Logger.getLogger( ParallelAgentStateUpdater.class ) ;
+
+	/** smaller chunks are not worth handing over to another thread */
+	private static final int MIN_AGENTS_PER_THREAD = 100;
+
+	private final InternalInterface internalInterface;
+	private final int numberOfThreads;
+	private final ExecutorService pool;
+
+	private ParallelAgentStateUpdater(final InternalInterface internalInterface, final int numberOfThreads) {
+		this.internalInterface = internalInterface;
+		this.numberOfThreads = numberOfThreads;
+		this.pool = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+			private int count = 0;
+
+			@Override
+			public synchronized Thread newThread(final Runnable r) {
+				Thread thread = new Thread(r, "AgentStateUpdater-" + this.count++);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * @return an updater with the configured number of threads, or <code>null</code> if the agents are to be handled
+	 * one after the other.
+	 */
+	static ParallelAgentStateUpdater create(final InternalInterface internalInterface) {
+		int numberOfThreads = internalInterface.getMobsim().getScenario().getConfig().qsim().getNumberOfAgentThreads();
+		if (numberOfThreads <= 1) {
+			return null;
+		}
+		if (!(internalInterface.getMobsim().getEventsManager() instanceof BufferingEventsManager)) {
+			log.warn("the events of the mobsim cannot be buffered; ending activities and legs in one thread.");
+			return null;
+		}
+		return new ParallelAgentStateUpdater(internalInterface, numberOfThreads);
+	}
+
+	/**
+	 * Ends the current activities of the agents and arranges their next states, in the given order.
+	 */
+	void endActivitiesAndArrangeNextAgentStates(final List<MobsimAgent> agents, final double now) {
+		update(agents, now, true);
+	}
+
+	/**
+	 * Ends the current legs of the agents and arranges their next states, in the given order.
+	 */
+	void endLegsAndArrangeNextAgentStates(final List<MobsimAgent> agents, final double now) {
+		update(agents, now, false);
+	}
+
+	void shutdown() {
+		this.pool.shutdown();
+	}
+
+	private void update(final List<MobsimAgent> agents, final double now, final boolean activities) {
+		int chunks = Math.min(this.numberOfThreads, agents.size() / MIN_AGENTS_PER_THREAD);
+		if (chunks <= 1) {
+			// events in the same order as from the threads below
+			endStates(agents, now, activities);
+		} else {
+			List<Future<List<Event>>> futures = new ArrayList<>(chunks);
+			for (int i = 0; i < chunks; i++) {
+				final List<MobsimAgent> chunk = agents.subList(i * agents.size() / chunks, (i + 1) * agents.size() / chunks);
+				futures.add(this.pool.submit(new Callable<List<Event>>() {
+					@Override
+					public List<Event> call() {
+						List<Event> events = new ArrayList<>();
+						BufferingEventsManager.BUFFER.set(events);
+						try {
+							endStates(chunk, now, activities);
+						} finally {
+							BufferingEventsManager.BUFFER.remove();
+						}
+						return events;
+					}
+				}));
+			}
+			EventsManager eventsManager = this.internalInterface.getMobsim().getEventsManager();
+			for (Future<List<Event>> future : futures) {
+				for (Event event : getResult(future)) {
+					eventsManager.processEvent(event);
+				}
+			}
+		}
+
+		for (MobsimAgent agent : agents) {
+			this.internalInterface.arrangeNextAgentState(agent);
+		}
+	}
+
+	private static void endStates(final List<MobsimAgent> agents, final double now, final boolean activities) {
+		for (MobsimAgent agent : agents) {
+			if (activities) {
+				agent.endActivityAndComputeNextState(now);
+			} else {
+				agent.endLegAndComputeNextState(now);
+			}
+		}
+	}
+
+	private static List<Event> getResult(final Future<List<Event>> future) {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * The events manager of a QSim which ends activities and legs on several threads.  Events which are created on one
+	 * of these threads are put into the buffer of the thread instead of being passed on.
+	 */
+	static final class BufferingEventsManager implements EventsManager {
+
+		private static final ThreadLocal<List<Event>> BUFFER = new ThreadLocal<>();
+
+		private final EventsManager delegate;
+
+		BufferingEventsManager(final EventsManager delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void processEvent(final Event event) {
+			List<Event> buffer = BUFFER.get();
+			if (buffer != null) {
+				buffer.add(event);
+			} else {
+				this.delegate.processEvent(event);
+			}
+		}
+
+		@Override
+		public void addHandler(final EventHandler handler) {
+			this.delegate.addHandler(handler);
+		}
+
+		@Override
+		public void removeHandler(final EventHandler handler) {
+			this.delegate.removeHandler(handler);
+		}
+
+		@Override
+		public void resetHandlers(final int iteration) {
+			this.delegate.resetHandlers(iteration);
+		}
+
+		@Override
+		public void initProcessing() {
+			this.delegate.initProcessing();
+		}
+
+		@Override
+		public void afterSimStep(final double time) {
+			this.delegate.afterSimStep(time);
+		}
+
+		@Override
+		public void finishProcessing() {
+			this.delegate.finishProcessing();
+		}
+
+	}
+
+}
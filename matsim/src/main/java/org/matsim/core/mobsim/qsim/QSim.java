@@ -113,6 +113,7 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 
 	private final Date realWorldStarttime = new Date();
 	private double stopTime = 100 * 3600;
+	private final boolean skippingIdleTimeSteps;
 	private final MobsimListenerManager listenerManager;
 	private final Scenario scenario;
 	private final List<ActivityHandler> activityHandlers = new ArrayList<>();
@@ -199,14 +200,17 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 	private QSim(final Scenario sc, EventsManager events ) {
 		this.scenario = sc;
 		if (sc.getConfig().qsim().getNumberOfThreads() > 1) {
-			this.events = EventsUtils.getParallelFeedableInstance(events);
-		} else {
-			this.events = events;
+			events = EventsUtils.getParallelFeedableInstance(events);
+		}
+		if (sc.getConfig().qsim().getNumberOfAgentThreads() > 1) {
+			// so that the events of agents which end their activities or legs on several threads can be put in order
+			events = new ParallelAgentStateUpdater.BufferingEventsManager(events);
 		}
+		this.events = events;
 		this.listenerManager = new MobsimListenerManager(this);
 		this.agentCounter = new org.matsim.core.mobsim.qsim.AgentCounter();
 		this.simTimer = new MobsimTimer(sc.getConfig().qsim().getTimeStepSize());
-		
+		this.skippingIdleTimeSteps = sc.getConfig().qsim().isSkippingIdleTimeSteps();
 	}
 
 	// ============================================================================================================================
@@ -265,6 +269,13 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		for (MobsimEngine mobsimEngine : this.mobsimEngines) {
 			mobsimEngine.onPrepareSim();
 		}
+
+		if (this.skippingIdleTimeSteps) {
+			for (MobsimListener listener : this.listenerManager.getNextEventTimeUnawareListeners()) {
+				log.warn("Idle time steps are not skipped because the mobsim listener " + listener.getClass().getName()
+						+ " does not report its next event time, so it has to be notified about every time step.");
+			}
+		}
 	}
 
 	private void createAgents() {
@@ -384,7 +395,11 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		}
 
 		if (doContinue) {
-			this.simTimer.incrementTime();
+			if (this.skippingIdleTimeSteps) {
+				this.simTimer.setTime(getNextSimStepTime(now));
+			} else {
+				this.simTimer.incrementTime();
+			}
 		}
 		
 		if (analyzeRunTimes) this.qSimInternalTime += System.nanoTime() - this.startTime;
@@ -392,6 +407,29 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 		return doContinue;
 	}
 
+	/**
+	 * @return the first time step at which one of the engines or listeners has something to do, but not after the end
+	 * time; the next time step if there is an engine or sim step listener which does not report when it has something
+	 * to do.
+	 */
+	private double getNextSimStepTime(final double now) {
+		final double stepSize = this.simTimer.getSimTimestepSize();
+		final double nextStep = now + stepSize;
+		double nextEventTime = this.listenerManager.getNextEventTime();
+		for (MobsimEngine mobsimEngine : this.mobsimEngines) {
+			if (nextEventTime <= nextStep || !(mobsimEngine instanceof NextEventTimeAware)) {
+				return nextStep;
+			}
+			nextEventTime = Math.min(nextEventTime, ((NextEventTimeAware) mobsimEngine).getNextEventTime());
+		}
+		double time = this.stopTime == Double.MAX_VALUE ? nextEventTime : Math.min(nextEventTime, this.stopTime);
+		if (time <= nextStep || time == Double.POSITIVE_INFINITY) {
+			// (nothing to do and no end time: keep going as without skipping)
+			return nextStep;
+		}
+		return now + Math.ceil((time - now) / stepSize) * stepSize;
+	}
+
 	public void insertAgentIntoMobsim(final MobsimAgent agent) {
 		if (this.agents.containsKey(agent.getId())) {
 			throw new RuntimeException("Agent with same Id (" + agent.getId().toString() + ") already in mobsim; aborting ... ") ;
@@ -498,7 +536,8 @@ public final class QSim extends Thread implements VisMobsim, Netsim, ActivityEnd
 	private void printSimLog(final double time) {
 		if (time >= this.infoTime) {
 			//		if(true){
-			this.infoTime += INFO_PERIOD;
+			// (not just one period later if idle time steps were skipped)
+			this.infoTime = Math.floor(time / INFO_PERIOD) * INFO_PERIOD + INFO_PERIOD;
 			Date endtime = new Date();
 			long diffreal = (endtime.getTime() - this.realWorldStarttime
 					.getTime()) / 1000;
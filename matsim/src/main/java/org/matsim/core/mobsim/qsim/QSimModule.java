@@ -19,6 +19,7 @@ import org.matsim.core.mobsim.qsim.qnetsimengine.DefaultQNetworkFactory;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QLanesNetworkFactory;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QNetsimEnginePlugin;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QNetworkFactory;
+import org.matsim.core.mobsim.qsim.qnetsimengine.QNetworkLoadHistory;
 
 import com.google.inject.Provides;
 
@@ -35,6 +36,8 @@ public class QSimModule extends com.google.inject.AbstractModule {
 		} else {
 			bind(QNetworkFactory.class).to( DefaultQNetworkFactory.class ) ;
 		}
+		// outlives the QNetsimEngine of each iteration, so the network can be re-partitioned by the load of the previous one
+		bind(QNetworkLoadHistory.class) ;
 		if ( config.transit().isUseTransit() && config.transit().isUsingTransitInMobsim() ) {
 			bind( TransitStopHandlerFactory.class ).to( ComplexTransitStopHandlerFactory.class ) ;
 		}
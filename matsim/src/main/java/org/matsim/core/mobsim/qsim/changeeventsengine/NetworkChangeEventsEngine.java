@@ -28,6 +28,7 @@ import org.matsim.core.mobsim.qsim.QSim;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimEngine;
 import org.matsim.core.mobsim.qsim.interfaces.Netsim;
 import org.matsim.core.mobsim.qsim.interfaces.NetsimLink;
+import org.matsim.core.mobsim.qsim.interfaces.NextEventTimeAware;
 import org.matsim.core.mobsim.qsim.interfaces.TimeVariantLink;
 import org.matsim.core.network.NetworkChangeEvent;
 import org.matsim.core.network.NetworkUtils;
@@ -38,7 +39,7 @@ import java.util.Queue;
 /**
  * @author dgrether
  */
-public final class NetworkChangeEventsEngine implements NetworkChangeEventsEngineI {
+public final class NetworkChangeEventsEngine implements NetworkChangeEventsEngineI, NextEventTimeAware {
 	private static final Logger log = Logger.getLogger(NetworkChangeEventsEngine.class) ;
 	
 	private Queue<NetworkChangeEvent> networkChangeEventsQueue = null;
@@ -82,6 +83,14 @@ public final class NetworkChangeEventsEngine implements NetworkChangeEventsEngin
 		}
 	}
 
+	@Override
+	public double getNextEventTime() {
+		if ((this.networkChangeEventsQueue == null) || (this.networkChangeEventsQueue.size() == 0)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		return this.networkChangeEventsQueue.peek().getStartTime();
+	}
+
 	private void handleNetworkChangeEvents(final double time) {
 		while ((this.networkChangeEventsQueue.size() > 0) && (this.networkChangeEventsQueue.peek().getStartTime() <= time)) {
 			NetworkChangeEvent event = this.networkChangeEventsQueue.poll();
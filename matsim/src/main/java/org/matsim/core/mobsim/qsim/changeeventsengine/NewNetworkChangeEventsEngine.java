@@ -7,6 +7,7 @@ import org.matsim.core.mobsim.jdeqsim.Message;
 import org.matsim.core.mobsim.jdeqsim.MessageQueue;
 import org.matsim.core.mobsim.qsim.InternalInterface;
 import org.matsim.core.mobsim.qsim.interfaces.NetsimLink;
+import org.matsim.core.mobsim.qsim.interfaces.NextEventTimeAware;
 import org.matsim.core.mobsim.qsim.interfaces.TimeVariantLink;
 import org.matsim.core.network.NetworkChangeEvent;
 import org.matsim.core.network.NetworkUtils;
@@ -14,7 +15,7 @@ import org.matsim.core.network.NetworkUtils;
 import javax.inject.Inject;
 import java.util.Queue;
 
-class NewNetworkChangeEventsEngine implements NetworkChangeEventsEngineI {
+class NewNetworkChangeEventsEngine implements NetworkChangeEventsEngineI, NextEventTimeAware {
 	private static final Logger log = Logger.getLogger( NewNetworkChangeEventsEngine.class ) ;
 
 	private final MessageQueue messageQueue;
@@ -103,4 +104,10 @@ class NewNetworkChangeEventsEngine implements NetworkChangeEventsEngineI {
 	public void doSimStep(double time) {
 
 	}
+
+	@Override
+	public double getNextEventTime() {
+		// the change events are in the message queue, whose engine reports them
+		return Double.POSITIVE_INFINITY;
+	}
 }
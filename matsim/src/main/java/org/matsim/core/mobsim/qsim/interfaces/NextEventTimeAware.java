@@ -0,0 +1,43 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * NextEventTimeAware.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.interfaces;
+
+import org.matsim.core.config.groups.QSimConfigGroup;
+
+/**
+ * A {@link MobsimEngine} or mobsim listener which knows when it has something to do next.  If idle time steps are
+ * skipped, the QSim asks all engines and listeners after each time step, and jumps directly to the earliest time
+ * step at which one of them has something to do.  Idle time steps are only skipped if <i>all</i> engines and sim step
+ * listeners implement this interface, since the others expect to be called in every time step.
+ *
+ * @see QSimConfigGroup#isSkippingIdleTimeSteps()
+ */
+public interface NextEventTimeAware {
+
+	/**
+	 * Called after a time step, when all engines have done their work for it.
+	 *
+	 * @return the earliest time at which the next sim step has to be done; a time before the next time step if it
+	 * has to be done in the next time step; <code>Double.POSITIVE_INFINITY</code> if there is nothing to do until an
+	 * agent is handed over by another engine.
+	 */
+	double getNextEventTime();
+
+}
@@ -41,6 +41,18 @@ public class SteppableScheduler extends Scheduler implements Steppable {
         finished = true; // queue has run dry.
     }
 
+    /**
+     * @return the arrival time of the next message which is known to be in the future, Double.NEGATIVE_INFINITY if
+     * there are other messages (whose arrival time is not known without taking them from the queue), and
+     * Double.POSITIVE_INFINITY if the queue is empty.
+     */
+    public double getNextMessageArrivalTime() {
+        if (lookahead != null) {
+            return lookahead.getMessageArrivalTime();
+        }
+        return queue.isEmpty() ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+    }
+
     public boolean isFinished() {
         return finished;
     }
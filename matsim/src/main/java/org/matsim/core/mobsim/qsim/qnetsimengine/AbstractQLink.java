@@ -103,6 +103,9 @@ abstract class AbstractQLink implements QLinkI {
 
 	private boolean active = false;
 
+	// number of time steps in which this link was active; only accessed by the runner that handles this link
+	private int activeTimeSteps = 0;
+
 	private TransitQLink transitQLink;
 	
 	private final QNodeI toQNode ;
@@ -401,6 +404,14 @@ abstract class AbstractQLink implements QLinkI {
 		this.netElementActivationRegistry = qSimEngineRunner;
 	}
 
+	/*package*/ final void countActiveTimeStep() {
+		this.activeTimeSteps++;
+	}
+
+	/*package*/ final int getNumberOfActiveTimeSteps() {
+		return this.activeTimeSteps;
+	}
+
 	@Override
 	public void registerDriverAgentWaitingForCar(final MobsimDriverAgent agent) {
 		final Id<Vehicle> vehicleId = agent.getPlannedVehicleId() ;
@@ -198,6 +198,7 @@ public final class QLinkLanesImpl extends AbstractQLink {
 
 			QueueWithBuffer.Builder builder = new QueueWithBuffer.Builder( context ) ;
 			builder.setVehicleQueue(new FIFOVehicleQ());
+			builder.setUsingArrayQueues(context.qsimConfig.isUsingArrayQueues());
 			builder.setLaneId(laneId);
 			builder.setLength(lane.getLength());
 			builder.setEffectiveNumberOfLanes(lane.getLaneData().getNumberOfRepresentedLanes());
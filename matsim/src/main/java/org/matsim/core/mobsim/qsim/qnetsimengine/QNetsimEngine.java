@@ -41,11 +41,13 @@ import org.matsim.api.core.v01.Id;
 import org.matsim.api.core.v01.Scenario;
 import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
 import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
 import org.matsim.api.core.v01.population.Person;
 import org.matsim.core.api.experimental.events.EventsManager;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.QSimConfigGroup;
 import org.matsim.core.config.groups.QSimConfigGroup.LinkDynamics;
+import org.matsim.core.config.groups.QSimConfigGroup.NetworkPartitioning;
 import org.matsim.core.config.groups.QSimConfigGroup.SnapshotStyle;
 import org.matsim.core.config.groups.QSimConfigGroup.StarttimeInterpretation;
 import org.matsim.core.config.groups.QSimConfigGroup.VehicleBehavior;
@@ -59,6 +61,7 @@ import org.matsim.core.mobsim.qsim.interfaces.AgentCounter;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimEngine;
 import org.matsim.core.mobsim.qsim.interfaces.MobsimVehicle;
 import org.matsim.core.mobsim.qsim.interfaces.NetsimNetwork;
+import org.matsim.core.mobsim.qsim.interfaces.NextEventTimeAware;
 import org.matsim.core.utils.misc.Time;
 import org.matsim.vehicles.Vehicle;
 import org.matsim.vis.snapshotwriters.SnapshotLinkWidthCalculator;
@@ -70,7 +73,7 @@ import org.matsim.vis.snapshotwriters.SnapshotLinkWidthCalculator;
  * @author dgrether
  * @author dstrippgen
  */
-public class QNetsimEngine implements MobsimEngine, NetsimEngine {
+public class QNetsimEngine implements MobsimEngine, NetsimEngine, NextEventTimeAware {
 
 	public interface NetsimInternalInterface {
 		QNetwork getNetsimNetwork();
@@ -120,6 +123,14 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 	private ExecutorService pool;
 
 	private final boolean usingThreadpool;
+
+	private QNetworkPartitioner networkPartitioner;
+
+	private final QNetworkLoadHistory loadHistory;
+
+	private final boolean recordingLoads;
+
+	private Map<Id<Node>, Integer> partitions;
 	
 	// for detailed run time analysis - used in combination with QSim.analyzeRunTimes
 	public static int numObservedTimeSteps = 24*3600;
@@ -134,9 +145,14 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 		this(sim, null);
 	}
 
-	@Inject
 	public QNetsimEngine(final QSim sim, QNetworkFactory netsimNetworkFactory) {
+		this(sim, netsimNetworkFactory, new QNetworkLoadHistory());
+	}
+
+	@Inject
+	QNetsimEngine(final QSim sim, QNetworkFactory netsimNetworkFactory, QNetworkLoadHistory loadHistory) {
 		this.qsim = sim;
+		this.loadHistory = loadHistory;
 
 		final Config config = sim.getScenario().getConfig();
 		final QSimConfigGroup qsimConfigGroup = config.qsim();
@@ -178,6 +194,34 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 		network.initialize(this, sim.getAgentCounter(), sim.getSimTimer() );
 
 		this.numOfThreads = sim.getScenario().getConfig().qsim().getNumberOfThreads();
+		this.networkPartitioner = createNetworkPartitioner(qsimConfigGroup, loadHistory);
+		this.recordingLoads = qsimConfigGroup.getNetworkPartitioning() == NetworkPartitioning.loadBalanced;
+	}
+
+	static QNetworkPartitioner createNetworkPartitioner(QSimConfigGroup qsimConfigGroup, QNetworkLoadHistory loadHistory) {
+		switch (qsimConfigGroup.getNetworkPartitioning()) {
+		case roundRobin:
+			return new RoundRobinQNetworkPartitioner();
+		case spatial:
+			return new SpatialQNetworkPartitioner();
+		case loadBalanced:
+			if (loadHistory.hasLoads()) {
+				log.info("partitioning the network based on the loads measured in the previous mobsim run.");
+				return new SpatialQNetworkPartitioner(loadHistory::getLoad);
+			}
+			// nothing measured yet, e.g. in the first iteration
+			return new SpatialQNetworkPartitioner();
+		default:
+			throw new RuntimeException("Unknown network partitioning: " + qsimConfigGroup.getNetworkPartitioning());
+		}
+	}
+
+	/**
+	 * Replaces the partitioner that was derived from {@link QSimConfigGroup#getNetworkPartitioning()}.  Needs to
+	 * be called before the simulation is prepared, since the nodes are assigned to the runners there.
+	 */
+	public final void setNetworkPartitioner(QNetworkPartitioner networkPartitioner) {
+		this.networkPartitioner = networkPartitioner;
 	}
 
 	private static int wrnCnt = 0;
@@ -241,6 +285,8 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 			engine.afterSim();
 		}
 
+		collectLoads();
+
 		if (this.usingThreadpool) {
 			this.pool.shutdown();
 		} else {
@@ -341,7 +387,8 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 
 	/*package*/ void printSimLog(double time) {
 		if (time >= this.infoTime) {
-			this.infoTime += INFO_PERIOD;
+			// (not just one period later if idle time steps were skipped)
+			this.infoTime = Math.floor(time / INFO_PERIOD) * INFO_PERIOD + INFO_PERIOD;
 			int nofActiveLinks = this.getNumberOfSimulatedLinks();
 			int nofActiveNodes = this.getNumberOfSimulatedNodes();
 			log.info("SIMULATION (QNetsimEngine) AT " + Time.writeTime(time)
@@ -350,6 +397,27 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 		}
 	}
 
+	/**
+	 * The links and nodes have to be moved in every time step as long as there is a vehicle on any of them.  Vehicles
+	 * which enter the network later on activate their links themselves.
+	 */
+	@Override
+	public double getNextEventTime() {
+		for (QNetsimEngineRunner engine : this.engines) {
+			if (engine.hasActiveLinksOrNodes()) {
+				return Double.NEGATIVE_INFINITY;
+			}
+		}
+		return Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * @return the runner of each node, as assigned by the {@link QNetworkPartitioner} when the simulation was prepared.
+	 */
+	/*package*/ Map<Id<Node>, Integer> getPartitions() {
+		return this.partitions;
+	}
+
 	public int getNumberOfSimulatedLinks() {
 
 		int numLinks = 0;
@@ -462,7 +530,8 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 	/*
 	 * Within the MoveThreads Links are only activated when a Vehicle is moved
 	 * over a Node which is processed by that Thread. So we can assign each QLink
-	 * to the Thread that handles its InNode.
+	 * to the Thread that handles its InNode.  Which Thread handles which Node is
+	 * decided by the QNetworkPartitioner.
 	 */
 	private void assignNetElementActivators() {
 
@@ -470,9 +539,14 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 		int nodes[] = new int[numOfRunners];
 		int links[] = new int[numOfRunners];
 
-		int roundRobin = 0;
+		List<Node> networkNodes = new ArrayList<>(network.getNetsimNodes().size());
+		for (QNodeI node : network.getNetsimNodes().values()) {
+			networkNodes.add(node.getNode());
+		}
+		this.partitions = this.networkPartitioner.partition(networkNodes, this.numOfRunners);
+
 		for (QNodeI node : network.getNetsimNodes().values()) {
-			int i = roundRobin % this.numOfRunners;
+			int i = partitions.get(node.getNode().getId());
 			if ( node instanceof QNodeImpl ) {
 				((QNodeImpl) node).setNetElementActivationRegistry(this.engines.get(i));
 			}
@@ -498,8 +572,6 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 				links[i]++;
 
 			}
-
-			roundRobin++;
 		}
 
 		// print some statistics
@@ -510,6 +582,50 @@ public class QNetsimEngine implements MobsimEngine, NetsimEngine {
 		this.linksToActivateInitially.clear();
 	}
 
+	/*
+	 * Sums up how many time steps the nodes and links of every runner were active.  This is logged as a (hardware
+	 * independent) measure of how well the runners are balanced, and, if configured, remembered for the partitioning
+	 * of the next mobsim run.
+	 */
+	private void collectLoads() {
+		double[] runnerLoads = new double[this.numOfRunners];
+		Map<Id<Node>, Double> nodeLoads = this.recordingLoads ? new HashMap<>(this.partitions.size() * 2) : null;
+
+		for (QNodeI node : network.getNetsimNodes().values()) {
+			double load = 0.0;
+			if (node instanceof QNodeImpl) {
+				load += ((QNodeImpl) node).getNumberOfActiveTimeSteps();
+			}
+			for (Link outLink : node.getNode().getOutLinks().values()) {
+				QLinkI qLink = network.getNetsimLink(outLink.getId());
+				if (qLink instanceof AbstractQLink) {
+					load += ((AbstractQLink) qLink).getNumberOfActiveTimeSteps();
+				}
+			}
+			runnerLoads[this.partitions.get(node.getNode().getId())] += load;
+			if (nodeLoads != null) {
+				nodeLoads.put(node.getNode().getId(), load);
+			}
+		}
+
+		double sum = 0.0;
+		double max = 0.0;
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < runnerLoads.length; i++) {
+			sum += runnerLoads[i];
+			max = Math.max(max, runnerLoads[i]);
+			sb.append(" #").append(i).append("=").append((long) runnerLoads[i]);
+		}
+		log.info("active node and link time steps per QSimEngineRunner:" + sb);
+		if (sum > 0.0) {
+			log.info("load imbalance ratio (max/mean) of the QSimEngineRunners: " + max / (sum / runnerLoads.length));
+		}
+
+		if (nodeLoads != null) {
+			this.loadHistory.setLoads(nodeLoads);
+		}
+	}
+
 	public void printEngineRunTimes() {
 		if (!QSim.analyzeRunTimes) return;
 		
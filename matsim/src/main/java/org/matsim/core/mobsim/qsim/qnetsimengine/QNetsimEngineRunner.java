@@ -172,6 +172,7 @@ class QNetsimEngineRunner extends NetElementActivationRegistry implements Runnab
 		while (simNodes.hasNext()) {
 			node = simNodes.next();
 			remainsActive = node.doSimStep(time);
+			node.countActiveTimeStep();
 			if (!remainsActive) simNodes.remove();
 		}
 		this.lockNodes = false;
@@ -185,6 +186,7 @@ class QNetsimEngineRunner extends NetElementActivationRegistry implements Runnab
 			link = simLinks.next();
 
 			remainsActive = link.doSimStep();
+			if (link instanceof AbstractQLink) ((AbstractQLink) link).countActiveTimeStep();
 
 			if (!remainsActive) simLinks.remove();
 		}
@@ -221,7 +223,8 @@ class QNetsimEngineRunner extends NetElementActivationRegistry implements Runnab
 	/*
 	 * Note that the size() method is O(n) for a ConcurrentLinkedQueue as used
 	 * for the nodesQueue. However, this method is only called once every simulated
-	 * hour for the log message. Therefore, it should be okay.
+	 * hour for the log message. Therefore, it should be okay. Use
+	 * hasActiveLinksOrNodes() where this would be called every time step.
 	 * cdobler, sep'14
 	 */
 	@Override
@@ -229,6 +232,14 @@ class QNetsimEngineRunner extends NetElementActivationRegistry implements Runnab
 		return this.nodesQueue.size();
 	}
 
+	/**
+	 * Unlike {@link #getNumberOfSimulatedNodes()}, this is O(1) and therefore cheap enough to be called every time
+	 * step, e.g. by {@link QNetsimEngine#getNextEventTime()}.
+	 */
+	boolean hasActiveLinksOrNodes() {
+		return !this.linksList.isEmpty() || !this.nodesQueue.isEmpty();
+	}
+
 	public void setMovingNodes(boolean movingNodes) {
 		this.movingNodes = movingNodes;
 	}
@@ -45,6 +45,9 @@ public class QNetwork implements NetsimNetwork {
 
 	private final Map<Id<Link>, QLinkI> links;
 
+	/** the same links by the index of their ids, for the lookups when vehicles move over nodes */
+	private QLinkI[] linksByIndex = new QLinkI[0];
+
 	private final Map<Id<Node>, QNodeI> nodes;
 
 	private final Network network;
@@ -69,6 +72,13 @@ public class QNetwork implements NetsimNetwork {
 			final QLinkI qlink = this.queueNetworkFactory.createNetsimLink(l, this.nodes.get(l.getToNode().getId()));
 			this.links.put(l.getId(), qlink);
 		}
+		this.linksByIndex = new QLinkI[Id.getNumberOfIds(Link.class)];
+		for (QLinkI qlink : this.links.values()) {
+			int index = qlink.getLink().getId().index();
+			if (index < this.linksByIndex.length) {
+				this.linksByIndex[index] = qlink;
+			}
+		}
 		for (QNodeI n : this.nodes.values()) {
 			n.init();
 		}
@@ -96,6 +106,14 @@ public class QNetwork implements NetsimNetwork {
 
 	@Override
 	public QLinkI getNetsimLink(final Id<Link> id) {
+		int index = id.index();
+		if (index < this.linksByIndex.length) {
+			QLinkI qlink = this.linksByIndex[index];
+			if (qlink != null && qlink.getLink().getId() == id) {
+				return qlink;
+			}
+		}
+		// (ids of another type, which happen to have the same index)
 		return this.links.get(id);
 	}
 
@@ -0,0 +1,62 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetworkLoadHistory.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Remembers the load the {@link QNetsimEngine} measured per node during the last mobsim run, so that the next
+ * run can re-partition the network based on it.  The load of a node is the number of time steps in which the
+ * node was active plus the number of time steps in which its out-links were active.
+ * <p></p>
+ * Since the {@link QNetsimEngine} is re-created for every mobsim run, this needs to live longer than the engine.
+ * It is therefore bound as a singleton in {@link org.matsim.core.mobsim.qsim.QSimModule}, i.e. in the controler's
+ * injector and not in the per-iteration mobsim injector; it is public only for that.
+ */
+@Singleton
+public final class QNetworkLoadHistory {
+
+	private Map<Id<Node>, Double> loads = new HashMap<>();
+
+	@Inject
+	QNetworkLoadHistory() {
+	}
+
+	/*package*/ boolean hasLoads() {
+		return !this.loads.isEmpty();
+	}
+
+	/*package*/ double getLoad(Node node) {
+		Double load = this.loads.get(node.getId());
+		return load == null ? 0.0 : load;
+	}
+
+	/*package*/ void setLoads(Map<Id<Node>, Double> loads) {
+		this.loads = loads;
+	}
+}
@@ -0,0 +1,42 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * QNetworkPartitioner.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Decides which {@link QNetsimEngineRunner} handles which node.  Every out-link of a node is handled by the same
+ * runner as the node itself, see {@link QNetsimEngine}.
+ *
+ * @see org.matsim.core.config.groups.QSimConfigGroup#getNetworkPartitioning()
+ */
+public interface QNetworkPartitioner {
+
+	/**
+	 * @return for every given node the index of the partition it belongs to, in <tt>[0, numberOfPartitions)</tt>.
+	 */
+	Map<Id<Node>, Integer> partition(Collection<? extends Node> nodes, int numberOfPartitions);
+
+}
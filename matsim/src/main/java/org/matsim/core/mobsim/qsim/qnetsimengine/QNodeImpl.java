@@ -87,6 +87,12 @@ final class QNodeImpl implements QNodeI {
 	
 	private final TurnAcceptanceLogic turnAcceptanceLogic ;
 
+	/*
+	 * Number of time steps in which this node was active, i.e. in which its doSimStep(...) method was called.
+	 * Only accessed by the runner that handles this node.
+	 */
+	private int activeTimeSteps = 0;
+
 	private QNodeImpl(final Node n, NetsimEngineContext context, NetsimInternalInterface netsimEngine2, TurnAcceptanceLogic turnAcceptanceLogic) {
 		this.node = n;
 		this.netsimEngine = netsimEngine2 ;
@@ -146,6 +152,14 @@ final class QNodeImpl implements QNodeI {
 		this.activator = activator;
 	}
 
+	/*package*/ void countActiveTimeStep() {
+		this.activeTimeSteps++;
+	}
+
+	/*package*/ int getNumberOfActiveTimeSteps() {
+		return this.activeTimeSteps;
+	}
+
 	/**
 	 * This method is called from QueueWithBuffer.addToBuffer(...) which is triggered at 
 	 * some placed, but always initially by a QLink's doSomStep(...) method. I.e. QNodes
@@ -263,7 +277,7 @@ final class QNodeImpl implements QNodeI {
 			return false;
 		}
 		
-		QLinkI nextQueueLink = this.netsimEngine.getNetsimNetwork().getNetsimLinks().get(nextLinkId);
+		QLinkI nextQueueLink = this.netsimEngine.getNetsimNetwork().getNetsimLink(nextLinkId);
 		QLaneI nextQueueLane = nextQueueLink.getAcceptingQLane() ;
 		if (nextQueueLane.isAcceptingFromUpstream()) {
 			moveVehicleFromInlinkToOutlink(veh, currentLink.getId(), fromLaneBuffer, nextLinkId, nextQueueLane);
@@ -40,6 +40,7 @@ import org.matsim.core.mobsim.qsim.pt.TransitDriverAgent;
 import org.matsim.core.mobsim.qsim.qnetsimengine.AbstractQLink.HandleTransitStopResult;
 import org.matsim.core.mobsim.qsim.qnetsimengine.QLinkImpl.LaneFactory;
 import org.matsim.core.mobsim.qsim.qnetsimengine.linkspeedcalculator.LinkSpeedCalculator;
+import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.ArrayVehicleQ;
 import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.FIFOVehicleQ;
 import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.PassingVehicleQ;
 import org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq.VehicleQ;
@@ -77,6 +78,7 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 		private Double length = null ;
 		private Double effectiveNumberOfLanes = null ;
 		private Double flowCapacity_s = null ;
+		private boolean usingArrayQueues = false ;
  		private final NetsimEngineContext context;
 		Builder( final NetsimEngineContext context ) {
 			this.context = context ;
@@ -84,8 +86,20 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 						context.qsimConfig.getLinkDynamics() == QSimConfigGroup.LinkDynamics.SeepageQ) {
 				this.vehicleQueue = new PassingVehicleQ() ;
 			}
+			setUsingArrayQueues( context.qsimConfig.isUsingArrayQueues() ) ;
 		}
 		void setVehicleQueue(VehicleQ<QVehicle> vehicleQueue) { this.vehicleQueue = vehicleQueue; }
+		/**
+		 * If true, the buffer and the holes of the lane are kept in ring buffers instead of linked lists, and a
+		 * {@link FIFOVehicleQ} which is set at this time is replaced by an {@link ArrayVehicleQ}.  This produces less
+		 * garbage, but does not change the simulation.
+		 */
+		void setUsingArrayQueues(boolean usingArrayQueues) {
+			this.usingArrayQueues = usingArrayQueues ;
+			if ( usingArrayQueues && this.vehicleQueue instanceof FIFOVehicleQ ) {
+				this.vehicleQueue = new ArrayVehicleQ() ;
+			}
+		}
 		void setLaneId(Id<Lane> id) { this.id = id; }
 		void setLength(Double length) { this.length = length; }
 		void setEffectiveNumberOfLanes(Double effectiveNumberOfLanes) { this.effectiveNumberOfLanes = effectiveNumberOfLanes; }
@@ -96,7 +110,8 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 			if ( length==null ) { length = qLink.getLink().getLength() ; }
 			if ( effectiveNumberOfLanes==null ) { effectiveNumberOfLanes = qLink.getLink().getNumberOfLanes() ; }
 			if ( flowCapacity_s==null ) { flowCapacity_s = ((Link)qLink.getLink()).getFlowCapacityPerSec() ; }
-			return new QueueWithBuffer( qLink.getInternalInterface(), vehicleQueue, id, length, effectiveNumberOfLanes, flowCapacity_s, context ) ;
+			return new QueueWithBuffer( qLink.getInternalInterface(), vehicleQueue, id, length, effectiveNumberOfLanes, flowCapacity_s, context,
+					usingArrayQueues ) ;
 		}
 	}
 	
@@ -142,7 +157,7 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 	private double flowCapacityPerTimeStep;
 	private double remainingHolesStorageCapacity = 0.0 ;
 
-	private final Queue<QueueWithBuffer.Hole> holes = new LinkedList<>();
+	private final HoleQ holes;
 
 	/** the last time-step the front-most vehicle in the buffer was moved. Used for detecting dead-locks. */
 	private double bufferLastMovedTime = Time.getUndefinedTime() ;
@@ -157,7 +172,7 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 	/**
 	 * Holds all vehicles that are ready to cross the outgoing intersection
 	 */
-	private final Queue<QVehicle> buffer = new LinkedList<>() ;
+	private final Queue<QVehicle> buffer;
 	/**
 	 * null if the link is not signalized
 	 */
@@ -184,7 +199,8 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 	private double accumulatedInflowCap = 1. ;
 
 	private QueueWithBuffer(AbstractQLink.QLinkInternalInterface qlink, final VehicleQ<QVehicle> vehicleQueue, Id<Lane> laneId,
-							double length, double effectiveNumberOfLanes, double flowCapacity_s, final NetsimEngineContext context) {
+							double length, double effectiveNumberOfLanes, double flowCapacity_s, final NetsimEngineContext context,
+							boolean usingArrayQueues) {
 		// the general idea is to give this object no longer access to "everything".  Objects get back pointers (here qlink), but they
 		// do not present the back pointer to the outside.  In consequence, this object can go up to qlink, but not any further. kai, mar'16
 		// Now I am even trying to get rid of the full qLink back pointer (since it allows, e.g., going back to Link). kai, feb'18
@@ -198,6 +214,13 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 		this.length = length;
 		this.unscaledFlowCapacity_s = flowCapacity_s ;
 		this.effectiveNumberOfLanes = effectiveNumberOfLanes;
+		if ( usingArrayQueues ) {
+			this.buffer = new ArrayDeque<>() ;
+			this.holes = new ArrayHoleQ() ;
+		} else {
+			this.buffer = new LinkedList<>() ;
+			this.holes = new LinkedHoleQ() ;
+		}
 
 //		freespeedTravelTime = this.length / qlink.getLink().getFreespeed();
 //		if (Double.isNaN(freespeedTravelTime)) {
@@ -450,9 +473,8 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 
 	private void processArrivalOfHoles() {
 		double now = context.getSimTimer().getTimeOfDay() ;
-		while ( this.holes.size()>0 && this.holes.peek().getEarliestLinkExitTime() < now ) {
-			Hole hole = this.holes.poll() ; // ???
-			this.remainingHolesStorageCapacity += hole.getSizeInEquivalents() ;
+		while ( !this.holes.isEmpty() && this.holes.peekEarliestLinkExitTime() < now ) {
+			this.remainingHolesStorageCapacity += this.holes.pollSizeInEquivalents() ; // ???
 		}
 	}
 
@@ -534,7 +556,6 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 				break;
 			case withHoles:
 			case kinematicWaves:
-				QueueWithBuffer.Hole hole = new QueueWithBuffer.Hole() ;
 				double ttimeOfHoles = length*3600./HOLE_SPEED_KM_H/1000. ;
 
 				//			double offset = this.storageCapacity/this.flowCapacityPerTimeStep ;
@@ -551,9 +572,8 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 				//			double nLanes = 2. * flowCapacityPerTimeStep ; // pseudo-lanes
 				//			double ttimeOfHoles = 0.1 * this.storageCapacity/this.flowCapacityPerTimeStep/nLanes ;
 
-				hole.setEarliestLinkExitTime( now + 1.0*ttimeOfHoles + 0.0*MatsimRandom.getRandom().nextDouble()*ttimeOfHoles ) ;
-				hole.setSizeInEquivalents(veh2Remove.getSizeInEquivalents());
-				holes.add( hole ) ;
+				holes.add( now + 1.0*ttimeOfHoles + 0.0*MatsimRandom.getRandom().nextDouble()*ttimeOfHoles,
+						veh2Remove.getSizeInEquivalents() ) ;
 				break;
 			default: throw new RuntimeException("The traffic dynmics "+context.qsimConfig.getTrafficDynamics()+" is not implemented yet.");
 		}
@@ -904,6 +924,105 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 		}
 	}
 
+	/**
+	 * The holes on their way to the upstream end of the lane, in the order of their arrival there.
+	 */
+	private interface HoleQ {
+		void add( double earliestLinkExitTime, double sizeInEquivalents ) ;
+		boolean isEmpty() ;
+		/** only if not empty */
+		double peekEarliestLinkExitTime() ;
+		/** removes the first hole; only if not empty */
+		double pollSizeInEquivalents() ;
+		void clear() ;
+		/** for the snapshots */
+		Queue<Hole> asQueue() ;
+	}
+
+	private static final class LinkedHoleQ implements HoleQ {
+		private final Queue<Hole> holes = new LinkedList<>() ;
+
+		@Override public void add( double earliestLinkExitTime, double sizeInEquivalents ) {
+			Hole hole = new Hole() ;
+			hole.setEarliestLinkExitTime( earliestLinkExitTime ) ;
+			hole.setSizeInEquivalents( sizeInEquivalents ) ;
+			this.holes.add( hole ) ;
+		}
+		@Override public boolean isEmpty() {
+			return this.holes.isEmpty() ;
+		}
+		@Override public double peekEarliestLinkExitTime() {
+			return this.holes.peek().getEarliestLinkExitTime() ;
+		}
+		@Override public double pollSizeInEquivalents() {
+			return this.holes.poll().getSizeInEquivalents() ;
+		}
+		@Override public void clear() {
+			this.holes.clear() ;
+		}
+		@Override public Queue<Hole> asQueue() {
+			return this.holes ;
+		}
+	}
+
+	/**
+	 * The exit times and sizes of the holes in two ring buffers, so a hole is not an object.
+	 */
+	private static final class ArrayHoleQ implements HoleQ {
+		private double[] earliestLinkExitTimes = new double[8] ;
+		private double[] sizesInEquivalents = new double[8] ;
+		private int first = 0 ;
+		private int size = 0 ;
+
+		@Override public void add( double earliestLinkExitTime, double sizeInEquivalents ) {
+			if ( this.size == this.earliestLinkExitTimes.length ) {
+				grow() ;
+			}
+			int index = (this.first + this.size) % this.earliestLinkExitTimes.length ;
+			this.earliestLinkExitTimes[index] = earliestLinkExitTime ;
+			this.sizesInEquivalents[index] = sizeInEquivalents ;
+			this.size++ ;
+		}
+		private void grow() {
+			int capacity = this.earliestLinkExitTimes.length ;
+			double[] times = new double[2 * capacity] ;
+			double[] sizes = new double[2 * capacity] ;
+			for ( int i = 0 ; i < this.size ; i++ ) {
+				times[i] = this.earliestLinkExitTimes[(this.first + i) % capacity] ;
+				sizes[i] = this.sizesInEquivalents[(this.first + i) % capacity] ;
+			}
+			this.earliestLinkExitTimes = times ;
+			this.sizesInEquivalents = sizes ;
+			this.first = 0 ;
+		}
+		@Override public boolean isEmpty() {
+			return this.size == 0 ;
+		}
+		@Override public double peekEarliestLinkExitTime() {
+			return this.earliestLinkExitTimes[this.first] ;
+		}
+		@Override public double pollSizeInEquivalents() {
+			double sizeInEquivalents = this.sizesInEquivalents[this.first] ;
+			this.first = (this.first + 1) % this.earliestLinkExitTimes.length ;
+			this.size-- ;
+			return sizeInEquivalents ;
+		}
+		@Override public void clear() {
+			this.first = 0 ;
+			this.size = 0 ;
+		}
+		@Override public Queue<Hole> asQueue() {
+			Queue<Hole> holes = new LinkedList<>() ;
+			for ( int i = 0 ; i < this.size ; i++ ) {
+				Hole hole = new Hole() ;
+				hole.setEarliestLinkExitTime( this.earliestLinkExitTimes[(this.first + i) % this.earliestLinkExitTimes.length] ) ;
+				hole.setSizeInEquivalents( this.sizesInEquivalents[(this.first + i) % this.earliestLinkExitTimes.length] ) ;
+				holes.add( hole ) ;
+			}
+			return holes ;
+		}
+	}
+
 	class VisDataImpl implements QLaneI.VisData {
 		private Coord upstreamCoord;
 		private Coord downstreamCoord;
@@ -932,7 +1051,7 @@ final class QueueWithBuffer implements QLaneI, SignalizeableItem {
 						qLink.getFreespeed(now),
 //						NetworkUtils.getNumberOfLanesAsInt(now, qLink.getLink()),
 						qLink.getNumberOfLanesAsInt(now) ,
-						holes
+						holes.asQueue()
 						);
 			}
 			return positions ;
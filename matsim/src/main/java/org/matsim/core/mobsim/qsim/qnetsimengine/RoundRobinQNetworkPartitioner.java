@@ -0,0 +1,47 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RoundRobinQNetworkPartitioner.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Assigns the nodes one after the other to the partitions, in iteration order.  This is what the {@link QNetsimEngine}
+ * has always done.
+ */
+final class RoundRobinQNetworkPartitioner implements QNetworkPartitioner {
+
+	@Override
+	public Map<Id<Node>, Integer> partition(Collection<? extends Node> nodes, int numberOfPartitions) {
+		Map<Id<Node>, Integer> partitions = new HashMap<>(nodes.size() * 2);
+		int roundRobin = 0;
+		for (Node node : nodes) {
+			partitions.put(node.getId(), roundRobin % numberOfPartitions);
+			roundRobin++;
+		}
+		return partitions;
+	}
+
+}
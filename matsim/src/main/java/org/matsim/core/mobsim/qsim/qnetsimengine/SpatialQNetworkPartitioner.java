@@ -0,0 +1,134 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpatialQNetworkPartitioner.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Cuts the network into contiguous regions by recursive coordinate bisection (i.e. a k-d tree with weighted
+ * median cuts): the set of nodes is split along its longer extent such that both halves carry a share of the
+ * total node weight proportional to the number of partitions they will be split into further.
+ * <p></p>
+ * Since neighboring nodes end up in the same partition, a vehicle crossing a node mostly stays within the
+ * activation registry of the runner that also owns the next link, and cuts only occur along the region borders.
+ * By default, a node is weighted by the summed flow capacity of its out-links, which is a (rough) proxy for
+ * the work a runner has with that node and its out-links.
+ */
+final class SpatialQNetworkPartitioner implements QNetworkPartitioner {
+
+	private final ToDoubleFunction<Node> nodeWeights;
+
+	SpatialQNetworkPartitioner() {
+		this(SpatialQNetworkPartitioner::getOutLinksCapacity);
+	}
+
+	SpatialQNetworkPartitioner(ToDoubleFunction<Node> nodeWeights) {
+		this.nodeWeights = nodeWeights;
+	}
+
+	@Override
+	public Map<Id<Node>, Integer> partition(Collection<? extends Node> nodes, int numberOfPartitions) {
+		List<WeightedNode> weightedNodes = new ArrayList<>(nodes.size());
+		for (Node node : nodes) {
+			// every node gets a small positive weight, otherwise nodes without out-links could not be balanced at all
+			double weight = Math.max(this.nodeWeights.applyAsDouble(node), 0.0) + 1e-6;
+			weightedNodes.add(new WeightedNode(node, weight));
+		}
+		Map<Id<Node>, Integer> partitions = new HashMap<>(nodes.size() * 2);
+		bisect(weightedNodes, 0, numberOfPartitions, partitions);
+		return partitions;
+	}
+
+	private static void bisect(List<WeightedNode> nodes, int firstPartition, int numberOfPartitions, Map<Id<Node>, Integer> partitions) {
+		if (numberOfPartitions == 1 || nodes.size() <= 1) {
+			for (WeightedNode wn : nodes) {
+				partitions.put(wn.node.getId(), firstPartition);
+			}
+			return;
+		}
+
+		double minX = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		double totalWeight = 0.0;
+		for (WeightedNode wn : nodes) {
+			minX = Math.min(minX, wn.x);
+			maxX = Math.max(maxX, wn.x);
+			minY = Math.min(minY, wn.y);
+			maxY = Math.max(maxY, wn.y);
+			totalWeight += wn.weight;
+		}
+
+		if (maxX - minX >= maxY - minY) {
+			nodes.sort(Comparator.comparingDouble((WeightedNode wn) -> wn.x).thenComparingDouble(wn -> wn.y));
+		} else {
+			nodes.sort(Comparator.comparingDouble((WeightedNode wn) -> wn.y).thenComparingDouble(wn -> wn.x));
+		}
+
+		int lowerPartitions = numberOfPartitions / 2;
+		double lowerWeight = totalWeight * lowerPartitions / numberOfPartitions;
+
+		int cut = 0;
+		double weightSum = 0.0;
+		while (cut < nodes.size() - 1 && weightSum + nodes.get(cut).weight / 2 < lowerWeight) {
+			weightSum += nodes.get(cut).weight;
+			cut++;
+		}
+		cut = Math.max(cut, 1);
+
+		bisect(new ArrayList<>(nodes.subList(0, cut)), firstPartition, lowerPartitions, partitions);
+		bisect(new ArrayList<>(nodes.subList(cut, nodes.size())), firstPartition + lowerPartitions,
+				numberOfPartitions - lowerPartitions, partitions);
+	}
+
+	private static double getOutLinksCapacity(Node node) {
+		double capacity = 0.0;
+		for (Link link : node.getOutLinks().values()) {
+			capacity += link.getFlowCapacityPerSec();
+		}
+		return capacity;
+	}
+
+	private static final class WeightedNode {
+		final Node node;
+		final double x;
+		final double y;
+		final double weight;
+
+		WeightedNode(Node node, double weight) {
+			this.node = node;
+			this.x = node.getCoord().getX();
+			this.y = node.getCoord().getY();
+			this.weight = weight;
+		}
+	}
+}
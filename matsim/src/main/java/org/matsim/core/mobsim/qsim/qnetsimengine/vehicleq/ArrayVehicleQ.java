@@ -0,0 +1,82 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ArrayVehicleQ.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+package org.matsim.core.mobsim.qsim.qnetsimengine.vehicleq;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import org.matsim.core.mobsim.qsim.qnetsimengine.QVehicle;
+
+/**
+ * The same first-in-first-out queue as {@link FIFOVehicleQ}, but in a ring buffer, so adding a vehicle does not
+ * allocate a list node.
+ */
+public final class ArrayVehicleQ extends AbstractQueue<QVehicle> implements VehicleQ<QVehicle> {
+
+	private final ArrayDeque<QVehicle> vehicleQueue = new ArrayDeque<>();
+
+	@Override
+	public boolean offer(QVehicle e) {
+		return vehicleQueue.offer(e);
+	}
+
+	@Override
+	public QVehicle peek() {
+		return vehicleQueue.peek();
+	}
+
+	@Override
+	public QVehicle poll() {
+		return vehicleQueue.poll();
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		// usually the first vehicle, which is then removed without moving the others
+		return vehicleQueue.removeFirstOccurrence(o);
+	}
+
+	@Override
+	public void clear() {
+		vehicleQueue.clear();
+	}
+
+	@Override
+	public Iterator<QVehicle> iterator() {
+		return vehicleQueue.iterator();
+	}
+
+	@Override
+	public int size() {
+		return vehicleQueue.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return vehicleQueue.isEmpty();
+	}
+
+	@Override
+	public void addFirst(QVehicle e) {
+		vehicleQueue.addFirst(e);
+	}
+
+}
@@ -31,4 +31,12 @@ public interface ReplanningContext {
 	 */
 	int getIteration();
 
+	/**
+	 * A pool of replanning threads that is kept for the whole run, or <code>null</code> if the replanning modules
+	 * should start their own threads.
+	 */
+	default ReplanningThreadPool getThreadPool() {
+		return null;
+	}
+
 }
@@ -22,20 +22,26 @@
 
 package org.matsim.core.replanning;
 
+import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.controler.ControlerListenerManager;
 import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.events.ShutdownEvent;
 import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.controler.listener.ShutdownListener;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 @Singleton
-class ReplanningContextImpl implements ReplanningContext, IterationStartsListener {
+class ReplanningContextImpl implements ReplanningContext, IterationStartsListener, ShutdownListener {
 
     private int iteration;
+    private final GlobalConfigGroup globalConfigGroup;
+    private ReplanningThreadPool threadPool = null;
 
     @Inject
-    ReplanningContextImpl(ControlerListenerManager controlerListenerManager) {
+    ReplanningContextImpl(ControlerListenerManager controlerListenerManager, GlobalConfigGroup globalConfigGroup) {
+        this.globalConfigGroup = globalConfigGroup;
         controlerListenerManager.addControlerListener(this);
     }
 
@@ -48,4 +54,21 @@ class ReplanningContextImpl implements ReplanningContext, IterationStartsListene
     public void notifyIterationStarts(IterationStartsEvent event) {
         this.iteration = event.getIteration();
     }
+
+    @Override
+    public synchronized ReplanningThreadPool getThreadPool() {
+        if (this.threadPool == null && this.globalConfigGroup.isUsingPersistentReplanningThreads()
+                && this.globalConfigGroup.getNumberOfThreads() > 0) {
+            this.threadPool = new ReplanningThreadPool(this.globalConfigGroup.getNumberOfThreads());
+        }
+        return this.threadPool;
+    }
+
+    @Override
+    public synchronized void notifyShutdown(ShutdownEvent event) {
+        if (this.threadPool != null) {
+            this.threadPool.shutdown();
+            this.threadPool = null;
+        }
+    }
 }
@@ -0,0 +1,90 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ReplanningThreadPool.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.replanning;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A fixed set of worker threads that is kept for the whole run, so that multi-threaded replanning modules do not
+ * have to start new threads in every iteration.  The threads are daemon threads, so a pool that is not shut down
+ * does not keep the JVM alive.
+ *
+ * @see org.matsim.core.replanning.modules.AbstractMultithreadedModule
+ */
+public final class ReplanningThreadPool {
+
+	private static final Logger log = Logger.getLogger(ReplanningThreadPool.class);
+
+	private final int numberOfThreads;
+	private final ExecutorService executor;
+
+	public ReplanningThreadPool(final int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+		AtomicInteger threadCounter = new AtomicInteger(0);
+		this.executor = Executors.newFixedThreadPool(numberOfThreads, runnable -> {
+			Thread thread = new Thread(runnable, "ReplanningThreadPool." + threadCounter.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+		log.info("started " + numberOfThreads + " replanning threads.");
+	}
+
+	public int getNumberOfThreads() {
+		return this.numberOfThreads;
+	}
+
+	/**
+	 * Runs all tasks on the threads of the pool and waits until all of them are finished.  If there are more tasks
+	 * than threads, the remaining tasks are run as soon as threads become available.
+	 *
+	 * @throws RuntimeException if one of the tasks threw an exception, after all tasks are finished.
+	 */
+	public void runAndWait(final Collection<? extends Runnable> tasks) {
+		List<Callable<Object>> callables = new ArrayList<>(tasks.size());
+		for (Runnable task : tasks) {
+			callables.add(Executors.callable(task));
+		}
+		try {
+			for (Future<Object> future : this.executor.invokeAll(callables)) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	public void shutdown() {
+		this.executor.shutdown();
+	}
+
+}
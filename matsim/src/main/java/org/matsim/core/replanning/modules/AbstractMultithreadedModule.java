@@ -24,13 +24,17 @@ import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.api.core.v01.replanning.PlanStrategyModule;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup.ReplanningScheduling;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
 import org.matsim.core.replanning.ReplanningContext;
+import org.matsim.core.replanning.ReplanningThreadPool;
 import org.matsim.core.utils.misc.Counter;
 
 import java.lang.Thread.UncaughtExceptionHandler;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -50,6 +54,14 @@ import java.util.concurrent.atomic.AtomicReference;
  * "fast threads"), it helps building reproducible runs.  Additionally, as the threads are only
  * started after all to-be-handled plans are added, we can use unsynchronized data structures.
  * <p></p>
+ * With {@link ReplanningScheduling#workStealing}, <code>handlePlan(Plan)</code> only collects the plans, and the
+ * threads repeatedly take the next small batch of plans until all plans are handled.  Slow threads then handle fewer
+ * plans, but which plan is handled by which algorithm instance is no longer reproducible.
+ * <p></p>
+ * If the {@link ReplanningContext} provides a {@link ReplanningThreadPool}, the plan algorithms are run on the threads
+ * of this pool instead of on newly started threads.  Modules that return <code>true</code> from
+ * {@link #isReusingPlanAlgoInstances()} then also keep their plan algorithm instances for the next iteration.
+ * <p></p>
  * Design comments/questions:<ul>
  * <li> As a consequence of the design, the instances that getPlanAlgoInstance() returns, need to be thread-safe.  kai, dec'12
  * For an example with discussions, see {@link tutorial.programming.multiThreadedPlanStrategy.RunWithMultithreadedModule}
@@ -59,13 +71,17 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 abstract public class AbstractMultithreadedModule implements PlanStrategyModule {
 	private final int numOfThreads;
+	private final ReplanningScheduling scheduling;
 
 	private PlanAlgoThread[] algothreads = null;
 	private Thread[] threads = null;
+	private ReplanningThreadPool threadPool = null;
+	private PlanAlgorithm[] reusablePlanAlgos = null;
 	private PlanAlgorithm directAlgo = null;
 	private String name = null;
 
 	private int count = 0;
+	private List<Plan> sharedPlans = null;
 
 	private final AtomicReference<Throwable> hadException = new AtomicReference<>(null);
 	private final ExceptionHandler exceptionHandler = new ExceptionHandler(this.hadException);
@@ -82,12 +98,26 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	 */
 	abstract public PlanAlgorithm getPlanAlgoInstance();
 
+	/**
+	 * Whether the instances returned by {@link #getPlanAlgoInstance()} can be kept from one iteration to the next when
+	 * running on a {@link ReplanningThreadPool}.  This requires that they do not depend on per-iteration state, and
+	 * that their results do not depend on the plans they handled before.
+	 */
+	protected boolean isReusingPlanAlgoInstances() {
+		return false;
+	}
+
 	public AbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
-		this.numOfThreads = globalConfigGroup.getNumberOfThreads();
+		this(globalConfigGroup.getNumberOfThreads(), globalConfigGroup.getReplanningScheduling());
 	}
 
 	public AbstractMultithreadedModule(final int numOfThreads) {
+		this(numOfThreads, ReplanningScheduling.staticAssignment);
+	}
+
+	public AbstractMultithreadedModule(final int numOfThreads, final ReplanningScheduling scheduling) {
 		this.numOfThreads = numOfThreads;
+		this.scheduling = scheduling;
 	}
 	
 	protected void beforePrepareReplanningHook(@SuppressWarnings("unused") ReplanningContext replanningContextTmp) {
@@ -106,6 +136,7 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 			// it seems, no threads are desired :(
 			this.directAlgo = getPlanAlgoInstance();
 		} else {
+			this.threadPool = replanningContextTmp == null ? null : replanningContextTmp.getThreadPool();
 			initThreads();
 		}
 		this.afterPrepareReplanningHook(replanningContextTmp);
@@ -118,7 +149,11 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	@Override
 	public final void handlePlan(final Plan plan) {
 		if (this.directAlgo == null) {
-			this.algothreads[this.count % this.numOfThreads].addPlanToThread(plan);
+			if (this.sharedPlans != null) {
+				this.sharedPlans.add(plan);
+			} else {
+				this.algothreads[this.count % this.numOfThreads].addPlanToThread(plan);
+			}
 			this.count++;
 		} else {
 			this.directAlgo.run(plan);
@@ -138,22 +173,45 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		
 		if (this.directAlgo == null) {
 			// only try to start threads if we did not directly work on all the plans
-			log.info("[" + this.name + "] starting " + this.threads.length + " threads, handling " + this.count + " plans");
+			log.info("[" + this.name + "] starting " + this.algothreads.length + " threads, handling " + this.count + " plans");
 
-			// start threads
-			for (Thread thread : this.threads) {
-				thread.start();
+			if (this.sharedPlans != null) {
+				PlanBatches batches = new PlanBatches(this.sharedPlans, this.numOfThreads);
+				for (PlanAlgoThread algothread : this.algothreads) {
+					algothread.setPlanBatches(batches);
+				}
 			}
 
-			// wait until each thread is finished
-			try {
+			if (this.threadPool != null) {
+				// the pool rethrows the first exception only, thus log all of them like the uncaught exception handler does
+				List<Runnable> tasks = new ArrayList<>(this.algothreads.length);
+				for (PlanAlgoThread algothread : this.algothreads) {
+					tasks.add(() -> {
+						try {
+							algothread.run();
+						} catch (RuntimeException | Error e) {
+							this.exceptionHandler.uncaughtException(Thread.currentThread(), e);
+						}
+					});
+				}
+				this.threadPool.runAndWait(tasks);
+			} else {
+				// start threads
 				for (Thread thread : this.threads) {
-					thread.join();
+					thread.start();
+				}
+
+				// wait until each thread is finished
+				try {
+					for (Thread thread : this.threads) {
+						thread.join();
+					}
+				} catch (InterruptedException e) {
+					throw new RuntimeException(e);
 				}
-			} catch (InterruptedException e) {
-				throw new RuntimeException(e);
 			}
-			log.info("[" + this.name + "] all " + this.threads.length + " threads finished.");
+			log.info("[" + this.name + "] all " + this.algothreads.length + " threads finished.");
+			logBusyTimes();
 			Throwable throwable = this.hadException.get();
 			if (throwable != null) {
 				throw new RuntimeException("Some threads crashed, thus not all plans may have been handled.", throwable);
@@ -162,6 +220,8 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 		// reset
 		this.algothreads = null;
 		this.threads = null;
+		this.threadPool = null;
+		this.sharedPlans = null;
 		this.replanningContext = null;
 		this.count = 0;
 		
@@ -169,30 +229,60 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 	}
 
 	private void initThreads() {
-		if (this.threads != null) {
+		if (this.algothreads != null) {
 			throw new RuntimeException("threads are already initialized");
 		}
 
 		this.hadException.set(null);
-		this.threads = new Thread[this.numOfThreads];
+		this.threads = this.threadPool == null ? new Thread[this.numOfThreads] : null;
 		this.algothreads = new PlanAlgoThread[this.numOfThreads];
+		this.sharedPlans = this.scheduling == ReplanningScheduling.workStealing ? new ArrayList<>() : null;
+
+		boolean reusing = this.threadPool != null && isReusingPlanAlgoInstances();
+		if (reusing && this.reusablePlanAlgos == null) {
+			this.reusablePlanAlgos = new PlanAlgorithm[this.numOfThreads];
+		}
 
 		Counter counter = null;
 		// setup threads
 		for (int i = 0; i < this.numOfThreads; i++) {
-			PlanAlgorithm algo = getPlanAlgoInstance();
+			PlanAlgorithm algo = reusing ? this.reusablePlanAlgos[i] : null;
+			if (algo == null) {
+				algo = getPlanAlgoInstance();
+				if (reusing) {
+					this.reusablePlanAlgos[i] = algo;
+				}
+			}
 			if (i == 0) {
 				this.name = algo.getClass().getSimpleName();
 				counter = new Counter("[" + this.name + "] handled plan # ");
 			}
 			PlanAlgoThread algothread = new PlanAlgoThread(algo, counter);
-			Thread thread = new Thread(algothread, this.name + "." + i);
-			thread.setUncaughtExceptionHandler(this.exceptionHandler);
-			this.threads[i] = thread;
+			if (this.threads != null) {
+				Thread thread = new Thread(algothread, this.name + "." + i);
+				thread.setUncaughtExceptionHandler(this.exceptionHandler);
+				this.threads[i] = thread;
+			}
 			this.algothreads[i] = algothread;
 		}
 	}
 
+	private void logBusyTimes() {
+		long maxNanos = 0;
+		long sumNanos = 0;
+		for (int i = 0; i < this.algothreads.length; i++) {
+			PlanAlgoThread algothread = this.algothreads[i];
+			log.info("[" + this.name + "] thread " + i + " handled " + algothread.getNumberOfHandledPlans()
+					+ " plans, busy for " + (algothread.getBusyNanos() / 1000000) + " ms");
+			maxNanos = Math.max(maxNanos, algothread.getBusyNanos());
+			sumNanos += algothread.getBusyNanos();
+		}
+		if (sumNanos > 0) {
+			double meanNanos = (double) sumNanos / this.algothreads.length;
+			log.info("[" + this.name + "] ratio of maximum to mean busy time: " + (maxNanos / meanNanos));
+		}
+	}
+
 	/* package (for a test) */ final int getNumOfThreads() {
 		return numOfThreads;
 	}
@@ -213,11 +303,38 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 
 	}
 
+	/**
+	 * Hands out consecutive batches of the plans to the threads asking for more work.
+	 */
+	private final static class PlanBatches {
+
+		private final List<Plan> plans;
+		private final int batchSize;
+		private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+		PlanBatches(final List<Plan> plans, final int numOfThreads) {
+			this.plans = plans;
+			// small enough to balance the load at the end, large enough to keep the contention low
+			this.batchSize = Math.max(1, Math.min(100, plans.size() / (numOfThreads * 16)));
+		}
+
+		/**
+		 * @return the index of the first plan of the next batch, or -1 if all plans are taken.
+		 */
+		int nextBatch() {
+			int start = this.nextIndex.getAndAdd(this.batchSize);
+			return start < this.plans.size() ? start : -1;
+		}
+	}
+
 	private final static class PlanAlgoThread implements Runnable {
 
 		private final PlanAlgorithm planAlgo;
 		private final List<Plan> plans = new LinkedList<>();
 		private final Counter counter;
+		private PlanBatches batches = null;
+		private long busyNanos = 0;
+		private int handledPlans = 0;
 
 		public PlanAlgoThread(final PlanAlgorithm algo, final Counter counter) {
 			this.planAlgo = algo;
@@ -228,12 +345,40 @@ abstract public class AbstractMultithreadedModule implements PlanStrategyModule
 			this.plans.add(plan);
 		}
 
+		public void setPlanBatches(final PlanBatches batches) {
+			this.batches = batches;
+		}
+
+		public long getBusyNanos() {
+			return this.busyNanos;
+		}
+
+		public int getNumberOfHandledPlans() {
+			return this.handledPlans;
+		}
+
 		@Override
 		public void run() {
+			long start = System.nanoTime();
 			for (Plan plan : this.plans) {
-				this.planAlgo.run(plan);
-				this.counter.incCounter();
+				handlePlan(plan);
+			}
+			if (this.batches != null) {
+				int first;
+				while ((first = this.batches.nextBatch()) >= 0) {
+					int last = Math.min(first + this.batches.batchSize, this.batches.plans.size());
+					for (int i = first; i < last; i++) {
+						handlePlan(this.batches.plans.get(i));
+					}
+				}
 			}
+			this.busyNanos = System.nanoTime() - start;
+		}
+
+		private void handlePlan(final Plan plan) {
+			this.planAlgo.run(plan);
+			this.handledPlans++;
+			this.counter.incCounter();
 		}
 	}
 }
@@ -59,4 +59,13 @@ public class ReRoute extends AbstractMultithreadedModule {
 					facilities);
 	}
 
+	/**
+	 * The routers only refer to the travel times and disutilities, which are updated in place between the iterations,
+	 * so they can be kept together with their preprocessed data.
+	 */
+	@Override
+	protected boolean isReusingPlanAlgoInstances() {
+		return true;
+	}
+
 }
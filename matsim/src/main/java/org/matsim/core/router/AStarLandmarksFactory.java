@@ -27,7 +27,9 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.router.util.LandmarksCache;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
 import org.matsim.core.router.util.PreProcessLandmarks;
@@ -43,6 +45,7 @@ public class AStarLandmarksFactory implements LeastCostPathCalculatorFactory {
 	private final Map<Network, PreProcessLandmarks> preProcessData = new HashMap<>();
 
 	@Inject private GlobalConfigGroup globalConfig ;
+	@Inject private ControlerConfigGroup controlerConfig ;
 	
 	@Inject
 	public AStarLandmarksFactory() {
@@ -54,6 +57,9 @@ public class AStarLandmarksFactory implements LeastCostPathCalculatorFactory {
 		if (preProcessLandmarks == null) {
 			preProcessLandmarks = new PreProcessLandmarks(travelCosts);
 			preProcessLandmarks.setNumberOfThreads( globalConfig.getNumberOfThreads());
+			if (controlerConfig.getRoutingCacheDirectory() != null) {
+				preProcessLandmarks.setCache(new LandmarksCache(controlerConfig.getRoutingCacheDirectory()));
+			}
 			preProcessLandmarks.run(network);
 			this.preProcessData.put(network, preProcessLandmarks);
 		}
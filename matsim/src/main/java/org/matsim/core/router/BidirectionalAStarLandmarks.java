@@ -0,0 +1,291 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * BidirectionalAStarLandmarks.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.priorityqueue.IntMinHeap;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Bidirectional, time-dependent A* search with landmarks on a {@link CsrRoutingGraph}.
+ * <p></p>
+ * The departure time is only known at the start node, so only the forward search can use the time-dependent travel
+ * disutilities.  The backward search from the end node uses the minimum travel disutility of each link instead; it
+ * thus computes lower bounds of the cost from each node it settles to the end node.  Both searches use the landmarks
+ * of {@link CsrAStarLandmarks.Landmarks} as heuristic and alternate in three phases:
+ * <ol>
+ * <li>until a node is settled by both searches; the forward path to this node followed by the backward path from
+ * it, evaluated with the time-dependent disutilities, gives an upper bound of the cost of the least cost path.</li>
+ * <li>until the smallest key of the backward search exceeds the upper bound.  All nodes on the least cost path have
+ * a smaller key, so they are now settled by the backward search.</li>
+ * <li>the forward search continues alone, but only expands nodes settled by the backward search, until it settles
+ * the end node.</li>
+ * </ol>
+ * The forward search finds the least cost path as in {@link CsrAStarLandmarks}, but settles fewer nodes on long
+ * routes, as the backward search restricts it to a corridor between start and end node.
+ * <p></p>
+ * Instances are not thread-safe.
+ *
+ * @see BidirectionalAStarLandmarksFactory
+ */
+public class BidirectionalAStarLandmarks implements LeastCostPathCalculator {
+
+	private final CsrRoutingGraph graph;
+	private final CsrAStarLandmarks.Landmarks landmarks;
+	private final TravelDisutility travelCosts;
+	private final TravelTime travelTimes;
+	/** the minimum travel disutility of each link, used by the backward search */
+	private final double[] minLinkCosts;
+
+	private final int[] activeLandmarks;
+	private int activeLandmarkCount = 0;
+	/** the travel times between the start respectively end node of the current query and each active landmark */
+	private final double[] fromMin;
+	private final double[] fromMax;
+	private final double[] toMin;
+	private final double[] toMax;
+
+	private final IntMinHeap forwardHeap;
+	private final IntMinHeap backwardHeap;
+	/** the search state of each node, valid only if its stamp is the one of the current query */
+	private final double[] forwardCost;
+	private final double[] forwardTime;
+	private final int[] forwardEdge;
+	private final double[] backwardCost;
+	private final int[] backwardEdge;
+	private final int[] forwardStamp;
+	private final int[] backwardStamp;
+	private final int[] forwardSettled;
+	private final int[] backwardSettled;
+	private int stamp = 0;
+
+	BidirectionalAStarLandmarks(final CsrRoutingGraph graph, final CsrAStarLandmarks.Landmarks landmarks,
+			final TravelDisutility travelCosts, final TravelTime travelTimes) {
+		this.graph = graph;
+		this.landmarks = landmarks;
+		this.travelCosts = travelCosts;
+		this.travelTimes = travelTimes;
+		this.minLinkCosts = new double[graph.links.length];
+		for (int l = 0; l < graph.links.length; l++) {
+			this.minLinkCosts[l] = travelCosts.getLinkMinimumTravelDisutility(graph.links[l]);
+		}
+
+		int count = Math.min(CsrAStarLandmarks.MAX_ACTIVE_LANDMARKS, landmarks.count);
+		this.activeLandmarks = new int[count];
+		this.fromMin = new double[count];
+		this.fromMax = new double[count];
+		this.toMin = new double[count];
+		this.toMax = new double[count];
+
+		int nodeCount = graph.getNodeCount();
+		this.forwardHeap = new IntMinHeap(nodeCount);
+		this.backwardHeap = new IntMinHeap(nodeCount);
+		this.forwardCost = new double[nodeCount];
+		this.forwardTime = new double[nodeCount];
+		this.forwardEdge = new int[nodeCount];
+		this.backwardCost = new double[nodeCount];
+		this.backwardEdge = new int[nodeCount];
+		this.forwardStamp = new int[nodeCount];
+		this.backwardStamp = new int[nodeCount];
+		this.forwardSettled = new int[nodeCount];
+		this.backwardSettled = new int[nodeCount];
+	}
+
+	@Override
+	public Path calcLeastCostPath(final Node fromNode, final Node toNode, final double starttime, final Person person, final Vehicle vehicle) {
+		int from = this.graph.getIndex(fromNode);
+		int to = this.graph.getIndex(toNode);
+		if (from < 0 || to < 0) {
+			throw new IllegalArgumentException("The nodes passed as parameters are not part of the network stored by "+
+					getClass().getSimpleName() + ": the validity of the results cannot be guaranteed. Aborting!");
+		}
+		initLandmarks(from, to);
+		nextStamp();
+		this.forwardHeap.clear();
+		this.backwardHeap.clear();
+		visitForward(from, 0.0, starttime, -1);
+		visitBackward(to, 0.0, -1);
+
+		final CsrRoutingGraph g = this.graph;
+		double upperBound = Double.POSITIVE_INFINITY;
+		boolean backwardDone = false;
+		boolean forwardTurn = true;
+		while (!this.forwardHeap.isEmpty()) {
+			if (!backwardDone && (this.backwardHeap.isEmpty() || this.backwardHeap.peekKey() > upperBound)) {
+				backwardDone = true;
+			}
+			if (forwardTurn || backwardDone) {
+				int node = this.forwardHeap.poll();
+				if (node == to) {
+					return constructPath(fromNode, to, starttime);
+				}
+				this.forwardSettled[node] = this.stamp;
+				if (backwardDone) {
+					if (this.backwardSettled[node] != this.stamp) {
+						// cannot be part of the least cost path
+						continue;
+					}
+				} else if (upperBound == Double.POSITIVE_INFINITY && this.backwardSettled[node] == this.stamp) {
+					upperBound = getUpperBound(node, person, vehicle);
+				}
+				double nodeCost = this.forwardCost[node];
+				double nodeTime = this.forwardTime[node];
+				for (int e = g.offsets[node]; e < g.offsets[node + 1]; e++) {
+					Link link = g.links[g.edgeLinks[e]];
+					double travelTime = this.travelTimes.getLinkTravelTime(link, nodeTime, person, vehicle);
+					double travelCost = this.travelCosts.getLinkTravelDisutility(link, nodeTime, person, vehicle);
+					visitForward(g.targets[e], nodeCost + travelCost, nodeTime + travelTime, e);
+				}
+			} else {
+				int node = this.backwardHeap.poll();
+				this.backwardSettled[node] = this.stamp;
+				if (upperBound == Double.POSITIVE_INFINITY && this.forwardSettled[node] == this.stamp) {
+					upperBound = getUpperBound(node, person, vehicle);
+				}
+				double nodeCost = this.backwardCost[node];
+				for (int e = g.reverseOffsets[node]; e < g.reverseOffsets[node + 1]; e++) {
+					visitBackward(g.reverseSources[e], nodeCost + this.minLinkCosts[g.reverseEdgeLinks[e]], e);
+				}
+			}
+			forwardTurn = !forwardTurn;
+		}
+		return null;
+	}
+
+	private void initLandmarks(final int from, final int to) {
+		this.activeLandmarkCount = this.landmarks.selectActiveLandmarks(from, to, this.activeLandmarks);
+		for (int a = 0; a < this.activeLandmarkCount; a++) {
+			this.fromMin[a] = this.landmarks.min[from * this.landmarks.count + this.activeLandmarks[a]];
+			this.fromMax[a] = this.landmarks.max[from * this.landmarks.count + this.activeLandmarks[a]];
+			this.toMin[a] = this.landmarks.min[to * this.landmarks.count + this.activeLandmarks[a]];
+			this.toMax[a] = this.landmarks.max[to * this.landmarks.count + this.activeLandmarks[a]];
+		}
+	}
+
+	/**
+	 * @return the estimated cost from <code>node</code> to the end node, or with <code>backward</code>, from the
+	 * start node to <code>node</code>.
+	 */
+	private double estimate(final int node, final boolean backward) {
+		int offset = node * this.landmarks.count;
+		double[] otherMin = backward ? this.fromMin : this.toMin;
+		double[] otherMax = backward ? this.fromMax : this.toMax;
+		double best = 0.0;
+		for (int a = 0; a < this.activeLandmarkCount; a++) {
+			int i = offset + this.activeLandmarks[a];
+			double estimate;
+			if (backward) {
+				estimate = otherMin[a] - this.landmarks.max[i];
+				if (estimate < 0) {
+					estimate = this.landmarks.min[i] - otherMax[a];
+				}
+			} else {
+				estimate = this.landmarks.min[i] - otherMax[a];
+				if (estimate < 0) {
+					estimate = otherMin[a] - this.landmarks.max[i];
+				}
+			}
+			if (estimate > best) {
+				best = estimate;
+			}
+		}
+		return best;
+	}
+
+	private void visitForward(final int node, final double cost, final double time, final int edge) {
+		if (this.forwardStamp[node] == this.stamp && this.forwardCost[node] <= cost) {
+			return;
+		}
+		this.forwardStamp[node] = this.stamp;
+		this.forwardCost[node] = cost;
+		this.forwardTime[node] = time;
+		this.forwardEdge[node] = edge;
+		this.forwardHeap.insertOrDecrease(node, cost + estimate(node, false));
+	}
+
+	private void visitBackward(final int node, final double cost, final int edge) {
+		if (this.backwardStamp[node] == this.stamp && this.backwardCost[node] <= cost) {
+			return;
+		}
+		this.backwardStamp[node] = this.stamp;
+		this.backwardCost[node] = cost;
+		this.backwardEdge[node] = edge;
+		this.backwardHeap.insertOrDecrease(node, cost + estimate(node, true));
+	}
+
+	/**
+	 * @return the time-dependent cost of the path over <code>node</code> found by the forward and backward search.
+	 */
+	private double getUpperBound(final int node, final Person person, final Vehicle vehicle) {
+		double cost = this.forwardCost[node];
+		double time = this.forwardTime[node];
+		for (int n = node; this.backwardEdge[n] >= 0; ) {
+			int l = this.graph.reverseEdgeLinks[this.backwardEdge[n]];
+			Link link = this.graph.links[l];
+			cost += this.travelCosts.getLinkTravelDisutility(link, time, person, vehicle);
+			time += this.travelTimes.getLinkTravelTime(link, time, person, vehicle);
+			n = this.graph.linkTo[l];
+		}
+		return cost;
+	}
+
+	private void nextStamp() {
+		this.stamp++;
+		if (this.stamp == Integer.MAX_VALUE) {
+			Arrays.fill(this.forwardStamp, 0);
+			Arrays.fill(this.backwardStamp, 0);
+			Arrays.fill(this.forwardSettled, 0);
+			Arrays.fill(this.backwardSettled, 0);
+			this.stamp = 1;
+		}
+	}
+
+	private Path constructPath(final Node fromNode, final int to, final double startTime) {
+		int linkCount = 0;
+		for (int node = to; this.forwardEdge[node] >= 0; node = this.graph.linkFrom[this.graph.edgeLinks[this.forwardEdge[node]]]) {
+			linkCount++;
+		}
+		Link[] pathLinks = new Link[linkCount];
+		int l = linkCount;
+		for (int node = to; this.forwardEdge[node] >= 0; node = this.graph.linkFrom[this.graph.edgeLinks[this.forwardEdge[node]]]) {
+			pathLinks[--l] = this.graph.links[this.graph.edgeLinks[this.forwardEdge[node]]];
+		}
+
+		List<Node> nodes = new ArrayList<>(linkCount + 1);
+		List<Link> links = new ArrayList<>(linkCount);
+		nodes.add(fromNode);
+		for (Link link : pathLinks) {
+			links.add(link);
+			nodes.add(link.getToNode());
+		}
+		return new Path(nodes, links, this.forwardTime[to] - startTime, this.forwardCost[to]);
+	}
+
+}
@@ -0,0 +1,213 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ContractionHierarchies.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.priorityqueue.IntMinHeap;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Least cost path calculator using contraction hierarchies.
+ * <p></p>
+ * The route is searched with a bidirectional Dijkstra on the contraction hierarchy of the time bin of the departure,
+ * which only follows edges to more important nodes and thus settles few nodes even on large networks.  The hierarchy
+ * is built with the travel disutilities in the middle of the time bin, without person or vehicle, so the route is
+ * optimal for these costs, not for time-dependent or person-dependent ones.  The travel time and cost of the returned
+ * {@link Path} are however computed along its links like in {@link Dijkstra}.
+ * <p></p>
+ * Instances are not thread-safe, but all instances created by the same {@link ContractionHierarchiesFactory} for a
+ * network share its hierarchies.
+ *
+ * @see ContractionHierarchiesFactory
+ */
+public class ContractionHierarchies implements LeastCostPathCalculator {
+
+	private final ContractionHierarchiesData data;
+	private final TravelDisutility travelCosts;
+	private final TravelTime travelTimes;
+
+	private final IntMinHeap forwardHeap;
+	private final IntMinHeap backwardHeap;
+	/** the search state of each node, valid only if its stamp is the one of the current query */
+	private final double[] forwardCost;
+	private final double[] backwardCost;
+	private final int[] forwardStamp;
+	private final int[] backwardStamp;
+	private final int[] forwardEdge;
+	private final int[] backwardEdge;
+	private final int[] forwardParent;
+	private final int[] backwardParent;
+	private int stamp = 0;
+
+	private final int[][] linkBuffer = {new int[64]};
+
+	ContractionHierarchies(final ContractionHierarchiesData data, final TravelDisutility travelCosts, final TravelTime travelTimes) {
+		this.data = data;
+		this.travelCosts = travelCosts;
+		this.travelTimes = travelTimes;
+		int nodeCount = data.graph.getNodeCount();
+		this.forwardHeap = new IntMinHeap(nodeCount);
+		this.backwardHeap = new IntMinHeap(nodeCount);
+		this.forwardCost = new double[nodeCount];
+		this.backwardCost = new double[nodeCount];
+		this.forwardStamp = new int[nodeCount];
+		this.backwardStamp = new int[nodeCount];
+		this.forwardEdge = new int[nodeCount];
+		this.backwardEdge = new int[nodeCount];
+		this.forwardParent = new int[nodeCount];
+		this.backwardParent = new int[nodeCount];
+	}
+
+	@Override
+	public Path calcLeastCostPath(final Node fromNode, final Node toNode, final double starttime, final Person person, final Vehicle vehicle) {
+		int from = this.data.graph.getIndex(fromNode);
+		int to = this.data.graph.getIndex(toNode);
+		if (from < 0 || to < 0) {
+			throw new IllegalArgumentException("The nodes passed as parameters are not part of the network stored by "+
+					getClass().getSimpleName() + ": the validity of the results cannot be guaranteed. Aborting!");
+		}
+		if (from == to) {
+			List<Node> nodes = new ArrayList<>(1);
+			nodes.add(fromNode);
+			return new Path(nodes, new ArrayList<Link>(0), 0.0, 0.0);
+		}
+
+		ContractionHierarchy ch = this.data.getHierarchy(starttime, this.travelCosts);
+		int meetingNode = search(ch, from, to);
+		if (meetingNode < 0) {
+			return null;
+		}
+		return constructPath(ch, fromNode, meetingNode, starttime, person, vehicle);
+	}
+
+	/**
+	 * @return the node where the forward and backward search of the shortest path meet, or -1 if there is no path.
+	 */
+	private int search(final ContractionHierarchy ch, final int from, final int to) {
+		nextStamp();
+		this.forwardHeap.clear();
+		this.backwardHeap.clear();
+		visit(this.forwardHeap, this.forwardCost, this.forwardStamp, this.forwardEdge, this.forwardParent, from, 0.0, -1, -1);
+		visit(this.backwardHeap, this.backwardCost, this.backwardStamp, this.backwardEdge, this.backwardParent, to, 0.0, -1, -1);
+
+		double best = Double.POSITIVE_INFINITY;
+		int meetingNode = -1;
+		while (true) {
+			double forwardMin = this.forwardHeap.isEmpty() ? Double.POSITIVE_INFINITY : this.forwardHeap.peekKey();
+			double backwardMin = this.backwardHeap.isEmpty() ? Double.POSITIVE_INFINITY : this.backwardHeap.peekKey();
+			if (Math.min(forwardMin, backwardMin) >= best) {
+				// also true if both heaps are empty
+				break;
+			}
+			if (forwardMin <= backwardMin) {
+				int node = this.forwardHeap.poll();
+				double cost = this.forwardCost[node];
+				if (this.backwardStamp[node] == this.stamp && cost + this.backwardCost[node] < best) {
+					best = cost + this.backwardCost[node];
+					meetingNode = node;
+				}
+				for (int i = ch.fwdStart[node]; i < ch.fwdStart[node + 1]; i++) {
+					visit(this.forwardHeap, this.forwardCost, this.forwardStamp, this.forwardEdge, this.forwardParent,
+							ch.fwdNode[i], cost + ch.fwdWeight[i], ch.fwdEdge[i], node);
+				}
+			} else {
+				int node = this.backwardHeap.poll();
+				double cost = this.backwardCost[node];
+				if (this.forwardStamp[node] == this.stamp && cost + this.forwardCost[node] < best) {
+					best = cost + this.forwardCost[node];
+					meetingNode = node;
+				}
+				for (int i = ch.bwdStart[node]; i < ch.bwdStart[node + 1]; i++) {
+					visit(this.backwardHeap, this.backwardCost, this.backwardStamp, this.backwardEdge, this.backwardParent,
+							ch.bwdNode[i], cost + ch.bwdWeight[i], ch.bwdEdge[i], node);
+				}
+			}
+		}
+		return meetingNode;
+	}
+
+	private void visit(final IntMinHeap heap, final double[] costs, final int[] stamps, final int[] edges, final int[] parents,
+			final int node, final double cost, final int edge, final int parent) {
+		if (stamps[node] == this.stamp && costs[node] <= cost) {
+			return;
+		}
+		stamps[node] = this.stamp;
+		costs[node] = cost;
+		edges[node] = edge;
+		parents[node] = parent;
+		heap.insertOrDecrease(node, cost);
+	}
+
+	private void nextStamp() {
+		this.stamp++;
+		if (this.stamp == Integer.MAX_VALUE) {
+			Arrays.fill(this.forwardStamp, 0);
+			Arrays.fill(this.backwardStamp, 0);
+			this.stamp = 1;
+		}
+	}
+
+	private Path constructPath(final ContractionHierarchy ch, final Node fromNode, final int meetingNode, final double startTime,
+			final Person person, final Vehicle vehicle) {
+		// the edges from the start to the meeting node are found backwards
+		int forwardEdgeCount = 0;
+		for (int node = meetingNode; this.forwardEdge[node] >= 0; node = this.forwardParent[node]) {
+			forwardEdgeCount++;
+		}
+		int[] edges = new int[forwardEdgeCount];
+		int i = forwardEdgeCount;
+		for (int node = meetingNode; this.forwardEdge[node] >= 0; node = this.forwardParent[node]) {
+			edges[--i] = this.forwardEdge[node];
+		}
+		int linkCount = 0;
+		for (int edge : edges) {
+			linkCount = ch.unpack(edge, this.linkBuffer, linkCount);
+		}
+		for (int node = meetingNode; this.backwardEdge[node] >= 0; node = this.backwardParent[node]) {
+			linkCount = ch.unpack(this.backwardEdge[node], this.linkBuffer, linkCount);
+		}
+
+		List<Node> nodes = new ArrayList<>(linkCount + 1);
+		List<Link> links = new ArrayList<>(linkCount);
+		nodes.add(fromNode);
+		double time = startTime;
+		double cost = 0.0;
+		int[] linkIndices = this.linkBuffer[0];
+		for (int l = 0; l < linkCount; l++) {
+			Link link = this.data.graph.links[linkIndices[l]];
+			links.add(link);
+			nodes.add(link.getToNode());
+			cost += this.travelCosts.getLinkTravelDisutility(link, time, person, vehicle);
+			time += this.travelTimes.getLinkTravelTime(link, time, person, vehicle);
+		}
+		return new Path(nodes, links, time - startTime, cost);
+	}
+
+}
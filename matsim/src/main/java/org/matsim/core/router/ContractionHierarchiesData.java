@@ -0,0 +1,95 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ContractionHierarchiesData.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.utils.misc.Time;
+
+/**
+ * The contraction hierarchies of one network, one per time bin.  They are shared by all {@link
+ * ContractionHierarchies} instances for the network, i.e. by all threads, and are built when they are first needed,
+ * with the travel disutilities in the middle of the time bin.
+ */
+final class ContractionHierarchiesData {
+
+	private static final Logger log = Logger.getLogger(ContractionHierarchiesData.class);
+
+	final CsrRoutingGraph graph;
+
+	private final double timeBinSize;
+	private final AtomicReferenceArray<ContractionHierarchy> hierarchies;
+
+	ContractionHierarchiesData(final CsrRoutingGraph graph, final double timeBinSize, final double maxTime) {
+		this.graph = graph;
+		this.timeBinSize = timeBinSize;
+		this.hierarchies = new AtomicReferenceArray<>(Math.max(1, (int) Math.ceil(maxTime / timeBinSize)));
+	}
+
+	/**
+	 * @return the hierarchy for the time bin of <code>time</code>, which is built with <code>travelCosts</code> if it
+	 * does not exist yet.
+	 */
+	ContractionHierarchy getHierarchy(final double time, final TravelDisutility travelCosts) {
+		int bin = 0;
+		if (!Time.isUndefinedTime(time) && time > 0) {
+			bin = Math.min((int) (time / this.timeBinSize), this.hierarchies.length() - 1);
+		}
+		ContractionHierarchy hierarchy = this.hierarchies.get(bin);
+		if (hierarchy == null) {
+			synchronized (this) {
+				hierarchy = this.hierarchies.get(bin);
+				if (hierarchy == null) {
+					hierarchy = build(bin, travelCosts);
+					this.hierarchies.set(bin, hierarchy);
+				}
+			}
+		}
+		return hierarchy;
+	}
+
+	/**
+	 * Discards all hierarchies, e.g. because the travel times have changed.
+	 */
+	void invalidate() {
+		for (int i = 0; i < this.hierarchies.length(); i++) {
+			this.hierarchies.set(i, null);
+		}
+	}
+
+	private ContractionHierarchy build(final int bin, final TravelDisutility travelCosts) {
+		long start = System.currentTimeMillis();
+		double time = (bin + 0.5) * this.timeBinSize;
+		Link[] links = this.graph.links;
+		double[] weights = new double[links.length];
+		for (int l = 0; l < links.length; l++) {
+			weights[l] = travelCosts.getLinkTravelDisutility(links[l], time, null, null);
+		}
+		ContractionHierarchy hierarchy = ContractionHierarchy.build(this.graph.getNodeCount(), this.graph.linkFrom, this.graph.linkTo, weights);
+		log.info("built contraction hierarchy for time bin " + bin + " with " + hierarchy.getNumberOfShortcuts() + " shortcuts in "
+				+ (System.currentTimeMillis() - start) + " ms.");
+		return hierarchy;
+	}
+
+}
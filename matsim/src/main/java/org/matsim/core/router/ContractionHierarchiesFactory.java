@@ -0,0 +1,90 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ContractionHierarchiesFactory.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+/**
+ * Creates {@link ContractionHierarchies} path calculators.  The hierarchies of a network are built once per time bin
+ * and shared by all path calculators for this network, so they use the travel disutility of the calculator which
+ * needs them first.  This is fine as long as all routed modes on the same network have the same travel disutility.
+ * The hierarchies are built without a person, so travel disutilities which depend on the person, e.g. with routing
+ * randomness, are rejected when the path calculator is created.
+ * <p></p>
+ * As the travel times change from iteration to iteration, the hierarchies are discarded at the start of each
+ * iteration; the factory must therefore be registered as controler listener, which {@link
+ * LeastCostPathCalculatorModule} does.
+ */
+@Singleton
+public class ContractionHierarchiesFactory implements LeastCostPathCalculatorFactory, IterationStartsListener {
+
+	public static final double DEFAULT_TIME_BIN_SIZE = 3600.0;
+
+	private final double timeBinSize;
+	private final double maxTime;
+	private final Map<Network, ContractionHierarchiesData> data = new HashMap<>();
+
+	@Inject
+	ContractionHierarchiesFactory(final TravelTimeCalculatorConfigGroup config) {
+		this(DEFAULT_TIME_BIN_SIZE, config.getMaxTime());
+	}
+
+	/**
+	 * @param timeBinSize the length of the time bins, one hierarchy is built for each of them.
+	 * @param maxTime the end of the last time bin, later departures use the last one.
+	 */
+	public ContractionHierarchiesFactory(final double timeBinSize, final double maxTime) {
+		this.timeBinSize = timeBinSize;
+		this.maxTime = maxTime;
+	}
+
+	@Override
+	public synchronized LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutility travelCosts, final TravelTime travelTimes) {
+		ContractionHierarchiesData networkData = this.data.get(network);
+		if (networkData == null) {
+			networkData = new ContractionHierarchiesData(new CsrRoutingGraph(network), this.timeBinSize, this.maxTime);
+			this.data.put(network, networkData);
+		}
+		PersonIndependentCosts.check(networkData.graph, travelCosts, ContractionHierarchies.class.getSimpleName());
+		return new ContractionHierarchies(networkData, travelCosts, travelTimes);
+	}
+
+	@Override
+	public synchronized void notifyIterationStarts(final IterationStartsEvent event) {
+		for (ContractionHierarchiesData networkData : this.data.values()) {
+			networkData.invalidate();
+		}
+	}
+
+}
@@ -0,0 +1,419 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * ContractionHierarchy.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.Arrays;
+
+import org.matsim.core.router.priorityqueue.IntMinHeap;
+
+/**
+ * The search graph of a contraction hierarchy for one set of link weights.
+ * <p></p>
+ * The nodes are contracted one after the other, least important first.  When a node is contracted, shortcuts are
+ * added between its remaining neighbors for all shortest paths that lead through it.  A query then only has to search
+ * upwards, i.e. to more important nodes, from both the start and the end of the route, see {@link
+ * ContractionHierarchies}.
+ * <p></p>
+ * Nodes are identified by an index in <code>[0, nodeCount)</code>, links by an index in <code>[0, linkCount)</code>.
+ * Edges are the links and the shortcuts; a shortcut consists of two other edges.
+ */
+final class ContractionHierarchy {
+
+	/** the maximum number of nodes settled by a witness search */
+	private static final int WITNESS_SETTLE_LIMIT = 500;
+
+	final int nodeCount;
+
+	/** upward edges by start node, for the forward search */
+	final int[] fwdStart;
+	final int[] fwdNode;
+	final int[] fwdEdge;
+	final double[] fwdWeight;
+
+	/** edges from more important nodes by end node, for the backward search */
+	final int[] bwdStart;
+	final int[] bwdNode;
+	final int[] bwdEdge;
+	final double[] bwdWeight;
+
+	/** the link of each edge, or -1 for shortcuts */
+	private final int[] edgeLink;
+	/** the two edges of each shortcut */
+	private final int[] edgeFirst;
+	private final int[] edgeSecond;
+
+	private final int numberOfShortcuts;
+
+	private ContractionHierarchy(final Builder builder) {
+		this.nodeCount = builder.nodeCount;
+		int edgeCount = builder.edgeCount;
+		this.edgeLink = Arrays.copyOf(builder.edgeLink, edgeCount);
+		this.edgeFirst = Arrays.copyOf(builder.edgeFirst, edgeCount);
+		this.edgeSecond = Arrays.copyOf(builder.edgeSecond, edgeCount);
+		this.numberOfShortcuts = edgeCount - builder.linkCount;
+
+		int[] rank = builder.rank;
+		int[] fwdCount = new int[this.nodeCount + 1];
+		int[] bwdCount = new int[this.nodeCount + 1];
+		for (int e = 0; e < edgeCount; e++) {
+			if (builder.edgeDeleted[e]) {
+				continue;
+			}
+			int from = builder.edgeFrom[e];
+			int to = builder.edgeTo[e];
+			if (rank[from] < rank[to]) {
+				fwdCount[from + 1]++;
+			} else {
+				bwdCount[to + 1]++;
+			}
+		}
+		for (int n = 0; n < this.nodeCount; n++) {
+			fwdCount[n + 1] += fwdCount[n];
+			bwdCount[n + 1] += bwdCount[n];
+		}
+		this.fwdStart = fwdCount.clone();
+		this.bwdStart = bwdCount.clone();
+		this.fwdNode = new int[fwdCount[this.nodeCount]];
+		this.fwdEdge = new int[fwdCount[this.nodeCount]];
+		this.fwdWeight = new double[fwdCount[this.nodeCount]];
+		this.bwdNode = new int[bwdCount[this.nodeCount]];
+		this.bwdEdge = new int[bwdCount[this.nodeCount]];
+		this.bwdWeight = new double[bwdCount[this.nodeCount]];
+		for (int e = 0; e < edgeCount; e++) {
+			if (builder.edgeDeleted[e]) {
+				continue;
+			}
+			int from = builder.edgeFrom[e];
+			int to = builder.edgeTo[e];
+			if (rank[from] < rank[to]) {
+				int i = fwdCount[from]++;
+				this.fwdNode[i] = to;
+				this.fwdEdge[i] = e;
+				this.fwdWeight[i] = builder.edgeWeight[e];
+			} else {
+				int i = bwdCount[to]++;
+				this.bwdNode[i] = from;
+				this.bwdEdge[i] = e;
+				this.bwdWeight[i] = builder.edgeWeight[e];
+			}
+		}
+	}
+
+	int getNumberOfShortcuts() {
+		return this.numberOfShortcuts;
+	}
+
+	/**
+	 * Adds the links of the given edge to <code>links[0]</code>, starting at <code>count</code>, and resolves
+	 * shortcuts recursively.  <code>links[0]</code> is replaced by a larger array if needed.
+	 *
+	 * @return the new number of links in <code>links[0]</code>.
+	 */
+	int unpack(final int edge, final int[][] links, int count) {
+		int link = this.edgeLink[edge];
+		if (link >= 0) {
+			if (count == links[0].length) {
+				links[0] = Arrays.copyOf(links[0], count * 2);
+			}
+			links[0][count] = link;
+			return count + 1;
+		}
+		count = unpack(this.edgeFirst[edge], links, count);
+		return unpack(this.edgeSecond[edge], links, count);
+	}
+
+	/**
+	 * Contracts the graph with the given links.
+	 *
+	 * @param weights the weight of each link, must not be negative.
+	 */
+	static ContractionHierarchy build(final int nodeCount, final int[] linkFrom, final int[] linkTo, final double[] weights) {
+		Builder builder = new Builder(nodeCount, linkFrom, linkTo, weights);
+		builder.contract();
+		return new ContractionHierarchy(builder);
+	}
+
+	private static final class Builder {
+
+		private final int nodeCount;
+		private final int linkCount;
+
+		private int edgeCount = 0;
+		private int[] edgeFrom;
+		private int[] edgeTo;
+		private double[] edgeWeight;
+		private int[] edgeLink;
+		private int[] edgeFirst;
+		private int[] edgeSecond;
+		private boolean[] edgeDeleted;
+
+		/** the edges from and to each node that is not yet contracted */
+		private final int[][] outEdges;
+		private final int[] outSize;
+		private final int[][] inEdges;
+		private final int[] inSize;
+
+		private final boolean[] contracted;
+		private final int[] contractedNeighbors;
+		private final int[] rank;
+
+		/** the state of the witness searches, valid for the nodes marked with the current search stamp */
+		private final IntMinHeap witnessHeap;
+		private final double[] witnessCost;
+		private final int[] witnessStamp;
+		private int stamp = 0;
+
+		/** the shortcuts found by the last call to findShortcuts, as pairs of in and out edge */
+		private int[] shortcutIn = new int[16];
+		private int[] shortcutOut = new int[16];
+		private int shortcutCount;
+
+		Builder(final int nodeCount, final int[] linkFrom, final int[] linkTo, final double[] weights) {
+			this.nodeCount = nodeCount;
+			this.linkCount = linkFrom.length;
+			int capacity = Math.max(16, this.linkCount * 2);
+			this.edgeFrom = new int[capacity];
+			this.edgeTo = new int[capacity];
+			this.edgeWeight = new double[capacity];
+			this.edgeLink = new int[capacity];
+			this.edgeFirst = new int[capacity];
+			this.edgeSecond = new int[capacity];
+			this.edgeDeleted = new boolean[capacity];
+
+			this.outEdges = new int[nodeCount][];
+			this.outSize = new int[nodeCount];
+			this.inEdges = new int[nodeCount][];
+			this.inSize = new int[nodeCount];
+			for (int n = 0; n < nodeCount; n++) {
+				this.outEdges[n] = new int[4];
+				this.inEdges[n] = new int[4];
+			}
+			this.contracted = new boolean[nodeCount];
+			this.contractedNeighbors = new int[nodeCount];
+			this.rank = new int[nodeCount];
+
+			this.witnessHeap = new IntMinHeap(nodeCount);
+			this.witnessCost = new double[nodeCount];
+			this.witnessStamp = new int[nodeCount];
+
+			for (int l = 0; l < this.linkCount; l++) {
+				int e = addEdge(linkFrom[l], linkTo[l], weights[l], l, -1, -1);
+				if (linkFrom[l] == linkTo[l]) {
+					// loops are never part of a shortest path
+					this.edgeDeleted[e] = true;
+				} else {
+					addTo(this.outEdges, this.outSize, linkFrom[l], e);
+					addTo(this.inEdges, this.inSize, linkTo[l], e);
+				}
+			}
+		}
+
+		void contract() {
+			IntMinHeap queue = new IntMinHeap(this.nodeCount);
+			for (int n = 0; n < this.nodeCount; n++) {
+				queue.insertOrDecrease(n, priority(n));
+			}
+			int nextRank = 0;
+			while (!queue.isEmpty()) {
+				int node = queue.poll();
+				// lazy update: the priority may have increased since the node was added
+				double priority = priority(node);
+				if (!queue.isEmpty() && priority > queue.peekKey()) {
+					queue.insertOrDecrease(node, priority);
+					continue;
+				}
+				findShortcuts(node);
+				for (int i = 0; i < this.shortcutCount; i++) {
+					addShortcut(this.shortcutIn[i], this.shortcutOut[i]);
+				}
+				this.contracted[node] = true;
+				this.rank[node] = nextRank++;
+				for (int i = 0; i < this.inSize[node]; i++) {
+					int e = this.inEdges[node][i];
+					int neighbor = this.edgeFrom[e];
+					if (!this.contracted[neighbor]) {
+						this.contractedNeighbors[neighbor]++;
+						removeFrom(this.outEdges, this.outSize, neighbor, e);
+					}
+				}
+				for (int i = 0; i < this.outSize[node]; i++) {
+					int e = this.outEdges[node][i];
+					int neighbor = this.edgeTo[e];
+					if (!this.contracted[neighbor]) {
+						this.contractedNeighbors[neighbor]++;
+						removeFrom(this.inEdges, this.inSize, neighbor, e);
+					}
+				}
+				this.outEdges[node] = null;
+				this.inEdges[node] = null;
+			}
+		}
+
+		/**
+		 * Nodes whose contraction adds fewer edges than it removes, and whose neighbors are not yet contracted, come
+		 * first.
+		 */
+		private double priority(final int node) {
+			findShortcuts(node);
+			int edgeDifference = this.shortcutCount - this.inSize[node] - this.outSize[node];
+			return 2 * edgeDifference + this.contractedNeighbors[node];
+		}
+
+		/**
+		 * Finds the shortcuts that are required if <code>node</code> is contracted, i.e. for which the path via
+		 * <code>node</code> is shorter than any other path found by a limited search.
+		 */
+		private void findShortcuts(final int node) {
+			this.shortcutCount = 0;
+			for (int i = 0; i < this.inSize[node]; i++) {
+				int in = this.inEdges[node][i];
+				int source = this.edgeFrom[in];
+				double maxCost = -1;
+				for (int j = 0; j < this.outSize[node]; j++) {
+					int out = this.outEdges[node][j];
+					if (this.edgeTo[out] != source) {
+						maxCost = Math.max(maxCost, this.edgeWeight[in] + this.edgeWeight[out]);
+					}
+				}
+				if (maxCost < 0) {
+					continue;
+				}
+				witnessSearch(source, node, maxCost);
+				for (int j = 0; j < this.outSize[node]; j++) {
+					int out = this.outEdges[node][j];
+					int target = this.edgeTo[out];
+					if (target == source) {
+						continue;
+					}
+					double viaCost = this.edgeWeight[in] + this.edgeWeight[out];
+					if (this.witnessStamp[target] != this.stamp || this.witnessCost[target] > viaCost) {
+						if (this.shortcutCount == this.shortcutIn.length) {
+							this.shortcutIn = Arrays.copyOf(this.shortcutIn, this.shortcutCount * 2);
+							this.shortcutOut = Arrays.copyOf(this.shortcutOut, this.shortcutCount * 2);
+						}
+						this.shortcutIn[this.shortcutCount] = in;
+						this.shortcutOut[this.shortcutCount] = out;
+						this.shortcutCount++;
+					}
+				}
+			}
+		}
+
+		/**
+		 * A Dijkstra search from <code>source</code> among the nodes not yet contracted, without
+		 * <code>ignoredNode</code>, up to <code>maxCost</code>.
+		 */
+		private void witnessSearch(final int source, final int ignoredNode, final double maxCost) {
+			this.stamp++;
+			IntMinHeap heap = this.witnessHeap;
+			heap.clear();
+			this.witnessStamp[source] = this.stamp;
+			this.witnessCost[source] = 0;
+			heap.insertOrDecrease(source, 0);
+			int settled = 0;
+			while (!heap.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+				double cost = heap.peekKey();
+				if (cost > maxCost) {
+					break;
+				}
+				int node = heap.poll();
+				settled++;
+				for (int i = 0; i < this.outSize[node]; i++) {
+					int e = this.outEdges[node][i];
+					int to = this.edgeTo[e];
+					if (to == ignoredNode) {
+						continue;
+					}
+					double newCost = cost + this.edgeWeight[e];
+					if (this.witnessStamp[to] != this.stamp) {
+						this.witnessStamp[to] = this.stamp;
+						this.witnessCost[to] = newCost;
+						heap.insertOrDecrease(to, newCost);
+					} else if (newCost < this.witnessCost[to]) {
+						this.witnessCost[to] = newCost;
+						heap.insertOrDecrease(to, newCost);
+					}
+				}
+			}
+		}
+
+		private void addShortcut(final int in, final int out) {
+			int from = this.edgeFrom[in];
+			int to = this.edgeTo[out];
+			double weight = this.edgeWeight[in] + this.edgeWeight[out];
+			// replace a parallel edge if it is more expensive, instead of adding another one
+			for (int i = 0; i < this.outSize[from]; i++) {
+				int e = this.outEdges[from][i];
+				if (this.edgeTo[e] == to) {
+					if (this.edgeWeight[e] > weight) {
+						this.edgeWeight[e] = weight;
+						this.edgeLink[e] = -1;
+						this.edgeFirst[e] = in;
+						this.edgeSecond[e] = out;
+					}
+					return;
+				}
+			}
+			int e = addEdge(from, to, weight, -1, in, out);
+			addTo(this.outEdges, this.outSize, from, e);
+			addTo(this.inEdges, this.inSize, to, e);
+		}
+
+		private int addEdge(final int from, final int to, final double weight, final int link, final int first, final int second) {
+			if (this.edgeCount == this.edgeFrom.length) {
+				int capacity = this.edgeCount * 2;
+				this.edgeFrom = Arrays.copyOf(this.edgeFrom, capacity);
+				this.edgeTo = Arrays.copyOf(this.edgeTo, capacity);
+				this.edgeWeight = Arrays.copyOf(this.edgeWeight, capacity);
+				this.edgeLink = Arrays.copyOf(this.edgeLink, capacity);
+				this.edgeFirst = Arrays.copyOf(this.edgeFirst, capacity);
+				this.edgeSecond = Arrays.copyOf(this.edgeSecond, capacity);
+				this.edgeDeleted = Arrays.copyOf(this.edgeDeleted, capacity);
+			}
+			int e = this.edgeCount++;
+			this.edgeFrom[e] = from;
+			this.edgeTo[e] = to;
+			this.edgeWeight[e] = weight;
+			this.edgeLink[e] = link;
+			this.edgeFirst[e] = first;
+			this.edgeSecond[e] = second;
+			return e;
+		}
+
+		private static void addTo(final int[][] lists, final int[] sizes, final int node, final int edge) {
+			if (sizes[node] == lists[node].length) {
+				lists[node] = Arrays.copyOf(lists[node], sizes[node] * 2);
+			}
+			lists[node][sizes[node]++] = edge;
+		}
+
+		private static void removeFrom(final int[][] lists, final int[] sizes, final int node, final int edge) {
+			int[] list = lists[node];
+			for (int i = 0; i < sizes[node]; i++) {
+				if (list[i] == edge) {
+					list[i] = list[--sizes[node]];
+					return;
+				}
+			}
+		}
+	}
+
+}
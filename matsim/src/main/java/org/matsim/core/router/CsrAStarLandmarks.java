@@ -0,0 +1,153 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CsrAStarLandmarks.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.matsim.core.router.util.PreProcessLandmarks;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+/**
+ * A* search with landmarks on a {@link CsrRoutingGraph}, with the same heuristic as {@link AStarLandmarks}.  The
+ * travel times between the nodes and the landmarks are copied from {@link PreProcessLandmarks} into flat arrays,
+ * node by node, so the estimate of a node reads a few adjacent values.
+ * <p></p>
+ * Unlike {@link AStarLandmarks}, the active landmarks are only chosen once at the start of each query, as the ones
+ * with the best estimate between start and end node; none are added during the search.
+ *
+ * @see CsrAStarLandmarksFactory
+ */
+public class CsrAStarLandmarks extends CsrDijkstra {
+
+	static final int MAX_ACTIVE_LANDMARKS = 4;
+
+	private final Landmarks landmarks;
+	private final double overdoFactor;
+
+	private final int[] activeLandmarks;
+	private int activeLandmarkCount = 0;
+	/** the travel times between the end node of the current query and each active landmark */
+	private final double[] toMin;
+	private final double[] toMax;
+
+	CsrAStarLandmarks(final CsrRoutingGraph graph, final Landmarks landmarks, final TravelDisutility travelCosts,
+			final TravelTime travelTimes, final double overdoFactor) {
+		super(graph, travelCosts, travelTimes);
+		this.landmarks = landmarks;
+		this.overdoFactor = overdoFactor;
+		int count = Math.min(MAX_ACTIVE_LANDMARKS, landmarks.count);
+		this.activeLandmarks = new int[count];
+		this.toMin = new double[count];
+		this.toMax = new double[count];
+	}
+
+	@Override
+	protected void initQuery(final int from, final int to) {
+		this.activeLandmarkCount = this.landmarks.selectActiveLandmarks(from, to, this.activeLandmarks);
+		int offset = to * this.landmarks.count;
+		for (int a = 0; a < this.activeLandmarkCount; a++) {
+			this.toMin[a] = this.landmarks.min[offset + this.activeLandmarks[a]];
+			this.toMax[a] = this.landmarks.max[offset + this.activeLandmarks[a]];
+		}
+	}
+
+	@Override
+	protected double estimateRemainingCost(final int node, final int to) {
+		int offset = node * this.landmarks.count;
+		double best = 0.0;
+		for (int a = 0; a < this.activeLandmarkCount; a++) {
+			int i = offset + this.activeLandmarks[a];
+			double estimate = this.landmarks.min[i] - this.toMax[a];
+			if (estimate < 0) {
+				estimate = this.toMin[a] - this.landmarks.max[i];
+			}
+			if (estimate > best) {
+				best = estimate;
+			}
+		}
+		return best * this.overdoFactor;
+	}
+
+	/**
+	 * The travel times between each node of a {@link CsrRoutingGraph} and each landmark.  Immutable, so it can be
+	 * shared by all path calculators for the graph.
+	 */
+	static final class Landmarks {
+		final int count;
+		/** the minimum and maximum travel time between each node and each landmark, node by node */
+		final double[] min;
+		final double[] max;
+
+		Landmarks(final CsrRoutingGraph graph, final PreProcessLandmarks preProcessData) {
+			this.count = preProcessData.getLandmarks().length;
+			this.min = new double[graph.getNodeCount() * this.count];
+			this.max = new double[graph.getNodeCount() * this.count];
+			for (int n = 0; n < graph.getNodeCount(); n++) {
+				PreProcessLandmarks.LandmarksData data = preProcessData.getNodeData(graph.nodes[n]);
+				for (int i = 0; i < this.count; i++) {
+					this.min[n * this.count + i] = data.getMinLandmarkTravelTime(i);
+					this.max[n * this.count + i] = data.getMaxLandmarkTravelTime(i);
+				}
+			}
+		}
+
+		/**
+		 * Selects the landmarks with the best estimates of the cost from <code>from</code> to <code>to</code>.
+		 *
+		 * @param activeLandmarks is filled with the selected landmarks, best first.
+		 * @return the number of selected landmarks, at most the length of <code>activeLandmarks</code>.
+		 */
+		int selectActiveLandmarks(final int from, final int to, final int[] activeLandmarks) {
+			double[] estimates = new double[activeLandmarks.length];
+			int activeCount = 0;
+			for (int i = 0; i < this.count; i++) {
+				double estimate = estimate(from, to, i);
+				int j = activeCount;
+				while (j > 0 && estimates[j - 1] < estimate) {
+					if (j < estimates.length) {
+						estimates[j] = estimates[j - 1];
+						activeLandmarks[j] = activeLandmarks[j - 1];
+					}
+					j--;
+				}
+				if (j < estimates.length) {
+					estimates[j] = estimate;
+					activeLandmarks[j] = i;
+					if (activeCount < estimates.length) {
+						activeCount++;
+					}
+				}
+			}
+			return activeCount;
+		}
+
+		/**
+		 * @return the estimate of the cost from <code>from</code> to <code>to</code> by landmark <code>i</code>.
+		 */
+		double estimate(final int from, final int to, final int i) {
+			double estimate = this.min[from * this.count + i] - this.max[to * this.count + i];
+			if (estimate < 0) {
+				estimate = this.min[to * this.count + i] - this.max[from * this.count + i];
+			}
+			return Math.max(estimate, 0.0);
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CsrAStarLandmarksFactory.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.router.util.LandmarksCache;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.PreProcessLandmarks;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+/**
+ * Creates {@link CsrAStarLandmarks} path calculators.  The {@link CsrRoutingGraph} and the landmarks of a network are
+ * computed once, with the travel disutility of the first path calculator, and shared by all path calculators for it.
+ * Like for {@link FastAStarLandmarksFactory}, the landmarks are cached on disk if a routing cache directory is
+ * configured.
+ */
+@Singleton
+public class CsrAStarLandmarksFactory implements LeastCostPathCalculatorFactory {
+
+	private final Map<Network, CsrRoutingGraph> graphs = new HashMap<>();
+	private final Map<Network, CsrAStarLandmarks.Landmarks> landmarks = new HashMap<>();
+
+	@Inject GlobalConfigGroup globalConfig ;
+	@Inject ControlerConfigGroup controlerConfig ;
+
+	@Inject
+	public CsrAStarLandmarksFactory() {
+	}
+
+	@Override
+	public synchronized LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutility travelCosts, final TravelTime travelTimes) {
+		CsrRoutingGraph graph = this.graphs.get(network);
+		CsrAStarLandmarks.Landmarks networkLandmarks = this.landmarks.get(network);
+		if (graph == null) {
+			graph = new CsrRoutingGraph(network);
+			PreProcessLandmarks preProcessLandmarks = new PreProcessLandmarks(travelCosts);
+			if ( globalConfig==null ) {
+				preProcessLandmarks.setNumberOfThreads(8);
+				// (if used without injection, like FastAStarLandmarksFactory)
+			} else {
+				preProcessLandmarks.setNumberOfThreads(globalConfig.getNumberOfThreads());
+			}
+			if ( controlerConfig!=null && controlerConfig.getRoutingCacheDirectory()!=null ) {
+				preProcessLandmarks.setCache(new LandmarksCache(controlerConfig.getRoutingCacheDirectory()));
+			}
+			preProcessLandmarks.run(network);
+			networkLandmarks = new CsrAStarLandmarks.Landmarks(graph, preProcessLandmarks);
+			this.graphs.put(network, graph);
+			this.landmarks.put(network, networkLandmarks);
+		}
+		final double overdoFactor = 1.0;
+		return new CsrAStarLandmarks(graph, networkLandmarks, travelCosts, travelTimes, overdoFactor);
+	}
+
+}
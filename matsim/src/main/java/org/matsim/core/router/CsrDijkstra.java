@@ -0,0 +1,154 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CsrDijkstra.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.priorityqueue.IntMinHeap;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Time-dependent Dijkstra on a {@link CsrRoutingGraph}.  It finds the same least cost paths as {@link Dijkstra}, but
+ * keeps the cost, time and predecessor of each node in primitive arrays indexed by node and uses an {@link
+ * IntMinHeap}, so a query neither looks up nor creates objects per node.  The arrays are not cleared between queries;
+ * instead, each query has its own stamp, and a node's state is only valid if it carries the current stamp.
+ * <p></p>
+ * Subclasses can turn the search into an A* search by overriding {@link #estimateRemainingCost(int, int)}.
+ * Instances are not thread-safe.
+ *
+ * @see CsrDijkstraFactory
+ */
+public class CsrDijkstra implements LeastCostPathCalculator {
+
+	protected final CsrRoutingGraph graph;
+	private final TravelDisutility travelCosts;
+	private final TravelTime travelTimes;
+
+	private final IntMinHeap heap;
+	/** the search state of each node, valid only if its stamp is the one of the current query */
+	private final double[] cost;
+	private final double[] time;
+	private final int[] parentEdge;
+	private final int[] stamp;
+	private int currentStamp = 0;
+
+	CsrDijkstra(final CsrRoutingGraph graph, final TravelDisutility travelCosts, final TravelTime travelTimes) {
+		this.graph = graph;
+		this.travelCosts = travelCosts;
+		this.travelTimes = travelTimes;
+		int nodeCount = graph.getNodeCount();
+		this.heap = new IntMinHeap(nodeCount);
+		this.cost = new double[nodeCount];
+		this.time = new double[nodeCount];
+		this.parentEdge = new int[nodeCount];
+		this.stamp = new int[nodeCount];
+	}
+
+	@Override
+	public Path calcLeastCostPath(final Node fromNode, final Node toNode, final double starttime, final Person person, final Vehicle vehicle) {
+		int from = this.graph.getIndex(fromNode);
+		int to = this.graph.getIndex(toNode);
+		if (from < 0 || to < 0) {
+			throw new IllegalArgumentException("The nodes passed as parameters are not part of the network stored by "+
+					getClass().getSimpleName() + ": the validity of the results cannot be guaranteed. Aborting!");
+		}
+		initQuery(from, to);
+
+		this.currentStamp++;
+		if (this.currentStamp == Integer.MAX_VALUE) {
+			Arrays.fill(this.stamp, 0);
+			this.currentStamp = 1;
+		}
+		this.heap.clear();
+		visit(from, 0.0, starttime, -1, to);
+
+		final CsrRoutingGraph g = this.graph;
+		while (!this.heap.isEmpty()) {
+			int node = this.heap.poll();
+			if (node == to) {
+				return constructPath(fromNode, to, starttime);
+			}
+			double nodeCost = this.cost[node];
+			double nodeTime = this.time[node];
+			for (int e = g.offsets[node]; e < g.offsets[node + 1]; e++) {
+				Link link = g.links[g.edgeLinks[e]];
+				double travelTime = this.travelTimes.getLinkTravelTime(link, nodeTime, person, vehicle);
+				double travelCost = this.travelCosts.getLinkTravelDisutility(link, nodeTime, person, vehicle);
+				visit(g.targets[e], nodeCost + travelCost, nodeTime + travelTime, e, to);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Called at the start of each query, before any node is visited.
+	 */
+	protected void initQuery(final int from, final int to) {
+	}
+
+	/**
+	 * @return a lower bound of the cost from <code>node</code> to <code>to</code>; 0 for a plain Dijkstra search.
+	 */
+	protected double estimateRemainingCost(final int node, final int to) {
+		return 0.0;
+	}
+
+	private void visit(final int node, final double nodeCost, final double nodeTime, final int edge, final int to) {
+		if (this.stamp[node] == this.currentStamp && this.cost[node] <= nodeCost) {
+			return;
+		}
+		this.stamp[node] = this.currentStamp;
+		this.cost[node] = nodeCost;
+		this.time[node] = nodeTime;
+		this.parentEdge[node] = edge;
+		this.heap.insertOrDecrease(node, nodeCost + estimateRemainingCost(node, to));
+	}
+
+	private Path constructPath(final Node fromNode, final int to, final double startTime) {
+		int linkCount = 0;
+		for (int node = to; this.parentEdge[node] >= 0; node = this.graph.linkFrom[this.graph.edgeLinks[this.parentEdge[node]]]) {
+			linkCount++;
+		}
+		Link[] pathLinks = new Link[linkCount];
+		int l = linkCount;
+		for (int node = to; this.parentEdge[node] >= 0; node = this.graph.linkFrom[this.graph.edgeLinks[this.parentEdge[node]]]) {
+			pathLinks[--l] = this.graph.links[this.graph.edgeLinks[this.parentEdge[node]]];
+		}
+
+		List<Node> nodes = new ArrayList<>(linkCount + 1);
+		List<Link> links = new ArrayList<>(linkCount);
+		nodes.add(fromNode);
+		for (Link link : pathLinks) {
+			links.add(link);
+			nodes.add(link.getToNode());
+		}
+		return new Path(nodes, links, this.time[to] - startTime, this.cost[to]);
+	}
+
+}
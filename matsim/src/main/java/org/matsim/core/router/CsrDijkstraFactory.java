@@ -0,0 +1,58 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CsrDijkstraFactory.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+/**
+ * Creates {@link CsrDijkstra} path calculators.  The {@link CsrRoutingGraph} of a network is built once and shared by
+ * all path calculators for it.
+ */
+@Singleton
+public class CsrDijkstraFactory implements LeastCostPathCalculatorFactory {
+
+	private final Map<Network, CsrRoutingGraph> graphs = new HashMap<>();
+
+	@Inject
+	public CsrDijkstraFactory() {
+	}
+
+	@Override
+	public synchronized LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutility travelCosts, final TravelTime travelTimes) {
+		CsrRoutingGraph graph = this.graphs.get(network);
+		if (graph == null) {
+			graph = new CsrRoutingGraph(network);
+			this.graphs.put(network, graph);
+		}
+		return new CsrDijkstra(graph, travelCosts, travelTimes);
+	}
+
+}
@@ -0,0 +1,134 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CsrRoutingGraph.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.Arrays;
+
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * A network in compressed sparse row layout, for routing algorithms that keep their state in primitive arrays
+ * instead of objects per node.
+ * <p></p>
+ * Nodes and links are identified by their index in {@link #nodes} and {@link #links}.  The out-links of node
+ * <code>n</code> are the edges <code>offsets[n]</code> to <code>offsets[n + 1] - 1</code>; for each edge,
+ * {@link #targets}, {@link #lengths} and {@link #edgeLinks} hold its to-node, its length and the index of its link.
+ * Thus, a search only touches a few contiguous arrays instead of following pointers between node and link objects.
+ * The in-links of each node are stored the same way in the <code>reverse</code> arrays, for backward searches.
+ * <p></p>
+ * The graph is immutable and can be shared by any number of threads.
+ */
+final class CsrRoutingGraph {
+
+	final Node[] nodes;
+	final Link[] links;
+	/** the from- and to-node of each link */
+	final int[] linkFrom;
+	final int[] linkTo;
+
+	/** the first edge of each node, and the end of the last one */
+	final int[] offsets;
+	/** the to-node of each edge */
+	final int[] targets;
+	/** the length of each edge */
+	final double[] lengths;
+	/** the link of each edge */
+	final int[] edgeLinks;
+
+	/** the first reverse edge of each node, and the end of the last one */
+	final int[] reverseOffsets;
+	/** the from-node of each reverse edge */
+	final int[] reverseSources;
+	/** the link of each reverse edge */
+	final int[] reverseEdgeLinks;
+
+	/** the index of each node by the index of its id, or -1 */
+	private final int[] nodeIndex;
+
+	CsrRoutingGraph(final Network network) {
+		this.nodes = network.getNodes().values().toArray(new Node[network.getNodes().size()]);
+		this.links = network.getLinks().values().toArray(new Link[network.getLinks().size()]);
+		int nodeCount = this.nodes.length;
+		int linkCount = this.links.length;
+		this.nodeIndex = new int[Id.getNumberOfIds(Node.class)];
+		Arrays.fill(this.nodeIndex, -1);
+		for (int n = 0; n < nodeCount; n++) {
+			this.nodeIndex[this.nodes[n].getId().index()] = n;
+		}
+
+		this.linkFrom = new int[linkCount];
+		this.linkTo = new int[linkCount];
+		this.offsets = new int[nodeCount + 1];
+		this.reverseOffsets = new int[nodeCount + 1];
+		for (int l = 0; l < linkCount; l++) {
+			this.linkFrom[l] = getIndex(this.links[l].getFromNode());
+			this.linkTo[l] = getIndex(this.links[l].getToNode());
+			this.offsets[this.linkFrom[l] + 1]++;
+			this.reverseOffsets[this.linkTo[l] + 1]++;
+		}
+		for (int n = 0; n < nodeCount; n++) {
+			this.offsets[n + 1] += this.offsets[n];
+			this.reverseOffsets[n + 1] += this.reverseOffsets[n];
+		}
+
+		this.targets = new int[linkCount];
+		this.lengths = new double[linkCount];
+		this.edgeLinks = new int[linkCount];
+		int[] next = Arrays.copyOf(this.offsets, nodeCount);
+		for (int l = 0; l < linkCount; l++) {
+			int e = next[this.linkFrom[l]]++;
+			this.targets[e] = this.linkTo[l];
+			this.lengths[e] = this.links[l].getLength();
+			this.edgeLinks[e] = l;
+		}
+
+		this.reverseSources = new int[linkCount];
+		this.reverseEdgeLinks = new int[linkCount];
+		next = Arrays.copyOf(this.reverseOffsets, nodeCount);
+		for (int l = 0; l < linkCount; l++) {
+			int e = next[this.linkTo[l]]++;
+			this.reverseSources[e] = this.linkFrom[l];
+			this.reverseEdgeLinks[e] = l;
+		}
+	}
+
+	int getNodeCount() {
+		return this.nodes.length;
+	}
+
+	/**
+	 * @return the index of the node, or -1 if it is not part of the network.
+	 */
+	int getIndex(final Node node) {
+		int index = node.getId().index();
+		if (index < this.nodeIndex.length) {
+			int n = this.nodeIndex[index];
+			if (n >= 0 && this.nodes[n] == node) {
+				return n;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,200 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CustomizableRoutePlanning.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.CustomizableRoutePlanningData.CellSearch;
+import org.matsim.core.router.CustomizableRoutePlanningData.Metric;
+import org.matsim.core.router.priorityqueue.IntMinHeap;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Least cost path calculator using customizable route planning, i.e. a Dijkstra search on an overlay graph.
+ * <p></p>
+ * Within the cells of the start and the end node, the search follows the links of the network.  All other cells are
+ * crossed in one step, from an entry to an exit node, with the costs computed during customization (see {@link
+ * CustomizableRoutePlanningData}).  Such steps are expanded into links again by a search within the cell once the
+ * route is found.
+ * <p></p>
+ * Like {@link ContractionHierarchies}, the route is optimal for the travel disutilities in the middle of the time bin
+ * of the departure, without person or vehicle; the travel time and cost of the returned {@link Path} are computed
+ * along its links like in {@link Dijkstra}.  Instances are not thread-safe, but all instances created by the same
+ * {@link CustomizableRoutePlanningFactory} for a network share its partition and metrics.
+ *
+ * @see CustomizableRoutePlanningFactory
+ */
+public class CustomizableRoutePlanning implements LeastCostPathCalculator {
+
+	private final CustomizableRoutePlanningData data;
+	private final TravelDisutility travelCosts;
+	private final TravelTime travelTimes;
+
+	private final IntMinHeap heap;
+	/** the search state of each node, valid only if its stamp is the one of the current query */
+	private final double[] cost;
+	private final int[] stamp;
+	/** the link over which a node was reached, or -1 if it was reached by crossing a cell */
+	private final int[] parentLink;
+	private final int[] parentNode;
+	private int currentStamp = 0;
+
+	private final CellSearch cellSearch;
+	private int[] linkBuffer = new int[64];
+
+	CustomizableRoutePlanning(final CustomizableRoutePlanningData data, final TravelDisutility travelCosts, final TravelTime travelTimes) {
+		this.data = data;
+		this.travelCosts = travelCosts;
+		this.travelTimes = travelTimes;
+		int nodeCount = data.graph.getNodeCount();
+		this.heap = new IntMinHeap(nodeCount);
+		this.cost = new double[nodeCount];
+		this.stamp = new int[nodeCount];
+		this.parentLink = new int[nodeCount];
+		this.parentNode = new int[nodeCount];
+		this.cellSearch = new CellSearch(data);
+	}
+
+	@Override
+	public Path calcLeastCostPath(final Node fromNode, final Node toNode, final double starttime, final Person person, final Vehicle vehicle) {
+		int from = this.data.graph.getIndex(fromNode);
+		int to = this.data.graph.getIndex(toNode);
+		if (from < 0 || to < 0) {
+			throw new IllegalArgumentException("The nodes passed as parameters are not part of the network stored by "+
+					getClass().getSimpleName() + ": the validity of the results cannot be guaranteed. Aborting!");
+		}
+		if (from == to) {
+			List<Node> nodes = new ArrayList<>(1);
+			nodes.add(fromNode);
+			return new Path(nodes, new ArrayList<Link>(0), 0.0, 0.0);
+		}
+
+		Metric metric = this.data.getMetric(starttime, this.travelCosts);
+		if (!search(metric, from, to)) {
+			return null;
+		}
+		return constructPath(metric, fromNode, from, to, starttime, person, vehicle);
+	}
+
+	/**
+	 * @return <code>true</code> if <code>to</code> was reached.
+	 */
+	private boolean search(final Metric metric, final int from, final int to) {
+		CustomizableRoutePlanningData d = this.data;
+		this.currentStamp++;
+		if (this.currentStamp == Integer.MAX_VALUE) {
+			Arrays.fill(this.stamp, 0);
+			this.currentStamp = 1;
+		}
+		this.heap.clear();
+		int fromCell = d.cell[from];
+		int toCell = d.cell[to];
+		visit(from, 0.0, -1, -1);
+		while (!this.heap.isEmpty()) {
+			int node = this.heap.poll();
+			if (node == to) {
+				return true;
+			}
+			double nodeCost = this.cost[node];
+			int c = d.cell[node];
+			boolean crossCell = c != fromCell && c != toCell;
+			if (crossCell) {
+				int entry = d.entryIndex[node];
+				if (entry >= 0) {
+					int exitCount = d.getExitCount(c);
+					int offset = d.cliqueStart[c] + entry * exitCount;
+					for (int j = 0; j < exitCount; j++) {
+						visit(d.exits[d.exitStart[c] + j], nodeCost + metric.cliques[offset + j], -1, node);
+					}
+				}
+			}
+			for (int i = d.graph.offsets[node]; i < d.graph.offsets[node + 1]; i++) {
+				int link = d.graph.edgeLinks[i];
+				int toNode = d.graph.targets[i];
+				if (!crossCell || d.cell[toNode] != c) {
+					visit(toNode, nodeCost + metric.linkCosts[link], link, node);
+				}
+			}
+		}
+		return false;
+	}
+
+	private void visit(final int node, final double nodeCost, final int link, final int parent) {
+		if (nodeCost == Double.POSITIVE_INFINITY || (this.stamp[node] == this.currentStamp && this.cost[node] <= nodeCost)) {
+			return;
+		}
+		this.stamp[node] = this.currentStamp;
+		this.cost[node] = nodeCost;
+		this.parentLink[node] = link;
+		this.parentNode[node] = parent;
+		this.heap.insertOrDecrease(node, nodeCost);
+	}
+
+	private Path constructPath(final Metric metric, final Node fromNode, final int from, final int to, final double startTime,
+			final Person person, final Vehicle vehicle) {
+		// the links are collected from the end to the start
+		int linkCount = 0;
+		for (int node = to; node != from; node = this.parentNode[node]) {
+			int link = this.parentLink[node];
+			if (link >= 0) {
+				linkCount = addLink(link, linkCount);
+			} else {
+				int parent = this.parentNode[node];
+				this.cellSearch.run(parent, node, metric.linkCosts);
+				for (int n = node; n != parent; n = this.data.graph.linkFrom[link]) {
+					link = this.cellSearch.getParentLink(n);
+					linkCount = addLink(link, linkCount);
+				}
+			}
+		}
+
+		List<Node> nodes = new ArrayList<>(linkCount + 1);
+		List<Link> links = new ArrayList<>(linkCount);
+		nodes.add(fromNode);
+		double time = startTime;
+		double pathCost = 0.0;
+		for (int l = linkCount - 1; l >= 0; l--) {
+			Link link = this.data.graph.links[this.linkBuffer[l]];
+			links.add(link);
+			nodes.add(link.getToNode());
+			pathCost += this.travelCosts.getLinkTravelDisutility(link, time, person, vehicle);
+			time += this.travelTimes.getLinkTravelTime(link, time, person, vehicle);
+		}
+		return new Path(nodes, links, time - startTime, pathCost);
+	}
+
+	private int addLink(final int link, final int linkCount) {
+		if (linkCount == this.linkBuffer.length) {
+			this.linkBuffer = Arrays.copyOf(this.linkBuffer, linkCount * 2);
+		}
+		this.linkBuffer[linkCount] = link;
+		return linkCount + 1;
+	}
+
+}
@@ -0,0 +1,438 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CustomizableRoutePlanningData.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.router.priorityqueue.IntMinHeap;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.utils.misc.Time;
+
+/**
+ * The overlay graph of one network for {@link CustomizableRoutePlanning}, and its metrics, one per time bin.
+ * <p></p>
+ * The nodes are partitioned into cells of limited size by recursive bisection of their coordinates.  This does not
+ * depend on the travel disutilities, so it is done only once per network.  The <em>entry</em> nodes of a cell are
+ * its nodes with a link from another cell, its <em>exit</em> nodes the ones with a link to another cell.
+ * <p></p>
+ * The metric of a time bin consists of the disutility of each link and, for each cell, the least cost from each of
+ * its entry nodes to each of its exit nodes when only using links within the cell.  Computing it ("customization")
+ * only needs a few small searches per cell, which run in parallel, so it is fast enough to be repeated whenever
+ * the travel times change.
+ */
+final class CustomizableRoutePlanningData {
+
+	private static final Logger log = Logger.getLogger(CustomizableRoutePlanningData.class);
+
+	final CsrRoutingGraph graph;
+
+	/** the cell of each node */
+	final int[] cell;
+	final int cellCount;
+	/** the nodes of each cell, and the index of each node within its cell */
+	final int[] cellStart;
+	final int[] cellNodes;
+	final int[] localIndex;
+	private final int maxCellSize;
+	/** the entry and exit nodes of each cell, and the index of each node among the entry nodes of its cell or -1 */
+	final int[] entryStart;
+	final int[] entries;
+	final int[] entryIndex;
+	final int[] exitStart;
+	final int[] exits;
+	/** the offset of the entry-exit cost matrix of each cell in {@link Metric#cliques} */
+	final int[] cliqueStart;
+
+	private final int numberOfThreads;
+	private final double timeBinSize;
+	private final AtomicReferenceArray<Metric> metrics;
+
+	CustomizableRoutePlanningData(final CsrRoutingGraph graph, final int maxCellSize, final double timeBinSize, final double maxTime, final int numberOfThreads) {
+		long start = System.currentTimeMillis();
+		this.graph = graph;
+		int nodeCount = graph.getNodeCount();
+
+		this.cell = new int[nodeCount];
+		this.cellCount = new Partitioner(graph.nodes, maxCellSize, this.cell).partition();
+		this.cellStart = new int[this.cellCount + 1];
+		for (int n = 0; n < nodeCount; n++) {
+			this.cellStart[this.cell[n] + 1]++;
+		}
+		int largestCell = 0;
+		for (int c = 0; c < this.cellCount; c++) {
+			largestCell = Math.max(largestCell, this.cellStart[c + 1]);
+			this.cellStart[c + 1] += this.cellStart[c];
+		}
+		this.maxCellSize = largestCell;
+		this.cellNodes = new int[nodeCount];
+		this.localIndex = new int[nodeCount];
+		int[] next = Arrays.copyOf(this.cellStart, this.cellCount);
+		for (int n = 0; n < nodeCount; n++) {
+			int i = next[this.cell[n]]++;
+			this.cellNodes[i] = n;
+			this.localIndex[n] = i - this.cellStart[this.cell[n]];
+		}
+
+		boolean[] isEntry = new boolean[nodeCount];
+		boolean[] isExit = new boolean[nodeCount];
+		for (int l = 0; l < graph.links.length; l++) {
+			if (this.cell[graph.linkFrom[l]] != this.cell[graph.linkTo[l]]) {
+				isExit[graph.linkFrom[l]] = true;
+				isEntry[graph.linkTo[l]] = true;
+			}
+		}
+		this.entryStart = new int[this.cellCount + 1];
+		this.exitStart = new int[this.cellCount + 1];
+		this.entryIndex = new int[nodeCount];
+		Arrays.fill(this.entryIndex, -1);
+		int entryCount = 0;
+		int exitCount = 0;
+		for (int c = 0; c < this.cellCount; c++) {
+			for (int i = this.cellStart[c]; i < this.cellStart[c + 1]; i++) {
+				int n = this.cellNodes[i];
+				if (isEntry[n]) {
+					this.entryIndex[n] = entryCount - this.entryStart[c];
+					entryCount++;
+				}
+				if (isExit[n]) {
+					exitCount++;
+				}
+			}
+			this.entryStart[c + 1] = entryCount;
+			this.exitStart[c + 1] = exitCount;
+		}
+		this.entries = new int[entryCount];
+		this.exits = new int[exitCount];
+		this.cliqueStart = new int[this.cellCount + 1];
+		entryCount = 0;
+		exitCount = 0;
+		for (int c = 0; c < this.cellCount; c++) {
+			for (int i = this.cellStart[c]; i < this.cellStart[c + 1]; i++) {
+				int n = this.cellNodes[i];
+				if (isEntry[n]) {
+					this.entries[entryCount++] = n;
+				}
+				if (isExit[n]) {
+					this.exits[exitCount++] = n;
+				}
+			}
+			this.cliqueStart[c + 1] = this.cliqueStart[c] + getEntryCount(c) * getExitCount(c);
+		}
+
+		this.numberOfThreads = Math.max(1, numberOfThreads);
+		this.timeBinSize = timeBinSize;
+		this.metrics = new AtomicReferenceArray<>(Math.max(1, (int) Math.ceil(maxTime / timeBinSize)));
+		log.info("partitioned " + nodeCount + " nodes into " + this.cellCount + " cells with " + entryCount + " entry and "
+				+ exitCount + " exit nodes in " + (System.currentTimeMillis() - start) + " ms.");
+	}
+
+	int getEntryCount(final int c) {
+		return this.entryStart[c + 1] - this.entryStart[c];
+	}
+
+	int getExitCount(final int c) {
+		return this.exitStart[c + 1] - this.exitStart[c];
+	}
+
+	/**
+	 * @return the metric for the time bin of <code>time</code>, which is customized with <code>travelCosts</code> if
+	 * it does not exist yet.
+	 */
+	Metric getMetric(final double time, final TravelDisutility travelCosts) {
+		int bin = 0;
+		if (!Time.isUndefinedTime(time) && time > 0) {
+			bin = Math.min((int) (time / this.timeBinSize), this.metrics.length() - 1);
+		}
+		Metric metric = this.metrics.get(bin);
+		if (metric == null) {
+			synchronized (this) {
+				metric = this.metrics.get(bin);
+				if (metric == null) {
+					metric = customize(bin, travelCosts);
+					this.metrics.set(bin, metric);
+				}
+			}
+		}
+		return metric;
+	}
+
+	/**
+	 * Discards all metrics, e.g. because the travel times have changed.  The partition is kept.
+	 */
+	void invalidate() {
+		for (int i = 0; i < this.metrics.length(); i++) {
+			this.metrics.set(i, null);
+		}
+	}
+
+	private Metric customize(final int bin, final TravelDisutility travelCosts) {
+		long start = System.currentTimeMillis();
+		// the travel disutility is not necessarily thread-safe, so the link costs are collected before the threads start
+		double time = (bin + 0.5) * this.timeBinSize;
+		final Link[] links = this.graph.links;
+		final double[] linkCosts = new double[links.length];
+		for (int l = 0; l < links.length; l++) {
+			linkCosts[l] = travelCosts.getLinkTravelDisutility(links[l], time, null, null);
+		}
+		final Metric metric = new Metric(linkCosts, new double[this.cliqueStart[this.cellCount]]);
+
+		final AtomicInteger nextCell = new AtomicInteger(0);
+		final AtomicBoolean hadException = new AtomicBoolean(false);
+		Thread[] threads = new Thread[this.numberOfThreads];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					CellSearch search = new CellSearch(CustomizableRoutePlanningData.this);
+					int c;
+					while ((c = nextCell.getAndIncrement()) < CustomizableRoutePlanningData.this.cellCount) {
+						customizeCell(c, metric, search);
+					}
+				}
+			}, "CustomizableRoutePlanning." + i);
+			threads[i].setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+				@Override
+				public void uncaughtException(final Thread t, final Throwable e) {
+					log.error("Thread " + t.getName() + " died with exception while customizing cells.", e);
+					hadException.set(true);
+				}
+			});
+			threads[i].start();
+		}
+		try {
+			for (Thread thread : threads) {
+				thread.join();
+			}
+		} catch (InterruptedException e) {
+			throw new RuntimeException(e);
+		}
+		if (hadException.get()) {
+			throw new RuntimeException("Exception while customizing the cells of time bin " + bin + ".");
+		}
+		log.info("customized " + this.cellCount + " cells for time bin " + bin + " in " + (System.currentTimeMillis() - start) + " ms.");
+		return metric;
+	}
+
+	private void customizeCell(final int c, final Metric metric, final CellSearch search) {
+		int exitCount = getExitCount(c);
+		for (int i = 0; i < getEntryCount(c); i++) {
+			search.run(this.entries[this.entryStart[c] + i], -1, metric.linkCosts);
+			int offset = this.cliqueStart[c] + i * exitCount;
+			for (int j = 0; j < exitCount; j++) {
+				metric.cliques[offset + j] = search.getCost(this.exits[this.exitStart[c] + j]);
+			}
+		}
+	}
+
+	/**
+	 * The link costs of one time bin, and the resulting costs between the entry and exit nodes of each cell.
+	 */
+	static final class Metric {
+		final double[] linkCosts;
+		/** for each cell, the cost from each entry to each exit node, row by row */
+		final double[] cliques;
+
+		Metric(final double[] linkCosts, final double[] cliques) {
+			this.linkCosts = linkCosts;
+			this.cliques = cliques;
+		}
+	}
+
+	/**
+	 * A Dijkstra search that does not leave the cell of its start node.  The state is indexed by the index of the
+	 * nodes within their cell, so it is as large as the largest cell.
+	 */
+	static final class CellSearch {
+
+		private final CustomizableRoutePlanningData data;
+		private final IntMinHeap heap;
+		private final double[] cost;
+		private final int[] parentLink;
+		private final int[] stamp;
+		private int currentStamp = 0;
+		private int currentCell = -1;
+
+		CellSearch(final CustomizableRoutePlanningData data) {
+			this.data = data;
+			this.heap = new IntMinHeap(data.maxCellSize);
+			this.cost = new double[data.maxCellSize];
+			this.parentLink = new int[data.maxCellSize];
+			this.stamp = new int[data.maxCellSize];
+		}
+
+		/**
+		 * Searches from <code>source</code> until <code>target</code> is settled, or until the whole cell is
+		 * searched if <code>target</code> is -1.
+		 */
+		void run(final int source, final int target, final double[] linkCosts) {
+			CustomizableRoutePlanningData d = this.data;
+			CsrRoutingGraph g = d.graph;
+			this.currentStamp++;
+			if (this.currentStamp == Integer.MAX_VALUE) {
+				Arrays.fill(this.stamp, 0);
+				this.currentStamp = 1;
+			}
+			this.currentCell = d.cell[source];
+			this.heap.clear();
+			visit(d.localIndex[source], 0.0, -1);
+			while (!this.heap.isEmpty()) {
+				int local = this.heap.poll();
+				int node = d.cellNodes[d.cellStart[this.currentCell] + local];
+				if (node == target) {
+					return;
+				}
+				double nodeCost = this.cost[local];
+				for (int i = g.offsets[node]; i < g.offsets[node + 1]; i++) {
+					int link = g.edgeLinks[i];
+					int toNode = g.targets[i];
+					if (d.cell[toNode] == this.currentCell) {
+						visit(d.localIndex[toNode], nodeCost + linkCosts[link], link);
+					}
+				}
+			}
+		}
+
+		private void visit(final int local, final double nodeCost, final int link) {
+			if (this.stamp[local] == this.currentStamp && this.cost[local] <= nodeCost) {
+				return;
+			}
+			this.stamp[local] = this.currentStamp;
+			this.cost[local] = nodeCost;
+			this.parentLink[local] = link;
+			this.heap.insertOrDecrease(local, nodeCost);
+		}
+
+		/**
+		 * @return the cost of the given node of the searched cell, or infinity if it was not reached.
+		 */
+		double getCost(final int node) {
+			int local = this.data.localIndex[node];
+			return this.stamp[local] == this.currentStamp ? this.cost[local] : Double.POSITIVE_INFINITY;
+		}
+
+		/**
+		 * @return the link over which the given node of the searched cell was reached, or -1 for the start node.
+		 */
+		int getParentLink(final int node) {
+			return this.parentLink[this.data.localIndex[node]];
+		}
+	}
+
+	/**
+	 * Splits the nodes recursively at the median of their x or y coordinate, whichever has the larger extent,
+	 * until each part has at most the given number of nodes.
+	 */
+	private static final class Partitioner {
+
+		private final double[] x;
+		private final double[] y;
+		private final int maxCellSize;
+		private final int[] cell;
+		private final int[] order;
+		private int cellCount = 0;
+
+		Partitioner(final Node[] nodes, final int maxCellSize, final int[] cell) {
+			this.x = new double[nodes.length];
+			this.y = new double[nodes.length];
+			this.order = new int[nodes.length];
+			for (int n = 0; n < nodes.length; n++) {
+				this.x[n] = nodes[n].getCoord().getX();
+				this.y[n] = nodes[n].getCoord().getY();
+				this.order[n] = n;
+			}
+			this.maxCellSize = Math.max(1, maxCellSize);
+			this.cell = cell;
+		}
+
+		int partition() {
+			if (this.order.length > 0) {
+				bisect(0, this.order.length);
+			}
+			return this.cellCount;
+		}
+
+		private void bisect(final int from, final int to) {
+			if (to - from <= this.maxCellSize) {
+				for (int i = from; i < to; i++) {
+					this.cell[this.order[i]] = this.cellCount;
+				}
+				this.cellCount++;
+				return;
+			}
+			double minX = Double.POSITIVE_INFINITY;
+			double maxX = Double.NEGATIVE_INFINITY;
+			double minY = Double.POSITIVE_INFINITY;
+			double maxY = Double.NEGATIVE_INFINITY;
+			for (int i = from; i < to; i++) {
+				int n = this.order[i];
+				minX = Math.min(minX, this.x[n]);
+				maxX = Math.max(maxX, this.x[n]);
+				minY = Math.min(minY, this.y[n]);
+				maxY = Math.max(maxY, this.y[n]);
+			}
+			int middle = (from + to) >>> 1;
+			select(maxX - minX >= maxY - minY ? this.x : this.y, from, to - 1, middle);
+			bisect(from, middle);
+			bisect(middle, to);
+		}
+
+		/**
+		 * Reorders <code>order[left..right]</code> such that the element at <code>k</code> has the key it would have
+		 * when sorted, with no larger keys before and no smaller keys after it.
+		 */
+		private void select(final double[] keys, int left, int right, final int k) {
+			while (left < right) {
+				double pivot = keys[this.order[(left + right) >>> 1]];
+				int i = left;
+				int j = right;
+				while (i <= j) {
+					while (keys[this.order[i]] < pivot) {
+						i++;
+					}
+					while (keys[this.order[j]] > pivot) {
+						j--;
+					}
+					if (i <= j) {
+						int tmp = this.order[i];
+						this.order[i] = this.order[j];
+						this.order[j] = tmp;
+						i++;
+						j--;
+					}
+				}
+				if (k <= j) {
+					right = j;
+				} else if (k >= i) {
+					left = i;
+				} else {
+					return;
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * CustomizableRoutePlanningFactory.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+
+/**
+ * Creates {@link CustomizableRoutePlanning} path calculators.  The partition of a network is computed once and kept
+ * for the whole run.  The metrics are customized once per time bin, in parallel with the global number of threads,
+ * and are shared by all path calculators for this network, so they use the travel disutility of the calculator which
+ * needs them first.  As the metrics are customized without a person, travel disutilities which depend on the person,
+ * e.g. with routing randomness, are rejected when the path calculator is created.
+ * <p></p>
+ * The metrics are discarded at the start of each iteration, so they are customized again with the new travel times;
+ * the factory must therefore be registered as controler listener, which {@link LeastCostPathCalculatorModule} does.
+ */
+@Singleton
+public class CustomizableRoutePlanningFactory implements LeastCostPathCalculatorFactory, IterationStartsListener {
+
+	public static final int DEFAULT_MAX_CELL_SIZE = 256;
+	public static final double DEFAULT_TIME_BIN_SIZE = 3600.0;
+
+	private final int maxCellSize;
+	private final double timeBinSize;
+	private final double maxTime;
+	private final int numberOfThreads;
+	private final Map<Network, CustomizableRoutePlanningData> data = new HashMap<>();
+
+	@Inject
+	CustomizableRoutePlanningFactory(final TravelTimeCalculatorConfigGroup travelTimeConfig, final GlobalConfigGroup globalConfig) {
+		this(DEFAULT_MAX_CELL_SIZE, DEFAULT_TIME_BIN_SIZE, travelTimeConfig.getMaxTime(), globalConfig.getNumberOfThreads());
+	}
+
+	/**
+	 * @param maxCellSize the maximum number of nodes per cell of the partition.
+	 * @param timeBinSize the length of the time bins, one metric is customized for each of them.
+	 * @param maxTime the end of the last time bin, later departures use the last one.
+	 * @param numberOfThreads the number of threads used for customization.
+	 */
+	public CustomizableRoutePlanningFactory(final int maxCellSize, final double timeBinSize, final double maxTime, final int numberOfThreads) {
+		this.maxCellSize = maxCellSize;
+		this.timeBinSize = timeBinSize;
+		this.maxTime = maxTime;
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	@Override
+	public synchronized LeastCostPathCalculator createPathCalculator(final Network network, final TravelDisutility travelCosts, final TravelTime travelTimes) {
+		CustomizableRoutePlanningData networkData = this.data.get(network);
+		if (networkData == null) {
+			networkData = new CustomizableRoutePlanningData(new CsrRoutingGraph(network), this.maxCellSize, this.timeBinSize, this.maxTime, this.numberOfThreads);
+			this.data.put(network, networkData);
+		}
+		PersonIndependentCosts.check(networkData.graph, travelCosts, CustomizableRoutePlanning.class.getSimpleName());
+		return new CustomizableRoutePlanning(networkData, travelCosts, travelTimes);
+	}
+
+	@Override
+	public synchronized void notifyIterationStarts(final IterationStartsEvent event) {
+		for (CustomizableRoutePlanningData networkData : this.data.values()) {
+			networkData.invalidate();
+		}
+	}
+
+}
@@ -28,8 +28,10 @@ import javax.inject.Singleton;
 
 import org.matsim.api.core.v01.network.Network;
 import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.ControlerConfigGroup;
 import org.matsim.core.config.groups.GlobalConfigGroup;
 import org.matsim.core.router.util.ArrayRoutingNetworkFactory;
+import org.matsim.core.router.util.LandmarksCache;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
 import org.matsim.core.router.util.PreProcessLandmarks;
@@ -50,6 +52,7 @@ public class FastAStarLandmarksFactory implements LeastCostPathCalculatorFactory
 	private final Map<Network, PreProcessLandmarks> preProcessData = new HashMap<>();
 	
 	@Inject GlobalConfigGroup globalConfig ;
+	@Inject ControlerConfigGroup controlerConfig ;
 
 	@Inject
 	public FastAStarLandmarksFactory() {
@@ -84,6 +87,9 @@ public class FastAStarLandmarksFactory implements LeastCostPathCalculatorFactory
 				} else {
 					preProcessLandmarks.setNumberOfThreads(globalConfig.getNumberOfThreads());
 				}
+				if ( controlerConfig!=null && controlerConfig.getRoutingCacheDirectory()!=null ) {
+					preProcessLandmarks.setCache(new LandmarksCache(controlerConfig.getRoutingCacheDirectory()));
+				}
 				preProcessLandmarks.run(network);
 				this.preProcessData.put(network, preProcessLandmarks);
 				
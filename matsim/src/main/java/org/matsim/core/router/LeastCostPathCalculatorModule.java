@@ -44,6 +44,20 @@ public class LeastCostPathCalculatorModule extends AbstractModule {
             bind(LeastCostPathCalculatorFactory.class).to(FastDijkstraFactory.class);
         } else if (config.controler().getRoutingAlgorithmType().equals(ControlerConfigGroup.RoutingAlgorithmType.FastAStarLandmarks)) {
             bind(LeastCostPathCalculatorFactory.class).to(FastAStarLandmarksFactory.class);
+        } else if (config.controler().getRoutingAlgorithmType().equals(ControlerConfigGroup.RoutingAlgorithmType.ContractionHierarchies)) {
+            bind(LeastCostPathCalculatorFactory.class).to(ContractionHierarchiesFactory.class);
+            // the hierarchies are rebuilt with the new travel times in each iteration
+            addControlerListenerBinding().to(ContractionHierarchiesFactory.class);
+        } else if (config.controler().getRoutingAlgorithmType().equals(ControlerConfigGroup.RoutingAlgorithmType.CustomizableRoutePlanning)) {
+            bind(LeastCostPathCalculatorFactory.class).to(CustomizableRoutePlanningFactory.class);
+            // the metrics are customized with the new travel times in each iteration
+            addControlerListenerBinding().to(CustomizableRoutePlanningFactory.class);
+        } else if (config.controler().getRoutingAlgorithmType().equals(ControlerConfigGroup.RoutingAlgorithmType.CsrDijkstra)) {
+            bind(LeastCostPathCalculatorFactory.class).to(CsrDijkstraFactory.class);
+        } else if (config.controler().getRoutingAlgorithmType().equals(ControlerConfigGroup.RoutingAlgorithmType.CsrAStarLandmarks)) {
+            bind(LeastCostPathCalculatorFactory.class).to(CsrAStarLandmarksFactory.class);
+        } else if (config.controler().getRoutingAlgorithmType().equals(ControlerConfigGroup.RoutingAlgorithmType.BidirectionalAStarLandmarks)) {
+            bind(LeastCostPathCalculatorFactory.class).to(BidirectionalAStarLandmarksFactory.class);
         }
     }
 
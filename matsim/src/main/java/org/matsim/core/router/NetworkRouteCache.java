@@ -0,0 +1,234 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * NetworkRouteCache.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.groups.ControlerConfigGroup;
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.events.IterationStartsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+import org.matsim.core.controler.listener.IterationStartsListener;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * Caches the paths of network routes, so agents departing between the same nodes in the same time bin of the {@link
+ * org.matsim.core.trafficmonitoring.TravelTimeCalculator} share one least cost path search.  This pays off when many
+ * agents have the same origin and destination, e.g. commuters.
+ * <p></p>
+ * The cache is shared by all threads and routing modules; {@link #wrap(String, LeastCostPathCalculator, TravelDisutility,
+ * TravelTime)} returns a path calculator which uses the part of the cache for the given mode.  Only the nodes and links
+ * of the path found for the first departure in the time bin are cached; the travel time and cost are computed along
+ * these links for each departure, with its person and vehicle.  The path itself is however the one found for the first
+ * person, so the cache should not be used with person-dependent travel disutilities.  The node and link lists of the
+ * paths are shared and must not be modified.
+ * <p></p>
+ * As the travel times change from iteration to iteration, the cache is cleared at the start of each iteration; the
+ * number of hits and misses of the iteration is logged at its end.  At most <code>maxSize</code> paths are cached
+ * per iteration, later paths are computed but not cached.
+ *
+ * @see ControlerConfigGroup#getRouteCacheSize()
+ */
+@Singleton
+public final class NetworkRouteCache implements IterationStartsListener, IterationEndsListener {
+
+	private static final Logger log = Logger.getLogger(NetworkRouteCache.class);
+
+	private final int maxSize;
+	private final double timeBinSize;
+	private final int maxTimeBin;
+
+	private final ConcurrentMap<String, ConcurrentMap<Key, CachedPath>> paths = new ConcurrentHashMap<>();
+	private final AtomicInteger size = new AtomicInteger(0);
+	private final AtomicLong hits = new AtomicLong(0);
+	private final AtomicLong misses = new AtomicLong(0);
+
+	@Inject
+	NetworkRouteCache(final ControlerConfigGroup controlerConfig, final TravelTimeCalculatorConfigGroup travelTimeConfig) {
+		this(controlerConfig.getRouteCacheSize(), travelTimeConfig.getTraveltimeBinSize(), travelTimeConfig.getMaxTime());
+	}
+
+	/**
+	 * @param maxSize the maximum number of cached paths, 0 disables the cache.
+	 * @param timeBinSize the length of the time bins; departures in the same time bin share their paths.
+	 * @param maxTime the end of the last time bin, later departures use the last one.
+	 */
+	public NetworkRouteCache(final int maxSize, final double timeBinSize, final double maxTime) {
+		this.maxSize = maxSize;
+		this.timeBinSize = timeBinSize;
+		this.maxTimeBin = Math.max(0, (int) (maxTime / timeBinSize));
+	}
+
+	public boolean isEnabled() {
+		return this.maxSize > 0;
+	}
+
+	/**
+	 * @return a path calculator which answers from the cache for <code>mode</code> if possible and otherwise asks
+	 * <code>delegate</code>, or <code>delegate</code> itself if the cache is disabled.  The mode must identify the
+	 * network, travel time and travel disutility of <code>delegate</code>; <code>travelCosts</code> and
+	 * <code>travelTimes</code> are used to compute the travel time and cost of cached paths.
+	 */
+	public LeastCostPathCalculator wrap(final String mode, final LeastCostPathCalculator delegate, final TravelDisutility travelCosts,
+			final TravelTime travelTimes) {
+		if (!isEnabled()) {
+			return delegate;
+		}
+		ConcurrentMap<Key, CachedPath> modePaths = this.paths.get(mode);
+		if (modePaths == null) {
+			this.paths.putIfAbsent(mode, new ConcurrentHashMap<Key, CachedPath>());
+			modePaths = this.paths.get(mode);
+		}
+		return new CachingLeastCostPathCalculator(modePaths, delegate, travelCosts, travelTimes);
+	}
+
+	public long getHits() {
+		return this.hits.get();
+	}
+
+	public long getMisses() {
+		return this.misses.get();
+	}
+
+	/**
+	 * Removes all paths, e.g. because the travel times have changed, and resets the statistics.
+	 */
+	public void clear() {
+		for (ConcurrentMap<Key, CachedPath> modePaths : this.paths.values()) {
+			modePaths.clear();
+		}
+		this.size.set(0);
+		this.hits.set(0);
+		this.misses.set(0);
+	}
+
+	@Override
+	public void notifyIterationStarts(final IterationStartsEvent event) {
+		clear();
+	}
+
+	@Override
+	public void notifyIterationEnds(final IterationEndsEvent event) {
+		long total = this.hits.get() + this.misses.get();
+		if (total > 0) {
+			log.info("route cache: " + this.hits.get() + " hits, " + this.misses.get() + " misses (hit rate "
+					+ (100 * this.hits.get() / total) + "%), " + this.size.get() + " routes cached.");
+		}
+	}
+
+	private int getTimeBin(final double time) {
+		if (Time.isUndefinedTime(time) || time <= 0) {
+			return 0;
+		}
+		return Math.min((int) (time / this.timeBinSize), this.maxTimeBin);
+	}
+
+	private static final class Key {
+		private final Node fromNode;
+		private final Node toNode;
+		private final int timeBin;
+
+		Key(final Node fromNode, final Node toNode, final int timeBin) {
+			this.fromNode = fromNode;
+			this.toNode = toNode;
+			this.timeBin = timeBin;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return this.fromNode == other.fromNode && this.toNode == other.toNode && this.timeBin == other.timeBin;
+		}
+
+		@Override
+		public int hashCode() {
+			return (31 * this.fromNode.getId().index() + this.toNode.getId().index()) * 31 + this.timeBin;
+		}
+	}
+
+	private static final class CachedPath {
+		private final List<Node> nodes;
+		private final List<Link> links;
+
+		CachedPath(final List<Node> nodes, final List<Link> links) {
+			this.nodes = nodes;
+			this.links = links;
+		}
+	}
+
+	private final class CachingLeastCostPathCalculator implements LeastCostPathCalculator {
+		private final ConcurrentMap<Key, CachedPath> modePaths;
+		private final LeastCostPathCalculator delegate;
+		private final TravelDisutility travelCosts;
+		private final TravelTime travelTimes;
+
+		CachingLeastCostPathCalculator(final ConcurrentMap<Key, CachedPath> modePaths, final LeastCostPathCalculator delegate,
+				final TravelDisutility travelCosts, final TravelTime travelTimes) {
+			this.modePaths = modePaths;
+			this.delegate = delegate;
+			this.travelCosts = travelCosts;
+			this.travelTimes = travelTimes;
+		}
+
+		@Override
+		public Path calcLeastCostPath(final Node fromNode, final Node toNode, final double starttime, final Person person, final Vehicle vehicle) {
+			Key key = new Key(fromNode, toNode, getTimeBin(starttime));
+			CachedPath cachedPath = this.modePaths.get(key);
+			if (cachedPath != null) {
+				hits.incrementAndGet();
+				// the travel time and cost depend on the departure time within the time bin, and on the person
+				double time = starttime;
+				double cost = 0.0;
+				for (Link link : cachedPath.links) {
+					cost += this.travelCosts.getLinkTravelDisutility(link, time, person, vehicle);
+					time += this.travelTimes.getLinkTravelTime(link, time, person, vehicle);
+				}
+				return new Path(cachedPath.nodes, cachedPath.links, time - starttime, cost);
+			}
+			misses.incrementAndGet();
+			Path path = this.delegate.calcLeastCostPath(fromNode, toNode, starttime, person, vehicle);
+			if (path != null && size.get() < maxSize && this.modePaths.putIfAbsent(key, new CachedPath(path.nodes, path.links)) == null) {
+				size.incrementAndGet();
+			}
+			return path;
+		}
+	}
+
+}
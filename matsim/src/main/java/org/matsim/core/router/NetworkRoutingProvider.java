@@ -10,6 +10,7 @@ import org.matsim.core.network.algorithms.TransportModeNetworkFilter;
 import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
 import org.matsim.core.router.util.LeastCostPathCalculator;
 import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
 import org.matsim.core.router.util.TravelTime;
 
 import javax.inject.Inject;
@@ -42,6 +43,9 @@ public class NetworkRoutingProvider implements Provider<RoutingModule> {
 
 	@Inject
     LeastCostPathCalculatorFactory leastCostPathCalculatorFactory;
+
+	@Inject
+	NetworkRouteCache routeCache;
 	
 	/**
 	 * This is the older (and still more standard) constructor, where the routingMode and the resulting mode were the
@@ -100,11 +104,14 @@ public class NetworkRoutingProvider implements Provider<RoutingModule> {
 		if (travelTime == null) {
 			throw new RuntimeException("No TravelTime bound for mode "+routingMode+".");
 		}
+		TravelDisutility travelDisutility = travelDisutilityFactory.createTravelDisutility(travelTime);
 		LeastCostPathCalculator routeAlgo =
 				leastCostPathCalculatorFactory.createPathCalculator(
 						filteredNetwork,
-						travelDisutilityFactory.createTravelDisutility(travelTime),
+						travelDisutility,
 						travelTime);
+		// the cached routes depend on both the network and the travel disutility:
+		routeAlgo = routeCache.wrap(mode + "/" + routingMode, routeAlgo, travelDisutility, travelTime);
 
 		// the following again refers to the (transport)mode, since it will determine the mode of the leg on the network:
 		if ( plansCalcRouteConfigGroup.isInsertingAccessEgressWalk() ) {
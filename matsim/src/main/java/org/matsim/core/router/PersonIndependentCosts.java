@@ -0,0 +1,58 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * PersonIndependentCosts.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.core.router.util.TravelDisutility;
+
+/**
+ * Checks for routers which preprocess the network with one metric for all persons, see {@link
+ * ContractionHierarchiesFactory} and {@link CustomizableRoutePlanningFactory}.  Their metric is computed with the
+ * travel disutilities of the links without a person, which is not possible e.g. with routing randomness, where the
+ * travel disutility is drawn per person.
+ */
+final class PersonIndependentCosts {
+
+	private PersonIndependentCosts() {
+	}
+
+	/**
+	 * Fails fast if <code>travelCosts</code> cannot be computed without a person, instead of failing in the first
+	 * query which needs a new metric.
+	 *
+	 * @throws IllegalArgumentException if the travel disutility requires a person.
+	 */
+	static void check(final CsrRoutingGraph graph, final TravelDisutility travelCosts, final String routerName) {
+		if (graph.links.length == 0) {
+			return;
+		}
+		Link link = graph.links[0];
+		try {
+			travelCosts.getLinkTravelDisutility(link, 0.0, null, null);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException(routerName + " computes the travel disutilities of the links without a person, but "
+					+ travelCosts.getClass().getName() + " failed to do so for link " + link.getId() + ". Person-dependent travel "
+					+ "disutilities, e.g. with routing randomness, are not supported by this routing algorithm; use a travel "
+					+ "disutility without randomness or another routingAlgorithmType.", e);
+		}
+	}
+
+}
@@ -45,6 +45,11 @@ public class TripRouterModule extends AbstractModule {
         install(new LeastCostPathCalculatorModule());
         install(new TransitRouterModule());
         bind(SingleModeNetworksCache.class).asEagerSingleton();
+        bind(NetworkRouteCache.class); // also needed when disabled, as the network routing modules ask for it
+        if (getConfig().controler().getRouteCacheSize() > 0) {
+            // the cached routes are discarded at the start of each iteration, when the travel times have changed
+            addControlerListenerBinding().to(NetworkRouteCache.class);
+        }
         PlansCalcRouteConfigGroup routeConfigGroup = getConfig().plansCalcRoute();
         for (String mode : routeConfigGroup.getTeleportedModeFreespeedFactors().keySet()) {
             if (getConfig().transit().isUseTransit() && getConfig().transit().getTransitModes().contains(mode)) {
@@ -0,0 +1,159 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * IntMinHeap.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.priorityqueue;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A binary min-heap of int elements in the range <code>[0, capacity)</code> with double keys, for routing
+ * algorithms that work on node indices instead of node objects.  Like {@link BinaryMinHeap}, it keeps the position
+ * of each element, so the key of an element can be decreased in O(log n).  No objects are created per operation.
+ */
+public final class IntMinHeap {
+
+	private final int[] heap;
+	private final double[] keys;
+	/** the position of each element in the heap, or -1 if it is not in the heap */
+	private final int[] positions;
+	private int size = 0;
+
+	public IntMinHeap(final int capacity) {
+		this.heap = new int[capacity];
+		this.keys = new double[capacity];
+		this.positions = new int[capacity];
+		Arrays.fill(this.positions, -1);
+	}
+
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean contains(final int element) {
+		return this.positions[element] >= 0;
+	}
+
+	/**
+	 * Removes all elements, in time proportional to the number of elements in the heap.
+	 */
+	public void clear() {
+		for (int i = 0; i < this.size; i++) {
+			this.positions[this.heap[i]] = -1;
+		}
+		this.size = 0;
+	}
+
+	/**
+	 * Adds the element with the given key, or decreases its key if it is already in the heap with a higher key.
+	 *
+	 * @return <code>false</code> if the element is already in the heap with a key not higher than <code>key</code>.
+	 */
+	public boolean insertOrDecrease(final int element, final double key) {
+		int pos = this.positions[element];
+		if (pos < 0) {
+			pos = this.size++;
+		} else if (this.keys[pos] <= key) {
+			return false;
+		}
+		siftUp(pos, element, key);
+		return true;
+	}
+
+	/**
+	 * @return the key of the element at the top of the heap.
+	 */
+	public double peekKey() {
+		if (this.size == 0) {
+			throw new NoSuchElementException();
+		}
+		return this.keys[0];
+	}
+
+	/**
+	 * @return the key of the given element, which must be in the heap.
+	 */
+	public double getKey(final int element) {
+		return this.keys[this.positions[element]];
+	}
+
+	/**
+	 * Removes the element with the lowest key from the heap.
+	 */
+	public int poll() {
+		if (this.size == 0) {
+			throw new NoSuchElementException();
+		}
+		int top = this.heap[0];
+		this.positions[top] = -1;
+		this.size--;
+		if (this.size > 0) {
+			siftDown(0, this.heap[this.size], this.keys[this.size]);
+		}
+		return top;
+	}
+
+	private void siftUp(int pos, final int element, final double key) {
+		while (pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			if (this.keys[parent] <= key) {
+				break;
+			}
+			move(parent, pos);
+			pos = parent;
+		}
+		set(pos, element, key);
+	}
+
+	private void siftDown(int pos, final int element, final double key) {
+		int half = this.size >>> 1;
+		while (pos < half) {
+			int child = 2 * pos + 1;
+			int right = child + 1;
+			if (right < this.size && this.keys[right] < this.keys[child]) {
+				child = right;
+			}
+			if (key <= this.keys[child]) {
+				break;
+			}
+			move(child, pos);
+			pos = child;
+		}
+		set(pos, element, key);
+	}
+
+	private void move(final int from, final int to) {
+		int element = this.heap[from];
+		this.heap[to] = element;
+		this.keys[to] = this.keys[from];
+		this.positions[element] = to;
+	}
+
+	private void set(final int pos, final int element, final double key) {
+		this.heap[pos] = element;
+		this.keys[pos] = key;
+		this.positions[element] = pos;
+	}
+
+}
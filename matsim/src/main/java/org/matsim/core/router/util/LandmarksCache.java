@@ -0,0 +1,204 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * LandmarksCache.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.router.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+
+/**
+ * Stores the result of {@link PreProcessLandmarks} in a directory, so later runs on the same network do not have to
+ * compute it again.
+ * <p></p>
+ * Each result is stored in its own file, named after a checksum of everything it depends on: the nodes and links of
+ * the network (so each mode's network has its own file), the minimum travel disutility of each link, the number of
+ * landmarks and the {@link Landmarker}, as described by its <code>toString()</code>.  A changed input thus simply
+ * leads to another file; {@link #invalidate()} deletes all files, e.g. after changing the landmarker in a way its
+ * description does not reflect.  The files are read with memory mapping and contain a version number, so files
+ * written by an incompatible version are ignored.
+ */
+public final class LandmarksCache {
+
+	private static final Logger log = Logger.getLogger(LandmarksCache.class);
+
+	private static final int MAGIC = 0x4d4c4d4b;
+	private static final int VERSION = 1;
+	private static final String PREFIX = "landmarks-";
+	private static final String SUFFIX = ".bin";
+	private static final int HEADER_SIZE = 4 * 4;
+
+	private final File directory;
+
+	public LandmarksCache(final String directory) {
+		this.directory = new File(directory);
+	}
+
+	/**
+	 * Deletes all cached landmarks in the directory.
+	 */
+	public void invalidate() {
+		File[] files = this.directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.getName().startsWith(PREFIX) && file.getName().endsWith(SUFFIX)) {
+				if (!file.delete()) {
+					log.warn("could not delete cached landmarks " + file);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the key under which the landmarks for the given inputs are stored.
+	 */
+	static String getKey(final Network network, final TravelDisutility costFunction, final int landmarkCount, final Landmarker landmarker) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(8 * 4);
+		buffer.putInt(VERSION).putInt(landmarkCount).putInt(network.getNodes().size()).putInt(network.getLinks().size());
+		digest.update(buffer.array(), 0, buffer.position());
+		digest.update(landmarker.toString().getBytes(StandardCharsets.UTF_8));
+		for (Node node : network.getNodes().values()) {
+			digest.update(node.getId().toString().getBytes(StandardCharsets.UTF_8));
+			buffer.clear();
+			buffer.putDouble(node.getCoord().getX()).putDouble(node.getCoord().getY());
+			digest.update(buffer.array(), 0, buffer.position());
+		}
+		for (Link link : network.getLinks().values()) {
+			digest.update(link.getId().toString().getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(link.getFromNode().getId().toString().getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(link.getToNode().getId().toString().getBytes(StandardCharsets.UTF_8));
+			buffer.clear();
+			buffer.putDouble(link.getLength()).putDouble(costFunction.getLinkMinimumTravelDisutility(link));
+			digest.update(buffer.array(), 0, buffer.position());
+		}
+		StringBuilder key = new StringBuilder();
+		for (byte b : digest.digest()) {
+			key.append(String.format("%02x", b));
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Loads the landmarks with the given key.  The nodes are identified by their position in the iteration order of
+	 * <code>network.getNodes()</code>, which is part of the key.
+	 *
+	 * @param landmarks is filled with the index of each landmark.
+	 * @param minTravelTimes is filled with the minimum travel time between each node and each landmark, node by node.
+	 * @param maxTravelTimes is filled with the maximum travel time between each node and each landmark, node by node.
+	 * @return <code>false</code> if the cache does not contain the landmarks.
+	 */
+	boolean load(final String key, final int[] landmarks, final double[] minTravelTimes, final double[] maxTravelTimes) {
+		File file = getFile(key);
+		if (!file.isFile()) {
+			return false;
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long size = getFileSize(landmarks.length, minTravelTimes.length);
+			if (channel.size() != size) {
+				log.warn("ignoring cached landmarks " + file + " with unexpected size.");
+				return false;
+			}
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != landmarks.length
+					|| buffer.getInt() != minTravelTimes.length) {
+				log.warn("ignoring cached landmarks " + file + " of another version.");
+				return false;
+			}
+			IntBuffer ints = buffer.asIntBuffer();
+			ints.get(landmarks);
+			buffer.position(buffer.position() + 4 * landmarks.length);
+			DoubleBuffer doubles = buffer.asDoubleBuffer();
+			doubles.get(minTravelTimes);
+			doubles.get(maxTravelTimes);
+		} catch (IOException e) {
+			log.warn("could not read cached landmarks " + file, e);
+			return false;
+		}
+		log.info("loaded landmarks from " + file);
+		return true;
+	}
+
+	/**
+	 * Stores the landmarks under the given key, see {@link #load(String, int[], double[], double[])}.  The file is
+	 * written under a temporary name first, so concurrent runs never see incomplete files.
+	 */
+	void store(final String key, final int[] landmarks, final double[] minTravelTimes, final double[] maxTravelTimes) {
+		long size = getFileSize(landmarks.length, minTravelTimes.length);
+		if (size > Integer.MAX_VALUE) {
+			log.warn("landmarks are too large to be cached.");
+			return;
+		}
+		File file = getFile(key);
+		try {
+			Files.createDirectories(this.directory.toPath());
+			Path tmpFile = Files.createTempFile(this.directory.toPath(), PREFIX, ".tmp");
+			try (FileChannel channel = FileChannel.open(tmpFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				buffer.putInt(MAGIC).putInt(VERSION).putInt(landmarks.length).putInt(minTravelTimes.length);
+				buffer.asIntBuffer().put(landmarks);
+				buffer.position(buffer.position() + 4 * landmarks.length);
+				DoubleBuffer doubles = buffer.asDoubleBuffer();
+				doubles.put(minTravelTimes);
+				doubles.put(maxTravelTimes);
+				buffer.force();
+			}
+			Files.move(tmpFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			log.warn("could not cache landmarks in " + file, e);
+			return;
+		}
+		log.info("stored landmarks in " + file);
+	}
+
+	private File getFile(final String key) {
+		return new File(this.directory, PREFIX + key + SUFFIX);
+	}
+
+	private static long getFileSize(final int landmarkCount, final int travelTimeCount) {
+		return HEADER_SIZE + 4L * landmarkCount + 2 * 8L * travelTimeCount;
+	}
+
+}
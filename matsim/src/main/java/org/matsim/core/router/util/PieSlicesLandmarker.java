@@ -39,4 +39,13 @@ public class PieSlicesLandmarker implements Landmarker {
 		delegate.run( network );
 		return delegate.getLandmarks();
 	}
+
+	/**
+	 * Describes the landmarker with its travel zone, so {@link LandmarksCache} can tell whether cached landmarks were
+	 * identified with the same settings.
+	 */
+	@Override
+	public String toString() {
+		return getClass().getName() + "[travelZone=" + this.travelZone + "]";
+	}
 }
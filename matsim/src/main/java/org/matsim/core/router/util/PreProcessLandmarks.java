@@ -28,6 +28,7 @@ import org.matsim.core.api.internal.MatsimComparator;
 
 import java.awt.geom.Rectangle2D;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.concurrent.ExecutorService;
@@ -53,6 +54,8 @@ public class PreProcessLandmarks extends PreProcessEuclidean {
 	
 	private int numberOfThreads = 8;
 
+	private LandmarksCache cache = null;
+
 	private static final Logger log = Logger.getLogger(PreProcessLandmarks.class);
 
 	public PreProcessLandmarks(final TravelDisutility costFunction) {
@@ -83,6 +86,14 @@ public class PreProcessLandmarks extends PreProcessEuclidean {
 		this.numberOfThreads = numberOfThreads;
 	}
 	
+	/**
+	 * Sets the cache from which the landmarks are loaded if it contains them for the same network and cost function,
+	 * and in which they are stored otherwise.  By default, no cache is used.
+	 */
+	public void setCache(final LandmarksCache cache) {
+		this.cache = cache;
+	}
+
 	/**
 	 * @param costFunction
 	 * @param travelZone The area within which the landmarks should lie. Narrowing the zone where the landmarks should
@@ -108,7 +119,15 @@ public class PreProcessLandmarks extends PreProcessEuclidean {
 	@Override
 	public void run(final Network network) {
 		super.run(network);
-		
+
+		String cacheKey = null;
+		if (this.cache != null) {
+			cacheKey = LandmarksCache.getKey(network, this.costFunction, this.landmarkCount, this.landmarker);
+			if (loadFromCache(network, cacheKey)) {
+				return;
+			}
+		}
+
 		log.info("Putting landmarks on network...");
 		long now = System.currentTimeMillis();
 		landmarks = landmarker.identifyLandmarks( landmarkCount , network );
@@ -159,6 +178,57 @@ public class PreProcessLandmarks extends PreProcessEuclidean {
 		}
 
 		log.info("done in " + (System.currentTimeMillis() - now) + " ms");
+
+		if (this.cache != null) {
+			storeInCache(network, cacheKey);
+		}
+	}
+
+	private boolean loadFromCache(final Network network, final String cacheKey) {
+		Node[] nodes = network.getNodes().values().toArray(new Node[network.getNodes().size()]);
+		int[] landmarkIndices = new int[this.landmarkCount];
+		double[] minTravelTimes = new double[nodes.length * this.landmarkCount];
+		double[] maxTravelTimes = new double[nodes.length * this.landmarkCount];
+		if (!this.cache.load(cacheKey, landmarkIndices, minTravelTimes, maxTravelTimes)) {
+			return false;
+		}
+		this.landmarks = new Node[this.landmarkCount];
+		for (int i = 0; i < this.landmarkCount; i++) {
+			this.landmarks[i] = nodes[landmarkIndices[i]];
+		}
+		for (int n = 0; n < nodes.length; n++) {
+			LandmarksData data = new LandmarksData(this.landmarkCount);
+			for (int i = 0; i < this.landmarkCount; i++) {
+				data.setFromLandmarkTravelTime(i, minTravelTimes[n * this.landmarkCount + i]);
+				data.setToLandmarkTravelTime(i, maxTravelTimes[n * this.landmarkCount + i]);
+			}
+			this.nodeData.put(nodes[n], data);
+		}
+		return true;
+	}
+
+	private void storeInCache(final Network network, final String cacheKey) {
+		if (this.landmarks.length != this.landmarkCount) {
+			// the landmarker found fewer landmarks than requested; not worth caching
+			return;
+		}
+		Map<Node, Integer> nodeIndices = new HashMap<>();
+		Node[] nodes = network.getNodes().values().toArray(new Node[network.getNodes().size()]);
+		double[] minTravelTimes = new double[nodes.length * this.landmarkCount];
+		double[] maxTravelTimes = new double[nodes.length * this.landmarkCount];
+		for (int n = 0; n < nodes.length; n++) {
+			nodeIndices.put(nodes[n], n);
+			LandmarksData data = getNodeData(nodes[n]);
+			for (int i = 0; i < this.landmarkCount; i++) {
+				minTravelTimes[n * this.landmarkCount + i] = data.getMinLandmarkTravelTime(i);
+				maxTravelTimes[n * this.landmarkCount + i] = data.getMaxLandmarkTravelTime(i);
+			}
+		}
+		int[] landmarkIndices = new int[this.landmarkCount];
+		for (int i = 0; i < this.landmarkCount; i++) {
+			landmarkIndices[i] = nodeIndices.get(this.landmarks[i]);
+		}
+		this.cache.store(cacheKey, landmarkIndices, minTravelTimes, maxTravelTimes);
 	}
 
 	private static class Calculator implements Runnable {
@@ -22,7 +22,6 @@ package org.matsim.core.scoring;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -30,6 +29,7 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdMap;
 import org.matsim.api.core.v01.events.Event;
 import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.PersonMoneyEvent;
@@ -84,7 +84,7 @@ import gnu.trove.list.array.TDoubleArrayList;
 	 *
 	 * cdobler, nov'15
 	 */
-	private final Map<Id<Person>, ScoringFunction> agentScorers = new HashMap<>();
+	private final Map<Id<Person>, ScoringFunction> agentScorers = new IdMap<>(Person.class);
 	private final Map<Id<Person>, TDoubleCollection> partialScores = new LinkedHashMap<>();
 	private final AtomicReference<Throwable> exception = new AtomicReference<>();
 	
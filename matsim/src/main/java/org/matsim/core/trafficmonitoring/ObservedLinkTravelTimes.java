@@ -1,5 +1,6 @@
 package org.matsim.core.trafficmonitoring;
 
+import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
 import org.matsim.core.router.util.TravelTime;
 
 import javax.inject.Inject;
@@ -10,8 +11,14 @@ class ObservedLinkTravelTimes implements Provider<TravelTime> {
 	@Inject
 	TravelTimeCalculator travelTimeCalculator;
 
+	@Inject
+	TravelTimeCalculatorConfigGroup config;
+
 	@Override
 	public TravelTime get() {
+		if (config.isUseTravelTimeMatrix()) {
+			return travelTimeCalculator.getTravelTimeMatrix();
+		}
 		return travelTimeCalculator.getLinkTravelTimes();
 	}
 
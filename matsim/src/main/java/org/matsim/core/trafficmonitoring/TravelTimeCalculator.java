@@ -19,13 +19,14 @@
  * *********************************************************************** */
 package org.matsim.core.trafficmonitoring;
 
-import java.util.HashSet;
+import java.util.Arrays;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.IdSet;
 import org.matsim.api.core.v01.events.LinkEnterEvent;
 import org.matsim.api.core.v01.events.LinkLeaveEvent;
 import org.matsim.api.core.v01.events.VehicleAbortsEvent;
@@ -47,7 +48,6 @@ import org.matsim.core.config.groups.TravelTimeCalculatorConfigGroup;
 import org.matsim.core.router.util.LinkToLinkTravelTime;
 import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.utils.collections.CollectionUtils;
-import org.matsim.core.utils.collections.Tuple;
 import org.matsim.vehicles.Vehicle;
 
 import com.google.inject.Inject;
@@ -82,11 +82,21 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 
 	private Map<Id<Link>, DataContainer> linkData;
 
-	private Map<Tuple<Id<Link>, Id<Link>>, DataContainer> linkToLinkData;
+	/** the link data by the index of the link id, a cache of the data container provider for the event handlers */
+	private DataContainer[] linkDataByIndex;
+
+	/** the link to link data by the index of the from link id; grown and filled under the lock of this */
+	private volatile Turns[] linkToLinkData;
 
 	private final DataContainerProvider dataContainerProvider;
-	
-	private final Map<Id<Vehicle>, LinkEnterEvent> linkEnterEvents;
+
+	/*
+	 * The link and time at which each vehicle entered its current link, by the index of the vehicle id; -1 if it is
+	 * not on a link.  They replace a map of LinkEnterEvents, so handling a link event neither allocates nor hashes.
+	 * Only used by the event handlers, which are called by one thread at a time.
+	 */
+	private int[] enteredLinks = new int[0];
+	private double[] linkEnterTimes = new double[0];
 
 	private final Set<Id<Vehicle>> vehiclesToIgnore;
 	private final Set<String> analyzedModes;
@@ -98,6 +108,10 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 	private final boolean calculateLinkToLinkTravelTimes;
 
 	private TravelTimeDataFactory ttDataFactory = null;
+
+	private final Network network;
+
+	private volatile TravelTimeMatrix travelTimeMatrix = null;
 	
 	@Inject private QSimConfigGroup qsimConfig ;
 
@@ -166,6 +180,7 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 
 	TravelTimeCalculator(final Network network, final int timeslice, final int maxTime,
 								boolean calculateLinkTravelTimes, boolean calculateLinkToLinkTravelTimes, boolean filterModes, Set<String> analyzedModes) {
+		this.network = network;
 		this.calculateLinkTravelTimes = calculateLinkTravelTimes;
 		this.calculateLinkToLinkTravelTimes = calculateLinkToLinkTravelTimes;
 		this.filterAnalyzedModes = filterModes;
@@ -192,13 +207,14 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 		} else this.dataContainerProvider = null;
 		if (this.calculateLinkToLinkTravelTimes){
 			// assume that every link has 2 outgoing links as default
-			this.linkToLinkData = new ConcurrentHashMap<>((int) (network.getLinks().size() * 1.4 * 2));
+			this.linkToLinkData = new Turns[Id.getNumberOfIds(Link.class)];
 		}
-		this.linkEnterEvents = new ConcurrentHashMap<>();
+		this.linkDataByIndex = new DataContainer[Id.getNumberOfIds(Link.class)];
 
 		// if we just look at one mode, we need to ignore all vehicles with a different mode. However, the info re the mode is only in
 		// the vehicleEntersTraffic event.  So we need to memorize the ignored vehicles from there ...
-		this.vehiclesToIgnore = new HashSet<>();
+		// (checked for every link enter event, so without hashing the vehicle id)
+		this.vehiclesToIgnore = new IdSet<>(Vehicle.class);
 
 
 		this.reset(0);
@@ -211,23 +227,25 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 		 * performs a trip with one of those modes. if not, we skip the event. */
 		if (filterAnalyzedModes && vehiclesToIgnore.contains(e.getVehicleId())) return;
 
-		LinkEnterEvent oldEvent = this.linkEnterEvents.remove(e.getVehicleId());
-		if ((oldEvent != null) && this.calculateLinkToLinkTravelTimes) {
-			Tuple<Id<Link>, Id<Link>> fromToLink = new Tuple<>(oldEvent.getLinkId(), e.getLinkId());
-			DataContainer data = getLinkToLinkTravelTimeData(fromToLink, true);
-			this.aggregator.addTravelTime(data.ttData, oldEvent.getTime(), e.getTime());
+		int vehicle = e.getVehicleId().index();
+		ensureVehicleCapacity(vehicle);
+		int link = e.getLinkId().index();
+		if ((this.enteredLinks[vehicle] >= 0) && this.calculateLinkToLinkTravelTimes) {
+			DataContainer data = getLinkToLinkTravelTimeData(this.enteredLinks[vehicle], link, true);
+			this.aggregator.addTravelTime(data.ttData, this.linkEnterTimes[vehicle], e.getTime());
 			data.needsConsolidation = true;
 		}
-		this.linkEnterEvents.put(e.getVehicleId(), e);
+		this.enteredLinks[vehicle] = link;
+		this.linkEnterTimes[vehicle] = e.getTime();
 	}
 
 	@Override
 	public void handleEvent(final LinkLeaveEvent e) {
 		if (this.calculateLinkTravelTimes) {
-			LinkEnterEvent oldEvent = this.linkEnterEvents.get(e.getVehicleId());
-			if (oldEvent != null) {
-				DataContainer data = this.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
-				this.aggregator.addTravelTime(data.ttData, oldEvent.getTime(), e.getTime());
+			int vehicle = e.getVehicleId().index();
+			if (vehicle < this.enteredLinks.length && this.enteredLinks[vehicle] >= 0) {
+				DataContainer data = getLinkTravelTimeData(e.getLinkId().index());
+				this.aggregator.addTravelTime(data.ttData, this.linkEnterTimes[vehicle], e.getTime());
 				data.needsConsolidation = true;
 			}
 		}
@@ -248,7 +266,7 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 		/* remove EnterEvents from list when a vehicle arrives.
 		 * otherwise, the activity duration would counted as travel time, when the
 		 * vehicle departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		removeLinkEnter(event.getVehicleId().index());
 
 		// try to remove vehicles from set with filtered vehicles
 		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
@@ -259,16 +277,17 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 		/* remove EnterEvents from list when a bus stops on a link.
 		 * otherwise, the stop time would counted as travel time, when the
 		 * bus departs again and leaves the link! */
-		this.linkEnterEvents.remove(event.getVehicleId());
+		removeLinkEnter(event.getVehicleId().index());
 	}
 
 	@Override
 	public void handleEvent(VehicleAbortsEvent event) {
-		LinkEnterEvent e = this.linkEnterEvents.remove(event.getVehicleId());
-		if (e != null) {
-			DataContainer data = this.dataContainerProvider.getTravelTimeData(e.getLinkId(), true);
+		int vehicle = event.getVehicleId().index();
+		int link = removeLinkEnter(vehicle);
+		if (link >= 0) {
+			DataContainer data = getLinkTravelTimeData(link);
 			data.needsConsolidation = true;
-			this.aggregator.addStuckEventTravelTime(data.ttData, e.getTime(), event.getTime());
+			this.aggregator.addStuckEventTravelTime(data.ttData, this.linkEnterTimes[vehicle], event.getTime());
 			if (this.calculateLinkToLinkTravelTimes 
 					&& event.getTime() < qsimConfig.getEndTime() 
 					// (we think that this only makes problems when the abort is not just because of mobsim end time. kai & theresa, jan'17) 
@@ -282,14 +301,68 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 		if (filterAnalyzedModes) this.vehiclesToIgnore.remove(event.getVehicleId());
 	}
 
-	private DataContainer getLinkToLinkTravelTimeData(Tuple<Id<Link>, Id<Link>> fromLinkToLink, final boolean createIfMissing) {
-		DataContainer data = this.linkToLinkData.get(fromLinkToLink);
-		if ((null == data) && createIfMissing) {
-			data = new DataContainer(this.ttDataFactory.createTravelTimeData(fromLinkToLink.getFirst()));
-			this.linkToLinkData.put(fromLinkToLink, data);
+	private void ensureVehicleCapacity(final int vehicle) {
+		if (vehicle >= this.enteredLinks.length) {
+			int oldLength = this.enteredLinks.length;
+			int newLength = Math.max(vehicle + 1, Math.max(Id.getNumberOfIds(Vehicle.class), 2 * oldLength));
+			this.enteredLinks = Arrays.copyOf(this.enteredLinks, newLength);
+			this.linkEnterTimes = Arrays.copyOf(this.linkEnterTimes, newLength);
+			Arrays.fill(this.enteredLinks, oldLength, newLength, -1);
+		}
+	}
+
+	/**
+	 * @return the link the vehicle entered, or -1 if it is not on a link.  Its enter time is kept.
+	 */
+	private int removeLinkEnter(final int vehicle) {
+		if (vehicle >= this.enteredLinks.length) {
+			return -1;
+		}
+		int link = this.enteredLinks[vehicle];
+		this.enteredLinks[vehicle] = -1;
+		return link;
+	}
+
+	private DataContainer getLinkTravelTimeData(final int link) {
+		if (link >= this.linkDataByIndex.length) {
+			this.linkDataByIndex = Arrays.copyOf(this.linkDataByIndex, Math.max(link + 1, Id.getNumberOfIds(Link.class)));
+		}
+		DataContainer data = this.linkDataByIndex[link];
+		if (data == null) {
+			data = this.dataContainerProvider.getTravelTimeData(Id.get(link, Link.class), true);
+			this.linkDataByIndex[link] = data;
 		}
 		return data;
 	}
+
+	private DataContainer getLinkToLinkTravelTimeData(final int fromLink, final int toLink, final boolean createIfMissing) {
+		Turns[] turns = this.linkToLinkData;
+		Turns fromTurns = fromLink < turns.length ? turns[fromLink] : null;
+		if (fromTurns != null) {
+			for (int i = 0; i < fromTurns.toLinks.length; i++) {
+				if (fromTurns.toLinks[i] == toLink) {
+					return fromTurns.data[i];
+				}
+			}
+		}
+		return createIfMissing ? addLinkToLinkTravelTimeData(fromLink, toLink) : null;
+	}
+
+	private synchronized DataContainer addLinkToLinkTravelTimeData(final int fromLink, final int toLink) {
+		// check again, another thread may just have added it
+		DataContainer data = getLinkToLinkTravelTimeData(fromLink, toLink, false);
+		if (data != null) {
+			return data;
+		}
+		Turns[] turns = this.linkToLinkData;
+		if (fromLink >= turns.length) {
+			turns = Arrays.copyOf(turns, Math.max(fromLink + 1, Id.getNumberOfIds(Link.class)));
+		}
+		data = new DataContainer(this.ttDataFactory.createTravelTimeData(Id.get(fromLink, Link.class)));
+		turns[fromLink] = new Turns(turns[fromLink], toLink, data);
+		this.linkToLinkData = turns;
+		return data;
+	}
 	
 	/*
 	 * Use the link as argument here! In case the DataContainer is array-based and the link is from a routing network,
@@ -343,7 +416,7 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 			throw new IllegalStateException("No link to link travel time is available " +
 					"if calculation is switched off by config option!");
 		}
-		DataContainer data = this.getLinkToLinkTravelTimeData(new Tuple<>(fromLinkId, toLinkId), true);
+		DataContainer data = this.getLinkToLinkTravelTimeData(fromLinkId.index(), toLinkId.index(), true);
 		if (data.needsConsolidation) {
 			consolidateData(data);
 		}
@@ -359,12 +432,16 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 			}
 		}
 		if (this.calculateLinkToLinkTravelTimes){
-			for (DataContainer data : this.linkToLinkData.values()){
-				data.ttData.resetTravelTimes();
-				data.needsConsolidation = false;
+			for (Turns turns : this.linkToLinkData) {
+				if (turns != null) {
+					for (DataContainer data : turns.data) {
+						data.ttData.resetTravelTimes();
+						data.needsConsolidation = false;
+					}
+				}
 			}
 		}
-		this.linkEnterEvents.clear();
+		Arrays.fill(this.enteredLinks, -1);
 		this.vehiclesToIgnore.clear();
 	}
 
@@ -449,6 +526,86 @@ public class TravelTimeCalculator implements LinkEnterEventHandler, LinkLeaveEve
 		}
 	}
 
+	/**
+	 * The link to link data of the turns from one link.  Immutable, a turn is added by replacing the object with a
+	 * larger copy, so it can be read without locking.
+	 */
+	private static final class Turns {
+		private final int[] toLinks;
+		private final DataContainer[] data;
+
+		Turns(final Turns turns, final int toLink, final DataContainer data) {
+			int size = turns == null ? 0 : turns.toLinks.length;
+			this.toLinks = turns == null ? new int[1] : Arrays.copyOf(turns.toLinks, size + 1);
+			this.data = turns == null ? new DataContainer[1] : Arrays.copyOf(turns.data, size + 1);
+			this.toLinks[size] = toLink;
+			this.data[size] = data;
+		}
+	}
+
+	/**
+	 * Copies the current link travel times of all links of the network into a {@link TravelTimeMatrix}.  The data of
+	 * each link is consolidated once here, so later lookups in the matrix do not need to.
+	 */
+	public TravelTimeMatrix createTravelTimeMatrix() {
+		if (!this.calculateLinkTravelTimes) {
+			throw new IllegalStateException("No link travel time is available " +
+					"if calculation is switched off by config option!");
+		}
+		int[] rows = new int[Id.getNumberOfIds(Link.class)];
+		Arrays.fill(rows, -1);
+		double[] travelTimes = new double[this.network.getLinks().size() * this.numSlots];
+		int row = 0;
+		for (Link link : this.network.getLinks().values()) {
+			rows[link.getId().index()] = row;
+			int offset = row * this.numSlots;
+			DataContainer data = this.dataContainerProvider.getTravelTimeData(link, false);
+			if (data == null) {
+				for (int i = 0; i < this.numSlots; i++) {
+					travelTimes[offset + i] = link.getLength() / link.getFreespeed(i * this.timeSlice);
+				}
+			} else {
+				if (data.needsConsolidation) {
+					consolidateData(data);
+				}
+				for (int i = 0; i < this.numSlots; i++) {
+					travelTimes[offset + i] = data.ttData.getTravelTime(i, i * this.timeSlice);
+				}
+			}
+			row++;
+		}
+		boolean interpolate = this.aggregator.getTravelTimeGetter() instanceof LinearInterpolatingTravelTimeGetter;
+		return new TravelTimeMatrix(this.numSlots, this.timeSlice, interpolate, rows, travelTimes, getLinkTravelTimes());
+	}
+
+	/**
+	 * Replaces the matrix behind {@link #getTravelTimeMatrix()} by one with the current link travel times, typically
+	 * at the end of an iteration.
+	 */
+	public void updateTravelTimeMatrix() {
+		this.travelTimeMatrix = createTravelTimeMatrix();
+	}
+
+	/**
+	 * @return the link travel times of the last {@link #updateTravelTimeMatrix()}, or the current ones if the matrix
+	 * was never updated.  Unlike {@link #getLinkTravelTimes()}, the travel times do not change while events are
+	 * handled, e.g. during the mobsim.
+	 */
+	public TravelTime getTravelTimeMatrix() {
+		return new TravelTime() {
+
+			@Override
+			public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+				TravelTimeMatrix matrix = TravelTimeCalculator.this.travelTimeMatrix;
+				if (matrix == null) {
+					return TravelTimeCalculator.this.getLinkTravelTime(link, time);
+				}
+				return matrix.getLinkTravelTime(link, time, person, vehicle);
+			}
+
+		};
+	}
+
 	public TravelTime getLinkTravelTimes() {
 		return new TravelTime() {
 
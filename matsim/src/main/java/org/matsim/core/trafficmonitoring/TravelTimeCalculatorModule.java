@@ -62,12 +62,17 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 				bind(TravelTimeCalculator.class).annotatedWith(Names.named(mode)).toProvider(new SingleModeTravelTimeCalculatorProvider(mode)).in(Singleton.class);
 
 				// bind the observer to travel time provider (for router):
+				final boolean useTravelTimeMatrix = getConfig().travelTimeCalculator().isUseTravelTimeMatrix();
 				addTravelTimeBinding(mode).toProvider(new Provider<TravelTime>() {
 					@Inject Injector injector;
 					@Override public TravelTime get() {
-						return injector.getInstance(Key.get(TravelTimeCalculator.class, Names.named(mode))).getLinkTravelTimes();
+						TravelTimeCalculator calculator = injector.getInstance(Key.get(TravelTimeCalculator.class, Names.named(mode)));
+						return useTravelTimeMatrix ? calculator.getTravelTimeMatrix() : calculator.getLinkTravelTimes();
 					}
 				});
+				if (useTravelTimeMatrix) {
+					addControlerListenerBinding().toInstance(new TravelTimeMatrixUpdater(Key.get(TravelTimeCalculator.class, Names.named(mode))));
+				}
 			}
 		} else {
 			// (all analyzed modes are measured together, and the same result is returned to each mode)
@@ -80,6 +85,10 @@ public class TravelTimeCalculatorModule extends AbstractModule {
 				for (String mode : CollectionUtils.stringToSet(getConfig().travelTimeCalculator().getAnalyzedModes())) {
 					addTravelTimeBinding(mode).toProvider(ObservedLinkTravelTimes.class);
 				}
+				if (getConfig().travelTimeCalculator().isUseTravelTimeMatrix()) {
+					// (the routers then see the travel times of the last iteration, copied once at its end)
+					addControlerListenerBinding().toInstance(new TravelTimeMatrixUpdater(Key.get(TravelTimeCalculator.class)));
+				}
 			}
 			if (getConfig().travelTimeCalculator().isCalculateLinkToLinkTravelTimes()) {
 				bind(LinkToLinkTravelTime.class).toProvider(ObservedLinkToLinkTravelTimes.class);
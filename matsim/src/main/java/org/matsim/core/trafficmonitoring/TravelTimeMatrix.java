@@ -0,0 +1,83 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TravelTimeMatrix.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.trafficmonitoring;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+/**
+ * An immutable copy of the link travel times of a {@link TravelTimeCalculator}, in one flat array with a row of time
+ * bins per link.  The rows are found by the index of the link ids, so a lookup neither locks nor consolidates
+ * anything, and the matrix can be shared by any number of router threads.
+ * <p></p>
+ * The travel times are the same as the ones of the calculator at the time the matrix was created, including the
+ * linear interpolation if the calculator is configured for it.  Links which were not in the network at that time are
+ * answered by the calculator.
+ *
+ * @see TravelTimeCalculator#createTravelTimeMatrix()
+ */
+public final class TravelTimeMatrix implements TravelTime {
+
+	private final int numSlots;
+	private final int timeSlice;
+	private final double halfBinSize;
+	private final boolean interpolate;
+	/** the row of each link, by the index of its id; -1 for links not in the matrix */
+	private final int[] rows;
+	/** the travel times of all links, row by row */
+	private final double[] travelTimes;
+	private final TravelTime fallback;
+
+	TravelTimeMatrix(final int numSlots, final int timeSlice, final boolean interpolate, final int[] rows,
+			final double[] travelTimes, final TravelTime fallback) {
+		this.numSlots = numSlots;
+		this.timeSlice = timeSlice;
+		this.halfBinSize = ((double) timeSlice) / 2;
+		this.interpolate = interpolate;
+		this.rows = rows;
+		this.travelTimes = travelTimes;
+		this.fallback = fallback;
+	}
+
+	@Override
+	public double getLinkTravelTime(final Link link, final double time, final Person person, final Vehicle vehicle) {
+		int index = link.getId().index();
+		int row = index < this.rows.length ? this.rows[index] : -1;
+		if (row < 0) {
+			return this.fallback.getLinkTravelTime(link, time, person, vehicle);
+		}
+		int offset = row * this.numSlots;
+		int timeSlot = TimeBinUtils.getTimeBinIndex(time, this.timeSlice, this.numSlots);
+		if (!this.interpolate || time <= this.halfBinSize || time >= this.numSlots * this.timeSlice - this.halfBinSize) {
+			return this.travelTimes[offset + timeSlot];
+		}
+
+		// same interpolation between the midpoints of the time bins as in LinearInterpolatingTravelTimeGetter
+		int firstSlot = timeSlot * this.timeSlice + this.halfBinSize > time ? timeSlot - 1 : timeSlot;
+		double firstTravelTime = this.travelTimes[offset + firstSlot];
+		double secondTravelTime = this.travelTimes[offset + firstSlot + 1];
+		double dx = time - (firstSlot * this.timeSlice + this.halfBinSize);
+		return firstTravelTime + (secondTravelTime - firstTravelTime) * dx / this.timeSlice;
+	}
+
+}
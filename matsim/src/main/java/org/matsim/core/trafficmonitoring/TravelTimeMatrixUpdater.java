@@ -0,0 +1,31 @@
+package org.matsim.core.trafficmonitoring;
+
+import org.matsim.core.controler.events.IterationEndsEvent;
+import org.matsim.core.controler.listener.IterationEndsListener;
+
+import com.google.inject.Injector;
+import com.google.inject.Key;
+
+import javax.inject.Inject;
+
+/**
+ * Copies the travel times of a {@link TravelTimeCalculator} into its {@link TravelTimeMatrix} at the end of each
+ * iteration, so the routers of the next iteration use the travel times of this one.
+ */
+class TravelTimeMatrixUpdater implements IterationEndsListener {
+
+	@Inject
+	Injector injector;
+
+	private final Key<TravelTimeCalculator> calculatorKey;
+
+	TravelTimeMatrixUpdater(Key<TravelTimeCalculator> calculatorKey) {
+		this.calculatorKey = calculatorKey;
+	}
+
+	@Override
+	public void notifyIterationEnds(IterationEndsEvent event) {
+		injector.getInstance(calculatorKey).updateTravelTimeMatrix();
+	}
+
+}
@@ -0,0 +1,515 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RaptorTransitRouter.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.priorityqueue.IntMinHeap;
+import org.matsim.facilities.Facility;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+/**
+ * A transit router after the RAPTOR algorithm (Delling, Pajor, Werneck: Round-Based Public Transit Routing, 2012),
+ * working directly on the schedule in {@link RaptorTransitRouterData} instead of a {@link TransitRouterNetwork}.
+ * Each round scans the routes serving the stops reached in the previous round, so round <i>k</i> finds the routes
+ * with <i>k</i> vehicle legs; between the rounds, the transfers from the stops reached by the scanned routes are
+ * relaxed.  There is no priority queue over the route stops and no object is created per stop or departure.
+ * <p></p>
+ * Unlike the original algorithm, the labels are the generalized costs of {@link TransitRouterNetworkTravelTimeAndDisutility},
+ * so the routes are the same as the ones of {@link TransitRouterImpl} in most cases: access and egress walks, waiting,
+ * in-vehicle time and distance, and transfers are weighted by the utilities of the {@link TransitRouterConfig}.
+ * Transfers also respect the minimal transfer times of the schedule.  A stop keeps the label of a round only if it is
+ * cheaper than its labels of all earlier rounds, and no label is kept which is more expensive than the best route
+ * to the destination found so far.
+ * <p></p>
+ * {@link #calcProfile} finds the journeys for a whole window of departure times in one call.
+ * <p></p>
+ * Not thread-safe, as the labels are kept between queries; use one instance per thread.  The data may be shared.
+ *
+ * @see RaptorTransitRouterFactory
+ */
+public class RaptorTransitRouter extends AbstractTransitRouter implements TransitRouter {
+
+	private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+	private final RaptorTransitRouterData data;
+
+	private double inVehicleCostPerSecond;
+	private double waitingCostPerSecond;
+	private double distanceCostPerMeter;
+	private double lineSwitchCost;
+
+	private final List<Round> rounds = new ArrayList<>();
+	private int usedRounds = 0;
+	private final double[] bestBoardCosts;
+	private final double[] bestAlightCosts;
+	private final double[] egressCosts;
+	private final double[] egressTimes;
+	private final int[] egressStops;
+	private int egressStopCount = 0;
+
+	private final int[] routeFirstRouteStops;
+	private final int[] scannedRoutes;
+	private final IntMinHeap walkHeap;
+	private final boolean[] walkSettled;
+
+	/** labels arriving at this time or later are pruned */
+	private double arrivalTimeLimit;
+	private double bestCost;
+	private double bestArrivalTime;
+	private int bestRound;
+	private int bestStop;
+
+	public RaptorTransitRouter(final TransitRouterConfig config, final TransitSchedule schedule) {
+		this(config, new RaptorTransitRouterData(schedule, config),
+				new TransitRouterNetworkTravelTimeAndDisutility(config, new PreparedTransitSchedule(schedule)));
+	}
+
+	RaptorTransitRouter(final TransitRouterConfig config, final RaptorTransitRouterData data, final TransitTravelDisutility travelDisutility) {
+		super(config, travelDisutility);
+		this.data = data;
+
+		int stopCount = data.getStopCount();
+		this.bestBoardCosts = new double[stopCount];
+		this.bestAlightCosts = new double[stopCount];
+		this.egressCosts = new double[stopCount];
+		this.egressTimes = new double[stopCount];
+		Arrays.fill(this.bestBoardCosts, INFINITY);
+		Arrays.fill(this.bestAlightCosts, INFINITY);
+		Arrays.fill(this.egressCosts, INFINITY);
+		this.egressStops = new int[stopCount];
+		this.routeFirstRouteStops = new int[data.routes.length];
+		Arrays.fill(this.routeFirstRouteStops, Integer.MAX_VALUE);
+		this.scannedRoutes = new int[data.routes.length];
+		this.walkHeap = new IntMinHeap(stopCount);
+		this.walkSettled = new boolean[stopCount];
+	}
+
+	@Override
+	public List<Leg> calcRoute(final Facility<?> fromFacility, final Facility<?> toFacility, final double departureTime, final Person person) {
+		Coord fromCoord = fromFacility.getCoord();
+		Coord toCoord = toFacility.getCoord();
+		search(fromCoord, toCoord, departureTime, person, INFINITY);
+		if (this.bestRound < 0) {
+			return createDirectWalkLegList(null, fromCoord, toCoord);
+		}
+		double directWalkCost = getWalkDisutility(person, fromCoord, toCoord);
+		if (directWalkCost * getConfig().getDirectWalkFactor() < this.bestCost) {
+			return createDirectWalkLegList(null, fromCoord, toCoord);
+		}
+		return createLegs(departureTime, fromCoord, toCoord, person);
+	}
+
+	/**
+	 * Finds the journeys by pt for all departure times in a window at once, after the rRAPTOR algorithm: the searches
+	 * run from the latest to the earliest departure time at which a vehicle can be reached from the origin, and each
+	 * search prunes all labels not arriving earlier than the journeys found for later departure times.  So the result
+	 * only contains journeys which are Pareto-optimal with respect to departure and arrival time, and the searches for
+	 * the early departure times, which would find the same journeys with some waiting, end quickly.
+	 * <p></p>
+	 * The journey of each departure time is the cheapest one arriving before all journeys departing later.  Unlike
+	 * {@link #calcRoute}, a journey is never replaced by a direct walk.
+	 *
+	 * @return the journeys, ordered by departure time, with departure times between <code>earliestDepartureTime</code>
+	 * and <code>latestDepartureTime</code>.
+	 */
+	public List<TransitJourney> calcProfile(final Facility<?> fromFacility, final Facility<?> toFacility,
+			final double earliestDepartureTime, final double latestDepartureTime, final Person person) {
+		Coord fromCoord = fromFacility.getCoord();
+		Coord toCoord = toFacility.getCoord();
+		double[] departureTimes = getProfileDepartureTimes(fromCoord, earliestDepartureTime, latestDepartureTime, person);
+		List<TransitJourney> journeys = new ArrayList<>();
+		double latestArrivalTime = INFINITY;
+		for (int i = departureTimes.length - 1; i >= 0; i--) {
+			search(fromCoord, toCoord, departureTimes[i], person, latestArrivalTime);
+			if (this.bestRound >= 0) {
+				journeys.add(new TransitJourney(departureTimes[i], this.bestArrivalTime, this.bestCost,
+						createLegs(departureTimes[i], fromCoord, toCoord, person)));
+				latestArrivalTime = this.bestArrivalTime;
+			}
+		}
+		Collections.reverse(journeys);
+		return journeys;
+	}
+
+	/**
+	 * @return the distinct times, sorted, at which one has to leave <code>coord</code> to reach a departure at one of
+	 * the access stops just in time.
+	 */
+	private double[] getProfileDepartureTimes(final Coord coord, final double earliestDepartureTime,
+			final double latestDepartureTime, final Person person) {
+		RaptorTransitRouterData d = this.data;
+		double[] times = new double[16];
+		int count = 0;
+		for (TransitStopFacility stop : d.getNearestStops(coord, getConfig())) {
+			int s = d.getStopIndex(stop);
+			double walkTime = getWalkTime(person, coord, stop.getCoord());
+			for (int j = d.stopRouteStopsStart[s]; j < d.stopRouteStopsStart[s + 1]; j++) {
+				int routeStop = d.stopRouteStops[j];
+				if (d.isLastStopOfRoute(routeStop)) {
+					continue;
+				}
+				int r = d.routeStopRoute[routeStop];
+				for (int k = d.departuresStart[r]; k < d.departuresStart[r + 1]; k++) {
+					double time = d.departures[k] + d.departureOffsets[routeStop] - walkTime;
+					// (the departures of the following days, for windows after midnight)
+					for (; time <= latestDepartureTime; time += TransitRouterNetworkTravelTimeAndDisutility.MIDNIGHT) {
+						if (time >= earliestDepartureTime) {
+							if (count == times.length) {
+								times = Arrays.copyOf(times, 2 * count);
+							}
+							times[count++] = time;
+						}
+					}
+				}
+			}
+		}
+		Arrays.sort(times, 0, count);
+		int distinct = 0;
+		for (int i = 0; i < count; i++) {
+			if (distinct == 0 || times[i] != times[distinct - 1]) {
+				times[distinct++] = times[i];
+			}
+		}
+		return Arrays.copyOf(times, distinct);
+	}
+
+	/**
+	 * Runs the rounds for one departure time, and stores the best route found in <code>bestCost</code>,
+	 * <code>bestRound</code> and <code>bestStop</code>; <code>bestRound</code> is -1 if there is no route.
+	 */
+	private void search(final Coord fromCoord, final Coord toCoord, final double departureTime, final Person person,
+			final double arrivalTimeLimit) {
+		reset();
+		// (read at every query, like TransitRouterNetworkTravelTimeAndDisutility does)
+		TransitRouterConfig config = getConfig();
+		this.inVehicleCostPerSecond = -config.getMarginalUtilityOfTravelTimePt_utl_s();
+		this.waitingCostPerSecond = -config.getMarginalUtilityOfWaitingPt_utl_s();
+		this.distanceCostPerMeter = -config.getMarginalUtilityOfTravelDistancePt_utl_m();
+		this.lineSwitchCost = -config.getUtilityOfLineSwitch_utl();
+		this.arrivalTimeLimit = arrivalTimeLimit;
+		this.bestCost = INFINITY;
+		this.bestArrivalTime = INFINITY;
+		this.bestRound = -1;
+		this.bestStop = -1;
+
+		// round 0: the access walks
+		Round start = getRound(0);
+		for (TransitStopFacility stop : this.data.getNearestStops(fromCoord, config)) {
+			int s = this.data.getStopIndex(stop);
+			setBoardLabel(start, s, getWalkDisutility(person, fromCoord, stop.getCoord()),
+					departureTime + getWalkTime(person, fromCoord, stop.getCoord()), -1);
+		}
+		for (TransitStopFacility stop : this.data.getNearestStops(toCoord, config)) {
+			int s = this.data.getStopIndex(stop);
+			this.egressCosts[s] = getWalkDisutility(person, stop.getCoord(), toCoord);
+			this.egressTimes[s] = getWalkTime(person, stop.getCoord(), toCoord);
+			this.egressStops[this.egressStopCount++] = s;
+		}
+
+		for (int k = 1; getRound(k - 1).boardStopCount > 0; k++) {
+			Round previous = getRound(k - 1);
+			Round round = getRound(k);
+			scanRoutes(previous, round);
+			for (int i = 0; i < round.alightStopCount; i++) {
+				int s = round.alightStops[i];
+				double cost = round.alightCosts[s] + this.egressCosts[s];
+				double arrivalTime = round.alightTimes[s] + this.egressTimes[s];
+				if (cost < this.bestCost && arrivalTime < this.arrivalTimeLimit) {
+					this.bestCost = cost;
+					this.bestArrivalTime = arrivalTime;
+					this.bestRound = k;
+					this.bestStop = s;
+				}
+			}
+			relaxTransfers(round);
+		}
+	}
+
+	private List<Leg> createLegs(final double departureTime, final Coord fromCoord, final Coord toCoord, final Person person) {
+		TransitPassengerRoute passengerRoute = new TransitPassengerRoute(this.bestCost, createRouteSegments(this.bestRound, this.bestStop));
+		return convertPassengerRouteToLegList(departureTime, passengerRoute, fromCoord, toCoord, person);
+	}
+
+	/**
+	 * Scans all routes serving a stop with a board label of the previous round, from the first such stop on.  Along
+	 * each route, the trip to ride is the one with the lowest cost for the remaining stops; as all trips of a route
+	 * have the same offsets, this is the trip with the lowest cost when leaving the current stop.
+	 */
+	private void scanRoutes(final Round previous, final Round round) {
+		RaptorTransitRouterData d = this.data;
+		int routeCount = 0;
+		for (int i = 0; i < previous.boardStopCount; i++) {
+			int s = previous.boardStops[i];
+			for (int j = d.stopRouteStopsStart[s]; j < d.stopRouteStopsStart[s + 1]; j++) {
+				int routeStop = d.stopRouteStops[j];
+				if (d.isLastStopOfRoute(routeStop)) {
+					continue;
+				}
+				int r = d.routeStopRoute[routeStop];
+				if (this.routeFirstRouteStops[r] == Integer.MAX_VALUE) {
+					this.scannedRoutes[routeCount++] = r;
+				}
+				if (routeStop < this.routeFirstRouteStops[r]) {
+					this.routeFirstRouteStops[r] = routeStop;
+				}
+			}
+		}
+
+		for (int i = 0; i < routeCount; i++) {
+			int r = this.scannedRoutes[i];
+			int end = d.routeStopsStart[r + 1];
+			boolean onTrip = false;
+			int tripBoardRouteStop = -1;
+			double tripStart = 0.0;
+			// the cost at each following route stop is tripCost + the cost of its arrival offset and distance
+			double tripCost = INFINITY;
+			for (int routeStop = this.routeFirstRouteStops[r]; routeStop < end; routeStop++) {
+				int s = d.routeStopStop[routeStop];
+				if (onTrip) {
+					double cost = tripCost + d.arrivalOffsets[routeStop] * this.inVehicleCostPerSecond
+							+ d.distances[routeStop] * this.distanceCostPerMeter;
+					double time = tripStart + d.arrivalOffsets[routeStop];
+					if (cost < this.bestAlightCosts[s] && cost < this.bestCost && time < this.arrivalTimeLimit) {
+						setAlightLabel(round, s, cost, time, tripBoardRouteStop);
+					}
+				}
+				double boardCost = previous.boardCosts[s];
+				if (boardCost < INFINITY && routeStop + 1 < end) {
+					double time = previous.boardTimes[s];
+					double start = d.getNextDepartureTime(routeStop, time) - d.departureOffsets[routeStop];
+					// as in TransitRouterNetworkTravelTimeAndDisutility, the vehicle's dwell time counts as in-vehicle time
+					double waitTime = Math.max(0.0, start + d.arrivalOffsets[routeStop] - time);
+					double cost = boardCost + waitTime * this.waitingCostPerSecond
+							+ (start - time - waitTime) * this.inVehicleCostPerSecond
+							- d.distances[routeStop] * this.distanceCostPerMeter;
+					if (!onTrip || cost < tripCost || (cost == tripCost && start < tripStart)) {
+						onTrip = true;
+						tripBoardRouteStop = routeStop;
+						tripStart = start;
+						tripCost = cost;
+					}
+				}
+			}
+			this.routeFirstRouteStops[r] = Integer.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * Relaxes the transfers from the stops reached by a vehicle in this round, and from there the walks to further
+	 * stops in order of their costs.
+	 */
+	private void relaxTransfers(final Round round) {
+		RaptorTransitRouterData d = this.data;
+		for (int i = 0; i < round.alightStopCount; i++) {
+			int s = round.alightStops[i];
+			double cost = round.alightCosts[s];
+			double time = round.alightTimes[s];
+			for (int j = d.transfersStart[s]; j < d.transfersStart[s + 1]; j++) {
+				int toStop = d.transferStops[j];
+				double toCost = cost + getTransferCost(j);
+				double toTime = time + d.transferTimes[j];
+				if (toCost < this.bestBoardCosts[toStop] && toCost < this.bestCost && toTime < this.arrivalTimeLimit) {
+					setBoardLabel(round, toStop, toCost, toTime, s);
+					this.walkHeap.insertOrDecrease(toStop, toCost);
+				}
+			}
+		}
+		while (!this.walkHeap.isEmpty()) {
+			int s = this.walkHeap.poll();
+			this.walkSettled[s] = true;
+			double cost = round.boardCosts[s];
+			double time = round.boardTimes[s];
+			for (int j = d.transfersStart[s]; j < d.transfersStart[s + 1]; j++) {
+				int toStop = d.transferStops[j];
+				double toCost = cost + getTransferCost(j);
+				double toTime = time + d.transferTimes[j];
+				if (!this.walkSettled[toStop] && toCost < this.bestBoardCosts[toStop] && toCost < this.bestCost
+						&& toTime < this.arrivalTimeLimit) {
+					setBoardLabel(round, toStop, toCost, toTime, -2 - s);
+					this.walkHeap.insertOrDecrease(toStop, toCost);
+				}
+			}
+		}
+		for (int i = 0; i < round.boardStopCount; i++) {
+			this.walkSettled[round.boardStops[i]] = false;
+		}
+	}
+
+	/**
+	 * A positive utility of line switch may make a transfer cheaper than nothing; such transfers are free, as otherwise
+	 * a route could be improved forever by getting off and on again.
+	 */
+	private double getTransferCost(final int transfer) {
+		return Math.max(0.0, this.data.transferCosts[transfer] + this.lineSwitchCost);
+	}
+
+	/**
+	 * Follows the labels back from the alight label of <code>stop</code> in <code>round</code>.  The travel time of a
+	 * pt segment starts where the walk before it ends in {@link #convertPassengerRouteToLegList}, so it includes the
+	 * waiting time and any part of the transfer time which is not walked, e.g. of a minimal transfer time.
+	 */
+	private List<RouteSegment> createRouteSegments(final int round, final int stop) {
+		RaptorTransitRouterData d = this.data;
+		List<int[]> rides = new ArrayList<>();
+		int k = round;
+		int s = stop;
+		while (true) {
+			int boardRouteStop = getRound(k).alightBoardRouteStops[s];
+			rides.add(0, new int[] {k, boardRouteStop, s});
+			Round previous = getRound(k - 1);
+			int from = previous.boardFrom[d.routeStopStop[boardRouteStop]];
+			while (from <= -2) {
+				from = previous.boardFrom[-2 - from];
+			}
+			if (from == -1) {
+				break;
+			}
+			k--;
+			s = from;
+		}
+
+		List<RouteSegment> segments = new ArrayList<>();
+		int[] first = rides.get(0);
+		double previousEnd = getRound(0).boardTimes[d.routeStopStop[first[1]]];
+		for (int i = 0; i < rides.size(); i++) {
+			int[] ride = rides.get(i);
+			int r = d.routeStopRoute[ride[1]];
+			TransitStopFacility boardStop = d.stops[d.routeStopStop[ride[1]]];
+			TransitStopFacility alightStop = d.stops[ride[2]];
+			double alightTime = getRound(ride[0]).alightTimes[ride[2]];
+			segments.add(new RouteSegment(boardStop, alightStop, alightTime - previousEnd,
+					d.routeLines[r].getId(), d.routes[r].getId()));
+			previousEnd = alightTime;
+			if (i + 1 < rides.size()) {
+				TransitStopFacility nextBoardStop = d.stops[d.routeStopStop[rides.get(i + 1)[1]]];
+				double transferTime = 0.0;
+				if (nextBoardStop != alightStop) {
+					// (same stop transfers are not turned into legs)
+					transferTime = getTransferTime(null, alightStop.getCoord(), nextBoardStop.getCoord());
+				}
+				segments.add(new RouteSegment(alightStop, nextBoardStop, transferTime, null, null));
+				previousEnd += transferTime;
+			}
+		}
+		return segments;
+	}
+
+	private void setBoardLabel(final Round round, final int stop, final double cost, final double time, final int from) {
+		if (round.boardCosts[stop] == INFINITY) {
+			round.boardStops[round.boardStopCount++] = stop;
+		}
+		round.boardCosts[stop] = cost;
+		round.boardTimes[stop] = time;
+		round.boardFrom[stop] = from;
+		this.bestBoardCosts[stop] = cost;
+	}
+
+	private void setAlightLabel(final Round round, final int stop, final double cost, final double time, final int boardRouteStop) {
+		if (round.alightCosts[stop] == INFINITY) {
+			round.alightStops[round.alightStopCount++] = stop;
+		}
+		round.alightCosts[stop] = cost;
+		round.alightTimes[stop] = time;
+		round.alightBoardRouteStops[stop] = boardRouteStop;
+		this.bestAlightCosts[stop] = cost;
+	}
+
+	private Round getRound(final int k) {
+		if (k == this.rounds.size()) {
+			this.rounds.add(new Round(this.data.getStopCount()));
+		}
+		if (k >= this.usedRounds) {
+			this.usedRounds = k + 1;
+		}
+		return this.rounds.get(k);
+	}
+
+	/**
+	 * Clears the labels of the previous query; only the stops which were labelled are touched.
+	 */
+	private void reset() {
+		for (int k = 0; k < this.usedRounds; k++) {
+			Round round = this.rounds.get(k);
+			for (int i = 0; i < round.boardStopCount; i++) {
+				int s = round.boardStops[i];
+				round.boardCosts[s] = INFINITY;
+				this.bestBoardCosts[s] = INFINITY;
+			}
+			for (int i = 0; i < round.alightStopCount; i++) {
+				int s = round.alightStops[i];
+				round.alightCosts[s] = INFINITY;
+				this.bestAlightCosts[s] = INFINITY;
+			}
+			round.boardStopCount = 0;
+			round.alightStopCount = 0;
+		}
+		this.usedRounds = 0;
+		for (int i = 0; i < this.egressStopCount; i++) {
+			this.egressCosts[this.egressStops[i]] = INFINITY;
+		}
+		this.egressStopCount = 0;
+	}
+
+	/**
+	 * The labels of one round.  A board label is the arrival at a stop on foot, ready to board a vehicle; an alight
+	 * label is the arrival at a stop by vehicle.
+	 */
+	private static final class Round {
+		final double[] boardCosts;
+		final double[] boardTimes;
+		/**
+		 * the stop of the alight label of the same round which the transfer to this stop starts from, or
+		 * <code>-2 - s</code> for a walk continuing from the board label of stop <code>s</code> of the same round, or
+		 * -1 for an access walk
+		 */
+		final int[] boardFrom;
+		final int[] boardStops;
+		int boardStopCount = 0;
+
+		final double[] alightCosts;
+		final double[] alightTimes;
+		final int[] alightBoardRouteStops;
+		final int[] alightStops;
+		int alightStopCount = 0;
+
+		Round(final int stopCount) {
+			this.boardCosts = new double[stopCount];
+			this.boardTimes = new double[stopCount];
+			this.boardFrom = new int[stopCount];
+			this.boardStops = new int[stopCount];
+			this.alightCosts = new double[stopCount];
+			this.alightTimes = new double[stopCount];
+			this.alightBoardRouteStops = new int[stopCount];
+			this.alightStops = new int[stopCount];
+			Arrays.fill(this.boardCosts, INFINITY);
+			Arrays.fill(this.alightCosts, INFINITY);
+		}
+	}
+
+}
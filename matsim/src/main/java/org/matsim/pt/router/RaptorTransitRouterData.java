@@ -0,0 +1,326 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RaptorTransitRouterData.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.core.utils.collections.QuadTree;
+import org.matsim.core.utils.geometry.CoordUtils;
+import org.matsim.core.utils.misc.Time;
+import org.matsim.pt.transitSchedule.api.Departure;
+import org.matsim.pt.transitSchedule.api.MinimalTransferTimes;
+import org.matsim.pt.transitSchedule.api.TransitLine;
+import org.matsim.pt.transitSchedule.api.TransitRoute;
+import org.matsim.pt.transitSchedule.api.TransitRouteStop;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+import org.matsim.pt.transitSchedule.api.TransitStopFacility;
+
+/**
+ * The transit schedule in flat arrays for the {@link RaptorTransitRouter}: the stops and the routes serving them, the
+ * stops of each route with their offsets, the sorted departures of each route, and the transfers between stops with
+ * their travel times and costs.  Only stops served by at least one route with departures are included.
+ * <p></p>
+ * The transfers connect each stop with itself and with all stops within the beeline walk connection distance, plus the
+ * pairs of stops which have a {@link MinimalTransferTimes minimal transfer time}.  The time of a transfer is the walk
+ * time plus the additional transfer time, or the minimal transfer time if that is longer; its cost is computed as in
+ * {@link TransitRouterNetworkTravelTimeAndDisutility}, with the time exceeding the walk time weighted as waiting.  The
+ * utility of line switch is not included, the router adds it.
+ * <p></p>
+ * Immutable, so it can be shared by all routers for the same schedule and configuration.
+ */
+final class RaptorTransitRouterData {
+
+	private static final Logger log = Logger.getLogger(RaptorTransitRouterData.class);
+
+	final TransitStopFacility[] stops;
+	private final Map<TransitStopFacility, Integer> stopIndices;
+	private final QuadTree<TransitStopFacility> stopsQuadTree;
+
+	/** the route stops of each stop, as indices into the route stop arrays */
+	final int[] stopRouteStopsStart;
+	final int[] stopRouteStops;
+
+	final TransitLine[] routeLines;
+	final TransitRoute[] routes;
+	/** the route stops of route <code>r</code> are <code>routeStopsStart[r]</code> to <code>routeStopsStart[r+1]-1</code> */
+	final int[] routeStopsStart;
+	/** the departures at the first stop of route <code>r</code>, sorted, are in the same range of <code>departures</code> */
+	final int[] departuresStart;
+	final double[] departures;
+
+	final int[] routeStopRoute;
+	final int[] routeStopStop;
+	final double[] arrivalOffsets;
+	final double[] departureOffsets;
+	/** the beeline distance along the route from its first stop */
+	final double[] distances;
+
+	/** the transfers from stop <code>s</code> are <code>transfersStart[s]</code> to <code>transfersStart[s+1]-1</code>; their costs exclude the line switch */
+	final int[] transfersStart;
+	final int[] transferStops;
+	final double[] transferTimes;
+	final double[] transferCosts;
+
+	RaptorTransitRouterData(final TransitSchedule schedule, final TransitRouterConfig config) {
+		// routes with departures and their stops
+		List<TransitLine> lines = new ArrayList<>();
+		List<TransitRoute> routeList = new ArrayList<>();
+		int routeStopCount = 0;
+		int departureCount = 0;
+		for (TransitLine line : schedule.getTransitLines().values()) {
+			for (TransitRoute route : line.getRoutes().values()) {
+				if (route.getDepartures().isEmpty() || route.getStops().size() < 2) {
+					continue;
+				}
+				lines.add(line);
+				routeList.add(route);
+				routeStopCount += route.getStops().size();
+				departureCount += route.getDepartures().size();
+			}
+		}
+
+		this.stopIndices = new IdentityHashMap<>();
+		List<TransitStopFacility> stopList = new ArrayList<>();
+		this.routeLines = lines.toArray(new TransitLine[lines.size()]);
+		this.routes = routeList.toArray(new TransitRoute[routeList.size()]);
+		this.routeStopsStart = new int[this.routes.length + 1];
+		this.departuresStart = new int[this.routes.length + 1];
+		this.departures = new double[departureCount];
+		this.routeStopRoute = new int[routeStopCount];
+		this.routeStopStop = new int[routeStopCount];
+		this.arrivalOffsets = new double[routeStopCount];
+		this.departureOffsets = new double[routeStopCount];
+		this.distances = new double[routeStopCount];
+		int rs = 0;
+		int d = 0;
+		for (int r = 0; r < this.routes.length; r++) {
+			this.routeStopsStart[r] = rs;
+			Coord prevCoord = null;
+			double distance = 0.0;
+			for (TransitRouteStop routeStop : this.routes[r].getStops()) {
+				TransitStopFacility stop = routeStop.getStopFacility();
+				Integer index = this.stopIndices.get(stop);
+				if (index == null) {
+					index = stopList.size();
+					this.stopIndices.put(stop, index);
+					stopList.add(stop);
+				}
+				if (prevCoord != null) {
+					distance += CoordUtils.calcEuclideanDistance(prevCoord, stop.getCoord());
+				}
+				prevCoord = stop.getCoord();
+				double arrivalOffset = routeStop.getArrivalOffset();
+				double departureOffset = routeStop.getDepartureOffset();
+				this.routeStopRoute[rs] = r;
+				this.routeStopStop[rs] = index;
+				this.arrivalOffsets[rs] = !Time.isUndefinedTime(arrivalOffset) ? arrivalOffset : departureOffset;
+				this.departureOffsets[rs] = !Time.isUndefinedTime(departureOffset) ? departureOffset : arrivalOffset;
+				this.distances[rs] = distance;
+				rs++;
+			}
+			this.departuresStart[r] = d;
+			for (Departure departure : this.routes[r].getDepartures().values()) {
+				this.departures[d++] = departure.getDepartureTime();
+			}
+			Arrays.sort(this.departures, this.departuresStart[r], d);
+		}
+		this.routeStopsStart[this.routes.length] = rs;
+		this.departuresStart[this.routes.length] = d;
+		this.stops = stopList.toArray(new TransitStopFacility[stopList.size()]);
+
+		// route stops by stop
+		this.stopRouteStopsStart = new int[this.stops.length + 1];
+		for (int i = 0; i < routeStopCount; i++) {
+			this.stopRouteStopsStart[this.routeStopStop[i] + 1]++;
+		}
+		for (int s = 0; s < this.stops.length; s++) {
+			this.stopRouteStopsStart[s + 1] += this.stopRouteStopsStart[s];
+		}
+		this.stopRouteStops = new int[routeStopCount];
+		int[] fill = Arrays.copyOf(this.stopRouteStopsStart, this.stops.length);
+		for (int i = 0; i < routeStopCount; i++) {
+			this.stopRouteStops[fill[this.routeStopStop[i]]++] = i;
+		}
+
+		this.stopsQuadTree = buildQuadTree(this.stops);
+
+		// transfers
+		double maxDistance = config.getBeelineWalkConnectionDistance();
+		Map<Integer, Map<Integer, Double>> minimalTransferTimes = getMinimalTransferTimes(schedule.getMinimalTransferTimes());
+		this.transfersStart = new int[this.stops.length + 1];
+		List<int[]> transferPairs = new ArrayList<>();
+		for (int s = 0; s < this.stops.length; s++) {
+			TransitStopFacility stop = this.stops[s];
+			Map<Integer, Double> stopTransferTimes = minimalTransferTimes.get(s);
+			List<Integer> toStops = new ArrayList<>();
+			toStops.add(s);
+			for (TransitStopFacility toStop : this.stopsQuadTree.getDisk(stop.getCoord().getX(), stop.getCoord().getY(), maxDistance)) {
+				int t = this.stopIndices.get(toStop);
+				if (t != s) {
+					toStops.add(t);
+				}
+			}
+			if (stopTransferTimes != null) {
+				for (Integer t : stopTransferTimes.keySet()) {
+					if (!toStops.contains(t)) {
+						toStops.add(t);
+					}
+				}
+			}
+			for (int t : toStops) {
+				transferPairs.add(new int[] {s, t});
+			}
+			this.transfersStart[s + 1] = transferPairs.size();
+		}
+		this.transferStops = new int[transferPairs.size()];
+		this.transferTimes = new double[transferPairs.size()];
+		this.transferCosts = new double[transferPairs.size()];
+		for (int i = 0; i < transferPairs.size(); i++) {
+			int s = transferPairs.get(i)[0];
+			int t = transferPairs.get(i)[1];
+			double walkDistance = CoordUtils.calcEuclideanDistance(this.stops[s].getCoord(), this.stops[t].getCoord());
+			double walkTime = walkDistance / config.getBeelineWalkSpeed();
+			double transferTime = walkTime + config.getAdditionalTransferTime();
+			Map<Integer, Double> stopTransferTimes = minimalTransferTimes.get(s);
+			Double minimalTransferTime = stopTransferTimes == null ? null : stopTransferTimes.get(t);
+			if (minimalTransferTime != null && minimalTransferTime > transferTime) {
+				transferTime = minimalTransferTime;
+			}
+			this.transferStops[i] = t;
+			this.transferTimes[i] = transferTime;
+			this.transferCosts[i] = - walkTime * config.getMarginalUtilityOfTravelTimeWalk_utl_s()
+					- walkDistance * config.getMarginalUtilityOfTravelDistanceWalk_utl_m()
+					- (transferTime - walkTime) * config.getMarginalUtilityOfWaitingPt_utl_s();
+		}
+
+		log.info("raptor transit router data: " + this.stops.length + " stops, " + this.routes.length + " routes, "
+				+ routeStopCount + " route stops, " + departureCount + " departures, " + this.transferStops.length + " transfers.");
+	}
+
+	private static QuadTree<TransitStopFacility> buildQuadTree(final TransitStopFacility[] stops) {
+		if (stops.length == 0) {
+			return null;
+		}
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (TransitStopFacility stop : stops) {
+			minX = Math.min(minX, stop.getCoord().getX());
+			minY = Math.min(minY, stop.getCoord().getY());
+			maxX = Math.max(maxX, stop.getCoord().getX());
+			maxY = Math.max(maxY, stop.getCoord().getY());
+		}
+		QuadTree<TransitStopFacility> quadTree = new QuadTree<>(minX, minY, maxX, maxY);
+		for (TransitStopFacility stop : stops) {
+			quadTree.put(stop.getCoord().getX(), stop.getCoord().getY(), stop);
+		}
+		return quadTree;
+	}
+
+	private Map<Integer, Map<Integer, Double>> getMinimalTransferTimes(final MinimalTransferTimes minimalTransferTimes) {
+		Map<Id<TransitStopFacility>, Integer> indicesById = new HashMap<>();
+		for (int s = 0; s < this.stops.length; s++) {
+			indicesById.put(this.stops[s].getId(), s);
+		}
+		Map<Integer, Map<Integer, Double>> result = new HashMap<>();
+		MinimalTransferTimes.MinimalTransferTimesIterator iter = minimalTransferTimes.iterator();
+		while (iter.hasNext()) {
+			iter.next();
+			Integer from = indicesById.get(iter.getFromStopId());
+			Integer to = indicesById.get(iter.getToStopId());
+			if (from != null && to != null) {
+				result.computeIfAbsent(from, k -> new HashMap<>()).put(to, iter.getSeconds());
+			}
+		}
+		return result;
+	}
+
+	int getStopCount() {
+		return this.stops.length;
+	}
+
+	int getStopIndex(final TransitStopFacility stop) {
+		return this.stopIndices.get(stop);
+	}
+
+	boolean isLastStopOfRoute(final int routeStop) {
+		return routeStop + 1 == this.routeStopsStart[this.routeStopRoute[routeStop] + 1];
+	}
+
+	/**
+	 * Finds the stops around a coordinate as {@link TransitRouterImpl} does: all stops within the search radius, or if
+	 * there are fewer than two, all stops within the distance of the nearest one plus the extension radius.
+	 */
+	Collection<TransitStopFacility> getNearestStops(final Coord coord, final TransitRouterConfig config) {
+		if (this.stopsQuadTree == null) {
+			return new ArrayList<>();
+		}
+		Collection<TransitStopFacility> nearestStops = this.stopsQuadTree.getDisk(coord.getX(), coord.getY(), config.getSearchRadius());
+		if (nearestStops.size() < 2) {
+			TransitStopFacility nearestStop = this.stopsQuadTree.getClosest(coord.getX(), coord.getY());
+			double distance = CoordUtils.calcEuclideanDistance(coord, nearestStop.getCoord());
+			nearestStops = this.stopsQuadTree.getDisk(coord.getX(), coord.getY(), distance + config.getExtensionRadius());
+		}
+		return nearestStops;
+	}
+
+	/**
+	 * @return the first departure of the route of <code>routeStop</code> at its stop not before <code>time</code>, as
+	 * in {@link PreparedTransitSchedule#getNextDepartureTime}: if there is no later departure on the same day, the
+	 * first one of the next day.
+	 */
+	double getNextDepartureTime(final int routeStop, final double time) {
+		int route = this.routeStopRoute[routeStop];
+		double offset = this.departureOffsets[routeStop];
+		double earliestDepartureTimeAtTerminus = time - offset;
+		if (earliestDepartureTimeAtTerminus >= TransitRouterNetworkTravelTimeAndDisutility.MIDNIGHT) {
+			earliestDepartureTimeAtTerminus = earliestDepartureTimeAtTerminus % TransitRouterNetworkTravelTimeAndDisutility.MIDNIGHT;
+		}
+		if (earliestDepartureTimeAtTerminus < 0) {
+			earliestDepartureTimeAtTerminus += TransitRouterNetworkTravelTimeAndDisutility.MIDNIGHT;
+		}
+		int from = this.departuresStart[route];
+		int to = this.departuresStart[route + 1];
+		int pos = Arrays.binarySearch(this.departures, from, to, earliestDepartureTimeAtTerminus);
+		if (pos < 0) {
+			pos = -(pos + 1);
+		}
+		if (pos >= to) {
+			pos = from;
+		}
+		double departureTime = this.departures[pos] + offset;
+		while (departureTime < time) {
+			departureTime += TransitRouterNetworkTravelTimeAndDisutility.MIDNIGHT;
+		}
+		return departureTime;
+	}
+
+}
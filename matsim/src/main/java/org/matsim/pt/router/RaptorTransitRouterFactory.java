@@ -0,0 +1,76 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * RaptorTransitRouterFactory.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.pt.transitSchedule.api.TransitSchedule;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+/**
+ * Creates {@link RaptorTransitRouter}s which share one {@link RaptorTransitRouterData} for the schedule.  The data is
+ * created with the first router and again after the schedule has changed.
+ */
+@Singleton
+public class RaptorTransitRouterFactory implements Provider<TransitRouter> {
+
+	private final TransitRouterConfig config;
+	private final TransitSchedule transitSchedule;
+	private RaptorTransitRouterData data;
+	private PreparedTransitSchedule preparedTransitSchedule;
+
+	@Inject
+	RaptorTransitRouterFactory(final TransitSchedule schedule, final EventsManager events, final Config config) {
+		this(schedule, new TransitRouterConfig(
+				config.planCalcScore(),
+				config.plansCalcRoute(),
+				config.transitRouter(),
+				config.vspExperimental()));
+		events.addHandler((TransitScheduleChangedEventHandler) event -> {
+			synchronized (this) {
+				data = null;
+				preparedTransitSchedule = null;
+			}
+		});
+	}
+
+	public RaptorTransitRouterFactory(final TransitSchedule schedule, final TransitRouterConfig config) {
+		this.config = config;
+		this.transitSchedule = schedule;
+	}
+
+	@Override
+	public synchronized TransitRouter get() {
+		if (this.data == null) {
+			this.data = new RaptorTransitRouterData(this.transitSchedule, this.config);
+		}
+		if (this.preparedTransitSchedule == null) {
+			this.preparedTransitSchedule = new PreparedTransitSchedule(this.transitSchedule);
+		}
+
+		TransitRouterNetworkTravelTimeAndDisutility ttCalculator = new TransitRouterNetworkTravelTimeAndDisutility(this.config, this.preparedTransitSchedule);
+		return new RaptorTransitRouter(this.config, this.data, ttCalculator);
+	}
+
+}
@@ -0,0 +1,78 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * TransitJourney.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.pt.router;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.matsim.api.core.v01.population.Leg;
+
+/**
+ * One journey of a profile query, with the legs {@link TransitRouter#calcRoute} would return for its departure time.
+ *
+ * @see RaptorTransitRouter#calcProfile
+ */
+public final class TransitJourney {
+
+	private final double departureTime;
+	private final double arrivalTime;
+	private final double cost;
+	private final List<Leg> legs;
+
+	TransitJourney(final double departureTime, final double arrivalTime, final double cost, final List<Leg> legs) {
+		this.departureTime = departureTime;
+		this.arrivalTime = arrivalTime;
+		this.cost = cost;
+		this.legs = Collections.unmodifiableList(legs);
+	}
+
+	/**
+	 * @return the time at which the journey leaves the origin, i.e. the start of the access walk.
+	 */
+	public double getDepartureTime() {
+		return this.departureTime;
+	}
+
+	/**
+	 * @return the time at which the journey reaches the destination, i.e. the end of the egress walk.
+	 */
+	public double getArrivalTime() {
+		return this.arrivalTime;
+	}
+
+	/**
+	 * @return the generalized cost of the journey, as in {@link TransitRouterNetworkTravelTimeAndDisutility}.
+	 */
+	public double getCost() {
+		return this.cost;
+	}
+
+	public List<Leg> getLegs() {
+		return this.legs;
+	}
+
+	@Override
+	public String toString() {
+		return "[TransitJourney departure=" + this.departureTime + " arrival=" + this.arrivalTime + " cost=" + this.cost
+				+ " legs=" + this.legs.size() + "]";
+	}
+
+}
@@ -30,12 +30,13 @@ import org.matsim.core.mobsim.framework.listeners.MobsimAfterSimStepListener;
 import org.matsim.core.mobsim.framework.listeners.MobsimBeforeCleanupListener;
 import org.matsim.core.mobsim.framework.listeners.MobsimInitializedListener;
 import org.matsim.core.mobsim.qsim.interfaces.Netsim;
+import org.matsim.core.mobsim.qsim.interfaces.NextEventTimeAware;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-public class SnapshotWriterManager implements MobsimBeforeCleanupListener, MobsimAfterSimStepListener, MobsimInitializedListener {
+public class SnapshotWriterManager implements MobsimBeforeCleanupListener, MobsimAfterSimStepListener, MobsimInitializedListener, NextEventTimeAware {
 	
 	private final List<SnapshotWriter> snapshotWriters = new ArrayList<SnapshotWriter>();
 	
@@ -90,6 +91,14 @@ public class SnapshotWriterManager implements MobsimBeforeCleanupListener, Mobsi
 		}
 	}
 	
+	/**
+	 * @return the time of the next snapshot, so that it is not skipped together with idle time steps.
+	 */
+	@Override
+	public double getNextEventTime() {
+		return this.snapshotWriters.isEmpty() ? Double.POSITIVE_INFINITY : this.snapshotTime;
+	}
+
 	private void doSnapshot(final double time, VisMobsim visMobsim) {
 		if (!this.snapshotWriters.isEmpty()) {
 			Collection<AgentSnapshotInfo> positions = new ArrayList<AgentSnapshotInfo>();
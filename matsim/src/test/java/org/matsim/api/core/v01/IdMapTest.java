@@ -0,0 +1,157 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * IdMapTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.api.core.v01;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IdMapTest {
+
+	private static class TypeA {}
+	private static class TypeB {}
+
+	@Test
+	public void testIndexIsDensePerType() {
+		int firstA = Id.getNumberOfIds(TypeA.class);
+		Id<TypeA> a1 = Id.create("index-1", TypeA.class);
+		Id<TypeA> a2 = Id.create("index-2", TypeA.class);
+		Id<TypeB> b1 = Id.create("index-1", TypeB.class);
+
+		Assert.assertEquals(firstA, a1.index());
+		Assert.assertEquals(firstA + 1, a2.index());
+		Assert.assertEquals(firstA, Id.create("index-1", TypeA.class).index());
+		Assert.assertEquals(firstA + 2, Id.getNumberOfIds(TypeA.class));
+		Assert.assertSame(a2, Id.get(a2.index(), TypeA.class));
+		Assert.assertSame(b1, Id.get(b1.index(), TypeB.class));
+	}
+
+	@Test
+	public void testMap() {
+		Id<TypeA> a1 = Id.create("map-1", TypeA.class);
+		Id<TypeA> a2 = Id.create("map-2", TypeA.class);
+		Id<TypeA> a3 = Id.create("map-3", TypeA.class);
+
+		IdMap<TypeA, String> map = new IdMap<>(TypeA.class, 1);
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertNull(map.put(a3, "three"));
+		Assert.assertNull(map.put(a1, "one"));
+		Assert.assertEquals("one", map.put(a1, "uno"));
+		Assert.assertNull(map.put(a2, null));
+
+		Assert.assertEquals(3, map.size());
+		Assert.assertEquals("uno", map.get(a1));
+		Assert.assertNull(map.get(a2));
+		Assert.assertTrue(map.containsKey(a2));
+		Assert.assertFalse(map.containsKey(Id.create("map-1", TypeB.class)));
+		Assert.assertFalse(map.containsKey("map-1"));
+
+		// iteration is in the order of the indices
+		Iterator<Map.Entry<Id<TypeA>, String>> iter = map.entrySet().iterator();
+		Assert.assertSame(a1, iter.next().getKey());
+		Assert.assertSame(a2, iter.next().getKey());
+		Map.Entry<Id<TypeA>, String> e = iter.next();
+		Assert.assertSame(a3, e.getKey());
+		e.setValue("tres");
+		Assert.assertFalse(iter.hasNext());
+		Assert.assertEquals("tres", map.get(a3));
+
+		Assert.assertEquals("uno", map.remove(a1));
+		Assert.assertNull(map.remove(a1));
+		Assert.assertEquals(2, map.size());
+		Assert.assertFalse(map.containsKey(a1));
+
+		map.clear();
+		Assert.assertEquals(0, map.size());
+		Assert.assertFalse(map.entrySet().iterator().hasNext());
+	}
+
+	@Test
+	public void testSet() {
+		Id<TypeA> a1 = Id.create("set-1", TypeA.class);
+		Id<TypeA> a2 = Id.create("set-2", TypeA.class);
+
+		IdSet<TypeA> set = new IdSet<>(TypeA.class, 1);
+		Assert.assertTrue(set.add(a2));
+		Assert.assertTrue(set.add(a1));
+		Assert.assertFalse(set.add(a1));
+		Assert.assertEquals(2, set.size());
+		Assert.assertTrue(set.contains(a1));
+		Assert.assertFalse(set.contains(Id.create("set-1", TypeB.class)));
+
+		Iterator<Id<TypeA>> iter = set.iterator();
+		Assert.assertSame(a1, iter.next());
+		iter.remove();
+		Assert.assertSame(a2, iter.next());
+		Assert.assertFalse(iter.hasNext());
+		Assert.assertEquals(1, set.size());
+		Assert.assertFalse(set.contains(a1));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testIdsOfOtherTypesAreRejected() {
+		Id<TypeB> b = Id.create("reject-b", TypeB.class);
+		while (Id.getNumberOfIds(TypeA.class) <= b.index()) {
+			Id.create("reject-a" + Id.getNumberOfIds(TypeA.class), TypeA.class);
+		}
+		Id<TypeA> a = Id.get(b.index(), TypeA.class);
+		Id wrongKey = b;
+
+		IdMap<TypeA, String> map = new IdMap<>(TypeA.class, 1);
+		try {
+			map.put(wrongKey, "b");
+			Assert.fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected, the slot of its index is still empty
+		}
+		map.put(a, "a");
+		try {
+			map.put(wrongKey, "b");
+			Assert.fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected, the slot of its index is taken by an id of type A
+		}
+		Assert.assertFalse(map.containsKey(b));
+		Assert.assertNull(map.get(b));
+		Assert.assertEquals(1, map.size());
+
+		IdSet<TypeA> set = new IdSet<>(TypeA.class, 1);
+		try {
+			set.add(wrongKey);
+			Assert.fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		set.add(a);
+		try {
+			set.add(wrongKey);
+			Assert.fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		Assert.assertFalse(set.contains(b));
+		Assert.assertFalse(set.remove(b));
+		Assert.assertEquals(1, set.size());
+	}
+}
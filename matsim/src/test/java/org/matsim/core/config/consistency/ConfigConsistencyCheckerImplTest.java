@@ -24,6 +24,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.matsim.api.core.v01.TransportMode;
 import org.matsim.core.config.Config;
+import org.matsim.core.config.groups.ControlerConfigGroup.RoutingAlgorithmType;
 import org.matsim.core.config.groups.PlanCalcScoreConfigGroup.ActivityParams;
 import org.matsim.pt.PtConstants;
 import org.matsim.testcases.utils.LogCounter;
@@ -151,4 +152,63 @@ public class ConfigConsistencyCheckerImplTest {
 	}
 
 
+	@Test
+	public void testCheckRouteCache_RoutingRandomness() {
+		Config config = new Config();
+		config.addCoreModules();
+		config.controler().setRouteCacheSize(1000);
+
+		LogCounter logger = new LogCounter(Level.WARN);
+		try {
+			logger.activiate();
+			ConfigConsistencyCheckerImpl.checkRouteCache(config);
+			Assert.assertEquals(1, logger.getWarnCount());
+
+			logger.resetCounts();
+			config.plansCalcRoute().setRoutingRandomness(0.0);
+			ConfigConsistencyCheckerImpl.checkRouteCache(config);
+			Assert.assertEquals(0, logger.getWarnCount());
+		} finally {
+			// make sure counter is deactivated at the end
+			logger.deactiviate();
+		}
+	}
+
+	@Test
+	public void testCheckRoutingRandomness_ContractionHierarchies() {
+		Config config = new Config();
+		config.addCoreModules();
+
+		// the randomness of the default config is fine for the other routers
+		ConfigConsistencyCheckerImpl.checkRoutingRandomness(config);
+
+		config.controler().setRoutingAlgorithmType(RoutingAlgorithmType.ContractionHierarchies);
+		try {
+			ConfigConsistencyCheckerImpl.checkRoutingRandomness(config);
+			Assert.fail("expected an IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		config.plansCalcRoute().setRoutingRandomness(0.0);
+		ConfigConsistencyCheckerImpl.checkRoutingRandomness(config);
+	}
+
+	@Test
+	public void testCheckRoutingRandomness_CustomizableRoutePlanning() {
+		Config config = new Config();
+		config.addCoreModules();
+
+		config.controler().setRoutingAlgorithmType(RoutingAlgorithmType.CustomizableRoutePlanning);
+		try {
+			ConfigConsistencyCheckerImpl.checkRoutingRandomness(config);
+			Assert.fail("expected an IllegalStateException");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		config.plansCalcRoute().setRoutingRandomness(0.0);
+		ConfigConsistencyCheckerImpl.checkRoutingRandomness(config);
+	}
+
 }
@@ -0,0 +1,131 @@
+package org.matsim.core.events;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.core.config.groups.ParallelEventHandlingConfigGroup.HandlerAssignment;
+import org.matsim.core.events.handler.EventHandler;
+
+public class EventHandlerAssignerTest {
+
+	@Test
+	public void testRoundRobinByDefault() {
+		List<EventHandler> handlers = Arrays.asList(new Handler(), new Handler(), new Handler(), new Handler(), new Handler());
+		int[] assignment = EventHandlerAssigner.assign(handlers, null, Collections.<String>emptySet(), 2);
+		Assert.assertArrayEquals(new int[] {0, 1, 0, 1, 0}, assignment);
+	}
+
+	@Test
+	public void testHandlersOnOwnThread() {
+		List<EventHandler> handlers = Arrays.asList(new Handler(), new ExpensiveHandler(20), new Handler(), new Handler());
+		int[] assignment = EventHandlerAssigner.assign(handlers, null, new HashSet<>(Arrays.asList("ExpensiveHandler")), 3);
+		Assert.assertArrayEquals(new int[] {1, 0, 2, 1}, assignment);
+
+		// at least one thread is kept for the other handlers
+		assignment = EventHandlerAssigner.assign(handlers, null, new HashSet<>(Arrays.asList(ExpensiveHandler.class.getName())), 1);
+		Assert.assertArrayEquals(new int[] {0, 0, 0, 0}, assignment);
+	}
+
+	@Test
+	public void testMeasuredCost() {
+		List<EventHandler> handlers = Arrays.asList(new Handler(), new Handler(), new Handler(), new Handler(), new Handler());
+		long[] costs = {10, 50, 20, 30, 40};
+		int[] assignment = EventHandlerAssigner.assign(handlers, costs, Collections.<String>emptySet(), 2);
+		// 50 -> 0, 40 -> 1, 30 -> 1, 20 -> 0, 10 -> 0: 80 vs. 70
+		Assert.assertArrayEquals(new int[] {0, 0, 0, 1, 1}, assignment);
+	}
+
+	@Test
+	public void testHandlersAreMovedBetweenIterations() {
+		EventsManagerImpl[] eventsManagers = {new EventsManagerImpl(), new EventsManagerImpl()};
+		EventHandlerAssigner assigner = new EventHandlerAssigner(eventsManagers, HandlerAssignment.measuredCost, Collections.<String>emptySet());
+		// clearly different costs, so the measured order does not depend on the accuracy of the sleeps
+		ExpensiveHandler expensive1 = new ExpensiveHandler(40);
+		ExpensiveHandler expensive2 = new ExpensiveHandler(20);
+		Handler cheap1 = new Handler();
+		Handler cheap2 = new Handler();
+		// round robin puts both expensive handlers on thread 0
+		for (EventHandler handler : Arrays.asList(expensive1, cheap1, expensive2, cheap2)) {
+			assigner.addHandler(handler);
+		}
+
+		assigner.beforeProcessing();
+		processEvents(eventsManagers);
+		assigner.afterProcessing();
+		Assert.assertEquals(1, expensive1.count);
+		Assert.assertEquals(1, expensive2.count);
+		Assert.assertEquals(0, cheap1.count);
+
+		// now the expensive handlers are on different threads
+		assigner.beforeProcessing();
+		processEvents(eventsManagers);
+		assigner.afterProcessing();
+		Assert.assertEquals(2, expensive1.count);
+		Assert.assertEquals(1, expensive2.count);
+	}
+
+	@Test
+	public void testTimesOfRemovedHandlersAreDropped() {
+		EventsManagerImpl[] eventsManagers = {new EventsManagerImpl()};
+		EventHandlerAssigner assigner = new EventHandlerAssigner(eventsManagers, HandlerAssignment.measuredCost, Collections.<String>emptySet());
+		Handler handler = new Handler();
+		assigner.addHandler(new Handler());
+		for (int iteration = 0; iteration < 3; iteration++) {
+			// like the events writers, which are added and removed in every iteration
+			assigner.addHandler(handler);
+			assigner.beforeProcessing();
+			processEvents(eventsManagers);
+			assigner.afterProcessing();
+			Assert.assertEquals(2, assigner.getTimes().getNumberOfHandlers());
+			assigner.removeHandler(handler);
+			Assert.assertEquals(1, assigner.getTimes().getNumberOfHandlers());
+		}
+		Assert.assertEquals(3, handler.count);
+	}
+
+	private static void processEvents(EventsManagerImpl[] eventsManagers) {
+		for (EventsManagerImpl eventsManager : eventsManagers) {
+			eventsManager.initProcessing();
+		}
+		// only the first thread gets events, so only its handlers are counted
+		eventsManagers[0].processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		for (EventsManagerImpl eventsManager : eventsManagers) {
+			eventsManager.finishProcessing();
+		}
+	}
+
+	private static class Handler implements LinkEnterEventHandler {
+		int count = 0;
+
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			this.count++;
+		}
+	}
+
+	private static class ExpensiveHandler extends Handler {
+		private final long millis;
+
+		ExpensiveHandler(long millis) {
+			this.millis = millis;
+		}
+
+		@Override
+		public void handleEvent(LinkEnterEvent event) {
+			super.handleEvent(event);
+			try {
+				Thread.sleep(this.millis);
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+}
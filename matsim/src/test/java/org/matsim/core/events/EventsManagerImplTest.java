@@ -19,6 +19,8 @@
 
 package org.matsim.core.events;
 
+import java.lang.reflect.Method;
+
 import org.apache.log4j.Logger;
 import org.junit.Assert;
 import org.junit.Test;
@@ -63,6 +65,41 @@ public class EventsManagerImplTest {
 		}
 	}
 
+	@Test
+	public void testProcessEvent_PublicAndHierarchicalEventHandlers() {
+		EventsManager manager = EventsUtils.createEventsManager();
+		CountingPublicHandler handler = new CountingPublicHandler();
+		CountingMyEventHandler nonPublicHandler = new CountingMyEventHandler();
+		manager.addHandler(handler);
+		manager.addHandler(nonPublicHandler);
+		manager.processEvent(new MyEvent(1.0));
+		manager.processEvent(new MySubEvent(2.0));
+		Assert.assertEquals(2, handler.counter);
+		Assert.assertEquals(1, handler.subCounter);
+		Assert.assertEquals(2, nonPublicHandler.counter);
+
+		// the public handler interfaces are called through the generated dispatchers, also for the super class of an event
+		Assert.assertEquals(0, handler.reflectiveCalls);
+		// only the handler interface which is not public falls back to reflection
+		Assert.assertEquals(2, nonPublicHandler.reflectiveCalls);
+	}
+
+	/**
+	 * @return <code>true</code> if the calling handleEvent method was invoked by reflection from the events manager.
+	 */
+	/*package*/ static boolean isCalledByReflection() {
+		// only look at the calls between the events manager and the handler, JUnit calls the tests by reflection as well
+		for (StackTraceElement element : new Throwable().getStackTrace()) {
+			if (element.getClassName().equals(EventsManagerImpl.class.getName())) {
+				return false;
+			}
+			if (element.getClassName().equals(Method.class.getName()) && element.getMethodName().equals("invoke")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/*package*/ static class MyEvent extends Event {
 		public MyEvent(final double time) {
 			super(time);
@@ -79,13 +116,18 @@ public class EventsManagerImplTest {
 
 	/*package*/ static class CountingMyEventHandler implements MyEventHandler {
 		/*package*/ int counter = 0;
+		/*package*/ int reflectiveCalls = 0;
 		@Override
 		public void reset(final int iteration) {
 			this.counter = 0;
+			this.reflectiveCalls = 0;
 		}
 		@Override
 		public void handleEvent(final MyEvent e) {
 			this.counter++;
+			if (isCalledByReflection()) {
+				this.reflectiveCalls++;
+			}
 		}
 	}
 
@@ -102,4 +144,38 @@ public class EventsManagerImplTest {
 			System.out.println(i);
 		}
 	}
+
+	/*package*/ static class MySubEvent extends MyEvent {
+		public MySubEvent(final double time) {
+			super(time);
+		}
+	}
+
+	public static interface PublicMyEventHandler extends EventHandler {
+		public void handleEvent(final MyEvent e);
+	}
+
+	public static interface PublicMySubEventHandler extends EventHandler {
+		public void handleEvent(final MySubEvent e);
+	}
+
+	/*package*/ static class CountingPublicHandler implements PublicMyEventHandler, PublicMySubEventHandler {
+		/*package*/ int counter = 0;
+		/*package*/ int subCounter = 0;
+		/*package*/ int reflectiveCalls = 0;
+		@Override
+		public void handleEvent(final MyEvent e) {
+			this.counter++;
+			if (isCalledByReflection()) {
+				this.reflectiveCalls++;
+			}
+		}
+		@Override
+		public void handleEvent(final MySubEvent e) {
+			this.subCounter++;
+			if (isCalledByReflection()) {
+				this.reflectiveCalls++;
+			}
+		}
+	}
 }
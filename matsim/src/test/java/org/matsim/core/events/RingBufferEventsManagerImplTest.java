@@ -0,0 +1,127 @@
+package org.matsim.core.events;
+
+import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonStuckEvent;
+import org.matsim.api.core.v01.events.handler.LinkEnterEventHandler;
+import org.matsim.api.core.v01.events.handler.LinkLeaveEventHandler;
+import org.matsim.api.core.v01.events.handler.PersonStuckEventHandler;
+import org.matsim.core.config.groups.ParallelEventHandlingConfigGroup.WaitStrategy;
+import org.matsim.testcases.utils.EventsCollector;
+
+public class RingBufferEventsManagerImplTest {
+
+	@Test
+	public void testEventHandlerCanProduceAdditionalEventLateInSimStep() {
+		final RingBufferEventsManagerImpl events = new RingBufferEventsManagerImpl(8, 1024, WaitStrategy.park);
+		events.addHandler(new LinkEnterEventHandler() {
+			@Override
+			public void handleEvent(LinkEnterEvent event) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+				events.processEvent(new PersonStuckEvent(event.getTime(), Id.createPersonId(0), Id.createLinkId(0), "car"));
+			}
+
+			@Override
+			public void reset(int iteration) {}
+		});
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		events.initProcessing();
+		events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.afterSimStep(0.0);
+		events.processEvent(new LinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.processEvent(new LinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.afterSimStep(1.0);
+		events.finishProcessing();
+
+		assertThat(collector.getEvents(),
+			contains(
+					new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)),
+					new LinkLeaveEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)),
+					new PersonStuckEvent(0.0, Id.createPersonId(0), Id.createLinkId(0), "car"),
+					new LinkEnterEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)),
+					new LinkLeaveEvent(1.0, Id.createVehicleId(0), Id.createLinkId(0)),
+					new PersonStuckEvent(1.0, Id.createPersonId(0), Id.createLinkId(0), "car")));
+	}
+
+	@Test
+	public void testManyProducersAndFullBuffer() {
+		for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+			final RingBufferEventsManagerImpl events = new RingBufferEventsManagerImpl(3, 8, waitStrategy);
+			final AtomicInteger enterCount = new AtomicInteger();
+			final AtomicInteger leaveCount = new AtomicInteger();
+			final AtomicInteger stuckCount = new AtomicInteger();
+			events.addHandler((LinkEnterEventHandler) event -> {
+				enterCount.incrementAndGet();
+				// creates additional events from an events handling thread, also while the buffer is full
+				events.processEvent(new PersonStuckEvent(event.getTime(), Id.createPersonId(0), Id.createLinkId(0), "car"));
+			});
+			events.addHandler((LinkLeaveEventHandler) event -> leaveCount.incrementAndGet());
+			events.addHandler((PersonStuckEventHandler) event -> stuckCount.incrementAndGet());
+
+			int numberOfProducers = 4;
+			int eventsPerProducer = 1000;
+			events.initProcessing();
+			for (int step = 0; step < 3; step++) {
+				final double time = step;
+				List<Thread> producers = new ArrayList<>();
+				for (int p = 0; p < numberOfProducers; p++) {
+					producers.add(new Thread(() -> {
+						for (int i = 0; i < eventsPerProducer; i++) {
+							events.processEvent(new LinkEnterEvent(time, Id.createVehicleId(i), Id.createLinkId(0)));
+							events.processEvent(new LinkLeaveEvent(time, Id.createVehicleId(i), Id.createLinkId(0)));
+						}
+					}));
+				}
+				producers.forEach(Thread::start);
+				for (Thread producer : producers) {
+					try {
+						producer.join();
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+				}
+				events.afterSimStep(time);
+
+				int expected = (step + 1) * numberOfProducers * eventsPerProducer;
+				Assert.assertEquals(expected, enterCount.get());
+				Assert.assertEquals(expected, leaveCount.get());
+				Assert.assertEquals(expected, stuckCount.get());
+			}
+			events.finishProcessing();
+		}
+	}
+
+	@Test
+	public void testExceptionInHandler() {
+		final RingBufferEventsManagerImpl events = new RingBufferEventsManagerImpl(2, 16, WaitStrategy.park);
+		events.addHandler((LinkEnterEventHandler) event -> {
+			throw new IllegalStateException("just some exception to crash this thread.");
+		});
+		events.initProcessing();
+		events.processEvent(new LinkEnterEvent(0.0, Id.createVehicleId(0), Id.createLinkId(0)));
+		events.afterSimStep(0.0);
+		try {
+			events.finishProcessing();
+			Assert.fail("expected exception, got none.");
+		} catch (RuntimeException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+	}
+
+}
@@ -0,0 +1,154 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * EventWriterBinaryTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.events.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.events.ActivityEndEvent;
+import org.matsim.api.core.v01.events.ActivityStartEvent;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.GenericEvent;
+import org.matsim.api.core.v01.events.LinkEnterEvent;
+import org.matsim.api.core.v01.events.LinkLeaveEvent;
+import org.matsim.api.core.v01.events.PersonArrivalEvent;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.events.PersonEntersVehicleEvent;
+import org.matsim.api.core.v01.events.PersonLeavesVehicleEvent;
+import org.matsim.api.core.v01.events.PersonMoneyEvent;
+import org.matsim.api.core.v01.events.VehicleEntersTrafficEvent;
+import org.matsim.api.core.v01.events.VehicleLeavesTrafficEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.events.EventsFileConverter;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.events.MatsimEventsReader;
+import org.matsim.facilities.ActivityFacility;
+import org.matsim.testcases.MatsimTestUtils;
+import org.matsim.testcases.utils.EventsCollector;
+import org.matsim.vehicles.Vehicle;
+
+public class EventWriterBinaryTest {
+
+	@Rule public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testWriteAndReadAllRecordTypes() {
+		List<Event> expected = createEvents();
+
+		String filename = this.utils.getOutputDirectory() + "testEvents.bin";
+		EventWriterBinary writer = new EventWriterBinary(filename);
+		for (Event event : expected) {
+			writer.handleEvent(event);
+		}
+		writer.closeFile();
+
+		List<Event> actual = readEvents(filename);
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+			Assert.assertEquals(expected.get(i).getTime(), actual.get(i).getTime(), 0.0);
+			Assert.assertEquals(expected.get(i).getAttributes(), actual.get(i).getAttributes());
+		}
+	}
+
+	@Test
+	public void testSpecialCharactersAndNullAttribute() {
+		String filename = this.utils.getOutputDirectory() + "testEvents.bin.gz";
+		EventWriterBinary writer = new EventWriterBinary(filename);
+		writer.handleEvent(new LinkLeaveEvent(3600.0, Id.create("vehicle>3ä", Vehicle.class), Id.create("link<2", Link.class)));
+		GenericEvent event = new GenericEvent("TEST", 3600.0);
+		event.getAttributes().put("dummy", null);
+		event.getAttributes().put("other", "value \"with\" quotes");
+		writer.handleEvent(event);
+		writer.closeFile();
+
+		List<Event> actual = readEvents(filename);
+		Assert.assertEquals(2, actual.size());
+		Assert.assertEquals("vehicle>3ä", ((LinkLeaveEvent) actual.get(0)).getVehicleId().toString());
+		Assert.assertEquals("link<2", ((LinkLeaveEvent) actual.get(0)).getLinkId().toString());
+		Assert.assertEquals("TEST", actual.get(1).getEventType());
+		Assert.assertNull(actual.get(1).getAttributes().get("dummy"));
+		Assert.assertEquals("value \"with\" quotes", actual.get(1).getAttributes().get("other"));
+	}
+
+	@Test
+	public void testConversionToXmlAndBack() {
+		List<Event> expected = createEvents();
+
+		String binaryFilename = this.utils.getOutputDirectory() + "events.bin";
+		EventWriterBinary writer = new EventWriterBinary(binaryFilename);
+		for (Event event : expected) {
+			writer.handleEvent(event);
+		}
+		writer.closeFile();
+
+		String xmlFilename = this.utils.getOutputDirectory() + "events.xml.gz";
+		EventsFileConverter.convert(binaryFilename, xmlFilename);
+		String binaryFilename2 = this.utils.getOutputDirectory() + "events2.bin";
+		EventsFileConverter.convert(xmlFilename, binaryFilename2);
+
+		List<Event> fromXml = readEvents(xmlFilename);
+		List<Event> fromBinary = readEvents(binaryFilename2);
+		Assert.assertEquals(expected.size(), fromXml.size());
+		Assert.assertEquals(expected.size(), fromBinary.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(expected.get(i).getAttributes(), fromXml.get(i).getAttributes());
+			Assert.assertEquals(expected.get(i).getAttributes(), fromBinary.get(i).getAttributes());
+		}
+	}
+
+	private static List<Event> readEvents(String filename) {
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+		new MatsimEventsReader(events).readFile(filename);
+		return new ArrayList<>(collector.getEvents());
+	}
+
+	private static List<Event> createEvents() {
+		Id<Person> personId = Id.create("p1", Person.class);
+		Id<Vehicle> vehicleId = Id.create("v1", Vehicle.class);
+		Id<Link> link1 = Id.create("1", Link.class);
+		Id<Link> link2 = Id.create("2", Link.class);
+
+		List<Event> events = new ArrayList<>();
+		events.add(new ActivityEndEvent(21600.0, personId, link1, Id.create("f1", ActivityFacility.class), "home"));
+		events.add(new PersonDepartureEvent(21600.0, personId, link1, "car"));
+		events.add(new PersonEntersVehicleEvent(21600.0, personId, vehicleId));
+		events.add(new VehicleEntersTrafficEvent(21600.0, personId, link1, vehicleId, "car", 1.0));
+		events.add(new LinkLeaveEvent(21601.5, vehicleId, link1));
+		events.add(new LinkEnterEvent(21601.5, vehicleId, link2));
+		events.add(new PersonMoneyEvent(21650.0, personId, -1.25));
+		events.add(new VehicleLeavesTrafficEvent(21700.0, personId, link2, vehicleId, "car", 0.5));
+		events.add(new PersonLeavesVehicleEvent(21700.0, personId, vehicleId));
+		events.add(new PersonArrivalEvent(21700.0, personId, link2, "car"));
+		events.add(new ActivityStartEvent(21700.0, personId, link2, null, "work"));
+		// events are not necessarily ordered in time, e.g. after merging files
+		events.add(new LinkEnterEvent(3600.0, vehicleId, link1));
+		return events;
+	}
+}
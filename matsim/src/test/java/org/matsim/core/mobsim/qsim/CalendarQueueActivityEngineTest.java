@@ -0,0 +1,115 @@
+package org.matsim.core.mobsim.qsim;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.events.PersonDepartureEvent;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.ActivityEngineType;
+import org.matsim.core.mobsim.framework.MobsimAgent;
+import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
+import org.matsim.core.mobsim.qsim.agents.WithinDayAgentUtils;
+import org.matsim.testcases.MatsimTestCase;
+
+public class CalendarQueueActivityEngineTest {
+
+	private static final int NUMBER_OF_AGENTS = 30;
+
+	@Test
+	public void testSameEventsAsPriorityQueue() {
+		List<Event> expected = runQSim(ActivityEngineType.priorityQueue, false);
+		List<Event> actual = runQSim(ActivityEngineType.calendarQueue, false);
+		QSimTestUtils.assertSameEvents(expected, actual);
+	}
+
+	@Test
+	public void testRescheduleActivityEnd() {
+		List<Event> expected = runQSim(ActivityEngineType.priorityQueue, true);
+		List<Event> actual = runQSim(ActivityEngineType.calendarQueue, true);
+		QSimTestUtils.assertSameEvents(expected, actual);
+
+		int departuresAtNine = 0;
+		int departuresOfAgentOne = 0;
+		for (Event event : actual) {
+			if (event instanceof PersonDepartureEvent) {
+				PersonDepartureEvent departure = (PersonDepartureEvent) event;
+				if (departure.getTime() == 9.0 * 3600) {
+					departuresAtNine++;
+					Assert.assertEquals(Id.create("0", Person.class), departure.getPersonId());
+				}
+				if (departure.getPersonId().equals(Id.create("1", Person.class))) {
+					departuresOfAgentOne++;
+				}
+			}
+		}
+		Assert.assertEquals("agent 0 should leave work at 9:00", 1, departuresAtNine);
+		Assert.assertEquals("agent 1 should stay at work", 1, departuresOfAgentOne);
+	}
+
+	private static List<Event> runQSim(final ActivityEngineType activityEngine, final boolean reschedule) {
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setActivityEngine(activityEngine);
+		Scenario scenario = QSimTestUtils.createTriangleScenario(config, 2000.0);
+		Link link = QSimTestUtils.getLink(scenario, "1");
+
+		// several agents end their activities at the same time, to check the order among them
+		Population population = scenario.getPopulation();
+		PopulationFactory pb = population.getFactory();
+		for (int i = 0; i < NUMBER_OF_AGENTS; i++) {
+			Person person = pb.createPerson(Id.create(i, Person.class));
+			Plan plan = pb.createPlan();
+			Activity home = pb.createActivityFromLinkId("h", link.getId());
+			home.setEndTime(6.0 * 3600 + (i % 7) * 60);
+			plan.addActivity(home);
+			plan.addLeg(QSimTestUtils.createWalkLeg(pb, link, link, 600.0 + i));
+			Activity work = pb.createActivityFromLinkId("w", link.getId());
+			work.setEndTime(i % 3 == 0 ? 8.0 * 3600 : 8.0 * 3600 + i * 0.5);
+			plan.addActivity(work);
+			plan.addLeg(QSimTestUtils.createWalkLeg(pb, link, link, 600.0));
+			plan.addActivity(pb.createActivityFromLinkId("h", link.getId()));
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+
+		if (!reschedule) {
+			return QSimTestUtils.runQSim(scenario);
+		}
+		return QSimTestUtils.runQSim(scenario, new MobsimBeforeSimStepListener() {
+			@Override
+			public void notifyMobsimBeforeSimStep(final MobsimBeforeSimStepEvent e) {
+				if (e.getSimulationTime() == 7.0 * 3600) {
+					QSim sim = (QSim) e.getQueueSimulation();
+					// later, and twice in the same time step
+					setActivityEndTime(sim, Id.create("0", Person.class), 8.5 * 3600);
+					setActivityEndTime(sim, Id.create("0", Person.class), 9.0 * 3600);
+					// stays until the end of the simulation
+					setActivityEndTime(sim, Id.create("1", Person.class), Double.POSITIVE_INFINITY);
+					// earlier
+					setActivityEndTime(sim, Id.create("2", Person.class), 7.5 * 3600);
+				}
+			}
+		});
+	}
+
+	private static void setActivityEndTime(final QSim sim, final Id<Person> personId, final double endTime) {
+		MobsimAgent agent = sim.getAgents().get(personId);
+		Activity activity = (Activity) WithinDayAgentUtils.getCurrentPlanElement(agent);
+		activity.setEndTime(endTime);
+		WithinDayAgentUtils.resetCaches(agent);
+		sim.rescheduleActivityEnd(agent);
+		Assert.assertEquals(endTime, agent.getActivityEndTime(), MatsimTestCase.EPSILON);
+	}
+
+}
@@ -0,0 +1,108 @@
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.ActivityEngineType;
+
+public class ParallelAgentStateUpdaterTest {
+
+	/** enough for several chunks in one time step */
+	private static final int NUMBER_OF_AGENTS = 1000;
+
+	@Test
+	public void testDeterministicEvents() {
+		for (ActivityEngineType activityEngine : ActivityEngineType.values()) {
+			List<Event> twoThreads = runQSim(activityEngine, 2);
+			List<Event> fourThreads = runQSim(activityEngine, 4);
+			QSimTestUtils.assertSameEvents(twoThreads, fourThreads);
+		}
+	}
+
+	@Test
+	public void testSameEventsOfEachPersonAsInOneThread() {
+		List<Event> oneThread = runQSim(ActivityEngineType.priorityQueue, 1);
+		List<Event> fourThreads = runQSim(ActivityEngineType.priorityQueue, 4);
+		Assert.assertEquals(eventsByPerson(oneThread), eventsByPerson(fourThreads));
+
+		List<String> expected = toSortedStrings(oneThread);
+		List<String> actual = toSortedStrings(fourThreads);
+		Assert.assertEquals(expected, actual);
+	}
+
+	private static Map<String, List<String>> eventsByPerson(final List<Event> events) {
+		Map<String, List<String>> eventsByPerson = new HashMap<>();
+		for (Event event : events) {
+			String personId = event.getAttributes().get("person");
+			if (personId != null) {
+				List<String> personEvents = eventsByPerson.get(personId);
+				if (personEvents == null) {
+					personEvents = new ArrayList<>();
+					eventsByPerson.put(personId, personEvents);
+				}
+				personEvents.add(event.toString());
+			}
+		}
+		return eventsByPerson;
+	}
+
+	private static List<String> toSortedStrings(final List<Event> events) {
+		List<String> strings = new ArrayList<>();
+		for (Event event : events) {
+			strings.add(event.toString());
+		}
+		Collections.sort(strings);
+		return strings;
+	}
+
+	private static List<Event> runQSim(final ActivityEngineType activityEngine, final int numberOfAgentThreads) {
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setActivityEngine(activityEngine);
+		config.qsim().setNumberOfAgentThreads(numberOfAgentThreads);
+		Scenario scenario = QSimTestUtils.createTriangleScenario(config, 36000.0);
+		Link link1 = QSimTestUtils.getLink(scenario, "1");
+		Link link3 = QSimTestUtils.getLink(scenario, "3");
+
+		// many agents end their activities and legs in the same time steps
+		Population population = scenario.getPopulation();
+		PopulationFactory pb = population.getFactory();
+		for (int i = 0; i < NUMBER_OF_AGENTS; i++) {
+			Person person = pb.createPerson(Id.create(i, Person.class));
+			Plan plan = pb.createPlan();
+			Activity home = pb.createActivityFromLinkId("h", link1.getId());
+			home.setEndTime(6.0 * 3600 + (i % 5) * 60);
+			plan.addActivity(home);
+			if (i % 4 == 0) {
+				plan.addLeg(QSimTestUtils.createCarLeg(scenario));
+			} else {
+				plan.addLeg(QSimTestUtils.createWalkLeg(pb, link1, link3, 1200.0));
+			}
+			Activity work = pb.createActivityFromLinkId("w", link3.getId());
+			work.setEndTime(16.0 * 3600);
+			plan.addActivity(work);
+			plan.addLeg(QSimTestUtils.createWalkLeg(pb, link3, link1, 1200.0));
+			plan.addActivity(pb.createActivityFromLinkId("h", link1.getId()));
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+
+		return QSimTestUtils.runQSim(scenario);
+	}
+
+}
@@ -0,0 +1,172 @@
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.ActivityEngineType;
+import org.matsim.core.mobsim.framework.events.MobsimAfterSimStepEvent;
+import org.matsim.core.mobsim.framework.events.MobsimBeforeSimStepEvent;
+import org.matsim.core.mobsim.framework.listeners.MobsimAfterSimStepListener;
+import org.matsim.core.mobsim.framework.listeners.MobsimBeforeSimStepListener;
+import org.matsim.core.mobsim.framework.listeners.MobsimListener;
+import org.matsim.core.mobsim.qsim.interfaces.NextEventTimeAware;
+import org.matsim.vis.snapshotwriters.AgentSnapshotInfo;
+import org.matsim.vis.snapshotwriters.SnapshotWriter;
+import org.matsim.vis.snapshotwriters.SnapshotWriterManager;
+
+public class QSimIdleTimeSkippingTest {
+
+	private static final int NUMBER_OF_AGENTS = 10;
+
+	@Test
+	public void testSameEventsWithPriorityQueue() {
+		assertSameEventsWithFewerTimeSteps(ActivityEngineType.priorityQueue);
+	}
+
+	@Test
+	public void testSameEventsWithCalendarQueue() {
+		assertSameEventsWithFewerTimeSteps(ActivityEngineType.calendarQueue);
+	}
+
+	/**
+	 * A listener which does not report its next event time expects to be notified about every time step.
+	 */
+	@Test
+	public void testNoSkippingWithNextEventTimeUnawareListener() {
+		TimeStepRecorder expectedTimeSteps = new TimeStepRecorder();
+		runQSim(createConfig(ActivityEngineType.priorityQueue, false), expectedTimeSteps);
+		TimeStepRecorder actualTimeSteps = new TimeStepRecorder();
+		runQSim(createConfig(ActivityEngineType.priorityQueue, true), actualTimeSteps, new MobsimAfterSimStepListener() {
+			@Override
+			public void notifyMobsimAfterSimStep(final MobsimAfterSimStepEvent e) {
+			}
+		});
+		Assert.assertEquals(expectedTimeSteps.timeSteps, actualTimeSteps.timeSteps);
+	}
+
+	@Test
+	public void testSnapshotsAreNotSkipped() {
+		SnapshotTimeRecorder expected = new SnapshotTimeRecorder();
+		Config config = createConfig(ActivityEngineType.priorityQueue, false);
+		config.qsim().setSnapshotPeriod(900.0);
+		runQSim(config, createSnapshotWriterManager(config, expected));
+
+		SnapshotTimeRecorder actual = new SnapshotTimeRecorder();
+		TimeStepRecorder actualTimeSteps = new TimeStepRecorder();
+		config = createConfig(ActivityEngineType.priorityQueue, true);
+		config.qsim().setSnapshotPeriod(900.0);
+		runQSim(config, createSnapshotWriterManager(config, actual), actualTimeSteps);
+
+		Assert.assertFalse(expected.snapshotTimes.isEmpty());
+		Assert.assertEquals(expected.snapshotTimes, actual.snapshotTimes);
+		// the idle time steps between the snapshots are still skipped
+		Assert.assertTrue(actualTimeSteps.timeSteps.size() * 10 < expected.snapshotTimes.size() * 900);
+	}
+
+	private static void assertSameEventsWithFewerTimeSteps(final ActivityEngineType activityEngine) {
+		TimeStepRecorder expectedTimeSteps = new TimeStepRecorder();
+		List<Event> expected = runQSim(createConfig(activityEngine, false), expectedTimeSteps);
+		TimeStepRecorder actualTimeSteps = new TimeStepRecorder();
+		List<Event> actual = runQSim(createConfig(activityEngine, true), actualTimeSteps);
+		QSimTestUtils.assertSameEvents(expected, actual);
+
+		// all time steps with events have been simulated, but not the ones in the night
+		for (Event event : actual) {
+			Assert.assertTrue("time step " + event.getTime() + " was skipped", actualTimeSteps.timeSteps.contains(event.getTime()));
+		}
+		Assert.assertTrue(expectedTimeSteps.timeSteps.containsAll(actualTimeSteps.timeSteps));
+		Assert.assertTrue(actualTimeSteps.timeSteps.size() * 10 < expectedTimeSteps.timeSteps.size());
+	}
+
+	private static Config createConfig(final ActivityEngineType activityEngine, final boolean skipping) {
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setActivityEngine(activityEngine);
+		config.qsim().setSkippingIdleTimeSteps(skipping);
+		return config;
+	}
+
+	private static SnapshotWriterManager createSnapshotWriterManager(final Config config, final SnapshotWriter writer) {
+		SnapshotWriterManager manager = new SnapshotWriterManager(config);
+		manager.addSnapshotWriter(writer);
+		return manager;
+	}
+
+	private static List<Event> runQSim(final Config config, final MobsimListener... listeners) {
+		Scenario scenario = QSimTestUtils.createTriangleScenario(config, 2000.0);
+		Link link1 = QSimTestUtils.getLink(scenario, "1");
+		Link link3 = QSimTestUtils.getLink(scenario, "3");
+
+		// car and walk legs, with activity ends and teleportations in between the time steps
+		Population population = scenario.getPopulation();
+		PopulationFactory pb = population.getFactory();
+		for (int i = 0; i < NUMBER_OF_AGENTS; i++) {
+			Person person = pb.createPerson(Id.create(i, Person.class));
+			Plan plan = pb.createPlan();
+			Activity home = pb.createActivityFromLinkId("h", link1.getId());
+			home.setEndTime(6.0 * 3600 + i * 600.5);
+			plan.addActivity(home);
+			plan.addLeg(QSimTestUtils.createCarLeg(scenario));
+			Activity work = pb.createActivityFromLinkId("w", link3.getId());
+			work.setEndTime(16.0 * 3600 + i * 0.25);
+			plan.addActivity(work);
+			plan.addLeg(QSimTestUtils.createWalkLeg(pb, link3, link1, 1200.0 + i * 0.5));
+			plan.addActivity(pb.createActivityFromLinkId("h", link1.getId()));
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+
+		return QSimTestUtils.runQSim(scenario, listeners);
+	}
+
+	/**
+	 * Records the simulated time steps.  It has nothing to do itself, so it does not prevent that time steps are skipped.
+	 */
+	private static class TimeStepRecorder implements MobsimBeforeSimStepListener, NextEventTimeAware {
+		final List<Double> timeSteps = new ArrayList<>();
+
+		@Override
+		public void notifyMobsimBeforeSimStep(final MobsimBeforeSimStepEvent e) {
+			this.timeSteps.add(e.getSimulationTime());
+		}
+
+		@Override
+		public double getNextEventTime() {
+			return Double.POSITIVE_INFINITY;
+		}
+	}
+
+	private static class SnapshotTimeRecorder implements SnapshotWriter {
+		final List<Double> snapshotTimes = new ArrayList<>();
+
+		@Override
+		public void beginSnapshot(final double time) {
+			this.snapshotTimes.add(time);
+		}
+
+		@Override
+		public void endSnapshot() {
+		}
+
+		@Override
+		public void addAgent(final AgentSnapshotInfo position) {
+		}
+
+		@Override
+		public void finish() {
+		}
+	}
+
+}
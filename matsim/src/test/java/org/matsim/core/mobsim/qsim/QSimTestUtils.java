@@ -0,0 +1,121 @@
+package org.matsim.core.mobsim.qsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.api.core.v01.population.Route;
+import org.matsim.core.api.experimental.events.EventsManager;
+import org.matsim.core.config.Config;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.mobsim.framework.listeners.MobsimListener;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+import org.matsim.testcases.utils.EventsCollector;
+
+/**
+ * Helpers for tests which run the same small scenario with two QSim configurations and compare the events.
+ */
+public final class QSimTestUtils {
+
+	private QSimTestUtils() {
+	}
+
+	/**
+	 * @return a scenario with a triangle of the links 1 (node 1 to 2), 2 (2 to 3) and 3 (3 to 1), each 1000 m long
+	 * with a free speed of 10 m/s.
+	 */
+	public static Scenario createTriangleScenario(final Config config, final double capacity) {
+		Scenario scenario = ScenarioUtils.createScenario(config);
+		Network network = scenario.getNetwork();
+		Node node1 = createNode(network, "1", 0.0, 0.0);
+		Node node2 = createNode(network, "2", 1000.0, 0.0);
+		Node node3 = createNode(network, "3", 2000.0, 0.0);
+		createLink(network, "1", node1, node2, 1000.0, capacity);
+		createLink(network, "2", node2, node3, 1000.0, capacity);
+		createLink(network, "3", node3, node1, 1000.0, capacity);
+		return scenario;
+	}
+
+	public static Node createNode(final Network network, final String id, final double x, final double y) {
+		Node node = network.getFactory().createNode(Id.create(id, Node.class), new Coord(x, y));
+		network.addNode(node);
+		return node;
+	}
+
+	public static Link createLink(final Network network, final String id, final Node from, final Node to,
+			final double length, final double capacity) {
+		Link link = network.getFactory().createLink(Id.create(id, Link.class), from, to);
+		link.setLength(length);
+		link.setFreespeed(10.0);
+		link.setCapacity(capacity);
+		link.setNumberOfLanes(1.0);
+		network.addLink(link);
+		return link;
+	}
+
+	public static Link getLink(final Scenario scenario, final String id) {
+		return scenario.getNetwork().getLinks().get(Id.create(id, Link.class));
+	}
+
+	/**
+	 * @return a car leg over the links 1, 2 and 3, e.g. of the triangle scenario.
+	 */
+	public static Leg createCarLeg(final Scenario scenario) {
+		Leg leg = scenario.getPopulation().getFactory().createLeg(TransportMode.car);
+		leg.setRoute(RouteUtils.createLinkNetworkRouteImpl(Id.create("1", Link.class),
+				Arrays.asList(Id.create("2", Link.class)), Id.create("3", Link.class)));
+		return leg;
+	}
+
+	public static Leg createWalkLeg(final PopulationFactory pb, final Link from, final Link to, final double travelTime) {
+		Leg leg = pb.createLeg(TransportMode.walk);
+		Route route = RouteUtils.createGenericRouteImpl(from.getId(), to.getId());
+		route.setTravelTime(travelTime);
+		route.setDistance(1000.0);
+		leg.setRoute(route);
+		return leg;
+	}
+
+	/**
+	 * Runs the QSim with the default modules on the scenario.
+	 *
+	 * @return the events of the run, in the order they were thrown.
+	 */
+	public static List<Event> runQSim(final Scenario scenario, final MobsimListener... listeners) {
+		EventsManager events = EventsUtils.createEventsManager();
+		EventsCollector collector = new EventsCollector();
+		events.addHandler(collector);
+
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		QSim sim = new QSimBuilder(scenario.getConfig()).useDefaults().build(scenario, events);
+		for (MobsimListener listener : listeners) {
+			sim.addQueueSimulationListeners(listener);
+		}
+		sim.run();
+		return new ArrayList<>(collector.getEvents());
+	}
+
+	/**
+	 * Asserts that both runs threw the same events in the same order.
+	 */
+	public static void assertSameEvents(final List<Event> expected, final List<Event> actual) {
+		Assert.assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(expected.get(i).toString(), actual.get(i).toString());
+		}
+	}
+
+}
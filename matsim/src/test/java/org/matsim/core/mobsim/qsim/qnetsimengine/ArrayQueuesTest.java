@@ -0,0 +1,91 @@
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.events.Event;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.LinkDynamics;
+import org.matsim.core.config.groups.QSimConfigGroup.TrafficDynamics;
+import org.matsim.core.mobsim.qsim.QSimTestUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+
+@RunWith(Parameterized.class)
+public class ArrayQueuesTest {
+
+	private final TrafficDynamics trafficDynamics;
+	private final LinkDynamics linkDynamics;
+
+	public ArrayQueuesTest(TrafficDynamics trafficDynamics, LinkDynamics linkDynamics) {
+		this.trafficDynamics = trafficDynamics;
+		this.linkDynamics = linkDynamics;
+	}
+
+	@Parameters(name = "{index}: {0}, {1}")
+	public static Collection<Object[]> parameterObjects() {
+		List<Object[]> parameters = new ArrayList<>();
+		for (TrafficDynamics trafficDynamics : TrafficDynamics.values()) {
+			parameters.add(new Object[] { trafficDynamics, LinkDynamics.FIFO });
+		}
+		parameters.add(new Object[] { TrafficDynamics.queue, LinkDynamics.PassingQ });
+		return parameters;
+	}
+
+	@Test
+	public void testSameEventsAsWithLinkedLists() {
+		List<Event> expected = runQSim(false);
+		List<Event> actual = runQSim(true);
+		QSimTestUtils.assertSameEvents(expected, actual);
+	}
+
+	private List<Event> runQSim(boolean usingArrayQueues) {
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setTrafficDynamics(this.trafficDynamics);
+		config.qsim().setLinkDynamics(this.linkDynamics);
+		config.qsim().setUsingArrayQueues(usingArrayQueues);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+
+		// a bottleneck in the middle, so that the vehicles queue up and holes travel back
+		Network network = scenario.getNetwork();
+		Node node1 = QSimTestUtils.createNode(network, "1", 0.0, 0.0);
+		Node node2 = QSimTestUtils.createNode(network, "2", 1000.0, 0.0);
+		Node node3 = QSimTestUtils.createNode(network, "3", 1100.0, 0.0);
+		Node node4 = QSimTestUtils.createNode(network, "4", 2100.0, 0.0);
+		Link link1 = QSimTestUtils.createLink(network, "1", node1, node2, 1000.0, 7200.0);
+		QSimTestUtils.createLink(network, "2", node2, node3, 100.0, 900.0);
+		Link link3 = QSimTestUtils.createLink(network, "3", node3, node4, 1000.0, 7200.0);
+
+		Population population = scenario.getPopulation();
+		PopulationFactory pb = population.getFactory();
+		for (int i = 0; i < 100; i++) {
+			Person person = pb.createPerson(Id.create(i, Person.class));
+			Plan plan = pb.createPlan();
+			Activity home = pb.createActivityFromLinkId("h", link1.getId());
+			home.setEndTime(6.0 * 3600 + i);
+			plan.addActivity(home);
+			plan.addLeg(QSimTestUtils.createCarLeg(scenario));
+			plan.addActivity(pb.createActivityFromLinkId("w", link3.getId()));
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+
+		return QSimTestUtils.runQSim(scenario);
+	}
+
+}
@@ -0,0 +1,110 @@
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.Scenario;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Activity;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.api.core.v01.population.Plan;
+import org.matsim.api.core.v01.population.Population;
+import org.matsim.api.core.v01.population.PopulationFactory;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.QSimConfigGroup.NetworkPartitioning;
+import org.matsim.core.controler.AbstractModule;
+import org.matsim.core.controler.PrepareForSimUtils;
+import org.matsim.core.events.EventsUtils;
+import org.matsim.core.mobsim.qsim.QSim;
+import org.matsim.core.mobsim.qsim.QSimBuilder;
+import org.matsim.core.mobsim.qsim.QSimTestUtils;
+import org.matsim.core.population.routes.RouteUtils;
+import org.matsim.core.scenario.ScenarioUtils;
+
+public class LoadBalancedNetworkPartitioningTest {
+
+	private static final int NUMBER_OF_NODES = 10;
+
+	/**
+	 * Runs the QSim twice with the same {@link QNetworkLoadHistory}, like two iterations of the controler.  On a line of
+	 * links with equal capacities, but traffic only at its western end, the partitions by capacity and by the measured
+	 * loads differ.
+	 */
+	@Test
+	public void testSecondRunIsPartitionedByLoadsOfFirstRun() {
+		QNetworkLoadHistory loadHistory = new QNetworkLoadHistory();
+
+		// nothing measured yet, so the nodes are weighted by capacity
+		Scenario scenario = createScenario();
+		QNetsimEngine engine = runQSim(scenario, loadHistory);
+		Map<Id<Node>, Integer> byCapacity = new SpatialQNetworkPartitioner().partition(scenario.getNetwork().getNodes().values(), 2);
+		Assert.assertEquals(byCapacity, engine.getPartitions());
+
+		Assert.assertTrue(loadHistory.hasLoads());
+		Network network = scenario.getNetwork();
+		Assert.assertTrue(loadHistory.getLoad(network.getNodes().get(Id.create(0, Node.class))) > 0.0);
+		Assert.assertEquals(0.0, loadHistory.getLoad(network.getNodes().get(Id.create(NUMBER_OF_NODES - 1, Node.class))), 0.0);
+		Map<Id<Node>, Integer> byLoad = new SpatialQNetworkPartitioner(loadHistory::getLoad).partition(network.getNodes().values(), 2);
+		Assert.assertNotEquals(byCapacity, byLoad);
+
+		scenario = createScenario();
+		engine = runQSim(scenario, loadHistory);
+		Assert.assertEquals(byLoad, engine.getPartitions());
+	}
+
+	private static QNetsimEngine runQSim(final Scenario scenario, final QNetworkLoadHistory loadHistory) {
+		PrepareForSimUtils.createDefaultPrepareForSim(scenario).run();
+		QSim sim = new QSimBuilder(scenario.getConfig()).useDefaults().addOverridingModule(new AbstractModule() {
+			@Override
+			public void install() {
+				bind(QNetworkLoadHistory.class).toInstance(loadHistory);
+			}
+		}).build(scenario, EventsUtils.createEventsManager());
+		sim.run();
+		return sim.getChildInjector().getInstance(QNetsimEngine.class);
+	}
+
+	private static Scenario createScenario() {
+		Config config = ConfigUtils.createConfig();
+		config.qsim().setNumberOfThreads(2);
+		config.qsim().setNetworkPartitioning(NetworkPartitioning.loadBalanced);
+		Scenario scenario = ScenarioUtils.createScenario(config);
+
+		Network network = scenario.getNetwork();
+		Node[] nodes = new Node[NUMBER_OF_NODES];
+		for (int i = 0; i < NUMBER_OF_NODES; i++) {
+			nodes[i] = QSimTestUtils.createNode(network, Integer.toString(i), i * 1000.0, 0.0);
+		}
+		for (int i = 1; i < NUMBER_OF_NODES; i++) {
+			QSimTestUtils.createLink(network, (i - 1) + "_" + i, nodes[i - 1], nodes[i], 1000.0, 3600.0);
+			QSimTestUtils.createLink(network, i + "_" + (i - 1), nodes[i], nodes[i - 1], 1000.0, 3600.0);
+		}
+
+		Population population = scenario.getPopulation();
+		PopulationFactory pb = population.getFactory();
+		for (int i = 0; i < 20; i++) {
+			Person person = pb.createPerson(Id.create(i, Person.class));
+			Plan plan = pb.createPlan();
+			Activity home = pb.createActivityFromLinkId("h", Id.create("0_1", Link.class));
+			home.setEndTime(6.0 * 3600 + i * 60);
+			plan.addActivity(home);
+			Leg leg = pb.createLeg(TransportMode.car);
+			leg.setRoute(RouteUtils.createLinkNetworkRouteImpl(Id.create("0_1", Link.class),
+					Arrays.asList(Id.create("1_2", Link.class)), Id.create("2_3", Link.class)));
+			plan.addLeg(leg);
+			plan.addActivity(pb.createActivityFromLinkId("w", Id.create("2_3", Link.class)));
+			person.addPlan(plan);
+			population.addPerson(person);
+		}
+		return scenario;
+	}
+
+}
@@ -111,6 +111,15 @@ public final class QLinkTest extends MatsimTestCase {
 		assertEquals(f.queueNetwork.getNetsimNode(Id.create("2", Node.class)), f.qlink1.getToNode());
 	}
 
+	@Test
+	public void testGetNetsimLink() {
+		Fixture f = new Fixture(isUsingFastCapacityUpdate);
+		assertSame(f.qlink1, f.queueNetwork.getNetsimLink(f.link1.getId()));
+		assertSame(f.qlink2, f.queueNetwork.getNetsimLink(f.link2.getId()));
+		assertSame(f.queueNetwork.getNetsimLinks().get(f.link2.getId()), f.queueNetwork.getNetsimLink(f.link2.getId()));
+		assertNull(f.queueNetwork.getNetsimLink(Id.create("not in network", Link.class)));
+	}
+
 	@Test
 	public void testAdd() {
 		Fixture f = new Fixture(isUsingFastCapacityUpdate);
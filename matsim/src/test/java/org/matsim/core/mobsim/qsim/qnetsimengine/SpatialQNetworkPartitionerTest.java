@@ -0,0 +1,117 @@
+/* *********************************************************************** *
+ * project: org.matsim.*
+ * SpatialQNetworkPartitionerTest.java
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ * copyright       : (C) 2018 by the members listed in the COPYING,        *
+ *                   LICENSE and WARRANTY file.                            *
+ * email           : info at matsim dot org                                *
+ *                                                                         *
+ * *********************************************************************** *
+ *                                                                         *
+ *   This program is free software; you can redistribute it and/or modify  *
+ *   it under the terms of the GNU General Public License as published by  *
+ *   the Free Software Foundation; either version 2 of the License, or     *
+ *   (at your option) any later version.                                   *
+ *   See also COPYING, LICENSE and WARRANTY file                           *
+ *                                                                         *
+ * *********************************************************************** */
+
+package org.matsim.core.mobsim.qsim.qnetsimengine;
+
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.network.NetworkUtils;
+
+public class SpatialQNetworkPartitionerTest {
+
+	private static final int GRID_SIZE = 10;
+
+	@Test
+	public void testPartitionsAreBalancedAndContiguous() {
+		Network network = createGridNetwork();
+
+		Map<Id<Node>, Integer> partitions = new SpatialQNetworkPartitioner().partition(network.getNodes().values(), 4);
+
+		Assert.assertEquals(network.getNodes().size(), partitions.size());
+		int[] counts = new int[4];
+		for (Node node : network.getNodes().values()) {
+			counts[partitions.get(node.getId())]++;
+		}
+		for (int count : counts) {
+			Assert.assertEquals(GRID_SIZE * GRID_SIZE / 4, count);
+		}
+
+		// on a uniform square grid, the partitions must be the four quadrants
+		for (Node node : network.getNodes().values()) {
+			int partition = partitions.get(node.getId());
+			for (Node other : network.getNodes().values()) {
+				boolean sameQuadrant = (node.getCoord().getX() < GRID_SIZE / 2) == (other.getCoord().getX() < GRID_SIZE / 2)
+						&& (node.getCoord().getY() < GRID_SIZE / 2) == (other.getCoord().getY() < GRID_SIZE / 2);
+				Assert.assertEquals(sameQuadrant, partition == partitions.get(other.getId()));
+			}
+		}
+	}
+
+	@Test
+	public void testUnevenNumberOfPartitions() {
+		Network network = createGridNetwork();
+
+		Map<Id<Node>, Integer> partitions = new SpatialQNetworkPartitioner().partition(network.getNodes().values(), 3);
+
+		int[] counts = new int[3];
+		for (int partition : partitions.values()) {
+			counts[partition]++;
+		}
+		for (int count : counts) {
+			Assert.assertTrue("unbalanced partition with " + count + " nodes", Math.abs(count - GRID_SIZE * GRID_SIZE / 3.) <= GRID_SIZE);
+		}
+	}
+
+	@Test
+	public void testMorePartitionsThanNodes() {
+		Network network = NetworkUtils.createNetwork();
+		Node n1 = NetworkUtils.createAndAddNode(network, Id.createNodeId("1"), new Coord(0, 0));
+		Node n2 = NetworkUtils.createAndAddNode(network, Id.createNodeId("2"), new Coord(100, 0));
+
+		Map<Id<Node>, Integer> partitions = new SpatialQNetworkPartitioner().partition(network.getNodes().values(), 4);
+
+		Assert.assertEquals(2, partitions.size());
+		Assert.assertNotEquals(partitions.get(n1.getId()), partitions.get(n2.getId()));
+		for (int partition : partitions.values()) {
+			Assert.assertTrue(partition >= 0 && partition < 4);
+		}
+	}
+
+	private static Network createGridNetwork() {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[GRID_SIZE][GRID_SIZE];
+		for (int x = 0; x < GRID_SIZE; x++) {
+			for (int y = 0; y < GRID_SIZE; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x, y));
+			}
+		}
+		for (int x = 0; x < GRID_SIZE; x++) {
+			for (int y = 0; y < GRID_SIZE; y++) {
+				if (x + 1 < GRID_SIZE) {
+					NetworkUtils.createAndAddLink(network, Id.createLinkId(x + "_" + y + "-x"), nodes[x][y], nodes[x + 1][y], 100, 10, 1000, 1);
+				} else {
+					NetworkUtils.createAndAddLink(network, Id.createLinkId(x + "_" + y + "-x"), nodes[x][y], nodes[0][y], 100, 10, 1000, 1);
+				}
+				if (y + 1 < GRID_SIZE) {
+					NetworkUtils.createAndAddLink(network, Id.createLinkId(x + "_" + y + "-y"), nodes[x][y], nodes[x][y + 1], 100, 10, 1000, 1);
+				} else {
+					NetworkUtils.createAndAddLink(network, Id.createLinkId(x + "_" + y + "-y"), nodes[x][y], nodes[x][0], 100, 10, 1000, 1);
+				}
+			}
+		}
+		return network;
+	}
+}
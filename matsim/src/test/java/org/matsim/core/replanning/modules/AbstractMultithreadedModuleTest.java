@@ -26,7 +26,19 @@ import org.junit.Test;
 import org.matsim.api.core.v01.population.Plan;
 import org.matsim.core.config.Config;
 import org.matsim.core.config.groups.GlobalConfigGroup;
+import org.matsim.core.config.groups.GlobalConfigGroup.ReplanningScheduling;
+import org.matsim.core.population.PopulationUtils;
 import org.matsim.core.population.algorithms.PlanAlgorithm;
+import org.matsim.core.replanning.ReplanningContext;
+import org.matsim.core.replanning.ReplanningThreadPool;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author mrieser
@@ -60,6 +72,108 @@ public class AbstractMultithreadedModuleTest {
 
 	}
 
+	@Test
+	public void testWorkStealing_allPlansHandledOnce() {
+		Map<Plan, AtomicInteger> handled = new ConcurrentHashMap<>();
+		CountingModule testee = new CountingModule(3, ReplanningScheduling.workStealing, handled);
+		List<Plan> plans = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			plans.add(PopulationUtils.createPlan());
+		}
+		for (int iteration = 0; iteration < 2; iteration++) {
+			testee.prepareReplanning(null);
+			for (Plan plan : plans) {
+				testee.handlePlan(plan);
+			}
+			testee.finishReplanning();
+		}
+		Assert.assertEquals(plans.size(), handled.size());
+		for (Plan plan : plans) {
+			Assert.assertEquals(2, handled.get(plan).get());
+		}
+	}
+
+	@Test
+	public void testThreadPool_reusesPlanAlgoInstances() {
+		ReplanningThreadPool pool = new ReplanningThreadPool(2);
+		ReplanningContext context = new ReplanningContext() {
+			@Override
+			public int getIteration() {
+				return 0;
+			}
+			@Override
+			public ReplanningThreadPool getThreadPool() {
+				return pool;
+			}
+		};
+		Map<Plan, AtomicInteger> handled = new ConcurrentHashMap<>();
+		CountingModule testee = new CountingModule(3, ReplanningScheduling.staticAssignment, handled);
+		testee.reusing = true;
+		List<Plan> plans = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			plans.add(PopulationUtils.createPlan());
+		}
+		for (int iteration = 0; iteration < 3; iteration++) {
+			testee.prepareReplanning(context);
+			for (Plan plan : plans) {
+				testee.handlePlan(plan);
+			}
+			testee.finishReplanning();
+		}
+		pool.shutdown();
+
+		Assert.assertEquals(3, testee.createdInstances.size());
+		for (Plan plan : plans) {
+			Assert.assertEquals(3, handled.get(plan).get());
+		}
+	}
+
+	@Test
+	public void testThreadPool_crashingThread() {
+		ReplanningThreadPool pool = new ReplanningThreadPool(2);
+		try {
+			DummyCrashingModule testee = new DummyCrashingModule(2);
+			testee.prepareReplanning(new ReplanningContext() {
+				@Override
+				public int getIteration() {
+					return 0;
+				}
+				@Override
+				public ReplanningThreadPool getThreadPool() {
+					return pool;
+				}
+			});
+			testee.handlePlan(null);
+			testee.handlePlan(null);
+			testee.finishReplanning();
+			Assert.fail("expected exception, got none.");
+		} catch (Exception e) {
+			log.info("Catched expected exception.", e);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static class CountingModule extends AbstractMultithreadedModule {
+		private final Map<Plan, AtomicInteger> handled;
+		private final Set<PlanAlgorithm> createdInstances = new HashSet<>();
+		private boolean reusing = false;
+		public CountingModule(final int nOfThreads, final ReplanningScheduling scheduling, final Map<Plan, AtomicInteger> handled) {
+			super(nOfThreads, scheduling);
+			this.handled = handled;
+		}
+		@Override
+		public PlanAlgorithm getPlanAlgoInstance() {
+			PlanAlgorithm algo = plan -> this.handled.computeIfAbsent(plan, p -> new AtomicInteger()).incrementAndGet();
+			this.createdInstances.add(algo);
+			return algo;
+		}
+		@Override
+		protected boolean isReusingPlanAlgoInstances() {
+			return this.reusing;
+		}
+	}
+
 	private static class DummyAbstractMultithreadedModule extends AbstractMultithreadedModule {
 		public DummyAbstractMultithreadedModule(GlobalConfigGroup globalConfigGroup) {
 			super(globalConfigGroup);
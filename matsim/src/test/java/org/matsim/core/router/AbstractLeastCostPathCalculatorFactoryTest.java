@@ -0,0 +1,213 @@
+package org.matsim.core.router;
+
+import java.util.Random;
+
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.config.Config;
+import org.matsim.core.config.ConfigUtils;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.controler.Injector;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.core.router.costcalculators.RandomizingTimeDistanceTravelDisutilityFactory;
+import org.matsim.core.router.costcalculators.TravelDisutilityFactory;
+import org.matsim.core.router.costcalculators.TravelDisutilityModule;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.LeastCostPathCalculator.Path;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+import com.google.inject.Key;
+import com.google.inject.name.Names;
+
+/**
+ * Compares the paths of the path calculators created by a {@link LeastCostPathCalculatorFactory} with the ones of
+ * {@link Dijkstra} on a random network.
+ */
+public abstract class AbstractLeastCostPathCalculatorFactoryTest extends AbstractLeastCostPathCalculatorTest {
+
+	private static final int NUMBER_OF_NODES = 300;
+
+	protected abstract LeastCostPathCalculatorFactory createFactory();
+
+	/**
+	 * @return <code>false</code> if the factory must reject travel disutilities which depend on the person.
+	 */
+	protected boolean isPersonDependentTravelDisutilitySupported() {
+		return true;
+	}
+
+	/**
+	 * @return the travel disutilities and times the paths are compared with.
+	 */
+	protected TravelCosts createTravelCosts() {
+		return new HourlyTravelCosts();
+	}
+
+	@Override
+	protected LeastCostPathCalculator getLeastCostPathCalculator(final Network network) {
+		FreespeedTravelTimeAndDisutility travelTimeCostCalculator = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		return createFactory().createPathCalculator(network, travelTimeCostCalculator, travelTimeCostCalculator);
+	}
+
+	public void testCalcLeastCostPath_SameCostAsDijkstra() {
+		Network network = createRandomNetwork();
+		TravelCosts travelCosts = createTravelCosts();
+		LeastCostPathCalculator dijkstra = new Dijkstra(network, travelCosts, travelCosts);
+		LeastCostPathCalculator calculator = createFactory().createPathCalculator(network, travelCosts, travelCosts);
+
+		// departures in several hours, so the routes of different time bins are compared
+		Random random = new Random(42);
+		int routes = 0;
+		for (int i = 0; i < 500; i++) {
+			double departureTime = (6 + random.nextInt(4)) * 3600 + random.nextInt(1800);
+			if (assertSamePath(network, dijkstra, calculator, random, departureTime, null)) {
+				routes++;
+			}
+		}
+		assertTrue("too few routes found", routes > 100);
+	}
+
+	public void testCalcLeastCostPath_DefaultTravelDisutility() {
+		Config config = ConfigUtils.createConfig();
+		com.google.inject.Injector injector = Injector.createInjector(config, new TravelDisutilityModule());
+		TravelDisutilityFactory disutilityFactory = injector.getInstance(Key.get(TravelDisutilityFactory.class, Names.named(TransportMode.car)));
+		TravelTime travelTimes = new FreespeedTravelTimeAndDisutility(config.planCalcScore());
+		TravelDisutility travelCosts = disutilityFactory.createTravelDisutility(travelTimes);
+		Person person = PopulationUtils.getFactory().createPerson(Id.createPersonId(1));
+
+		Network network = createRandomNetwork();
+		LeastCostPathCalculator dijkstra = new Dijkstra(network, travelCosts, travelTimes);
+		LeastCostPathCalculator calculator = createFactory().createPathCalculator(network, travelCosts, travelTimes);
+		Random random = new Random(42);
+		int routes = 0;
+		for (int i = 0; i < 100; i++) {
+			if (assertSamePath(network, dijkstra, calculator, random, 8 * 3600, person)) {
+				routes++;
+			}
+		}
+		assertTrue("too few routes found", routes > 20);
+	}
+
+	public void testCalcLeastCostPath_PersonDependentTravelDisutility() {
+		PlanCalcScoreConfigGroup scoringConfig = new PlanCalcScoreConfigGroup();
+		TravelTime travelTimes = new FreespeedTravelTimeAndDisutility(scoringConfig);
+		TravelDisutility travelCosts = new RandomizingTimeDistanceTravelDisutilityFactory(TransportMode.car, scoringConfig)
+				.setSigma(3.0).createTravelDisutility(travelTimes);
+
+		Network network = NetworkUtils.createNetwork();
+		Node node1 = NetworkUtils.createAndAddNode(network, Id.createNodeId(1), new Coord(0, 0));
+		Node node2 = NetworkUtils.createAndAddNode(network, Id.createNodeId(2), new Coord(1000, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(1), node1, node2, 1000, 10, 1000, 1);
+
+		if (isPersonDependentTravelDisutilitySupported()) {
+			LeastCostPathCalculator calculator = createFactory().createPathCalculator(network, travelCosts, travelTimes);
+			Person person = PopulationUtils.getFactory().createPerson(Id.createPersonId(1));
+			assertNotNull(calculator.calcLeastCostPath(node1, node2, 8 * 3600, person, null));
+		} else {
+			try {
+				createFactory().createPathCalculator(network, travelCosts, travelTimes);
+				fail("expected IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+	}
+
+	public void testCalcLeastCostPath_NodeNotInNetwork() {
+		Network network = NetworkUtils.createNetwork();
+		Node node1 = NetworkUtils.createAndAddNode(network, Id.createNodeId(1), new Coord(0, 0));
+		Node node2 = NetworkUtils.createAndAddNode(network, Id.createNodeId(2), new Coord(1000, 0));
+		NetworkUtils.createAndAddLink(network, Id.createLinkId(1), node1, node2, 1000, 10, 1000, 1);
+		Network otherNetwork = NetworkUtils.createNetwork();
+		Node otherNode = NetworkUtils.createAndAddNode(otherNetwork, Id.createNodeId(2), new Coord(1000, 0));
+
+		TravelCosts travelCosts = createTravelCosts();
+		LeastCostPathCalculator calculator = createFactory().createPathCalculator(network, travelCosts, travelCosts);
+		assertNotNull(calculator.calcLeastCostPath(node1, node2, 0, null, null));
+		assertNull(calculator.calcLeastCostPath(node2, node1, 0, null, null));
+		try {
+			calculator.calcLeastCostPath(node1, otherNode, 0, null, null);
+			fail("expected IllegalArgumentException");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * @return whether there is a path between the two random nodes.
+	 */
+	private static boolean assertSamePath(final Network network, final LeastCostPathCalculator dijkstra, final LeastCostPathCalculator calculator,
+			final Random random, final double departureTime, final Person person) {
+		Node from = network.getNodes().get(Id.createNodeId(random.nextInt(NUMBER_OF_NODES)));
+		Node to = network.getNodes().get(Id.createNodeId(random.nextInt(NUMBER_OF_NODES)));
+		Path expected = dijkstra.calcLeastCostPath(from, to, departureTime, person, null);
+		Path actual = calculator.calcLeastCostPath(from, to, departureTime, person, null);
+		if (expected == null) {
+			assertNull(actual);
+			return false;
+		}
+		assertEquals(expected.travelCost, actual.travelCost, 1e-6);
+		assertEquals(expected.travelTime, actual.travelTime, 1e-6);
+		assertEquals(from, actual.nodes.get(0));
+		assertEquals(to, actual.nodes.get(actual.nodes.size() - 1));
+		for (int l = 0; l < actual.links.size(); l++) {
+			assertEquals(actual.nodes.get(l), actual.links.get(l).getFromNode());
+			assertEquals(actual.nodes.get(l + 1), actual.links.get(l).getToNode());
+		}
+		return true;
+	}
+
+	private static Network createRandomNetwork() {
+		Network network = NetworkUtils.createNetwork();
+		Random random = new Random(4711);
+		Node[] nodes = new Node[NUMBER_OF_NODES];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = NetworkUtils.createAndAddNode(network, Id.createNodeId(i), new Coord(random.nextInt(10000), random.nextInt(10000)));
+		}
+		for (int i = 0; i < 3 * NUMBER_OF_NODES; i++) {
+			Node from = nodes[random.nextInt(nodes.length)];
+			Node to = nodes[random.nextInt(nodes.length)];
+			if (from != to) {
+				NetworkUtils.createAndAddLink(network, Id.createLinkId(i), from, to, 100 + 1000 * random.nextDouble(), 10 + random.nextInt(20), 1000, 1);
+			}
+		}
+		return network;
+	}
+
+	protected interface TravelCosts extends TravelDisutility, TravelTime {
+	}
+
+	/**
+	 * Travel disutilities which change from hour to hour, differently for each link, so the least cost paths depend on
+	 * the hour of the departure.  The travel times are short, so each route stays within the hour of its departure.
+	 */
+	private static class HourlyTravelCosts implements TravelCosts {
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			return link.getLength() / link.getFreespeed() / 10.0;
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			int hour = (int) (time / 3600);
+			return link.getLength() * (1 + Math.floorMod(link.getId().hashCode() + 7 * hour, 4));
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return link.getLength();
+		}
+	}
+
+}
@@ -0,0 +1,43 @@
+package org.matsim.core.router;
+
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+import org.matsim.vehicles.Vehicle;
+
+public class BidirectionalAStarLandmarksTest extends AbstractLeastCostPathCalculatorFactoryTest {
+
+	@Override
+	protected LeastCostPathCalculatorFactory createFactory() {
+		return new BidirectionalAStarLandmarksFactory();
+	}
+
+	@Override
+	protected TravelCosts createTravelCosts() {
+		return new PeakHourTravelTime();
+	}
+
+	/**
+	 * Free speed travel times, up to twice as long around 8 am, so the backward search with the minimum travel
+	 * disutilities does not find the same costs as the forward search.
+	 */
+	private static class PeakHourTravelTime implements TravelCosts {
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			double peakFactor = Math.max(0.0, 1.0 - Math.abs(time - 8 * 3600) / (2 * 3600));
+			return link.getLength() / link.getFreespeed() * (1.0 + peakFactor);
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return getLinkTravelTime(link, time, person, vehicle);
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return link.getLength() / link.getFreespeed();
+		}
+	}
+
+}
@@ -0,0 +1,17 @@
+package org.matsim.core.router;
+
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+
+public class ContractionHierarchiesTest extends AbstractLeastCostPathCalculatorFactoryTest {
+
+	@Override
+	protected LeastCostPathCalculatorFactory createFactory() {
+		return new ContractionHierarchiesFactory(3600, 30 * 3600);
+	}
+
+	@Override
+	protected boolean isPersonDependentTravelDisutilitySupported() {
+		return false;
+	}
+
+}
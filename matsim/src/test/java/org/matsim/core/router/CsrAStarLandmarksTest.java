@@ -0,0 +1,12 @@
+package org.matsim.core.router;
+
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+
+public class CsrAStarLandmarksTest extends AbstractLeastCostPathCalculatorFactoryTest {
+
+	@Override
+	protected LeastCostPathCalculatorFactory createFactory() {
+		return new CsrAStarLandmarksFactory();
+	}
+
+}
@@ -0,0 +1,17 @@
+package org.matsim.core.router;
+
+import org.matsim.core.router.util.LeastCostPathCalculatorFactory;
+
+public class CustomizableRoutePlanningTest extends AbstractLeastCostPathCalculatorFactoryTest {
+
+	@Override
+	protected LeastCostPathCalculatorFactory createFactory() {
+		return new CustomizableRoutePlanningFactory(16, 3600, 30 * 3600, 2);
+	}
+
+	@Override
+	protected boolean isPersonDependentTravelDisutilitySupported() {
+		return false;
+	}
+
+}
@@ -0,0 +1,149 @@
+package org.matsim.core.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Link;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.api.core.v01.population.Person;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.population.PopulationUtils;
+import org.matsim.core.router.util.LeastCostPathCalculator;
+import org.matsim.core.router.util.TravelDisutility;
+import org.matsim.core.router.util.TravelTime;
+import org.matsim.vehicles.Vehicle;
+
+public class NetworkRouteCacheTest {
+
+	@Test
+	public void testPathsAreCachedPerTimeBin() {
+		Network network = NetworkUtils.createNetwork();
+		Node node1 = NetworkUtils.createAndAddNode(network, Id.createNodeId(1), new Coord(0, 0));
+		Node node2 = NetworkUtils.createAndAddNode(network, Id.createNodeId(2), new Coord(1000, 0));
+		Node node3 = NetworkUtils.createAndAddNode(network, Id.createNodeId(3), new Coord(2000, 0));
+
+		NetworkRouteCache cache = new NetworkRouteCache(10, 900, 30 * 3600);
+		CountingCalculator car = new CountingCalculator();
+		CountingCalculator bike = new CountingCalculator();
+		LeastCostPathCalculator carCalculator = cache.wrap("car", car, TRAVEL_COSTS, TRAVEL_COSTS);
+		LeastCostPathCalculator otherCarCalculator = cache.wrap("car", new CountingCalculator(), TRAVEL_COSTS, TRAVEL_COSTS);
+		LeastCostPathCalculator bikeCalculator = cache.wrap("bike", bike, TRAVEL_COSTS, TRAVEL_COSTS);
+
+		LeastCostPathCalculator.Path path = carCalculator.calcLeastCostPath(node1, node2, 7 * 3600, null, null);
+		Assert.assertSame(path.links, carCalculator.calcLeastCostPath(node1, node2, 7 * 3600 + 899, null, null).links);
+		Assert.assertSame("the cache should be shared by all calculators for the mode", path.links,
+				otherCarCalculator.calcLeastCostPath(node1, node2, 7 * 3600 + 10, null, null).links);
+		Assert.assertEquals(1, car.count);
+
+		Assert.assertNotSame(path.links, carCalculator.calcLeastCostPath(node1, node2, 7 * 3600 + 900, null, null).links);
+		Assert.assertNotSame(path.links, carCalculator.calcLeastCostPath(node1, node3, 7 * 3600, null, null).links);
+		Assert.assertNotSame(path.links, bikeCalculator.calcLeastCostPath(node1, node2, 7 * 3600, null, null).links);
+		Assert.assertEquals(3, car.count);
+		Assert.assertEquals(1, bike.count);
+		Assert.assertEquals(2, cache.getHits());
+		Assert.assertEquals(4, cache.getMisses());
+
+		cache.clear();
+		carCalculator.calcLeastCostPath(node1, node2, 7 * 3600, null, null);
+		Assert.assertEquals(4, car.count);
+		Assert.assertEquals(0, cache.getHits());
+		Assert.assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void testCacheSizeIsBounded() {
+		Network network = NetworkUtils.createNetwork();
+		Node node1 = NetworkUtils.createAndAddNode(network, Id.createNodeId(1), new Coord(0, 0));
+		Node node2 = NetworkUtils.createAndAddNode(network, Id.createNodeId(2), new Coord(1000, 0));
+
+		NetworkRouteCache cache = new NetworkRouteCache(2, 900, 30 * 3600);
+		CountingCalculator delegate = new CountingCalculator();
+		LeastCostPathCalculator calculator = cache.wrap("car", delegate, TRAVEL_COSTS, TRAVEL_COSTS);
+		for (int bin = 0; bin < 3; bin++) {
+			calculator.calcLeastCostPath(node1, node2, bin * 900, null, null);
+		}
+		for (int bin = 0; bin < 3; bin++) {
+			calculator.calcLeastCostPath(node1, node2, bin * 900, null, null);
+		}
+		Assert.assertEquals("only the first two paths should have been cached", 4, delegate.count);
+	}
+
+	@Test
+	public void testDisabledCache() {
+		NetworkRouteCache cache = new NetworkRouteCache(0, 900, 30 * 3600);
+		CountingCalculator delegate = new CountingCalculator();
+		Assert.assertFalse(cache.isEnabled());
+		Assert.assertSame(delegate, cache.wrap("car", delegate, TRAVEL_COSTS, TRAVEL_COSTS));
+	}
+
+	@Test
+	public void testTravelTimeAndCostOfEachDeparture() {
+		Network network = NetworkUtils.createNetwork();
+		Node node1 = NetworkUtils.createAndAddNode(network, Id.createNodeId(1), new Coord(0, 0));
+		Node node2 = NetworkUtils.createAndAddNode(network, Id.createNodeId(2), new Coord(1000, 0));
+		Node node3 = NetworkUtils.createAndAddNode(network, Id.createNodeId(3), new Coord(2000, 0));
+		final Link link1 = NetworkUtils.createAndAddLink(network, Id.createLinkId(1), node1, node2, 1000, 10, 1000, 1);
+		final Link link2 = NetworkUtils.createAndAddLink(network, Id.createLinkId(2), node2, node3, 1000, 10, 1000, 1);
+
+		NetworkRouteCache cache = new NetworkRouteCache(10, 900, 30 * 3600);
+		LeastCostPathCalculator delegate = new LeastCostPathCalculator() {
+			@Override
+			public Path calcLeastCostPath(Node fromNode, Node toNode, double starttime, Person person, Vehicle vehicle) {
+				double linkTime = TRAVEL_COSTS.getLinkTravelTime(link1, starttime, person, vehicle);
+				double travelTime = linkTime + TRAVEL_COSTS.getLinkTravelTime(link2, starttime + linkTime, person, vehicle);
+				return new Path(Arrays.asList(fromNode, node2, toNode), Arrays.asList(link1, link2), travelTime, 2 * travelTime);
+			}
+		};
+		LeastCostPathCalculator calculator = cache.wrap("car", delegate, TRAVEL_COSTS, TRAVEL_COSTS);
+		Person person1 = PopulationUtils.getFactory().createPerson(Id.createPersonId(1));
+		Person person2 = PopulationUtils.getFactory().createPerson(Id.createPersonId(2));
+
+		LeastCostPathCalculator.Path first = calculator.calcLeastCostPath(node1, node3, 7 * 3600, person1, null);
+		LeastCostPathCalculator.Path second = calculator.calcLeastCostPath(node1, node3, 7 * 3600 + 600, person2, null);
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertSame(first.links, second.links);
+		Assert.assertEquals(210.0, first.travelTime, 1e-9);
+		Assert.assertEquals("the travel time should be the one of the later departure", 336.0, second.travelTime, 1e-9);
+		Assert.assertEquals(672.0, second.travelCost, 1e-9);
+	}
+
+	/**
+	 * Travel times which grow during the morning, and travel disutilities twice as high.
+	 */
+	private static final TimeDependentTravelCosts TRAVEL_COSTS = new TimeDependentTravelCosts();
+
+	private static class TimeDependentTravelCosts implements TravelDisutility, TravelTime {
+
+		@Override
+		public double getLinkTravelTime(Link link, double time, Person person, Vehicle vehicle) {
+			return link.getLength() / link.getFreespeed() + (time - 7 * 3600) / 10.0;
+		}
+
+		@Override
+		public double getLinkTravelDisutility(Link link, double time, Person person, Vehicle vehicle) {
+			return 2 * getLinkTravelTime(link, time, person, vehicle);
+		}
+
+		@Override
+		public double getLinkMinimumTravelDisutility(Link link) {
+			return 0.0;
+		}
+	}
+
+	private static class CountingCalculator implements LeastCostPathCalculator {
+		int count = 0;
+
+		@Override
+		public Path calcLeastCostPath(Node fromNode, Node toNode, double starttime, Person person, Vehicle vehicle) {
+			this.count++;
+			return new Path(Collections.singletonList(fromNode), new ArrayList<Link>(), 0.0, 0.0);
+		}
+	}
+
+}
@@ -0,0 +1,126 @@
+package org.matsim.core.router.util;
+
+import java.awt.geom.Rectangle2D;
+import java.io.File;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.Id;
+import org.matsim.api.core.v01.network.Network;
+import org.matsim.api.core.v01.network.Node;
+import org.matsim.core.config.groups.PlanCalcScoreConfigGroup;
+import org.matsim.core.network.NetworkUtils;
+import org.matsim.core.router.costcalculators.FreespeedTravelTimeAndDisutility;
+import org.matsim.testcases.MatsimTestUtils;
+
+public class LandmarksCacheTest {
+
+	@Rule
+	public MatsimTestUtils utils = new MatsimTestUtils();
+
+	@Test
+	public void testLandmarksAreLoadedFromCache() {
+		Network network = createGridNetwork(6);
+		TravelDisutility costs = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		LandmarksCache cache = new LandmarksCache(this.utils.getOutputDirectory() + "landmarks");
+		CountingLandmarker landmarker = new CountingLandmarker();
+
+		PreProcessLandmarks computed = new PreProcessLandmarks(costs, landmarker, 4);
+		computed.setCache(cache);
+		computed.run(network);
+		Assert.assertEquals(1, landmarker.count);
+		Assert.assertEquals(1, countCacheFiles());
+
+		PreProcessLandmarks loaded = new PreProcessLandmarks(costs, landmarker, 4);
+		loaded.setCache(cache);
+		loaded.run(network);
+		Assert.assertEquals("landmarks should have been loaded from the cache", 1, landmarker.count);
+		Assert.assertArrayEquals(computed.getLandmarks(), loaded.getLandmarks());
+		for (Node node : network.getNodes().values()) {
+			for (int i = 0; i < 4; i++) {
+				Assert.assertEquals(computed.getNodeData(node).getMinLandmarkTravelTime(i), loaded.getNodeData(node).getMinLandmarkTravelTime(i), 0.0);
+				Assert.assertEquals(computed.getNodeData(node).getMaxLandmarkTravelTime(i), loaded.getNodeData(node).getMaxLandmarkTravelTime(i), 0.0);
+			}
+		}
+
+		// another number of landmarks needs another file
+		PreProcessLandmarks other = new PreProcessLandmarks(costs, landmarker, 2);
+		other.setCache(cache);
+		other.run(network);
+		Assert.assertEquals(2, landmarker.count);
+		Assert.assertEquals(2, countCacheFiles());
+
+		cache.invalidate();
+		Assert.assertEquals(0, countCacheFiles());
+		PreProcessLandmarks recomputed = new PreProcessLandmarks(costs, landmarker, 4);
+		recomputed.setCache(cache);
+		recomputed.run(network);
+		Assert.assertEquals(3, landmarker.count);
+	}
+
+	@Test
+	public void testChangedNetworkIsNotLoadedFromCache() {
+		TravelDisutility costs = new FreespeedTravelTimeAndDisutility(new PlanCalcScoreConfigGroup());
+		LandmarksCache cache = new LandmarksCache(this.utils.getOutputDirectory() + "landmarks");
+		CountingLandmarker landmarker = new CountingLandmarker();
+
+		Network network = createGridNetwork(5);
+		PreProcessLandmarks first = new PreProcessLandmarks(costs, landmarker, 4);
+		first.setCache(cache);
+		first.run(network);
+
+		network.getLinks().values().iterator().next().setFreespeed(1.0);
+		PreProcessLandmarks second = new PreProcessLandmarks(costs, landmarker, 4);
+		second.setCache(cache);
+		second.run(network);
+		Assert.assertEquals(2, landmarker.count);
+		Assert.assertEquals(2, countCacheFiles());
+	}
+
+	private int countCacheFiles() {
+		File[] files = new File(this.utils.getOutputDirectory() + "landmarks").listFiles();
+		return files == null ? 0 : files.length;
+	}
+
+	private static Network createGridNetwork(final int size) {
+		Network network = NetworkUtils.createNetwork();
+		Node[][] nodes = new Node[size][size];
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				nodes[x][y] = NetworkUtils.createAndAddNode(network, Id.createNodeId(x + "_" + y), new Coord(x * 1000, y * 1000));
+			}
+		}
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (x + 1 < size) {
+					NetworkUtils.createAndAddLink(network, Id.createLinkId(x + "_" + y + "e"), nodes[x][y], nodes[x + 1][y], 1000, 10, 1000, 1);
+					NetworkUtils.createAndAddLink(network, Id.createLinkId(x + "_" + y + "w"), nodes[x + 1][y], nodes[x][y], 1000, 10, 1000, 1);
+				}
+				if (y + 1 < size) {
+					NetworkUtils.createAndAddLink(network, Id.createLinkId(x + "_" + y + "n"), nodes[x][y], nodes[x][y + 1], 1000, 20, 1000, 1);
+					NetworkUtils.createAndAddLink(network, Id.createLinkId(x + "_" + y + "s"), nodes[x][y + 1], nodes[x][y], 1000, 20, 1000, 1);
+				}
+			}
+		}
+		return network;
+	}
+
+	private static class CountingLandmarker implements Landmarker {
+		private final Landmarker delegate = new PieSlicesLandmarker(new Rectangle2D.Double());
+		int count = 0;
+
+		@Override
+		public Node[] identifyLandmarks(int nLandmarks, Network network) {
+			this.count++;
+			return this.delegate.identifyLandmarks(nLandmarks, network);
+		}
+
+		@Override
+		public String toString() {
+			return "CountingLandmarker";
+		}
+	}
+
+}
@@ -51,6 +51,7 @@ import org.matsim.core.events.EventsUtils;
 import org.matsim.core.events.MatsimEventsReader;
 import org.matsim.core.network.NetworkUtils;
 import org.matsim.core.network.io.MatsimNetworkReader;
+import org.matsim.core.router.util.TravelTime;
 import org.matsim.core.scenario.MutableScenario;
 import org.matsim.core.scenario.ScenarioUtils;
 import org.matsim.core.utils.io.IOUtils;
@@ -327,6 +328,52 @@ public class TravelTimeCalculatorTest extends MatsimTestCase {
 		assertEquals(linkTravelTime2, ttcalc.getLinkTravelTimes().getLinkTravelTime(link1, firstTimeBinStart + 2.5*timeBinSize, null, null), EPSILON);
 	}
 
+	/**
+	 * Tests that the travel time matrix returns the same travel times as the calculator, and keeps them until it is
+	 * updated again.
+	 */
+	public void testTravelTimeMatrix() {
+		for (String getter : new String[] {"average", "linearinterpolation"}) {
+			Config config = ConfigUtils.createConfig();
+			config.travelTimeCalculator().setTravelTimeGetterType(getter);
+			int timeBinSize = 15*60;
+			config.travelTimeCalculator().setTraveltimeBinSize(timeBinSize);
+			config.travelTimeCalculator().setMaxTime(12*3600);
+
+			Network network = NetworkUtils.createNetwork();
+			final Node node1 = NetworkUtils.createAndAddNode(network, Id.create("1", Node.class), new Coord(0, 0));
+			final Node node2 = NetworkUtils.createAndAddNode(network, Id.create("2", Node.class), new Coord(1000, 0));
+			final Node node3 = NetworkUtils.createAndAddNode(network, Id.create("3", Node.class), new Coord(2000, 0));
+			Link link1 = NetworkUtils.createAndAddLink(network, Id.create("1", Link.class), node1, node2, 1000.0, 100.0, 3600.0, 1.0);
+			Link link2 = NetworkUtils.createAndAddLink(network, Id.create("2", Link.class), node2, node3, 1000.0, 20.0, 3600.0, 1.0);
+			Id<Vehicle> vehId = Id.create("1", Vehicle.class);
+
+			TravelTimeCalculator ttcalc = TravelTimeCalculator.create(network, config.travelTimeCalculator());
+			double firstTimeBinStart = 7.0 * 3600;
+			ttcalc.handleEvent(new LinkEnterEvent(firstTimeBinStart, vehId, link1.getId()));
+			ttcalc.handleEvent(new LinkLeaveEvent(firstTimeBinStart + 50*60, vehId, link1.getId()));
+			ttcalc.handleEvent(new LinkEnterEvent(firstTimeBinStart + 2*timeBinSize, vehId, link1.getId()));
+			ttcalc.handleEvent(new LinkLeaveEvent(firstTimeBinStart + 2*timeBinSize + 40*60, vehId, link1.getId()));
+
+			TravelTime matrix = ttcalc.getTravelTimeMatrix();
+			ttcalc.updateTravelTimeMatrix();
+			for (double time = 0; time < 13*3600; time += 97) {
+				assertEquals(getter + " at " + time, ttcalc.getLinkTravelTime(link1, time), matrix.getLinkTravelTime(link1, time, null, null), EPSILON);
+				assertEquals(getter + " at " + time, ttcalc.getLinkTravelTime(link2, time), matrix.getLinkTravelTime(link2, time, null, null), EPSILON);
+			}
+
+			// new events only show up in the matrix after the next update
+			ttcalc.reset(1);
+			assertEquals(50*60, matrix.getLinkTravelTime(link1, firstTimeBinStart + 0.5*timeBinSize, null, null), EPSILON);
+			ttcalc.updateTravelTimeMatrix();
+			assertEquals(10.0, matrix.getLinkTravelTime(link1, firstTimeBinStart + 0.5*timeBinSize, null, null), EPSILON);
+
+			// links added to the network later are answered by the calculator
+			Link link3 = NetworkUtils.createAndAddLink(network, Id.create("3", Link.class), node3, node1, 2000.0, 20.0, 3600.0, 1.0);
+			assertEquals(100.0, matrix.getLinkTravelTime(link3, firstTimeBinStart, null, null), EPSILON);
+		}
+	}
+
 	/**
 	 * Tests that calculating LinkTravelTimes works also without reading in a complete scenario including population.
 	 *
@@ -579,4 +626,104 @@ public class TravelTimeCalculatorTest extends MatsimTestCase {
 		Assert.assertEquals("Filtering analyzed transport modes is enabled, but no modes set. Therefore, use default (=car)", 100.0, 
 				ttc.getLinkTravelTimes().getLinkTravelTime(link2, 200, null, null), 1e-8);
 	}
+
+	/**
+	 * The calculator sizes its arrays by the number of ids at construction; links and vehicles with ids created later
+	 * must still be counted.
+	 */
+	public void testGetLinkTravelTime_IdsCreatedAfterConstruction() {
+		Network network = NetworkUtils.createNetwork();
+		TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+		config.setTraveltimeBinSize(900);
+		config.setCalculateLinkToLinkTravelTimes(true);
+		TravelTimeCalculator ttc = new TravelTimeCalculator(network, config);
+		int numberOfLinkIds = Id.getNumberOfIds(Link.class);
+		int numberOfVehicleIds = Id.getNumberOfIds(Vehicle.class);
+
+		Node n1 = network.getFactory().createNode(Id.create(1, Node.class), new Coord(0, 0));
+		Node n2 = network.getFactory().createNode(Id.create(2, Node.class), new Coord(1000, 0));
+		Node n3 = network.getFactory().createNode(Id.create(3, Node.class), new Coord(2000, 0));
+		network.addNode(n1);
+		network.addNode(n2);
+		network.addNode(n3);
+		Link link1 = createLink(network, "late" + numberOfLinkIds, n1, n2);
+		Link link2 = createLink(network, "late" + (numberOfLinkIds + 1), n2, n3);
+		Id<Vehicle> vehId1 = Id.create("late" + numberOfVehicleIds, Vehicle.class);
+		Id<Vehicle> vehId2 = Id.create("late" + (numberOfVehicleIds + 1), Vehicle.class);
+		assertTrue(link1.getId().index() >= numberOfLinkIds);
+		assertTrue(vehId1.index() >= numberOfVehicleIds);
+
+		ttc.handleEvent(new LinkEnterEvent(100, vehId1, link1.getId()));
+		ttc.handleEvent(new LinkEnterEvent(150, vehId2, link1.getId()));
+		ttc.handleEvent(new LinkLeaveEvent(200, vehId1, link1.getId()));
+		ttc.handleEvent(new LinkEnterEvent(200, vehId1, link2.getId()));
+		ttc.handleEvent(new LinkLeaveEvent(300, vehId2, link1.getId()));
+		ttc.handleEvent(new LinkEnterEvent(300, vehId2, link2.getId()));
+		ttc.handleEvent(new LinkLeaveEvent(350, vehId1, link2.getId()));
+		ttc.handleEvent(new LinkLeaveEvent(500, vehId2, link2.getId()));
+
+		TravelTime travelTimes = ttc.getLinkTravelTimes();
+		assertEquals(125.0, travelTimes.getLinkTravelTime(link1, 200, null, null), 1e-8);
+		assertEquals(175.0, travelTimes.getLinkTravelTime(link2, 200, null, null), 1e-8);
+		assertEquals(125.0, ttc.getLinkToLinkTravelTime(link1.getId(), link2.getId(), 200), 1e-8);
+	}
+
+	public void testGetLinkToLinkTravelTime_SeveralTurnsAfterReset() {
+		Network network = NetworkUtils.createNetwork();
+		TravelTimeCalculatorConfigGroup config = new TravelTimeCalculatorConfigGroup();
+		config.setTraveltimeBinSize(900);
+		config.setCalculateLinkToLinkTravelTimes(true);
+
+		Node n1 = network.getFactory().createNode(Id.create(1, Node.class), new Coord(0, 0));
+		Node n2 = network.getFactory().createNode(Id.create(2, Node.class), new Coord(1000, 0));
+		Node n3 = network.getFactory().createNode(Id.create(3, Node.class), new Coord(2000, 0));
+		Node n4 = network.getFactory().createNode(Id.create(4, Node.class), new Coord(1000, 1000));
+		Node n5 = network.getFactory().createNode(Id.create(5, Node.class), new Coord(1000, -1000));
+		network.addNode(n1);
+		network.addNode(n2);
+		network.addNode(n3);
+		network.addNode(n4);
+		network.addNode(n5);
+		Link link1 = createLink(network, "1", n1, n2);
+		Link link2 = createLink(network, "2", n2, n3);
+		Link link3 = createLink(network, "3", n2, n4);
+		Link link4 = createLink(network, "4", n2, n5);
+		TravelTimeCalculator ttc = new TravelTimeCalculator(network, config);
+
+		Id<Vehicle> vehId1 = Id.create(1, Vehicle.class);
+		Id<Vehicle> vehId2 = Id.create(2, Vehicle.class);
+		Id<Vehicle> vehId3 = Id.create(3, Vehicle.class);
+
+		// three turns from link 1
+		ttc.handleEvent(new LinkEnterEvent(0, vehId1, link1.getId()));
+		ttc.handleEvent(new LinkEnterEvent(10, vehId2, link1.getId()));
+		ttc.handleEvent(new LinkEnterEvent(20, vehId3, link1.getId()));
+		ttc.handleEvent(new LinkEnterEvent(200, vehId1, link2.getId()));
+		ttc.handleEvent(new LinkEnterEvent(310, vehId2, link3.getId()));
+		ttc.handleEvent(new LinkEnterEvent(420, vehId3, link4.getId()));
+		assertEquals(200.0, ttc.getLinkToLinkTravelTime(link1.getId(), link2.getId(), 0), 1e-8);
+		assertEquals(300.0, ttc.getLinkToLinkTravelTime(link1.getId(), link3.getId(), 0), 1e-8);
+		assertEquals(400.0, ttc.getLinkToLinkTravelTime(link1.getId(), link4.getId(), 0), 1e-8);
+
+		ttc.reset(1);
+
+		// the vehicles are not on links 2 to 4 anymore, so these are no turns from there
+		ttc.handleEvent(new LinkEnterEvent(0, vehId1, link1.getId()));
+		ttc.handleEvent(new LinkEnterEvent(10, vehId2, link1.getId()));
+		ttc.handleEvent(new LinkEnterEvent(150, vehId1, link3.getId()));
+		ttc.handleEvent(new LinkEnterEvent(260, vehId2, link4.getId()));
+		// no turn to link 2 in this iteration, so its free speed travel time
+		assertEquals(100.0, ttc.getLinkToLinkTravelTime(link1.getId(), link2.getId(), 0), 1e-8);
+		assertEquals(150.0, ttc.getLinkToLinkTravelTime(link1.getId(), link3.getId(), 0), 1e-8);
+		assertEquals(250.0, ttc.getLinkToLinkTravelTime(link1.getId(), link4.getId(), 0), 1e-8);
+		assertEquals(100.0, ttc.getLinkToLinkTravelTime(link2.getId(), link1.getId(), 0), 1e-8);
+	}
+
+	private static Link createLink(final Network network, final String id, final Node from, final Node to) {
+		Link link = network.getFactory().createLink(Id.create(id, Link.class), from, to);
+		link.setLength(1000.0);
+		link.setFreespeed(10.0);
+		network.addLink(link);
+		return link;
+	}
 }
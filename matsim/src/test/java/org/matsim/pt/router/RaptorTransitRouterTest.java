@@ -0,0 +1,72 @@
+package org.matsim.pt.router;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.matsim.api.core.v01.Coord;
+import org.matsim.api.core.v01.TransportMode;
+import org.matsim.api.core.v01.population.Leg;
+import org.matsim.testcases.MatsimTestCase;
+
+public class RaptorTransitRouterTest {
+
+	@Test
+	public void testProfileSingleLine() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		FakeFacility fromFacility = new FakeFacility(new Coord(3800, 5100));
+		FakeFacility toFacility = new FakeFacility(new Coord(16100, 5050));
+
+		List<TransitJourney> journeys = router.calcProfile(fromFacility, toFacility, 5.0 * 3600, 7.0 * 3600, null);
+		// the blue line leaves every 20 minutes, starting at 5:06
+		Assert.assertEquals(6, journeys.size());
+		TransitJourney previous = null;
+		for (TransitJourney journey : journeys) {
+			Assert.assertTrue(journey.getDepartureTime() >= 5.0 * 3600);
+			Assert.assertTrue(journey.getDepartureTime() <= 7.0 * 3600);
+			if (previous != null) {
+				Assert.assertEquals(20.0 * 60, journey.getDepartureTime() - previous.getDepartureTime(), MatsimTestCase.EPSILON);
+				Assert.assertEquals(20.0 * 60, journey.getArrivalTime() - previous.getArrivalTime(), MatsimTestCase.EPSILON);
+			}
+			Assert.assertEquals(3, journey.getLegs().size());
+			Assert.assertEquals(TransportMode.pt, journey.getLegs().get(1).getMode());
+			Assert.assertEquals(journey.getArrivalTime() - journey.getDepartureTime(), getTravelTime(journey.getLegs()), MatsimTestCase.EPSILON);
+
+			List<Leg> legs = router.calcRoute(fromFacility, toFacility, journey.getDepartureTime(), null);
+			Assert.assertEquals(journey.getArrivalTime() - journey.getDepartureTime(), getTravelTime(legs), MatsimTestCase.EPSILON);
+			previous = journey;
+		}
+	}
+
+	@Test
+	public void testProfileKeepsOnlyFasterJourneys() {
+		Fixture f = new Fixture();
+		f.init();
+		TransitRouterConfig trConfig = new TransitRouterConfig(f.scenario.getConfig());
+		RaptorTransitRouter router = new RaptorTransitRouter(trConfig, f.schedule);
+		FakeFacility fromFacility = new FakeFacility(new Coord(3800, 5100));
+		FakeFacility toFacility = new FakeFacility(new Coord(16100, 5050));
+
+		List<TransitJourney> journeys = router.calcProfile(fromFacility, toFacility, 0.0, 30.0 * 3600, null);
+		Assert.assertFalse(journeys.isEmpty());
+		for (int i = 1; i < journeys.size(); i++) {
+			Assert.assertTrue(journeys.get(i).getDepartureTime() > journeys.get(i - 1).getDepartureTime());
+			Assert.assertTrue(journeys.get(i).getArrivalTime() > journeys.get(i - 1).getArrivalTime());
+		}
+
+		Assert.assertTrue("there is no departure in the window",
+				router.calcProfile(fromFacility, toFacility, 3.0 * 3600, 4.0 * 3600, null).isEmpty());
+	}
+
+	private static double getTravelTime(final List<Leg> legs) {
+		double travelTime = 0.0;
+		for (Leg leg : legs) {
+			travelTime += leg.getTravelTime();
+		}
+		return travelTime;
+	}
+
+}
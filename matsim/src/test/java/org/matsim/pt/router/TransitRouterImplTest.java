@@ -28,6 +28,7 @@ import java.util.Collection;
 import java.util.List;
 import org.apache.log4j.Logger;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -77,8 +78,8 @@ public class TransitRouterImplTest {
 	@Parameters(name = "{index}: TransitRouter == {0}")
 	public static Collection<Object> createRouterTypes() {
 		Object[] router = new Object [] { 
-				"standard"
-//				,TransitRouterType.raptor
+				"standard",
+				"raptor"
 		};
 		return Arrays.asList(router);
 	}
@@ -119,17 +120,12 @@ public class TransitRouterImplTest {
 	protected TransitRouter createTransitRouter(TransitSchedule schedule, TransitRouterConfig trConfig, String routerType) {
 		TransitRouter router = null ;
 		switch( routerType ) { 
-//		case raptor:
-//			double costPerMeterTraveled = 0. ;
-//			double costPerBoarding = 0. ;
-//			RaptorDisutility raptorDisutility = new RaptorDisutility(trConfig, costPerBoarding, costPerMeterTraveled);
-//			TransitRouterQuadTree transitRouterQuadTree = new TransitRouterQuadTree(raptorDisutility);
-//			transitRouterQuadTree.initializeFromSchedule(schedule, trConfig.getBeelineWalkConnectionDistance());
-//			router = new Raptor(transitRouterQuadTree, raptorDisutility, trConfig) ;
-//			break;
 		case "standard":
 			router = new TransitRouterImpl(trConfig, schedule);
 			break;
+		case "raptor":
+			router = new RaptorTransitRouter(trConfig, schedule);
+			break;
 		default:
 			break;
 		}
@@ -587,6 +583,26 @@ public class TransitRouterImplTest {
 			Assert.assertEquals(50000, tripDuration, 1.0);
 		}
 	}
+
+	/**
+	 * Tests that a minimal transfer time of the schedule is respected like a longer additional transfer time, see
+	 * {@link #testLongTransferTime()}.  Only the raptor router considers minimal transfer times.
+	 */
+	@Test
+	public void testMinimalTransferTime() {
+		Assume.assumeTrue("raptor".equals(routerType));
+		TransferFixture f = new TransferFixture(0.0);
+		f.schedule.getMinimalTransferTimes().set(f.stop1.getId(), f.stop2.getId(), 65 * 60.0);
+		TransitRouter router = createTransitRouter(f.schedule, f.routerConfig, routerType);
+		List<Leg> legs = router.calcRoute(new FakeFacility(f.fromFacility.getCoord()), new FakeFacility(f.toFacility.getCoord()), 7.0*3600 + 50*60, null);
+		Assert.assertEquals(5, legs.size());
+		Assert.assertEquals(100, legs.get(0).getTravelTime(), 0.0);	// arrival at 07:51:40
+		Assert.assertEquals(800, legs.get(1).getTravelTime(), 0.0);	// arrival at 08:05:00
+		Assert.assertEquals(4, legs.get(2).getTravelTime(), 0.0);	// the walk only; arrival at 08:05:04
+		Assert.assertEquals(4496, legs.get(3).getTravelTime(), 0.0);	// the 09:15 departure, as the 08:15 one is within the minimal transfer time; arrival at 09:20:00
+		Assert.assertEquals(100, legs.get(4).getTravelTime(), 0.0);
+		Assert.assertEquals(5500.0, calcTripDuration(new ArrayList<PlanElement>(legs)), 0.0);
+	}
 	
 	private static double calcTripDuration(List<PlanElement> planElements) {
 		double duration = 0.0;